@@ -0,0 +1,73 @@
+package com.duran_jimenez.baddopocream.benchmarks;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Comprueba que el tick de simulación no asigna memoria: ejecuta
+ * LevelTickBenchmark.tick con el perfilador de GC y termina con código 1 si
+ * gc.alloc.rate.norm supera MAX_BYTES_PER_TICK en alguna combinación.
+ *
+ * El valor se redondea a bytes enteros: gc.alloc.rate.norm arrastra el ruido
+ * del propio JMH (milésimas de byte por operación), y un objeto asignado
+ * aunque sea una vez cada pocos ticks ya suma al menos medio byte por tick.
+ *
+ * Uso: mvn exec:java (desde demo/benchmarks)
+ *
+ * @author Durán-Jiménez
+ */
+public final class AllocationCheck {
+
+    /** Bytes por tick tolerados */
+    public static final long MAX_BYTES_PER_TICK = 0;
+
+    private static final String ALLOC_RATE_NORM = "gc.alloc.rate.norm";
+
+    private AllocationCheck() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(LevelTickBenchmark.class.getSimpleName() + ".tick")
+            .addProfiler(GCProfiler.class)
+            .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        boolean failed = false;
+        for (RunResult result : results) {
+            long bytesPerTick = Math.round(allocationPerOp(result));
+            String params = "mapSize=" + result.getParams().getParam("mapSize")
+                + " enemies=" + result.getParams().getParam("enemies");
+            if (bytesPerTick > MAX_BYTES_PER_TICK) {
+                System.err.printf("FALLO %s: %d B/tick (máximo %d)%n", params, bytesPerTick, MAX_BYTES_PER_TICK);
+                failed = true;
+            } else {
+                System.out.printf("OK %s: %d B/tick%n", params, bytesPerTick);
+            }
+        }
+        if (results.isEmpty() || failed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Lee la asignación normalizada por operación. Según la versión de JMH la
+     * etiqueta lleva o no el prefijo "·", así que se busca por sufijo.
+     */
+    private static double allocationPerOp(RunResult result) {
+        for (Map.Entry<String, Result> entry : result.getSecondaryResults().entrySet()) {
+            if (entry.getKey().endsWith(ALLOC_RATE_NORM)) {
+                return entry.getValue().getScore();
+            }
+        }
+        throw new IllegalStateException("El perfilador de GC no reportó " + ALLOC_RATE_NORM);
+    }
+}
@@ -0,0 +1,80 @@
+package com.duran_jimenez.baddopocream.benchmarks;
+
+import com.duran_jimenez.baddopocream.domain.GameLoop;
+import com.duran_jimenez.baddopocream.domain.IceCream;
+import com.duran_jimenez.baddopocream.domain.Level;
+import com.duran_jimenez.baddopocream.domain.LevelBuilder;
+import com.duran_jimenez.baddopocream.domain.Location;
+import com.duran_jimenez.baddopocream.domain.TickClock;
+
+/**
+ * Niveles de prueba para los benchmarks, parametrizados por tamaño y entidades.
+ * El mapa es cuadrado, con muros perimetrales y un 10% de celdas de hielo; los
+ * enemigos se reparten entre los cuatro tipos y el jugador empieza en (1, 1).
+ *
+ * @author Durán-Jiménez
+ */
+final class BenchmarkLevels {
+
+    /** Posición inicial del jugador */
+    static final Location SPAWN = Location.of(1, 1);
+
+    /** Duración de un tick de simulación (la de GameLoop) */
+    static final long TICK_MILLIS = GameLoop.DEFAULT_TICK_MILLIS;
+
+    private BenchmarkLevels() {
+    }
+
+    /**
+     * Construye un nivel mapSize x mapSize con el reloj del nivel en un TickClock,
+     * para que los temporizadores avancen solo con los ticks del benchmark. Con
+     * la misma semilla sale el mismo nivel, así las corridas son comparables.
+     */
+    static Level create(int mapSize, int enemies, int fruits, long seed, TickClock clock) {
+        int perType = enemies / 4;
+        Level level = LevelBuilder.createCustomLevel(1)
+            .setSeed(seed)
+            .setDimensions(mapSize, mapSize)
+            .setPlayer1(newPlayer())
+            .addBananas(fruits - fruits / 2)
+            .addCherries(fruits / 2)
+            .addIceWalls(mapSize * mapSize / 10)
+            .addMacetas(enemies - 3 * perType)
+            .addTrolls(perType)
+            .addCalamares(perType)
+            .addNarvales(perType)
+            .build();
+        level.setClock(clock);
+        return level;
+    }
+
+    /**
+     * Jugador nuevo en la posición inicial
+     */
+    static IceCream newPlayer() {
+        return new IceCream("bench", "vanilla", SPAWN);
+    }
+
+    /**
+     * Revive al jugador si murió y lo lleva a una esquina libre de enemigos,
+     * para que la partida medida no termine. No asigna memoria.
+     */
+    static void keepPlayerAlive(Level level) {
+        IceCream player = level.getPlayer();
+        if (player.isAlive()) return;
+        int far = level.getMap().getWidth() - 2;
+        if (!moveToFreeCell(level, player, 1, 1) && !moveToFreeCell(level, player, far, far)
+                && !moveToFreeCell(level, player, far, 1)) {
+            moveToFreeCell(level, player, 1, far);
+        }
+        player.revive();
+    }
+
+    private static boolean moveToFreeCell(Level level, IceCream player, int x, int y) {
+        if (!level.getMap().isValidPosition(x, y) || level.getEnemyOccupancy().isOccupied(x, y)) {
+            return false;
+        }
+        player.setLocation(Location.of(x, y));
+        return true;
+    }
+}
@@ -0,0 +1,76 @@
+package com.duran_jimenez.baddopocream.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.duran_jimenez.baddopocream.domain.BadDopoCream;
+import com.duran_jimenez.baddopocream.domain.BadDopoCream_Exceptions;
+import com.duran_jimenez.baddopocream.domain.GameState;
+import com.duran_jimenez.baddopocream.domain.TickClock;
+
+/**
+ * Guardado y carga de partida con GameState, contra el directorio saves/
+ * del directorio de trabajo (incluye la E/S de disco).
+ *
+ * @author Durán-Jiménez
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameStateBenchmark {
+
+    private static final String SAVE_NAME = "benchmark_gamestate";
+
+    @Param({"31"})
+    public int mapSize;
+
+    @Param({"4", "16", "64"})
+    public int enemies;
+
+    /** Semilla de LevelBuilder: mismo nivel en cada corrida */
+    @Param({"42"})
+    public long seed;
+
+    private BadDopoCream game;
+
+    @Setup
+    public void setUp() throws BadDopoCream_Exceptions {
+        TickClock clock = new TickClock();
+        game = new BadDopoCream();
+        game.setClock(clock);
+        game.addLevel(BenchmarkLevels.create(mapSize, enemies, enemies, seed, clock));
+        game.startGame();
+        // La carga necesita un archivo desde la primera invocación
+        GameState.saveGame(game, "vanilla", "Single-Player", SAVE_NAME);
+    }
+
+    @TearDown
+    public void tearDown() {
+        GameState.deleteSave(SAVE_NAME);
+    }
+
+    @Benchmark
+    public boolean save() throws BadDopoCream_Exceptions {
+        return GameState.saveGame(game, "vanilla", "Single-Player", SAVE_NAME);
+    }
+
+    @Benchmark
+    public GameState load() throws BadDopoCream_Exceptions {
+        return GameState.loadGame(SAVE_NAME);
+    }
+}
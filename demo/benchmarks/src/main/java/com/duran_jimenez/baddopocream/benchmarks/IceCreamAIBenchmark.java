@@ -0,0 +1,61 @@
+package com.duran_jimenez.baddopocream.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.duran_jimenez.baddopocream.domain.IceCreamAI;
+import com.duran_jimenez.baddopocream.domain.Level;
+import com.duran_jimenez.baddopocream.domain.TickClock;
+
+/**
+ * Decisión de un helado controlado por IA en cada perfil, sobre un nivel fijo
+ * (solo se mide decideMove; el nivel no avanza entre llamadas).
+ *
+ * @author Durán-Jiménez
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IceCreamAIBenchmark {
+
+    @Param({"HUNGRY", "FEARFUL", "EXPERT"})
+    public IceCreamAI.AIProfile profile;
+
+    @Param({"15", "31", "63"})
+    public int mapSize;
+
+    @Param({"4", "16", "64"})
+    public int enemies;
+
+    /** Semilla de LevelBuilder: mismo nivel en cada corrida */
+    @Param({"42"})
+    public long seed;
+
+    private Level level;
+    private IceCreamAI ai;
+
+    @Setup
+    public void setUp() {
+        level = BenchmarkLevels.create(mapSize, enemies, enemies, seed, new TickClock());
+        ai = new IceCreamAI(profile);
+    }
+
+    @Benchmark
+    public int[] decideMove() {
+        return ai.decideMove(level, level.getPlayer());
+    }
+}
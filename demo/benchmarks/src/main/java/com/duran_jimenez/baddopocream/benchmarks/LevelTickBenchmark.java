@@ -0,0 +1,90 @@
+package com.duran_jimenez.baddopocream.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.duran_jimenez.baddopocream.domain.Level;
+import com.duran_jimenez.baddopocream.domain.TickClock;
+
+/**
+ * Coste de un tick de simulación y de sus partes (enemigos y jugador).
+ *
+ * El nivel se construye una sola vez por corrida, fuera de las iteraciones,
+ * para que su construcción no cuente en gc.alloc.rate.norm; si el jugador
+ * muere se revive para que la partida no termine. Con -prof gc, tick debe dar
+ * 0 B/op (ver AllocationCheck).
+ *
+ * @author Durán-Jiménez
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LevelTickBenchmark {
+
+    @Param({"15", "31", "63"})
+    public int mapSize;
+
+    @Param({"4", "16", "64"})
+    public int enemies;
+
+    /** Semilla de LevelBuilder: mismo nivel en cada corrida */
+    @Param({"42"})
+    public long seed;
+
+    private Level level;
+    private TickClock clock;
+    private int step;
+
+    @Setup
+    public void setUp() {
+        clock = new TickClock();
+        level = BenchmarkLevels.create(mapSize, enemies, enemies, seed, clock);
+        step = 0;
+    }
+
+    /**
+     * Tick completo como en GameLoop: temporizadores, enemigos, frutas y jugador
+     */
+    @Benchmark
+    public boolean tick() {
+        BenchmarkLevels.keepPlayerAlive(level);
+        clock.advance(BenchmarkLevels.TICK_MILLIS);
+        level.updateTimers();
+        level.moveEnemies();
+        level.moveFruits();
+        return level.movePlayer(nextDirection(), 0);
+    }
+
+    @Benchmark
+    public void moveEnemies() {
+        BenchmarkLevels.keepPlayerAlive(level);
+        level.moveEnemies();
+    }
+
+    @Benchmark
+    public boolean movePlayer() {
+        BenchmarkLevels.keepPlayerAlive(level);
+        return level.movePlayer(nextDirection(), 0);
+    }
+
+    /**
+     * Alterna dos pasos a la derecha y dos a la izquierda
+     */
+    private int nextDirection() {
+        return (step++ & 2) == 0 ? 1 : -1;
+    }
+}
@@ -0,0 +1,92 @@
+package com.duran_jimenez.baddopocream.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.duran_jimenez.baddopocream.domain.Enemy;
+import com.duran_jimenez.baddopocream.domain.Level;
+import com.duran_jimenez.baddopocream.domain.Location;
+import com.duran_jimenez.baddopocream.domain.Map;
+import com.duran_jimenez.baddopocream.domain.PathFinder;
+import com.duran_jimenez.baddopocream.domain.TickClock;
+
+/**
+ * A* de esquina a esquina evitando a los enemigos, con y sin romper hielo.
+ *
+ * Las variantes *Cold vacían la caché de caminos antes de cada búsqueda y miden
+ * el A* completo; las *Cached repiten la misma consulta sobre el mismo mapa.
+ *
+ * @author Durán-Jiménez
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PathFinderBenchmark {
+
+    @Param({"15", "31", "63"})
+    public int mapSize;
+
+    @Param({"4", "16", "64"})
+    public int enemies;
+
+    /** Semilla de LevelBuilder: mismo nivel en cada corrida */
+    @Param({"42"})
+    public long seed;
+
+    private Level level;
+    private Map map;
+    private Location start;
+    private Location goal;
+    private List<Location> avoid;
+
+    @Setup
+    public void setUp() {
+        level = BenchmarkLevels.create(mapSize, enemies, 4, seed, new TickClock());
+        map = level.getMap();
+        start = BenchmarkLevels.SPAWN;
+        goal = Location.of(mapSize - 2, mapSize - 2);
+        map.removeIceWall(goal);
+        avoid = new ArrayList<>();
+        for (Enemy enemy : level.getEnemies()) {
+            avoid.add(enemy.getLocation());
+        }
+    }
+
+    @Benchmark
+    public List<int[]> findPathCold() {
+        PathFinder.clearCache();
+        return PathFinder.findPath(start, goal, map, avoid);
+    }
+
+    @Benchmark
+    public List<int[]> findPathCached() {
+        return PathFinder.findPath(start, goal, map, avoid);
+    }
+
+    @Benchmark
+    public List<int[]> findPathWithIceBreakingCold() {
+        PathFinder.clearCache();
+        return PathFinder.findPathWithIceBreaking(start, goal, map, level, avoid);
+    }
+
+    @Benchmark
+    public List<int[]> findPathWithIceBreakingCached() {
+        return PathFinder.findPathWithIceBreaking(start, goal, map, level, avoid);
+    }
+}
@@ -0,0 +1,62 @@
+package com.duran_jimenez.baddopocream.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.duran_jimenez.baddopocream.domain.BadDopoCream_Exceptions;
+import com.duran_jimenez.baddopocream.domain.GameLoop;
+import com.duran_jimenez.baddopocream.domain.GameResult;
+import com.duran_jimenez.baddopocream.domain.IceCreamAI;
+import com.duran_jimenez.baddopocream.domain.Replay;
+import com.duran_jimenez.baddopocream.domain.ReplayPlayer;
+import com.duran_jimenez.baddopocream.domain.SelfPlaySimulator;
+
+/**
+ * Partida completa re-simulada con ReplayPlayer (nivel, IA y acciones reales).
+ * Con replay vacío graba una partida de la IA con semilla fija; si no, carga
+ * la repetición indicada (nombre en replays/ o ruta).
+ *
+ * @author Durán-Jiménez
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReplayBenchmark {
+
+    private static final long SEED = 42L;
+
+    @Param({"1", "3", "5"})
+    public int level;
+
+    @Param({""})
+    public String replay;
+
+    private Replay recorded;
+
+    @Setup
+    public void setUp() throws BadDopoCream_Exceptions {
+        recorded = replay.isEmpty()
+            ? new SelfPlaySimulator(level, IceCreamAI.AIProfile.EXPERT, GameLoop.DEFAULT_TICK_MILLIS, SEED)
+                .recordGame(SEED)
+            : Replay.load(replay);
+    }
+
+    @Benchmark
+    public GameResult play() {
+        return ReplayPlayer.play(recorded);
+    }
+}
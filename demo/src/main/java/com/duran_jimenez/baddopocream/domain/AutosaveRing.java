@@ -0,0 +1,265 @@
+package com.duran_jimenez.baddopocream.domain;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Autoguardado periódico en un anillo fijo de ranuras (saves/autosave/).
+ *
+ * Cada intervalo de tiempo de juego (el reloj del nivel, que no corre en
+ * pausa) se escribe la ranura siguiente del anillo. Algunas ranuras son
+ * fotogramas clave con el nivel completo (LevelFrame); las demás solo
+ * guardan lo que cambió desde el último clave: puntajes, jugadores, palabras
+ * de hielo y registros de entidades distintos. Así lo que se escribe en disco
+ * crece con lo que cambió, no con el tamaño del mapa. La captura en el hilo
+ * del juego sí es completa (Level.captureFrame: O(entidades + celdas / 64)),
+ * pero se hace una vez por intervalo, no en cada tick.
+ *
+ * Hay un clave cada slots / 2 autoguardados: la ranura más reciente siempre
+ * tiene su clave en el anillo, y si está dañada se usa la anterior.
+ * La escritura va por el hilo de SaveService y es atómica.
+ *
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+class AutosaveRing {
+
+    static final File DEFAULT_DIRECTORY = new File("saves", "autosave");
+    static final long DEFAULT_INTERVAL_MILLIS = 30000;
+    static final int DEFAULT_SLOTS = 8;
+
+    private static final String EXTENSION = ".bdcauto";
+    private static final int MAGIC = 0x42444341; // "BDCA"
+    private static final int VERSION = 1;
+    private static final int KIND_KEYFRAME = 0;
+    private static final int KIND_DELTA = 1;
+
+    private final File directory;
+    private final int slots;
+    private final int keyframeInterval;
+    private final long intervalMillis;
+    private final String playerColor;
+    private final String gameMode;
+    private final SaveService service;
+
+    private long sequence; // Número del próximo autoguardado (crece entre partidas)
+    private Level level; // Nivel del fotograma clave actual
+    private LevelFrame keyframe;
+    private long keyframeSequence;
+    private long nextAutosave;
+
+    AutosaveRing(File directory, int slots, long intervalMillis, String playerColor, String gameMode,
+                 SaveService service){
+        if(slots < 2){
+            throw new IllegalArgumentException("El autoguardado necesita al menos 2 ranuras: " + slots);
+        }
+        if(intervalMillis <= 0){
+            throw new IllegalArgumentException("El intervalo de autoguardado debe ser positivo: " + intervalMillis);
+        }
+        this.directory = directory;
+        this.slots = slots;
+        this.keyframeInterval = slots / 2;
+        this.intervalMillis = intervalMillis;
+        this.playerColor = playerColor;
+        this.gameMode = gameMode;
+        this.service = service;
+        this.sequence = 0;
+        for(SlotHeader header : readHeaders(directory)){
+            sequence = Math.max(sequence, header.sequence + 1);
+        }
+    }
+
+    /**
+     * Autoguarda si ya pasó el intervalo desde el último autoguardado del nivel en curso
+     * @return Futuro de la escritura, o null si no tocaba
+     */
+    CompletableFuture<Void> update(BadDopoCream game){
+        Level current = game.getCurrentLevel();
+        if(current == null){
+            return null;
+        }
+        long now = current.getClock().now();
+        if(current != level){
+            // Nivel nuevo: el primer autoguardado será un fotograma clave
+            level = current;
+            keyframe = null;
+            nextAutosave = now + intervalMillis;
+            return null;
+        }
+        if(now < nextAutosave){
+            return null;
+        }
+        nextAutosave = now + intervalMillis;
+        return autosave(game);
+    }
+
+    /**
+     * Toma el estado en el hilo actual y encola su escritura en la ranura siguiente
+     */
+    CompletableFuture<Void> autosave(BadDopoCream game){
+        GameState state = GameState.capture(game, playerColor, gameMode, false);
+        if(state == null){
+            return CompletableFuture.completedFuture(null);
+        }
+        Level current = game.getCurrentLevel();
+        LevelFrame frame = current.captureFrame();
+        long number = sequence++;
+        LevelFrame base = null;
+        if(current == level && keyframe != null && number - keyframeSequence < keyframeInterval
+                && frame.isDeltaOf(keyframe)){
+            base = keyframe;
+        } else {
+            level = current;
+            keyframe = frame;
+            keyframeSequence = number;
+        }
+        LevelFrame deltaBase = base;
+        long baseSequence = keyframeSequence;
+        File file = new File(directory, "slot_" + (number % slots) + EXTENSION);
+        return service.submit("autosave/" + file.getName(), () -> {
+            try {
+                directory.mkdirs();
+                SaveService.writeAtomically(file, out -> writeSlot(new DataOutputStream(out), number,
+                    baseSequence, state, frame, deltaBase));
+            } catch (IOException e) {
+                throw new BadDopoCream_Exceptions(BadDopoCream_Exceptions.SAVE_GAME_ERROR + " (autoguardado)", e);
+            }
+        });
+    }
+
+    private static void writeSlot(DataOutputStream out, long number, long keyframeNumber, GameState state,
+                                  LevelFrame frame, LevelFrame keyframe) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(number);
+        out.writeLong(keyframeNumber);
+        out.writeByte(keyframe == null ? KIND_KEYFRAME : KIND_DELTA);
+        ByteArrayOutputStream stateBytes = new ByteArrayOutputStream(128);
+        state.write(stateBytes);
+        BinaryCodec.writeVarLong(out, stateBytes.size());
+        stateBytes.writeTo(out);
+        if(keyframe == null){
+            frame.write(out);
+        } else {
+            frame.writeDelta(out, keyframe);
+        }
+        out.flush();
+    }
+
+    // ==================== CARGA ====================
+
+    /**
+     * Carga el autoguardado más reciente que se pueda reconstruir
+     * @return El estado con la instantánea del nivel, o null si no hay ninguno válido
+     */
+    static GameState loadLatest(File directory){
+        List<SlotHeader> headers = readHeaders(directory);
+        HashMap<Long, SlotHeader> bySequence = new HashMap<>();
+        for(SlotHeader header : headers){
+            bySequence.put(header.sequence, header);
+        }
+        headers.sort((a, b) -> Long.compare(b.sequence, a.sequence));
+        for(SlotHeader header : headers){
+            try {
+                Slot slot = readSlot(header.file);
+                LevelFrame frame;
+                if(slot.kind == KIND_KEYFRAME){
+                    frame = LevelFrame.read(slot.body);
+                } else {
+                    SlotHeader keyHeader = bySequence.get(slot.keyframeSequence);
+                    if(keyHeader == null){
+                        continue; // Su fotograma clave ya se sobrescribió
+                    }
+                    Slot key = readSlot(keyHeader.file);
+                    if(key.kind != KIND_KEYFRAME){
+                        continue;
+                    }
+                    frame = LevelFrame.readDelta(slot.body, LevelFrame.read(key.body));
+                }
+                slot.state.setLevelSnapshot(frame.toSnapshot());
+                return slot.state;
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                System.err.println(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE + " '" + header.file.getName() + "'");
+            }
+        }
+        return null;
+    }
+
+    private static List<SlotHeader> readHeaders(File directory){
+        List<SlotHeader> headers = new ArrayList<>();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if(files == null){
+            return headers;
+        }
+        for(File file : files){
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 32))) {
+                readVersion(in);
+                headers.add(new SlotHeader(file, in.readLong()));
+            } catch (IOException e) {
+                // Ranura ilegible: se ignora y se sobrescribirá
+            }
+        }
+        return headers;
+    }
+
+    private static Slot readSlot(File file) throws IOException, ClassNotFoundException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            readVersion(in);
+            in.readLong(); // Número del autoguardado (ya leído en la cabecera)
+            long keyframeSequence = in.readLong();
+            int kind = in.readUnsignedByte();
+            if(kind != KIND_KEYFRAME && kind != KIND_DELTA){
+                throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+            }
+            long length = BinaryCodec.readVarLong(in);
+            if(length > Integer.MAX_VALUE){
+                throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+            }
+            byte[] stateBytes = new byte[(int) length];
+            in.readFully(stateBytes);
+            GameState state = GameState.read(new ByteArrayInputStream(stateBytes));
+            byte[] body = in.readAllBytes();
+            return new Slot(keyframeSequence, kind, state, new DataInputStream(new ByteArrayInputStream(body)));
+        }
+    }
+
+    private static void readVersion(DataInputStream in) throws IOException {
+        if(in.readInt() != MAGIC || in.readUnsignedByte() != VERSION){
+            throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+        }
+    }
+
+    private static class SlotHeader {
+        final File file;
+        final long sequence;
+
+        SlotHeader(File file, long sequence){
+            this.file = file;
+            this.sequence = sequence;
+        }
+    }
+
+    private static class Slot {
+        final long keyframeSequence;
+        final int kind;
+        final GameState state;
+        final DataInputStream body; // Fotograma clave o diferencias
+
+        Slot(long keyframeSequence, int kind, GameState state, DataInputStream body){
+            this.keyframeSequence = keyframeSequence;
+            this.kind = kind;
+            this.state = state;
+            this.body = body;
+        }
+    }
+}
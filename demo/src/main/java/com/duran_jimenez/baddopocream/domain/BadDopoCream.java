@@ -1,6 +1,7 @@
 package com.duran_jimenez.baddopocream.domain;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Clase principal del juego Bad Dopo Cream.
@@ -31,17 +32,51 @@ public class BadDopoCream implements FruitCounter {
     private Level currentLevel;
     private int totalScore;
     private boolean gameWon;
+    private long tickCount;
+    private GameClock clock; // null: cada nivel usa su propio reloj de pared
+    private Replay.Recorder recorder; // null: no se está grabando
+    private AutosaveRing autosave; // null: sin autoguardado
+    // Instantáneas para la presentación: se escribe en la que no está publicada
+    private final FrameSnapshot[] frameBuffers = {new FrameSnapshot(), new FrameSnapshot()};
+    private volatile FrameSnapshot publishedFrame = frameBuffers[0];
+    private long framesPublished;
 
     public BadDopoCream(){
         this.levels = new ArrayList<>();
         this.currentLevelIndex = 0;
         this.totalScore = 0;
         this.gameWon = false;
+        this.tickCount = 0;
     }
 
     public void addLevel(Level level){
+        if(clock != null){
+            level.setClock(clock);
+        }
         this.levels.add(level);
     }
+    
+    /**
+     * Establece un reloj común para todos los niveles (p. ej. TickClock para simular sin interfaz)
+     * @param clock Reloj del juego
+     */
+    public void setClock(GameClock clock){
+        this.clock = clock;
+        if(clock == null) return;
+        for(Level level : levels){
+            level.setClock(clock);
+        }
+    }
+    
+    /**
+     * Obtiene el reloj del nivel actual (o el reloj común si no hay nivel)
+     */
+    public GameClock getClock(){
+        if(currentLevel != null){
+            return currentLevel.getClock();
+        }
+        return clock != null ? clock : GameClock.SYSTEM;
+    }
 
     public void startGame(){
         if(!levels.isEmpty()){
@@ -77,18 +112,33 @@ public class BadDopoCream implements FruitCounter {
         return 0;
     }
     
+    /**
+     * Avanza la simulación un tick (enemigos, frutas y progreso de nivel).
+     * Normalmente lo invoca GameLoop a paso fijo.
+     */
     public void update(){
+        tickCount++;
         if(currentLevel != null && !currentLevel.isCompleted() && !currentLevel.isGameOver()){
+            currentLevel.updateTimers();
             currentLevel.moveEnemies();
             currentLevel.moveFruits();
             if(currentLevel.isCompleted()){
                 // Acumular puntaje del nivel al total
                 totalScore += currentLevel.getCurrentScore();
                 nextLevel();
+            } else if(autosave != null){
+                autosave.update(this);
             }
         }
     }
 
+    /**
+     * Obtiene el número de ticks simulados desde el inicio de la partida
+     */
+    public long getTickCount(){
+        return this.tickCount;
+    }
+
     public boolean isGameOver(){
         return currentLevel != null && currentLevel.isGameOver();
     }
@@ -109,7 +159,7 @@ public class BadDopoCream implements FruitCounter {
         this.currentLevel = level;
         // Agregar a la lista si no está
         if(!levels.contains(level)){
-            levels.add(level);
+            addLevel(level);
         }
         // Actualizar el índice al último nivel agregado
         this.currentLevelIndex = levels.size() - 1;
@@ -186,6 +236,8 @@ public class BadDopoCream implements FruitCounter {
         this.currentLevel = null;
         this.totalScore = 0;
         this.gameWon = false;
+        this.tickCount = 0;
+        this.recorder = null;
     }
     
     /**
@@ -207,6 +259,9 @@ public class BadDopoCream implements FruitCounter {
             if(currentLevel != null){
                 currentLevel.restoreFromState(state);
             }
+            
+            // Una repetición empieza en el tick 0 del nivel: la grabación en curso ya no sirve
+            stopRecording();
         }
     }
     
@@ -323,6 +378,25 @@ public class BadDopoCream implements FruitCounter {
         return obstaclesInfo;
     }
     
+    /**
+     * Captura el estado del nivel en la instantánea que no está publicada y
+     * la publica. GameLoop la llama con el juego bloqueado tras cada tick y
+     * cada acción.
+     */
+    public void publishFrame(){
+        FrameSnapshot back = publishedFrame == frameBuffers[0] ? frameBuffers[1] : frameBuffers[0];
+        back.capture(currentLevel, ++framesPublished, tickCount);
+        publishedFrame = back;
+    }
+    
+    /**
+     * Última instantánea publicada; se lee sin bloquear al juego copiándola
+     * con FrameSnapshot.copyInto() en una instancia propia
+     */
+    public FrameSnapshot getFrameSnapshot(){
+        return publishedFrame;
+    }
+    
     /**
      * Obtiene el mapa del nivel actual (grid de enteros)
      */
@@ -332,6 +406,17 @@ public class BadDopoCream implements FruitCounter {
         if(map == null) return new int[0][0];
         return map.getGrid();
     }
+
+    /**
+     * Obtiene la versión del mapa del nivel actual: cambia solo cuando cambia
+     * alguna celda, y nunca se repite entre mapas distintos
+     * @return La versión, o 0 si no hay mapa
+     */
+    public long getCurrentMapVersion(){
+        if(currentLevel == null) return 0;
+        Map map = currentLevel.getMap();
+        return map != null ? map.getVersion() : 0;
+    }
     
     /**
      * Obtiene el ancho del mapa
@@ -355,6 +440,7 @@ public class BadDopoCream implements FruitCounter {
      * Mueve el jugador 1
      */
     public boolean movePlayer1(int dx, int dy){
+        record(Replay.MOVE_PLAYER1, dx, dy);
         if(currentLevel != null){
             return currentLevel.movePlayer(dx, dy);
         }
@@ -365,6 +451,7 @@ public class BadDopoCream implements FruitCounter {
      * Mueve el jugador 2
      */
     public boolean movePlayer2(int dx, int dy){
+        record(Replay.MOVE_PLAYER2, dx, dy);
         if(currentLevel != null){
             return currentLevel.movePlayer2(dx, dy);
         }
@@ -375,6 +462,7 @@ public class BadDopoCream implements FruitCounter {
      * Crea línea de hielo para jugador 1
      */
     public void createIceLinePlayer1(int dx, int dy){
+        record(Replay.CREATE_ICE_PLAYER1, dx, dy);
         if(currentLevel != null){
             currentLevel.createIceLine(dx, dy);
         }
@@ -384,6 +472,7 @@ public class BadDopoCream implements FruitCounter {
      * Crea línea de hielo para jugador 2
      */
     public void createIceLinePlayer2(int dx, int dy){
+        record(Replay.CREATE_ICE_PLAYER2, dx, dy);
         if(currentLevel != null){
             currentLevel.createIceLinePlayer2(dx, dy);
         }
@@ -393,6 +482,7 @@ public class BadDopoCream implements FruitCounter {
      * Rompe línea de hielo para jugador 1
      */
     public void breakIceLinePlayer1(int dx, int dy){
+        record(Replay.BREAK_ICE_PLAYER1, dx, dy);
         if(currentLevel != null){
             currentLevel.breakIceLine(dx, dy);
         }
@@ -402,11 +492,51 @@ public class BadDopoCream implements FruitCounter {
      * Rompe línea de hielo para jugador 2
      */
     public void breakIceLinePlayer2(int dx, int dy){
+        record(Replay.BREAK_ICE_PLAYER2, dx, dy);
         if(currentLevel != null){
             currentLevel.breakIceLinePlayer2(dx, dy);
         }
     }
     
+    // ==================== REPETICIONES ====================
+    
+    /**
+     * Empieza a grabar las acciones de los jugadores desde el tick actual.
+     * El nivel debe venir de LevelConfigurator (con su semilla) y el juego debe
+     * usar un TickClock para que la repetición sea exacta.
+     * @param tickMillis Duración de cada tick (la del GameLoop que avanza el juego)
+     * @throws IllegalStateException si no hay nivel o el reloj no es por ticks
+     */
+    public void startRecording(long tickMillis){
+        if(currentLevel == null || !(getClock() instanceof TickClock)){
+            throw new IllegalStateException(BadDopoCream_Exceptions.INVALID_GAME_STATE);
+        }
+        recorder = new Replay.Recorder(currentLevel, tickMillis, tickCount);
+    }
+    
+    /**
+     * Termina la grabación en el tick actual
+     * @return La repetición grabada, o null si no se estaba grabando
+     */
+    public Replay stopRecording(){
+        if(recorder == null){
+            return null;
+        }
+        Replay replay = recorder.finish(tickCount);
+        recorder = null;
+        return replay;
+    }
+    
+    public boolean isRecording(){
+        return recorder != null;
+    }
+    
+    private void record(int action, int dx, int dy){
+        if(recorder != null){
+            recorder.record(action, dx, dy, tickCount);
+        }
+    }
+    
     /**
      * Verifica si hay dos jugadores en el nivel actual
      */
@@ -466,10 +596,12 @@ public class BadDopoCream implements FruitCounter {
     // ==================== MÉTODOS DE FACHADA PARA GUARDADO/CARGA ====================
     
     /**
-     * Guarda la partida actual con el nombre especificado
+     * Guarda la partida actual con el nombre especificado.
+     * El estado se toma ahora y se escribe en segundo plano (ver SaveService).
+     * @return Futuro con true si quedó guardada y false si falló
      */
-    public boolean saveGame(String playerColor, String gameMode, String saveName){
-        return GameState.saveGameSafe(this, playerColor, gameMode, saveName);
+    public CompletableFuture<Boolean> saveGame(String playerColor, String gameMode, String saveName){
+        return GameState.saveGameAsync(this, playerColor, gameMode, saveName);
     }
     
     /**
@@ -479,6 +611,45 @@ public class BadDopoCream implements FruitCounter {
         return GameState.listSavedGames();
     }
     
+    /**
+     * Activa el autoguardado con los valores por defecto (cada 30 s de juego, 8 ranuras)
+     */
+    public void enableAutosave(String playerColor, String gameMode){
+        enableAutosave(playerColor, gameMode, AutosaveRing.DEFAULT_INTERVAL_MILLIS, AutosaveRing.DEFAULT_SLOTS);
+    }
+    
+    /**
+     * Activa el autoguardado: cada intervalMillis de tiempo de juego se escribe
+     * la siguiente de slots ranuras en saves/autosave (ver AutosaveRing)
+     */
+    public void enableAutosave(String playerColor, String gameMode, long intervalMillis, int slots){
+        this.autosave = new AutosaveRing(AutosaveRing.DEFAULT_DIRECTORY, slots, intervalMillis,
+            playerColor, gameMode, GameState.saveService());
+    }
+    
+    public void disableAutosave(){
+        this.autosave = null;
+    }
+    
+    public boolean isAutosaving(){
+        return autosave != null;
+    }
+    
+    /**
+     * Carga el autoguardado más reciente
+     * @return El estado, o null si no hay autoguardados válidos
+     */
+    public static GameState loadLatestAutosave(){
+        return AutosaveRing.loadLatest(AutosaveRing.DEFAULT_DIRECTORY);
+    }
+    
+    /**
+     * Lista el resumen de los juegos guardados sin cargarlos
+     */
+    public static List<SaveSummary> listSaveSummaries(){
+        return GameState.listSaveSummaries();
+    }
+    
     /**
      * Carga un juego guardado y retorna el GameState
      */
@@ -0,0 +1,72 @@
+package com.duran_jimenez.baddopocream.domain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Enteros de longitud variable para los formatos binarios del juego
+ * (partidas guardadas y repeticiones).
+ *
+ * Varint: 7 bits por byte, el bit alto indica que sigue otro byte.
+ * Zigzag: lleva los enteros con signo a naturales (0, -1, 1, -2...) para que
+ * los valores pequeños negativos también ocupen un byte.
+ *
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+class BinaryCodec {
+
+    static void writeVarLong(OutputStream out, long value) throws IOException {
+        while((value & ~0x7FL) != 0){
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /** Igual que la anterior; ByteArrayOutputStream no lanza IOException */
+    static void writeVarLong(ByteArrayOutputStream out, long value){
+        while((value & ~0x7FL) != 0){
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * @throws IOException si el varint pasa de 64 bits (archivo corrupto) o se acaba el flujo
+     */
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for(int shift = 0; shift < 64; shift += 7){
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if((b & 0x80) == 0){
+                return value;
+            }
+        }
+        throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+    }
+
+    /**
+     * Entero con signo en zigzag varint
+     */
+    static void writeVarInt(OutputStream out, int value) throws IOException {
+        writeVarLong(out, zigzag(value));
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        return unzigzag(readVarLong(in));
+    }
+
+    static long zigzag(int value){
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    static int unzigzag(long value){
+        int n = (int) value;
+        return (n >>> 1) ^ -(n & 1);
+    }
+}
@@ -1,5 +1,9 @@
 package com.duran_jimenez.baddopocream.domain;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 /**
  * Cactus - Fruta peligrosa que crece espinas cada 30 segundos
  * Cuando tiene espinas, mata al jugador si lo toca
@@ -9,11 +13,42 @@ public class Cactus extends Fruit{
     private static final long SPIKE_INTERVAL = 30000; // 30 segundos en milisegundos
     private boolean hasSpikes;
     private long lastSpikeTime;
+    private TimerWheel timers; // Rueda del nivel (null si el cactus está suelto)
+    private TimedEventListener events;
+    private final TimerWheel.Timeout spikeTimeout;
 
     public Cactus(Location location){
         super("Cactus", CACTUS_POINTS, location, false);
         this.hasSpikes = false;
-        this.lastSpikeTime = System.currentTimeMillis();
+        this.lastSpikeTime = clock.now();
+        this.spikeTimeout = new TimerWheel.Timeout(this::onSpikeToggleDue);
+    }
+    
+    /**
+     * Cambia de reloj conservando el tiempo transcurrido desde el último cambio de espinas
+     */
+    @Override
+    public void setClock(GameClock clock) {
+        if (clock == null) return;
+        long elapsed = this.clock.now() - lastSpikeTime;
+        super.setClock(clock);
+        this.lastSpikeTime = clock.now() - elapsed;
+        if (spikeTimeout.isPending()) {
+            timers.schedule(spikeTimeout, lastSpikeTime + SPIKE_INTERVAL);
+        }
+    }
+    
+    /**
+     * Programa el cambio de espinas en la rueda del nivel en lugar de consultarlo en update()
+     */
+    @Override
+    public void attachTimers(TimerWheel timers, TimedEventListener events) {
+        spikeTimeout.cancel();
+        this.timers = timers;
+        this.events = events;
+        if (timers != null && !collected) {
+            timers.schedule(spikeTimeout, lastSpikeTime + SPIKE_INTERVAL);
+        }
     }
 
     @Override
@@ -21,25 +56,39 @@ public class Cactus extends Fruit{
         // Solo se puede recolectar cuando NO tiene espinas
         if(!collected && !hasSpikes){
             collected = true;
+            spikeTimeout.cancel();
             return CACTUS_POINTS;
         }
         return 0;
     }
     
     /**
-     * Actualiza el estado de las espinas
+     * Actualiza el estado de las espinas (solo sin rueda de temporizadores)
      */
     @Override
     public void update() {
-        if (collected) return;
+        if (collected || timers != null) return;
         
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.now();
         if (currentTime - lastSpikeTime >= SPIKE_INTERVAL) {
             hasSpikes = !hasSpikes; // Alternar espinas
             lastSpikeTime = currentTime;
         }
     }
     
+    /**
+     * Disparado por la rueda cada SPIKE_INTERVAL
+     */
+    private void onSpikeToggleDue() {
+        if (collected) return;
+        hasSpikes = !hasSpikes; // Alternar espinas
+        lastSpikeTime += SPIKE_INTERVAL;
+        timers.schedule(spikeTimeout, lastSpikeTime + SPIKE_INTERVAL);
+        if (events != null) {
+            events.onTimedEvent(TimedEvent.CACTUS_SPIKES_CHANGED, location);
+        }
+    }
+    
     /**
      * Verifica si el cactus tiene espinas activas
      */
@@ -63,7 +112,7 @@ public class Cactus extends Fruit{
     public int getSecondsUntilNextSpike() {
         if (collected) return 0;
         
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.now();
         long elapsed = currentTime - lastSpikeTime;
         long remaining = SPIKE_INTERVAL - elapsed;
         
@@ -71,6 +120,25 @@ public class Cactus extends Fruit{
         return (int) (remaining / 1000);
     }
     
+    /**
+     * Guarda las espinas y el tiempo transcurrido desde su último cambio
+     */
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeBoolean(hasSpikes);
+        BinaryCodec.writeVarLong(out, clock.now() - lastSpikeTime);
+    }
+    
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        hasSpikes = in.readBoolean();
+        lastSpikeTime = clock.now() - BinaryCodec.readVarLong(in);
+        spikeTimeout.cancel();
+        if (timers != null && !collected) {
+            timers.schedule(spikeTimeout, lastSpikeTime + SPIKE_INTERVAL);
+        }
+    }
+    
     @Override
     public String getTypeName(){
         return "Cactus";
@@ -12,7 +12,7 @@ public abstract class Calamar extends Enemy implements IceBreaker {
     @Override
     public void breakIce(IceWall wall){
         // El calamar puede romper hielo si está adyacente
-        if(this.location.isAbjacent(wall.getLocation())){
+        if(this.location.isAdjacent(wall.getLocation())){
             wall.breakWall();
         }
     }
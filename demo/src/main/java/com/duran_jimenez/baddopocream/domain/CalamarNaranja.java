@@ -1,22 +1,36 @@
 package com.duran_jimenez.baddopocream.domain;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 public class CalamarNaranja extends Calamar {
     
     private static final int SPEED = 2;
     private static final int DETECTION_RANGE = 999;
+    private static final int[][] DIRECTIONS = {{0, -1}, {0, 1}, {-1, 0}, {1, 0}};
 
-    private final Random random;
+    private RandomGenerator random;
     private int movementCounter;
     private int currentDirection;
 
     public CalamarNaranja(Location location){
         super("Calamar Naranja", location, SPEED, DETECTION_RANGE);
-        this.random = new Random();
+        this.random = new SplittableRandom();
         this.movementCounter = 0;
         this.currentDirection = random.nextInt(4);
     }
 
+    /**
+     * Usa la rama de azar del nivel y vuelve a sortear la dirección inicial
+     */
+    @Override
+    public void setRandom(RandomGenerator random){
+        this.random = random;
+        this.currentDirection = random.nextInt(4);
+    }
+
     @Override
     public void move(Location playerLocation){
         movementCounter++;
@@ -43,8 +57,20 @@ public class CalamarNaranja extends Calamar {
      */
     @Override
     public boolean tryMove(Location playerLocation, Map map){
+        return tryMove(playerLocation, map, null);
+    }
+    
+    /**
+     * Igual que tryMove(playerLocation, map) pero persigue siguiendo el
+     * campo de flujo compartido (con hielo transitable) cuando existe
+     */
+    @Override
+    public boolean tryMove(Location playerLocation, Map map, FlowField flowField){
         // Verificar si el jugador está en rango de detección
         if(detectPlayer(playerLocation)){
+            if(flowField != null && followFlowField(flowField, map)){
+                return true;
+            }
             // Perseguir al jugador con pathfinding inteligente
             return chasePlayer(playerLocation, map);
         }
@@ -79,6 +105,26 @@ public class CalamarNaranja extends Calamar {
         return false;
     }
     
+    /**
+     * Da un paso por el camino más corto del campo de flujo, rompiendo el hielo si lo hay
+     * Retorna false si el campo no ofrece paso (sin camino o ya sobre el jugador)
+     */
+    private boolean followFlowField(FlowField flowField, Map map){
+        int direction = flowField.getBestDirection(location.getX(), location.getY());
+        if(direction < 0){
+            return false;
+        }
+        Location nextPos = location.move(FlowField.getDirectionX(direction), FlowField.getDirectionY(direction));
+        if(map.hasIceWall(nextPos)){
+            // Romperlo cambia la versión del mapa: el campo se recalcula en la siguiente consulta
+            breakIce(map, nextPos);
+        } else if(!map.isValidPosition(nextPos)){
+            return false;
+        }
+        location = nextPos;
+        return true;
+    }
+    
     /**
      * Persigue al jugador de forma inteligente evitando obstáculos
      */
@@ -122,12 +168,11 @@ public class CalamarNaranja extends Calamar {
      * Busca un camino alternativo cuando el camino directo está bloqueado
      */
     private boolean findAlternativePath(Location target, Map map){
-        int[][] directions = {{0, -1}, {0, 1}, {-1, 0}, {1, 0}};
         Location bestMove = null;
         double bestDistance = Double.MAX_VALUE;
         boolean canBreakIce = false;
         
-        for(int[] dir : directions){
+        for(int[] dir : DIRECTIONS){
             Location nextPos = location.move(dir[0], dir[1]);
             
             if(map.isValidPosition(nextPos)){
@@ -174,6 +219,23 @@ public class CalamarNaranja extends Calamar {
         movementCounter = 0;
     }
     
+    @Override
+    public boolean breaksIce(){
+        return true;
+    }
+    
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        BinaryCodec.writeVarInt(out, movementCounter);
+        BinaryCodec.writeVarInt(out, currentDirection);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        movementCounter = BinaryCodec.readVarInt(in);
+        currentDirection = Math.floorMod(BinaryCodec.readVarInt(in), DIRECTIONS.length);
+    }
+
     @Override
     public String getTypeName(){
         return "CalamarNaranja";
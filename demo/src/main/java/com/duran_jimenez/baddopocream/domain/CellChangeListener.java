@@ -0,0 +1,20 @@
+package com.duran_jimenez.baddopocream.domain;
+
+/**
+ * Observador de los cambios de celda de un mapa (ver Map.addCellChangeListener).
+ * 
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface CellChangeListener {
+    
+    /**
+     * Se invoca cada vez que una celda cambia realmente de tipo
+     * @param x Columna de la celda
+     * @param y Fila de la celda
+     * @param oldType Tipo anterior (Map.EMPTY, Map.WALL o Map.ICE)
+     * @param newType Tipo nuevo
+     */
+    void onCellChanged(int x, int y, int oldType, int newType);
+}
@@ -1,5 +1,11 @@
 package com.duran_jimenez.baddopocream.domain;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
 /**
  * Cherry - Fruta que se teletransporta cada 20 segundos
  */
@@ -9,11 +15,17 @@ public class Cherry extends Fruit{
     private static final long TELEPORT_INTERVAL = 20000; // 20 segundos en milisegundos
     private long lastTeleportTime;
     private Map map; // Referencia al mapa para encontrar posiciones válidas
+    private TimerWheel timers; // Rueda del nivel (null si la cherry está suelta)
+    private TimedEventListener events;
+    private final TimerWheel.Timeout teleportTimeout;
+    private RandomGenerator random;
 
     public Cherry(Location location){
         super("Cherry", CHERRY_POINTS, location, true);
-        this.lastTeleportTime = System.currentTimeMillis();
+        this.lastTeleportTime = clock.now();
         this.map = null;
+        this.teleportTimeout = new TimerWheel.Timeout(this::onTeleportDue);
+        this.random = new SplittableRandom();
     }
     
     /**
@@ -23,30 +35,81 @@ public class Cherry extends Fruit{
     public void setMap(Map map) {
         this.map = map;
     }
+    
+    /**
+     * Usa la rama de azar del nivel para los teletransportes
+     */
+    @Override
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
+    }
+    
+    /**
+     * Cambia de reloj conservando el tiempo transcurrido desde el último teletransporte
+     */
+    @Override
+    public void setClock(GameClock clock) {
+        if (clock == null) return;
+        long elapsed = this.clock.now() - lastTeleportTime;
+        super.setClock(clock);
+        this.lastTeleportTime = clock.now() - elapsed;
+        if (teleportTimeout.isPending()) {
+            timers.schedule(teleportTimeout, lastTeleportTime + TELEPORT_INTERVAL);
+        }
+    }
+    
+    /**
+     * Programa el teletransporte en la rueda del nivel en lugar de consultarlo en update()
+     */
+    @Override
+    public void attachTimers(TimerWheel timers, TimedEventListener events) {
+        teleportTimeout.cancel();
+        this.timers = timers;
+        this.events = events;
+        if (timers != null && !collected) {
+            timers.schedule(teleportTimeout, lastTeleportTime + TELEPORT_INTERVAL);
+        }
+    }
 
     @Override
     public int collect(){
         if(!collected){
             collected = true;
+            teleportTimeout.cancel();
             return CHERRY_POINTS;
         }
         return 0;
     }
     
     /**
-     * Verifica si debe teletransportarse y lo hace
+     * Verifica si debe teletransportarse y lo hace (solo sin rueda de temporizadores)
      */
     @Override
     public void update() {
-        if (collected || map == null) return;
+        if (collected || map == null || timers != null) return;
         
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.now();
         if (currentTime - lastTeleportTime >= TELEPORT_INTERVAL) {
             teleport();
             lastTeleportTime = currentTime;
         }
     }
     
+    /**
+     * Disparado por la rueda cada TELEPORT_INTERVAL
+     */
+    private void onTeleportDue() {
+        if (collected) return;
+        lastTeleportTime += TELEPORT_INTERVAL;
+        timers.schedule(teleportTimeout, lastTeleportTime + TELEPORT_INTERVAL);
+        if (map == null) return;
+        
+        teleport();
+        if (events != null) {
+            events.onTimedEvent(TimedEvent.CHERRY_TELEPORTED, location);
+        }
+    }
+    
     /**
      * Teletransporta la cherry a una posición aleatoria válida
      */
@@ -55,9 +118,9 @@ public class Cherry extends Fruit{
         int attempts = 0;
         
         while (attempts < maxAttempts) {
-            int randomX = (int)(Math.random() * map.getWidth());
-            int randomY = (int)(Math.random() * map.getHeight());
-            Location newLocation = new Location(randomX, randomY);
+            int randomX = random.nextInt(map.getWidth());
+            int randomY = random.nextInt(map.getHeight());
+            Location newLocation = Location.of(randomX, randomY);
             
             // Verificar que la posición sea válida (no pared, no hielo)
             if (map.isValidPosition(newLocation)) {
@@ -69,6 +132,23 @@ public class Cherry extends Fruit{
         // Si no se encuentra posición después de 100 intentos, mantener la actual
     }
     
+    /**
+     * Guarda el tiempo transcurrido desde el último teletransporte
+     */
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        BinaryCodec.writeVarLong(out, clock.now() - lastTeleportTime);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        lastTeleportTime = clock.now() - BinaryCodec.readVarLong(in);
+        teleportTimeout.cancel();
+        if (timers != null && !collected) {
+            timers.schedule(teleportTimeout, lastTeleportTime + TELEPORT_INTERVAL);
+        }
+    }
+    
     @Override
     public String getTypeName(){
         return "Cherry";
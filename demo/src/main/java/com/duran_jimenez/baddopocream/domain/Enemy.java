@@ -1,5 +1,10 @@
 package com.duran_jimenez.baddopocream.domain;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.random.RandomGenerator;
+
 /**
  * Clase base abstracta para todos los enemigos del juego.
  * 
@@ -15,7 +20,7 @@ package com.duran_jimenez.baddopocream.domain;
  * 
  * @author Durán-Jiménez
  */
-public abstract class Enemy implements Movable {
+public abstract class Enemy implements Movable, SnapshotState {
     
     protected String name;
     protected Location location;
@@ -67,6 +72,30 @@ public abstract class Enemy implements Movable {
         // Por defecto no hace nada
     }
     
+    /**
+     * Configura el flujo de azar propio del enemigo (Level le da una rama de su semilla)
+     * Por defecto no hace nada, solo los enemigos aleatorios lo sobrescriben
+     */
+    public void setRandom(RandomGenerator random){
+        // Por defecto no hace nada
+    }
+    
+    /**
+     * Escribe el estado propio del enemigo (dirección, embestida...) para una
+     * instantánea del nivel; la posición la guarda Level.
+     * Por defecto no hay estado extra.
+     */
+    public void writeState(DataOutputStream out) throws IOException {
+        // Por defecto no hace nada
+    }
+    
+    /**
+     * Lee el estado escrito por writeState()
+     */
+    public void readState(DataInputStream in) throws IOException {
+        // Por defecto no hace nada
+    }
+    
     /**
      * Intenta moverse validando contra el mapa
      * Por defecto usa el método move() estándar con validación
@@ -86,6 +115,23 @@ public abstract class Enemy implements Movable {
         }
     }
 
+    /**
+     * Intenta moverse usando el campo de flujo compartido del tick
+     * Por defecto lo ignora y usa tryMove(playerLocation, map)
+     * Los enemigos que persiguen lo sobrescriben para leer su paso en O(1)
+     */
+    public boolean tryMove(Location playerLocation, Map map, FlowField flowField){
+        return tryMove(playerLocation, map);
+    }
+
+    /**
+     * Indica si el enemigo atraviesa el hielo rompiéndolo
+     * Determina qué campo de flujo le entrega el nivel
+     */
+    public boolean breaksIce(){
+        return false;
+    }
+
     public abstract boolean detectPlayer(Location playerLocation);
 
     public boolean collidesWithPlayer(Location playerLocation) {
@@ -2,11 +2,16 @@ package com.duran_jimenez.baddopocream.domain;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Sistema de IA para enemigos
  * Proporciona comportamientos inteligentes para diferentes tipos de enemigos
+ * 
+ * Cada movimiento tiene una variante *Step que devuelve el desplazamiento
+ * empaquetado con Location.pack(dx, dy) y no crea objetos; los métodos *Move
+ * que devuelven [dx, dy] la envuelven.
  */
 public class EnemyAI {
     
@@ -21,10 +26,34 @@ public class EnemyAI {
         TERRITORIAL     // Persigue al jugador solo si entra en su territorio
     }
     
-    private Random random;
+    /** Paso nulo empaquetado (no moverse) */
+    public static final int NO_STEP = 0;
+    
+    /** Pasos empaquetados: arriba, abajo, izquierda, derecha */
+    private static final int[] STEPS = {
+        Location.pack(0, -1), Location.pack(0, 1), Location.pack(-1, 0), Location.pack(1, 0)
+    };
+    
+    private RandomGenerator random;
+    private final int[] shuffledSteps; // Orden barajado reutilizado por getRandomStep
     
     public EnemyAI() {
-        this.random = new Random();
+        this(new SplittableRandom());
+    }
+    
+    /**
+     * @param random Flujo de azar de la IA (con semilla para partidas reproducibles)
+     */
+    public EnemyAI(RandomGenerator random) {
+        this.random = random;
+        this.shuffledSteps = STEPS.clone();
+    }
+    
+    /**
+     * Convierte un paso empaquetado en el arreglo [dx, dy] de la API clásica
+     */
+    public static int[] toMove(int step) {
+        return new int[]{Location.unpackX(step), Location.unpackY(step)};
     }
     
     /**
@@ -32,45 +61,53 @@ public class EnemyAI {
      * @return Array [dx, dy] con la dirección del movimiento
      */
     public int[] getPatrolMove(Enemy enemy, Map map, int currentDirX, int currentDirY) {
-        Location nextPos = enemy.getLocation().move(currentDirX, currentDirY);
+        return toMove(getPatrolStep(enemy, map, currentDirX, currentDirY));
+    }
+    
+    /**
+     * Variante empaquetada de getPatrolMove
+     */
+    public int getPatrolStep(Enemy enemy, Map map, int currentDirX, int currentDirY) {
+        Location loc = enemy.getLocation();
         
         // Si puede moverse en la dirección actual, continuar
-        if (map.isValidPosition(nextPos)) {
-            return new int[]{currentDirX, currentDirY};
+        if (map.isValidPosition(loc.getX() + currentDirX, loc.getY() + currentDirY)) {
+            return Location.pack(currentDirX, currentDirY);
         }
         
         // Si no puede, cambiar de dirección
-        return getNewPatrolDirection(enemy, map, currentDirX, currentDirY);
+        return getNewPatrolDirection(enemy, map, currentDirX);
     }
     
     /**
      * Encuentra una nueva dirección de patrulla cuando se encuentra un obstáculo
      */
-    private int[] getNewPatrolDirection(Enemy enemy, Map map, int currentDirX, int currentDirY) {
-        Location currentLoc = enemy.getLocation();
+    private int getNewPatrolDirection(Enemy enemy, Map map, int currentDirX) {
+        int x = enemy.getLocation().getX();
+        int y = enemy.getLocation().getY();
         
         // Verificar direcciones disponibles
-        boolean canMoveUp = map.isValidPosition(currentLoc.move(0, -1));
-        boolean canMoveDown = map.isValidPosition(currentLoc.move(0, 1));
-        boolean canMoveLeft = map.isValidPosition(currentLoc.move(-1, 0));
-        boolean canMoveRight = map.isValidPosition(currentLoc.move(1, 0));
+        boolean canMoveUp = map.isValidPosition(x, y - 1);
+        boolean canMoveDown = map.isValidPosition(x, y + 1);
+        boolean canMoveLeft = map.isValidPosition(x - 1, y);
+        boolean canMoveRight = map.isValidPosition(x + 1, y);
         
         // Preferir dirección perpendicular
         if (currentDirX != 0) {
             // Estaba en horizontal, intentar vertical
-            if (canMoveUp) return new int[]{0, -1};
-            if (canMoveDown) return new int[]{0, 1};
-            if (canMoveLeft) return new int[]{-1, 0};
-            if (canMoveRight) return new int[]{1, 0};
+            if (canMoveUp) return STEPS[0];
+            if (canMoveDown) return STEPS[1];
+            if (canMoveLeft) return STEPS[2];
+            if (canMoveRight) return STEPS[3];
         } else {
             // Estaba en vertical, intentar horizontal
-            if (canMoveRight) return new int[]{1, 0};
-            if (canMoveLeft) return new int[]{-1, 0};
-            if (canMoveUp) return new int[]{0, -1};
-            if (canMoveDown) return new int[]{0, 1};
+            if (canMoveRight) return STEPS[3];
+            if (canMoveLeft) return STEPS[2];
+            if (canMoveUp) return STEPS[0];
+            if (canMoveDown) return STEPS[1];
         }
         
-        return new int[]{0, 0}; // No puede moverse
+        return NO_STEP; // No puede moverse
     }
     
     /**
@@ -78,35 +115,29 @@ public class EnemyAI {
      * Persigue directamente al jugador sin pathfinding
      */
     public int[] getChaseMove(Enemy enemy, Location playerLocation, Map map) {
-        Location enemyLoc = enemy.getLocation();
-        int dx = Integer.compare(playerLocation.getX(), enemyLoc.getX());
-        int dy = Integer.compare(playerLocation.getY(), enemyLoc.getY());
+        return toMove(getChaseStep(enemy, playerLocation, map));
+    }
+    
+    /**
+     * Variante empaquetada de getChaseMove
+     */
+    public int getChaseStep(Enemy enemy, Location playerLocation, Map map) {
+        int x = enemy.getLocation().getX();
+        int y = enemy.getLocation().getY();
+        int dx = Integer.compare(playerLocation.getX(), x);
+        int dy = Integer.compare(playerLocation.getY(), y);
         
         // Intentar movimiento horizontal primero
-        if (dx != 0) {
-            Location nextPos = enemyLoc.move(dx, 0);
-            if (map.isValidPosition(nextPos)) {
-                return new int[]{dx, 0};
-            }
+        if (dx != 0 && map.isValidPosition(x + dx, y)) {
+            return Location.pack(dx, 0);
         }
         
         // Si no puede horizontal, intentar vertical
-        if (dy != 0) {
-            Location nextPos = enemyLoc.move(0, dy);
-            if (map.isValidPosition(nextPos)) {
-                return new int[]{0, dy};
-            }
+        if (dy != 0 && map.isValidPosition(x, y + dy)) {
+            return Location.pack(0, dy);
         }
         
-        // Intentar movimiento horizontal forzado
-        if (dx != 0) {
-            Location nextPos = enemyLoc.move(dx, 0);
-            if (map.isValidPosition(nextPos)) {
-                return new int[]{dx, 0};
-            }
-        }
-        
-        return new int[]{0, 0}; // No puede acercarse
+        return NO_STEP; // No puede acercarse
     }
     
     /**
@@ -127,6 +158,34 @@ public class EnemyAI {
         return getChaseMove(enemy, playerLocation, map);
     }
     
+    /**
+     * Igual que getSmartChaseMove pero lee el paso del campo de flujo compartido
+     * en O(1) en lugar de lanzar un A* por enemigo. El campo apunta al jugador
+     * vivo más cercano por camino, no por distancia en línea recta.
+     */
+    public int[] getSmartChaseMove(Enemy enemy, Location playerLocation, Map map, FlowField flowField) {
+        return toMove(getSmartChaseStep(enemy, playerLocation, map, flowField));
+    }
+    
+    /**
+     * Variante empaquetada de getSmartChaseMove con campo de flujo.
+     * Solo crea objetos si el campo no da paso y hay que recurrir a A*.
+     */
+    public int getSmartChaseStep(Enemy enemy, Location playerLocation, Map map, FlowField flowField) {
+        if (flowField != null && !flowField.isThroughIce()) {
+            Location loc = enemy.getLocation();
+            int direction = flowField.getBestDirection(loc.getX(), loc.getY());
+            if (direction >= 0) {
+                return Location.pack(FlowField.getDirectionX(direction), FlowField.getDirectionY(direction));
+            }
+        }
+        List<int[]> path = PathFinder.findPath(enemy.getLocation(), playerLocation, map, null);
+        if (!path.isEmpty()) {
+            return Location.pack(path.get(0)[0], path.get(0)[1]);
+        }
+        return getChaseStep(enemy, playerLocation, map);
+    }
+    
     /**
      * Calcula el siguiente movimiento para un enemigo con perfil AMBUSH
      * Se mueve aleatoriamente hasta detectar al jugador, luego persigue
@@ -145,6 +204,28 @@ public class EnemyAI {
         return getRandomMove(enemy, map);
     }
     
+    /**
+     * Igual que getAmbushMove pero persigue con el campo de flujo compartido
+     */
+    public int[] getAmbushMove(Enemy enemy, Location playerLocation, Map map,
+                               int detectionRange, boolean isChasing, FlowField flowField) {
+        return toMove(getAmbushStep(enemy, playerLocation, map, detectionRange, isChasing, flowField));
+    }
+    
+    /**
+     * Variante empaquetada de getAmbushMove con campo de flujo
+     */
+    public int getAmbushStep(Enemy enemy, Location playerLocation, Map map,
+                             int detectionRange, boolean isChasing, FlowField flowField) {
+        double distanceToPlayer = enemy.getLocation().distanceTo(playerLocation);
+        
+        if (distanceToPlayer <= detectionRange || isChasing) {
+            return getSmartChaseStep(enemy, playerLocation, map, flowField);
+        }
+        
+        return getRandomStep(enemy, map);
+    }
+    
     /**
      * Calcula el siguiente movimiento para un enemigo con perfil TERRITORIAL
      * Solo persigue si el jugador entra en su territorio
@@ -169,30 +250,48 @@ public class EnemyAI {
         }
     }
     
+    /**
+     * Igual que getTerritorialMove pero persigue con el campo de flujo compartido.
+     * El regreso al centro del territorio sigue usando A* (su destino no es un jugador).
+     */
+    public int[] getTerritorialMove(Enemy enemy, Location playerLocation, Location territoryCenter,
+                                    int territoryRadius, Map map, FlowField flowField) {
+        if (playerLocation.distanceTo(territoryCenter) <= territoryRadius) {
+            return getSmartChaseMove(enemy, playerLocation, map, flowField);
+        }
+        return getTerritorialMove(enemy, playerLocation, territoryCenter, territoryRadius, map);
+    }
+    
     /**
      * Obtiene un movimiento aleatorio válido
      */
     private int[] getRandomMove(Enemy enemy, Map map) {
-        Location currentLoc = enemy.getLocation();
-        int[][] directions = {{0, -1}, {0, 1}, {-1, 0}, {1, 0}};
+        return toMove(getRandomStep(enemy, map));
+    }
+    
+    /**
+     * Variante empaquetada de getRandomMove (baraja un arreglo reutilizado)
+     */
+    private int getRandomStep(Enemy enemy, Map map) {
+        int x = enemy.getLocation().getX();
+        int y = enemy.getLocation().getY();
         
         // Barajar direcciones
-        for (int i = directions.length - 1; i > 0; i--) {
+        for (int i = shuffledSteps.length - 1; i > 0; i--) {
             int j = random.nextInt(i + 1);
-            int[] temp = directions[i];
-            directions[i] = directions[j];
-            directions[j] = temp;
+            int temp = shuffledSteps[i];
+            shuffledSteps[i] = shuffledSteps[j];
+            shuffledSteps[j] = temp;
         }
         
         // Probar cada dirección
-        for (int[] dir : directions) {
-            Location nextPos = currentLoc.move(dir[0], dir[1]);
-            if (map.isValidPosition(nextPos)) {
-                return dir;
+        for (int step : shuffledSteps) {
+            if (map.isValidPosition(x + Location.unpackX(step), y + Location.unpackY(step))) {
+                return step;
             }
         }
         
-        return new int[]{0, 0}; // No puede moverse
+        return NO_STEP; // No puede moverse
     }
     
     /**
@@ -260,9 +359,8 @@ public class EnemyAI {
         for (int i = 1; i < steps; i++) {
             int x = enemyLoc.getX() + (int) Math.round(stepX * i);
             int y = enemyLoc.getY() + (int) Math.round(stepY * i);
-            Location checkLoc = new Location(x, y);
             
-            if (!map.isValidPosition(checkLoc)) {
+            if (!map.isValidPosition(x, y)) {
                 return false; // Hay un obstáculo
             }
         }
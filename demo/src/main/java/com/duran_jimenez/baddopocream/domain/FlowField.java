@@ -0,0 +1,588 @@
+package com.duran_jimenez.baddopocream.domain;
+
+import java.util.Arrays;
+
+/**
+ * Campo de flujo (mapa de Dijkstra) hacia los jugadores.
+ *
+ * Calcula una sola vez por tick la distancia de cada celda al jugador vivo más
+ * cercano (búsqueda multi-origen), de modo que todos los enemigos que persiguen
+ * leen su siguiente paso en O(1) en lugar de lanzar un A* cada uno.
+ *
+ * El cálculo es perezoso: Level define los orígenes al inicio de moveEnemies()
+ * y el barrido se hace solo si algún enemigo consulta el campo y cambiaron los
+ * orígenes o la versión del mapa desde el último cálculo.
+ *
+ * Con throughIce las celdas de hielo se atraviesan con costo ICE_COST, como las
+ * recorre un enemigo que rompe hielo (CalamarNaranja).
+ *
+ * El campo observa los cambios de celda del mapa. Cuando cambia el terreno
+ * (hielo creado o roto) o se mueve un jugador, las distancias se reparan con
+ * LPA*: las celdas cambiadas y los orígenes que aparecen o desaparecen entran
+ * en la cola de reparación, y solo se reevalúan las celdas cuya distancia
+ * depende de ellos, en lugar de barrer el mapa completo.
+ *
+ * Cada celda recuerda a qué origen lleva su camino. Si los jugadores que se
+ * movieron eran los más cercanos a más de 1/SOURCE_REPAIR_FRACTION del mapa
+ * (con un solo jugador, todo el mapa), casi todas las distancias cambian y el
+ * barrido completo sale más barato que la reparación. También se recalcula si
+ * cambia el número de jugadores o se acumulan más de REPAIR_LIMIT celdas
+ * cambiadas.
+ *
+ * @author Durán-Jiménez
+ * @version 1.2
+ */
+public class FlowField implements CellChangeListener {
+
+    /** Distancia de una celda sin camino hacia ningún jugador */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /** Costo de entrar a una celda de hielo (romperlo) */
+    public static final int ICE_COST = 3;
+
+    /** Direcciones de vecinos (arriba, abajo, izquierda, derecha) */
+    private static final int[] DIR_X = {0, 0, -1, 1};
+    private static final int[] DIR_Y = {-1, 1, 0, 0};
+
+    /** Número de cubetas del barrido de Dial (costo máximo + 1) */
+    private static final int BUCKETS = ICE_COST + 1;
+
+    /** Celdas cambiadas pendientes a partir de las cuales conviene recalcular todo */
+    public static final int REPAIR_LIMIT = 64;
+
+    /** Si los orígenes movidos alcanzan más de 1/n del mapa se recalcula en vez de reparar */
+    public static final int SOURCE_REPAIR_FRACTION = 4;
+
+    private final Map map;
+    private final boolean throughIce;
+    private final int width;
+    private final int height;
+    private final int[] distance;
+    private final int[] sources;
+    private int sourceCount;
+    private final int[] computedSources;
+    private int computedSourceCount;
+    private final int[] previousSources;
+    private long computedVersion;
+    private boolean dirty;
+    private boolean attached;
+    private long computations;
+    private long repairs;
+    private long repairedCells;
+
+    // Celdas cambiadas desde el último cálculo (se reparan en la siguiente consulta)
+    private final int[] changedCells;
+    private int changedCount;
+
+    // LPA*: rhs es la distancia según los vecinos; una celda es inconsistente si difiere de distance
+    private final int[] rhs;
+
+    // Origen (celda del jugador) al que lleva el camino de cada celda, y cuántas celdas tiene cada origen
+    private final int[] owner;
+    private final int[] rhsOwner;
+    private final int[] ownerArea;
+    private final int[] heap;
+    private final int[] heapIndex;
+    private int heapSize;
+
+    // Listas doblemente enlazadas por cubeta (decrease-key en O(1))
+    private final int[] bucketHead;
+    private final int[] nextInBucket;
+    private final int[] prevInBucket;
+
+    /**
+     * @param map Mapa del nivel
+     * @param throughIce true si el hielo es transitable con costo ICE_COST
+     */
+    public FlowField(Map map, boolean throughIce) {
+        this.map = map;
+        this.throughIce = throughIce;
+        this.width = map.getWidth();
+        this.height = map.getHeight();
+        int cells = width * height;
+        this.distance = new int[cells];
+        this.sources = new int[cells];
+        this.sourceCount = 0;
+        this.computedSources = new int[cells];
+        this.computedSourceCount = 0;
+        this.previousSources = new int[cells];
+        this.dirty = true;
+        this.computations = 0;
+        this.bucketHead = new int[BUCKETS];
+        this.nextInBucket = new int[cells];
+        this.prevInBucket = new int[cells];
+        this.changedCells = new int[REPAIR_LIMIT];
+        this.changedCount = 0;
+        this.rhs = new int[cells];
+        this.owner = new int[cells];
+        this.rhsOwner = new int[cells];
+        this.ownerArea = new int[cells];
+        this.heap = new int[cells];
+        this.heapIndex = new int[cells];
+        Arrays.fill(heapIndex, -1);
+        map.addCellChangeListener(this);
+        this.attached = true;
+    }
+
+    /**
+     * Anota la celda cambiada para repararla en la siguiente consulta
+     */
+    @Override
+    public void onCellChanged(int x, int y, int oldType, int newType) {
+        if (dirty) return;
+        if (changedCount == REPAIR_LIMIT) {
+            dirty = true; // Demasiados cambios: sale más barato recalcular
+            return;
+        }
+        changedCells[changedCount++] = y * width + x;
+    }
+
+    /**
+     * Deja de observar el mapa (el campo ya no se repara: se recalcula si cambia el terreno)
+     */
+    public void detach() {
+        map.removeCellChangeListener(this);
+        attached = false;
+    }
+
+    /**
+     * Elimina los orígenes (se llama al inicio de cada tick)
+     */
+    public void clearSources() {
+        sourceCount = 0;
+    }
+
+    /**
+     * Agrega un origen (posición de un jugador vivo)
+     */
+    public void addSource(Location location) {
+        int x = location.getX();
+        int y = location.getY();
+        if (map.isInBounds(x, y) && sourceCount < sources.length) {
+            sources[sourceCount++] = y * width + x;
+        }
+    }
+
+    /**
+     * Obliga a recalcular el campo en la siguiente consulta
+     * (los cambios de terreno se detectan solos por la versión del mapa)
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    public boolean isThroughIce() {
+        return throughIce;
+    }
+
+    /**
+     * Obtiene la distancia desde la celda al jugador más cercano
+     * @return Distancia en pasos (el hielo cuenta ICE_COST) o UNREACHABLE
+     */
+    public int getDistance(int x, int y) {
+        if (!map.isInBounds(x, y)) return UNREACHABLE;
+        ensureComputed();
+        return distance[y * width + x];
+    }
+
+    public int getDistance(Location location) {
+        return getDistance(location.getX(), location.getY());
+    }
+
+    /**
+     * Indica si desde la celda existe camino hacia algún jugador
+     */
+    public boolean isReachable(Location location) {
+        return getDistance(location) != UNREACHABLE;
+    }
+
+    /**
+     * Obtiene el índice de la mejor dirección desde la celda (ver getDirectionX/Y)
+     * @return Índice 0-3, o -1 si no hay camino o ya está sobre un jugador
+     */
+    public int getBestDirection(int x, int y) {
+        int own = getDistance(x, y);
+        if (own == UNREACHABLE || own == 0) return -1;
+
+        int best = -1;
+        int bestCost = own;
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DIR_X[d];
+            int ny = y + DIR_Y[d];
+            if (!map.isInBounds(nx, ny)) continue;
+            int cell = ny * width + nx;
+            if (distance[cell] == UNREACHABLE) continue;
+            int cost = distance[cell] + enterCost(nx, ny);
+            if (cost < bestCost || (best == -1 && cost <= own)) {
+                best = d;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Obtiene el siguiente paso hacia el jugador más cercano
+     * @return Array [dx, dy] o null si no hay camino
+     */
+    public int[] getNextStep(Location from) {
+        int direction = getBestDirection(from.getX(), from.getY());
+        if (direction < 0) return null;
+        return new int[]{DIR_X[direction], DIR_Y[direction]};
+    }
+
+    public static int getDirectionX(int direction) {
+        return DIR_X[direction];
+    }
+
+    public static int getDirectionY(int direction) {
+        return DIR_Y[direction];
+    }
+
+    /**
+     * Obtiene cuántas veces se ha recalculado el campo (para pruebas y métricas)
+     */
+    public long getComputations() {
+        return computations;
+    }
+
+    /**
+     * Obtiene cuántas veces se ha reparado el campo tras un cambio de terreno o de jugadores
+     */
+    public long getRepairs() {
+        return repairs;
+    }
+
+    /**
+     * Obtiene el total de celdas reevaluadas por las reparaciones
+     */
+    public long getRepairedCells() {
+        return repairedCells;
+    }
+
+    private void ensureComputed() {
+        long version = map.getVersion();
+        boolean terrainChanged = version != computedVersion;
+        boolean sourcesChanged = !sameSources();
+        if (dirty || (terrainChanged && !attached) || (sourcesChanged && movedSourcesTooLarge())) {
+            compute();
+            System.arraycopy(sources, 0, computedSources, 0, sourceCount);
+            computedSourceCount = sourceCount;
+        } else if (terrainChanged || sourcesChanged) {
+            repair();
+        }
+        computedVersion = version;
+        changedCount = 0;
+        dirty = false;
+    }
+    
+    private boolean sameSources() {
+        if (sourceCount != computedSourceCount) return false;
+        for (int i = 0; i < sourceCount; i++) {
+            if (sources[i] != computedSources[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Indica si los orígenes cambiaron tanto que reparar costaría más que recalcular:
+     * cambió el número de jugadores o los que se movieron alcanzaban demasiadas celdas
+     */
+    private boolean movedSourcesTooLarge() {
+        if (sourceCount != computedSourceCount) return true;
+        int area = 0;
+        for (int i = 0; i < computedSourceCount; i++) {
+            int source = computedSources[i];
+            if (!contains(sources, sourceCount, source)) {
+                area += ownerArea[source];
+            }
+        }
+        return area > distance.length / SOURCE_REPAIR_FRACTION;
+    }
+
+    private boolean isTraversable(int x, int y) {
+        return map.isValidPosition(x, y) || (throughIce && map.hasIceWall(x, y));
+    }
+
+    private int enterCost(int x, int y) {
+        return map.hasIceWall(x, y) ? ICE_COST : 1;
+    }
+
+    private boolean isSource(int cell) {
+        return contains(computedSources, computedSourceCount, cell);
+    }
+
+    private static boolean contains(int[] cells, int count, int cell) {
+        for (int i = 0; i < count; i++) {
+            if (cells[i] == cell) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Distancia de la celda según sus vecinos: min(distancia del vecino + costo de entrar en él).
+     * Deja en rhsOwner el origen al que lleva ese camino.
+     */
+    private int computeRhs(int cell) {
+        if (isSource(cell)) {
+            rhsOwner[cell] = cell;
+            return 0;
+        }
+        rhsOwner[cell] = -1;
+        int cx = cell % width;
+        int cy = cell / width;
+        if (!isTraversable(cx, cy)) return UNREACHABLE;
+        int best = UNREACHABLE;
+        for (int d = 0; d < 4; d++) {
+            int nx = cx + DIR_X[d];
+            int ny = cy + DIR_Y[d];
+            if (!map.isInBounds(nx, ny)) continue;
+            int neighbor = ny * width + nx;
+            int neighborDistance = distance[neighbor];
+            if (neighborDistance == UNREACHABLE) continue;
+            int cost = neighborDistance + enterCost(nx, ny);
+            if (cost < best) {
+                best = cost;
+                rhsOwner[cell] = owner[neighbor];
+            }
+        }
+        return best;
+    }
+
+    private void setOwner(int cell, int source) {
+        int previous = owner[cell];
+        if (previous == source) return;
+        if (previous != -1) ownerArea[previous]--;
+        if (source != -1) ownerArea[source]++;
+        owner[cell] = source;
+    }
+
+    /**
+     * Reparación LPA* a partir de los orígenes que cambiaron, las celdas
+     * cambiadas y sus vecinos.
+     * Termina con el montículo vacío: todas las celdas quedan consistentes.
+     */
+    private void repair() {
+        repairs++;
+        updateSources();
+        for (int i = 0; i < changedCount; i++) {
+            int cell = changedCells[i];
+            updateCell(cell);
+            int cx = cell % width;
+            int cy = cell / width;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DIR_X[d];
+                int ny = cy + DIR_Y[d];
+                if (map.isInBounds(nx, ny)) {
+                    updateCell(ny * width + nx);
+                }
+            }
+        }
+
+        while (heapSize > 0) {
+            int cell = pop();
+            repairedCells++;
+            if (distance[cell] > rhs[cell]) {
+                // Sobreconsistente: la distancia baja y se propaga a los vecinos
+                distance[cell] = rhs[cell];
+                setOwner(cell, rhsOwner[cell]);
+            } else {
+                // Subconsistente: se invalida y se reevalúa junto a los vecinos
+                distance[cell] = UNREACHABLE;
+                setOwner(cell, -1);
+                updateCell(cell);
+            }
+            int cx = cell % width;
+            int cy = cell / width;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DIR_X[d];
+                int ny = cy + DIR_Y[d];
+                if (map.isInBounds(nx, ny)) {
+                    updateCell(ny * width + nx);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adopta los orígenes actuales y encola los que aparecieron (rhs 0) y los
+     * que desaparecieron (rhs vuelve a depender de los vecinos)
+     */
+    private void updateSources() {
+        int previousCount = computedSourceCount;
+        System.arraycopy(computedSources, 0, previousSources, 0, previousCount);
+        System.arraycopy(sources, 0, computedSources, 0, sourceCount);
+        computedSourceCount = sourceCount;
+        for (int i = 0; i < previousCount; i++) {
+            if (!contains(sources, sourceCount, previousSources[i])) {
+                updateCell(previousSources[i]);
+            }
+        }
+        for (int i = 0; i < sourceCount; i++) {
+            if (!contains(previousSources, previousCount, sources[i])) {
+                updateCell(sources[i]);
+            }
+        }
+    }
+
+    /**
+     * Recalcula rhs de la celda y la (re)encola si quedó inconsistente
+     */
+    private void updateCell(int cell) {
+        rhs[cell] = computeRhs(cell);
+        if (heapIndex[cell] != -1) {
+            removeFromHeap(cell);
+        }
+        if (distance[cell] != rhs[cell]) {
+            push(cell);
+        } else {
+            setOwner(cell, rhsOwner[cell]);
+        }
+    }
+
+    private int key(int cell) {
+        return Math.min(distance[cell], rhs[cell]);
+    }
+
+    private void push(int cell) {
+        heap[heapSize] = cell;
+        heapIndex[cell] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private int pop() {
+        int top = heap[0];
+        removeFromHeap(top);
+        return top;
+    }
+
+    private void removeFromHeap(int cell) {
+        int pos = heapIndex[cell];
+        heapIndex[cell] = -1;
+        heapSize--;
+        if (pos == heapSize) return;
+        int last = heap[heapSize];
+        heap[pos] = last;
+        heapIndex[last] = pos;
+        siftUp(pos);
+        siftDown(heapIndex[last]);
+    }
+
+    private void siftUp(int pos) {
+        int cell = heap[pos];
+        int cellKey = key(cell);
+        while (pos > 0) {
+            int parentPos = (pos - 1) >>> 1;
+            int parentCell = heap[parentPos];
+            if (key(parentCell) <= cellKey) break;
+            heap[pos] = parentCell;
+            heapIndex[parentCell] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = cell;
+        heapIndex[cell] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int cell = heap[pos];
+        int cellKey = key(cell);
+        int half = heapSize >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < heapSize && key(heap[right]) < key(heap[child])) {
+                child = right;
+            }
+            if (key(heap[child]) >= cellKey) break;
+            heap[pos] = heap[child];
+            heapIndex[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = cell;
+        heapIndex[cell] = pos;
+    }
+
+    /**
+     * Barrido de Dial desde todos los orígenes a la vez.
+     * Con costos 1 y ICE_COST basta un anillo de BUCKETS cubetas.
+     */
+    private void compute() {
+        computations++;
+        Arrays.fill(distance, UNREACHABLE);
+        Arrays.fill(bucketHead, -1);
+        Arrays.fill(owner, -1);
+        Arrays.fill(ownerArea, 0);
+
+        int queued = 0;
+        for (int i = 0; i < sourceCount; i++) {
+            int cell = sources[i];
+            if (distance[cell] != 0) {
+                distance[cell] = 0;
+                owner[cell] = cell;
+                link(cell, 0);
+                queued++;
+            }
+        }
+
+        int current = 0;
+        while (queued > 0) {
+            int bucket = current % BUCKETS;
+            while (bucketHead[bucket] != -1) {
+                int cell = bucketHead[bucket];
+                unlink(cell, bucket);
+                queued--;
+
+                int cx = cell % width;
+                int cy = cell / width;
+                // Llegar a esta celda desde un vecino cuesta entrar en ella
+                int step = current + enterCost(cx, cy);
+                for (int d = 0; d < 4; d++) {
+                    int nx = cx + DIR_X[d];
+                    int ny = cy + DIR_Y[d];
+                    if (!map.isInBounds(nx, ny) || !isTraversable(nx, ny)) continue;
+                    int neighbor = ny * width + nx;
+                    if (step < distance[neighbor]) {
+                        if (distance[neighbor] != UNREACHABLE) {
+                            unlink(neighbor, distance[neighbor] % BUCKETS);
+                            queued--;
+                        }
+                        distance[neighbor] = step;
+                        owner[neighbor] = owner[cell];
+                        link(neighbor, step % BUCKETS);
+                        queued++;
+                    }
+                }
+            }
+            current++;
+        }
+        // Tras un cálculo completo todas las celdas son consistentes
+        System.arraycopy(distance, 0, rhs, 0, distance.length);
+        System.arraycopy(owner, 0, rhsOwner, 0, owner.length);
+        for (int cell = 0; cell < owner.length; cell++) {
+            if (owner[cell] != -1) ownerArea[owner[cell]]++;
+        }
+    }
+
+    private void link(int cell, int bucket) {
+        int head = bucketHead[bucket];
+        nextInBucket[cell] = head;
+        prevInBucket[cell] = -1;
+        if (head != -1) {
+            prevInBucket[head] = cell;
+        }
+        bucketHead[bucket] = cell;
+    }
+
+    private void unlink(int cell, int bucket) {
+        int prev = prevInBucket[cell];
+        int next = nextInBucket[cell];
+        if (prev != -1) {
+            nextInBucket[prev] = next;
+        } else {
+            bucketHead[bucket] = next;
+        }
+        if (next != -1) {
+            prevInBucket[next] = prev;
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.duran_jimenez.baddopocream.domain;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 /**
  * Fogata (Campfire) - Obstáculo que elimina al jugador
  * 
@@ -9,11 +13,15 @@ package com.duran_jimenez.baddopocream.domain;
  * - Puede apagarse temporalmente creando un bloque de hielo sobre ella y rompiéndolo
  * - Después de 10 segundos, el fuego vuelve a encenderse
  */
-public class Fogata {
+public class Fogata implements SnapshotState {
     
     private final Location location;
     private boolean lit; // true = encendida, false = apagada
     private long extinguishTime; // Tiempo cuando fue apagada
+    private GameClock clock; // Reloj del nivel
+    private TimerWheel timers; // Rueda del nivel (null si la fogata está suelta)
+    private TimedEventListener events;
+    private final TimerWheel.Timeout relightTimeout;
     private static final long RELIGHT_DELAY = 10000; // 10 segundos en milisegundos
     
     /**
@@ -24,6 +32,38 @@ public class Fogata {
         this.location = location;
         this.lit = true;
         this.extinguishTime = 0;
+        this.clock = GameClock.SYSTEM;
+        this.relightTimeout = new TimerWheel.Timeout(this::onRelightDue);
+    }
+    
+    /**
+     * Establece el reloj del nivel conservando el tiempo que lleva apagada
+     * @param clock Reloj del juego
+     */
+    public void setClock(GameClock clock) {
+        if (clock == null) return;
+        if (!lit) {
+            extinguishTime = clock.now() - (this.clock.now() - extinguishTime);
+        }
+        this.clock = clock;
+        if (relightTimeout.isPending()) {
+            timers.schedule(relightTimeout, extinguishTime + RELIGHT_DELAY);
+        }
+    }
+    
+    /**
+     * Conecta la fogata a la rueda de temporizadores del nivel.
+     * A partir de aquí el reencendido lo dispara la rueda y no se consulta el reloj.
+     * @param timers Rueda del nivel
+     * @param events Observador de eventos del nivel (puede ser null)
+     */
+    public void attachTimers(TimerWheel timers, TimedEventListener events) {
+        relightTimeout.cancel();
+        this.timers = timers;
+        this.events = events;
+        if (!lit && timers != null) {
+            timers.schedule(relightTimeout, extinguishTime + RELIGHT_DELAY);
+        }
     }
     
     /**
@@ -35,14 +75,14 @@ public class Fogata {
     }
     
     /**
-     * Verifica si la fogata está encendida
-     * Actualiza automáticamente el estado si pasó el tiempo de reencendido
+     * Verifica si la fogata está encendida.
+     * Con rueda de temporizadores es una lectura directa; suelta, consulta el reloj.
      * @return true si está encendida
      */
     public boolean isLit() {
-        // Si está apagada, verificar si ya pasó el tiempo de reencendido
-        if (!lit && extinguishTime > 0) {
-            long currentTime = System.currentTimeMillis();
+        // Sin rueda, verificar si ya pasó el tiempo de reencendido
+        if (!lit && timers == null) {
+            long currentTime = clock.now();
             if (currentTime - extinguishTime >= RELIGHT_DELAY) {
                 relight();
             }
@@ -57,7 +97,13 @@ public class Fogata {
     public void extinguish() {
         if (lit) {
             lit = false;
-            extinguishTime = System.currentTimeMillis();
+            extinguishTime = clock.now();
+            if (timers != null) {
+                timers.schedule(relightTimeout, extinguishTime + RELIGHT_DELAY);
+            }
+            if (events != null) {
+                events.onTimedEvent(TimedEvent.CAMPFIRE_EXTINGUISHED, location);
+            }
         }
     }
     
@@ -68,6 +114,17 @@ public class Fogata {
     private void relight() {
         lit = true;
         extinguishTime = 0;
+        relightTimeout.cancel();
+    }
+    
+    /**
+     * Disparado por la rueda al cumplirse RELIGHT_DELAY
+     */
+    private void onRelightDue() {
+        relight();
+        if (events != null) {
+            events.onTimedEvent(TimedEvent.CAMPFIRE_RELIT, location);
+        }
     }
     
     /**
@@ -77,6 +134,32 @@ public class Fogata {
         relight();
     }
     
+    /**
+     * Guarda si está encendida y cuánto tiempo lleva apagada (instantánea del nivel)
+     */
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeBoolean(lit);
+        BinaryCodec.writeVarLong(out, lit ? 0 : clock.now() - extinguishTime);
+    }
+    
+    /**
+     * Lee el estado escrito por writeState() y reprograma el reencendido
+     */
+    public void readState(DataInputStream in) throws IOException {
+        boolean savedLit = in.readBoolean();
+        long offMillis = BinaryCodec.readVarLong(in);
+        relightTimeout.cancel();
+        if (savedLit) {
+            relight();
+            return;
+        }
+        lit = false;
+        extinguishTime = clock.now() - offMillis;
+        if (timers != null) {
+            timers.schedule(relightTimeout, extinguishTime + RELIGHT_DELAY);
+        }
+    }
+    
     /**
      * Verifica si un jugador en esta posición debería ser eliminado
      * @param playerLocation Posición del jugador
@@ -102,12 +185,15 @@ public class Fogata {
     public int getSecondsUntilRelight() {
         if (lit) return 0;
         
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.now();
         long elapsed = currentTime - extinguishTime;
         long remaining = RELIGHT_DELAY - elapsed;
         
         if (remaining <= 0) {
-            relight();
+            // Con rueda el reencendido llega en el siguiente avance del nivel
+            if (timers == null) {
+                relight();
+            }
             return 0;
         }
         
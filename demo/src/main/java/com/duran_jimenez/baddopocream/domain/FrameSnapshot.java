@@ -0,0 +1,603 @@
+package com.duran_jimenez.baddopocream.domain;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Estado del nivel tal como se dibuja, capturado una vez por tick.
+ *
+ * Guarda los datos como arreglos paralelos (una columna por atributo) que se
+ * reutilizan entre capturas: publicar un tick no crea objetos por entidad y
+ * la presentación no lee el dominio mientras la simulación lo modifica.
+ *
+ * BadDopoCream alterna dos instancias (ver publishFrame()): escribe en la que
+ * no está publicada y luego la publica con una escritura volátil. Un lector
+ * que retenga una instancia más de un tick podría verla reescrita, así que la
+ * lectura se hace con copyInto() sobre una instancia propia: una secuencia
+ * impar durante la escritura (como un seqlock) le indica que debe repetir la
+ * copia. Los getters deben usarse sobre esa copia.
+ *
+ * El tipo de cada jugador, enemigo y fruta se resuelve al capturar y se guarda
+ * como un código (constantes CHARACTER_*, ENEMY_* y FRUIT_*): al dibujar no se
+ * comparan cadenas.
+ *
+ * Junto al mapa se guarda la región que cambió desde la captura anterior
+ * (ver Map.getDirtyRegion()): un lector que ya tiene la versión anterior
+ * copia y repinta solo esas celdas.
+ *
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+public final class FrameSnapshot {
+
+    private static final int PLAYERS = 2;
+
+    /** Tipos de personaje (getPlayerKind()) */
+    public static final int CHARACTER_STRAWBERRY = 0;
+    public static final int CHARACTER_VANILLA = 1;
+    public static final int CHARACTER_CHOCOLATE = 2;
+    public static final int CHARACTER_KINDS = 3;
+
+    /** Tipos de enemigo (getEnemyKind()) */
+    public static final int ENEMY_TROLL = 0;
+    public static final int ENEMY_MACETA = 1;
+    public static final int ENEMY_CALAMAR = 2;
+    public static final int ENEMY_NARVAL = 3;
+    public static final int ENEMY_KINDS = 4;
+
+    /** Tipos de fruta (getFruitKind()); -1 si no es ninguno de estos */
+    public static final int FRUIT_BANANA = 0;
+    public static final int FRUIT_CHERRY = 1;
+    public static final int FRUIT_GRAPES = 2;
+    public static final int FRUIT_PINEAPPLE = 3;
+    public static final int FRUIT_CACTUS = 4;
+    public static final int FRUIT_KINDS = 5;
+
+    // Secuencia de escritura: impar mientras se está capturando
+    private volatile long sequence;
+    private long serial;
+    private long tick;
+
+    // Mapa (índice y * mapWidth + x)
+    private int mapWidth;
+    private int mapHeight;
+    private long mapVersion;
+    private int[] cells = new int[0];
+    private long mapDirtySince; // Versión desde la que cambió solo la región mapDirty
+    private final int[] mapDirty = {0, 0, -1, -1}; // [minX, minY, maxX, maxY], vacía si minX > maxX
+
+    // Jugadores (0 y 1)
+    private final boolean[] playerPresent = new boolean[PLAYERS];
+    private final boolean[] playerAlive = new boolean[PLAYERS];
+    private final int[] playerX = new int[PLAYERS];
+    private final int[] playerY = new int[PLAYERS];
+    private final int[] playerDx = new int[PLAYERS];
+    private final int[] playerDy = new int[PLAYERS];
+    private final int[] playerKind = new int[PLAYERS];
+    private final String[] playerColorSource = new String[PLAYERS]; // Color ya resuelto en playerKind
+
+    // Enemigos
+    private int enemyCount;
+    private int[] enemyX = new int[0];
+    private int[] enemyY = new int[0];
+    private int[] enemyDx = new int[0];
+    private int[] enemyDy = new int[0];
+    private int[] enemyKind = new int[0];
+
+    // Frutas
+    private int fruitCount;
+    private int[] fruitX = new int[0];
+    private int[] fruitY = new int[0];
+    private int[] fruitKind = new int[0];
+    private String[] fruitName = new String[0];
+    private boolean[] fruitCollected = new boolean[0];
+    private boolean[] fruitSpikes = new boolean[0];
+    private int[] fruitSpikeSeconds = new int[0];
+
+    // Obstáculos: baldosas calientes y luego fogatas
+    private int obstacleCount;
+    private int[] obstacleX = new int[0];
+    private int[] obstacleY = new int[0];
+    private boolean[] obstacleCampfire = new boolean[0];
+    private boolean[] obstacleLit = new boolean[0];
+    private int[] obstacleRelightSeconds = new int[0];
+
+    // ==================== CAPTURA ====================
+
+    /**
+     * Copia el estado del nivel (con el juego bloqueado)
+     * @param level Nivel actual, o null si no hay partida
+     * @param serial Número de publicación
+     * @param tick Tick del juego
+     */
+    void capture(Level level, long serial, long tick){
+        sequence++;
+        VarHandle.releaseFence(); // Las escrituras de datos no pasan antes de la secuencia impar
+        this.serial = serial;
+        this.tick = tick;
+        captureMap(level != null ? level.getMap() : null);
+        capturePlayer(0, level != null ? level.getPlayer() : null);
+        capturePlayer(1, level != null && level.hasTwoPlayers() ? level.getPlayer2() : null);
+        captureEnemies(level != null ? level.getEnemies() : null);
+        captureFruits(level != null ? level.getFruits() : null);
+        captureObstacles(level != null ? level.getMap() : null);
+        sequence++;
+    }
+
+    private void captureMap(Map map){
+        if(map == null){
+            mapWidth = 0;
+            mapHeight = 0;
+            mapVersion = 0;
+            clearMapDirty();
+            return;
+        }
+        if(map.getVersion() == mapVersion && map.getWidth() == mapWidth && map.getHeight() == mapHeight){
+            return; // Las versiones no se repiten: las celdas ya son estas
+        }
+        mapWidth = map.getWidth();
+        mapHeight = map.getHeight();
+        mapVersion = map.getVersion();
+        // La región se mide desde la captura anterior, sea de esta instancia o de la otra
+        mapDirtySince = map.getDirtyRegionVersion();
+        if(!map.copyDirtyRegion(mapDirty)){
+            clearMapDirty();
+        }
+        map.clearDirtyRegion();
+        if(cells.length < mapWidth * mapHeight){
+            cells = new int[mapWidth * mapHeight];
+        }
+        map.copyCells(cells);
+    }
+
+    private void clearMapDirty(){
+        mapDirty[0] = 0;
+        mapDirty[1] = 0;
+        mapDirty[2] = -1;
+        mapDirty[3] = -1;
+    }
+
+    private void capturePlayer(int index, IceCream player){
+        playerPresent[index] = player != null;
+        if(player == null) return;
+        Location loc = player.getLocation();
+        playerX[index] = loc.getX();
+        playerY[index] = loc.getY();
+        playerAlive[index] = player.isAlive();
+        playerDx[index] = player.getLastDx();
+        playerDy[index] = player.getLastDy();
+        String color = player.getColor();
+        if(color != playerColorSource[index]){
+            playerKind[index] = characterKind(color); // Solo cuando cambia el jugador
+            playerColorSource[index] = color;
+        }
+    }
+
+    private void captureEnemies(List<Enemy> enemies){
+        int count = enemies == null ? 0 : enemies.size();
+        if(enemyX.length < count){
+            int capacity = grow(enemyX.length, count);
+            enemyX = Arrays.copyOf(enemyX, capacity);
+            enemyY = Arrays.copyOf(enemyY, capacity);
+            enemyDx = Arrays.copyOf(enemyDx, capacity);
+            enemyDy = Arrays.copyOf(enemyDy, capacity);
+            enemyKind = Arrays.copyOf(enemyKind, capacity);
+        }
+        for(int i = 0; i < count; i++){
+            Enemy enemy = enemies.get(i);
+            Location loc = enemy.getLocation();
+            enemyX[i] = loc.getX();
+            enemyY[i] = loc.getY();
+            enemyDx[i] = enemy.getDirectionX();
+            enemyDy[i] = enemy.getDirectionY();
+            enemyKind[i] = enemyKind(enemy.getTypeName());
+        }
+        enemyCount = count;
+    }
+
+    private void captureFruits(List<Fruit> fruits){
+        int count = fruits == null ? 0 : fruits.size();
+        if(fruitX.length < count){
+            int capacity = grow(fruitX.length, count);
+            fruitX = Arrays.copyOf(fruitX, capacity);
+            fruitY = Arrays.copyOf(fruitY, capacity);
+            fruitKind = Arrays.copyOf(fruitKind, capacity);
+            fruitName = Arrays.copyOf(fruitName, capacity);
+            fruitCollected = Arrays.copyOf(fruitCollected, capacity);
+            fruitSpikes = Arrays.copyOf(fruitSpikes, capacity);
+            fruitSpikeSeconds = Arrays.copyOf(fruitSpikeSeconds, capacity);
+        }
+        for(int i = 0; i < count; i++){
+            Fruit fruit = fruits.get(i);
+            Location loc = fruit.getLocation();
+            fruitX[i] = loc.getX();
+            fruitY[i] = loc.getY();
+            fruitKind[i] = fruitKind(fruit.getTypeName());
+            fruitName[i] = fruit.getName();
+            fruitCollected[i] = fruit.isCollected();
+            fruitSpikes[i] = fruit.hasSpikes();
+            fruitSpikeSeconds[i] = fruit.getSecondsUntilNextSpike();
+        }
+        fruitCount = count;
+    }
+
+    /**
+     * Tipo de personaje según el color del helado (mismas reglas que la
+     * presentación: vainilla, chocolate o, por defecto, fresa)
+     */
+    private static int characterKind(String color){
+        if(color == null) return CHARACTER_STRAWBERRY;
+        String lowerColor = color.toLowerCase();
+        if(lowerColor.contains("vanilla") || lowerColor.contains("cream") || lowerColor.contains("vainilla")){
+            return CHARACTER_VANILLA;
+        }
+        if(lowerColor.contains("chocolate") || lowerColor.contains("brown")){
+            return CHARACTER_CHOCOLATE;
+        }
+        return CHARACTER_STRAWBERRY;
+    }
+
+    /**
+     * Los nombres de tipo son literales de cada clase: el switch no asigna memoria
+     */
+    private static int enemyKind(String typeName){
+        switch(typeName){
+            case "Maceta": return ENEMY_MACETA;
+            case "Calamar":
+            case "CalamarNaranja": return ENEMY_CALAMAR;
+            case "Narval": return ENEMY_NARVAL;
+            default: return ENEMY_TROLL;
+        }
+    }
+
+    private static int fruitKind(String typeName){
+        switch(typeName){
+            case "Banana": return FRUIT_BANANA;
+            case "Cherry": return FRUIT_CHERRY;
+            case "Grapes": return FRUIT_GRAPES;
+            case "Pineapple": return FRUIT_PINEAPPLE;
+            case "Cactus": return FRUIT_CACTUS;
+            default: return -1;
+        }
+    }
+
+    private void captureObstacles(Map map){
+        List<BaldosaCaliente> hotTiles = map == null ? null : map.getHotTiles();
+        List<Fogata> campfires = map == null ? null : map.getCampfires();
+        int tiles = hotTiles == null ? 0 : hotTiles.size();
+        int count = tiles + (campfires == null ? 0 : campfires.size());
+        ensureObstacleCapacity(count);
+        for(int i = 0; i < tiles; i++){
+            Location loc = hotTiles.get(i).getLocation();
+            obstacleX[i] = loc.getX();
+            obstacleY[i] = loc.getY();
+            obstacleCampfire[i] = false;
+            obstacleLit[i] = false;
+            obstacleRelightSeconds[i] = 0;
+        }
+        for(int i = tiles; i < count; i++){
+            Fogata campfire = campfires.get(i - tiles);
+            Location loc = campfire.getLocation();
+            obstacleX[i] = loc.getX();
+            obstacleY[i] = loc.getY();
+            obstacleCampfire[i] = true;
+            obstacleLit[i] = campfire.isLit();
+            obstacleRelightSeconds[i] = campfire.getSecondsUntilRelight();
+        }
+        obstacleCount = count;
+    }
+
+    private void ensureObstacleCapacity(int count){
+        if(obstacleX.length >= count) return;
+        int capacity = grow(obstacleX.length, count);
+        obstacleX = Arrays.copyOf(obstacleX, capacity);
+        obstacleY = Arrays.copyOf(obstacleY, capacity);
+        obstacleCampfire = Arrays.copyOf(obstacleCampfire, capacity);
+        obstacleLit = Arrays.copyOf(obstacleLit, capacity);
+        obstacleRelightSeconds = Arrays.copyOf(obstacleRelightSeconds, capacity);
+    }
+
+    private static int grow(int current, int needed){
+        return Math.max(needed, current * 2);
+    }
+
+    // ==================== LECTURA ====================
+
+    /**
+     * Copia esta instantánea en otra propia del lector, sin bloquear al juego.
+     * Si la simulación la reescribe durante la copia, la copia se repite.
+     * Reutiliza los arreglos del destino, que solo crecen.
+     * @param target Instantánea del lector (no compartida)
+     */
+    public void copyInto(FrameSnapshot target){
+        while(true){
+            long start = sequence;
+            if((start & 1) == 0){
+                try {
+                    copyFields(target);
+                    VarHandle.acquireFence(); // Las lecturas de datos terminan antes de validar
+                    if(sequence == start){
+                        return;
+                    }
+                } catch (RuntimeException e) {
+                    // Lectura de una captura a medio escribir (tamaños y arreglos distintos): se repite
+                }
+                target.mapWidth = -1; // Las celdas copiadas pueden estar mezcladas: copiarlas otra vez
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void copyFields(FrameSnapshot target){
+        target.serial = serial;
+        target.tick = tick;
+
+        int width = mapWidth;
+        int height = mapHeight;
+        if(target.mapVersion != mapVersion || target.mapWidth != width || target.mapHeight != height){
+            if(target.mapVersion == mapDirtySince && target.mapWidth == width && target.mapHeight == height){
+                // El lector tiene la versión anterior: solo cambian las filas de la región
+                int minX = mapDirty[0];
+                int columns = mapDirty[2] - minX + 1;
+                for(int y = mapDirty[1]; y <= mapDirty[3]; y++){
+                    System.arraycopy(cells, y * width + minX, target.cells, y * width + minX, columns);
+                }
+            } else {
+                if(target.cells.length < width * height){
+                    target.cells = new int[width * height];
+                }
+                System.arraycopy(cells, 0, target.cells, 0, width * height);
+            }
+            target.mapWidth = width;
+            target.mapHeight = height;
+            target.mapVersion = mapVersion;
+            target.mapDirtySince = mapDirtySince;
+            System.arraycopy(mapDirty, 0, target.mapDirty, 0, 4);
+        }
+
+        System.arraycopy(playerPresent, 0, target.playerPresent, 0, PLAYERS);
+        System.arraycopy(playerAlive, 0, target.playerAlive, 0, PLAYERS);
+        System.arraycopy(playerX, 0, target.playerX, 0, PLAYERS);
+        System.arraycopy(playerY, 0, target.playerY, 0, PLAYERS);
+        System.arraycopy(playerDx, 0, target.playerDx, 0, PLAYERS);
+        System.arraycopy(playerDy, 0, target.playerDy, 0, PLAYERS);
+        System.arraycopy(playerKind, 0, target.playerKind, 0, PLAYERS);
+
+        int enemies = enemyCount;
+        if(target.enemyX.length < enemies){
+            target.enemyX = new int[enemies];
+            target.enemyY = new int[enemies];
+            target.enemyDx = new int[enemies];
+            target.enemyDy = new int[enemies];
+            target.enemyKind = new int[enemies];
+        }
+        System.arraycopy(enemyX, 0, target.enemyX, 0, enemies);
+        System.arraycopy(enemyY, 0, target.enemyY, 0, enemies);
+        System.arraycopy(enemyDx, 0, target.enemyDx, 0, enemies);
+        System.arraycopy(enemyDy, 0, target.enemyDy, 0, enemies);
+        System.arraycopy(enemyKind, 0, target.enemyKind, 0, enemies);
+        target.enemyCount = enemies;
+
+        int fruits = fruitCount;
+        if(target.fruitX.length < fruits){
+            target.fruitX = new int[fruits];
+            target.fruitY = new int[fruits];
+            target.fruitKind = new int[fruits];
+            target.fruitName = new String[fruits];
+            target.fruitCollected = new boolean[fruits];
+            target.fruitSpikes = new boolean[fruits];
+            target.fruitSpikeSeconds = new int[fruits];
+        }
+        System.arraycopy(fruitX, 0, target.fruitX, 0, fruits);
+        System.arraycopy(fruitY, 0, target.fruitY, 0, fruits);
+        System.arraycopy(fruitKind, 0, target.fruitKind, 0, fruits);
+        System.arraycopy(fruitName, 0, target.fruitName, 0, fruits);
+        System.arraycopy(fruitCollected, 0, target.fruitCollected, 0, fruits);
+        System.arraycopy(fruitSpikes, 0, target.fruitSpikes, 0, fruits);
+        System.arraycopy(fruitSpikeSeconds, 0, target.fruitSpikeSeconds, 0, fruits);
+        target.fruitCount = fruits;
+
+        int obstacles = obstacleCount;
+        target.ensureObstacleCapacity(obstacles);
+        System.arraycopy(obstacleX, 0, target.obstacleX, 0, obstacles);
+        System.arraycopy(obstacleY, 0, target.obstacleY, 0, obstacles);
+        System.arraycopy(obstacleCampfire, 0, target.obstacleCampfire, 0, obstacles);
+        System.arraycopy(obstacleLit, 0, target.obstacleLit, 0, obstacles);
+        System.arraycopy(obstacleRelightSeconds, 0, target.obstacleRelightSeconds, 0, obstacles);
+        target.obstacleCount = obstacles;
+    }
+
+    /**
+     * Número de publicación: cambia con cada tick o acción publicada
+     */
+    public long getSerial(){
+        return serial;
+    }
+
+    public long getTick(){
+        return tick;
+    }
+
+    // Mapa
+
+    public int getMapWidth(){
+        return mapWidth;
+    }
+
+    public int getMapHeight(){
+        return mapHeight;
+    }
+
+    /**
+     * Versión del mapa capturado (ver Map.getVersion())
+     */
+    public long getMapVersion(){
+        return mapVersion;
+    }
+
+    /**
+     * Versión del mapa desde la que solo cambiaron las celdas de la región
+     * getMapDirtyMinX()..getMapDirtyMaxX(), getMapDirtyMinY()..getMapDirtyMaxY()
+     */
+    public long getMapDirtySince(){
+        return mapDirtySince;
+    }
+
+    /**
+     * Primera columna cambiada (mayor que getMapDirtyMaxX() si no cambió ninguna)
+     */
+    public int getMapDirtyMinX(){
+        return mapDirty[0];
+    }
+
+    public int getMapDirtyMinY(){
+        return mapDirty[1];
+    }
+
+    public int getMapDirtyMaxX(){
+        return mapDirty[2];
+    }
+
+    public int getMapDirtyMaxY(){
+        return mapDirty[3];
+    }
+
+    /**
+     * Tipo de la celda, con los mismos valores que getCurrentMapGrid()
+     */
+    public int getCell(int x, int y){
+        return cells[y * mapWidth + x];
+    }
+
+    // Jugadores
+
+    /**
+     * @param player 0 para el jugador 1, 1 para el jugador 2
+     */
+    public boolean hasPlayer(int player){
+        return playerPresent[player];
+    }
+
+    public boolean isPlayerAlive(int player){
+        return playerAlive[player];
+    }
+
+    public int getPlayerX(int player){
+        return playerX[player];
+    }
+
+    public int getPlayerY(int player){
+        return playerY[player];
+    }
+
+    public int getPlayerLastDx(int player){
+        return playerDx[player];
+    }
+
+    public int getPlayerLastDy(int player){
+        return playerDy[player];
+    }
+
+    /**
+     * Tipo de personaje (CHARACTER_*)
+     */
+    public int getPlayerKind(int player){
+        return playerKind[player];
+    }
+
+    // Enemigos
+
+    public int getEnemyCount(){
+        return enemyCount;
+    }
+
+    public int getEnemyX(int enemy){
+        return enemyX[enemy];
+    }
+
+    public int getEnemyY(int enemy){
+        return enemyY[enemy];
+    }
+
+    public int getEnemyDirectionX(int enemy){
+        return enemyDx[enemy];
+    }
+
+    public int getEnemyDirectionY(int enemy){
+        return enemyDy[enemy];
+    }
+
+    /**
+     * Tipo de enemigo (ENEMY_*)
+     */
+    public int getEnemyKind(int enemy){
+        return enemyKind[enemy];
+    }
+
+    // Frutas
+
+    public int getFruitCount(){
+        return fruitCount;
+    }
+
+    public int getFruitX(int fruit){
+        return fruitX[fruit];
+    }
+
+    public int getFruitY(int fruit){
+        return fruitY[fruit];
+    }
+
+    /**
+     * Tipo de fruta (FRUIT_*), o -1 si no es ninguno de los conocidos
+     */
+    public int getFruitKind(int fruit){
+        return fruitKind[fruit];
+    }
+
+    public String getFruitName(int fruit){
+        return fruitName[fruit];
+    }
+
+    public boolean isFruitCollected(int fruit){
+        return fruitCollected[fruit];
+    }
+
+    public boolean hasFruitSpikes(int fruit){
+        return fruitSpikes[fruit];
+    }
+
+    public int getFruitSecondsUntilSpike(int fruit){
+        return fruitSpikeSeconds[fruit];
+    }
+
+    // Obstáculos
+
+    public int getObstacleCount(){
+        return obstacleCount;
+    }
+
+    public int getObstacleX(int obstacle){
+        return obstacleX[obstacle];
+    }
+
+    public int getObstacleY(int obstacle){
+        return obstacleY[obstacle];
+    }
+
+    /**
+     * @return true si es una fogata, false si es una baldosa caliente
+     */
+    public boolean isCampfire(int obstacle){
+        return obstacleCampfire[obstacle];
+    }
+
+    public boolean isCampfireLit(int obstacle){
+        return obstacleLit[obstacle];
+    }
+
+    public int getSecondsUntilRelight(int obstacle){
+        return obstacleRelightSeconds[obstacle];
+    }
+}
@@ -1,5 +1,10 @@
 package com.duran_jimenez.baddopocream.domain;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.random.RandomGenerator;
+
 /**
  * Clase base abstracta para todas las frutas del juego.
  * 
@@ -16,13 +21,14 @@ package com.duran_jimenez.baddopocream.domain;
  * 
  * @author Durán-Jiménez
  */
-public abstract class Fruit {
+public abstract class Fruit implements SnapshotState {
     
     protected String name;
     protected int points;
     protected Location location;
     protected boolean collected;
     protected boolean canMove;
+    protected GameClock clock; // Reloj del nivel para frutas temporizadas
 
     protected Fruit(String name, int points, Location location, boolean canMove){
         this.name = name;
@@ -30,6 +36,7 @@ public abstract class Fruit {
         this.location = location;
         this.collected = false;
         this.canMove = canMove;
+        this.clock = GameClock.SYSTEM;
     }
 
     public abstract int collect();
@@ -87,7 +94,49 @@ public abstract class Fruit {
     }
     
     /**
-     * Actualiza comportamiento especial de la fruta
+     * Configura el flujo de azar propio de la fruta (Level le da una rama de su semilla)
+     */
+    public void setRandom(RandomGenerator random){
+        // Por defecto no hace nada, solo Cherry y Pineapple lo sobrescriben
+    }
+    
+    /**
+     * Escribe el estado propio de la fruta (temporizadores, dirección) para una
+     * instantánea del nivel; posición y recolección las guarda Level.
+     * Por defecto no hay estado extra.
+     */
+    public void writeState(DataOutputStream out) throws IOException {
+        // Por defecto no hace nada, solo las frutas con estado lo sobrescriben
+    }
+    
+    /**
+     * Lee el estado escrito por writeState(); se llama después de restaurar
+     * la recolección, con el reloj y la rueda del nivel ya conectados
+     */
+    public void readState(DataInputStream in) throws IOException {
+        // Por defecto no hace nada
+    }
+    
+    /**
+     * Configura el reloj del nivel (lo usan las frutas temporizadas)
+     */
+    public void setClock(GameClock clock){
+        if(clock != null){
+            this.clock = clock;
+        }
+    }
+    
+    /**
+     * Conecta la fruta a la rueda de temporizadores del nivel
+     * (solo frutas temporizadas como Cherry y Cactus lo sobrescriben)
+     */
+    public void attachTimers(TimerWheel timers, TimedEventListener events){
+        // Por defecto no hace nada
+    }
+    
+    /**
+     * Actualiza comportamiento especial de la fruta.
+     * Las frutas conectadas a la rueda del nivel no necesitan esta consulta.
      */
     public void update(){
         // Por defecto no hace nada, solo frutas especiales lo sobrescriben
@@ -0,0 +1,52 @@
+package com.duran_jimenez.baddopocream.domain;
+
+/**
+ * Reloj del juego.
+ * 
+ * Todas las mecánicas temporizadas (timer del nivel, fogatas, cherry, cactus)
+ * consultan el tiempo a través de esta interfaz en lugar de System.currentTimeMillis(),
+ * de modo que la simulación puede avanzar con el reloj real (WallClock) o por ticks
+ * (TickClock) para simular un nivel completo en milisegundos.
+ * 
+ * Un reloj en pausa deja de avanzar, así que los consumidores no necesitan
+ * llevar la cuenta del tiempo pausado.
+ * 
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+public interface GameClock {
+    
+    /** Reloj del sistema sin pausa, usado por defecto en entidades sueltas */
+    GameClock SYSTEM = System::currentTimeMillis;
+    
+    /**
+     * Obtiene el tiempo actual del juego en milisegundos
+     */
+    long now();
+    
+    /**
+     * Avanza el reloj (solo relojes por ticks; el resto lo ignora)
+     * @param millis Milisegundos de juego a avanzar
+     */
+    default void advance(long millis) {
+        // Por defecto el tiempo avanza solo
+    }
+    
+    /**
+     * Detiene el avance del reloj
+     */
+    default void pause() {
+        // Por defecto no se puede pausar
+    }
+    
+    /**
+     * Reanuda el avance del reloj
+     */
+    default void resume() {
+        // Por defecto no se puede pausar
+    }
+    
+    default boolean isPaused() {
+        return false;
+    }
+}
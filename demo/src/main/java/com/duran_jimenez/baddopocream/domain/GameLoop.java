@@ -0,0 +1,228 @@
+package com.duran_jimenez.baddopocream.domain;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Motor de simulación de paso fijo para Bad Dopo Cream.
+ *
+ * Avanza el juego a intervalos regulares (ticks) en un hilo propio, o de forma
+ * síncrona sin interfaz gráfica mediante runTicks(). La presentación solo envía
+ * acciones con submit() y consume el estado tras cada tick, de modo que un
+ * repintado lento ya no estira el tiempo del juego.
+ *
+ * Si el juego usa un TickClock, cada tick avanza el reloj exactamente
+ * getTickMillis(), de modo que runTicks() simula el tiempo de juego a la
+ * velocidad que permita la CPU.
+ *
+ * Cada tick se ejecuta con el monitor de la instancia de BadDopoCream tomado;
+ * quien lea el estado desde otro hilo debe sincronizar sobre el mismo objeto,
+ * o copiar el FrameSnapshot que se publica tras cada tick y cada
+ * acción.
+ *
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+public class GameLoop {
+
+    /** Duración por defecto de un tick (la misma velocidad del juego original) */
+    public static final long DEFAULT_TICK_MILLIS = 500;
+
+    /** Ticks de atraso tolerados antes de descartar el retraso acumulado */
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    /**
+     * Observador de los ticks de la simulación.
+     * Los métodos se invocan en el hilo de simulación con el juego bloqueado.
+     */
+    public interface TickListener {
+
+        /** Se invoca antes de avanzar el reloj y actualizar enemigos y frutas (p. ej. decisiones de IA) */
+        default void beforeTick(BadDopoCream game, long tick) {}
+
+        /** Se invoca después de actualizar el juego */
+        default void afterTick(BadDopoCream game, long tick) {}
+
+        /** Se invoca después de aplicar una acción enviada con submit() entre ticks */
+        default void afterAction(BadDopoCream game) {}
+    }
+
+    private final BadDopoCream game;
+    private final long tickNanos;
+    private final BlockingQueue<Runnable> pendingActions;
+    private final List<TickListener> listeners;
+    private volatile boolean running;
+    private volatile Thread simulationThread;
+
+    public GameLoop(BadDopoCream game){
+        this(game, DEFAULT_TICK_MILLIS);
+    }
+
+    /**
+     * @param game Juego a simular
+     * @param tickMillis Duración de cada tick en milisegundos
+     */
+    public GameLoop(BadDopoCream game, long tickMillis){
+        if(game == null){
+            throw new IllegalArgumentException(BadDopoCream_Exceptions.INVALID_GAME_STATE);
+        }
+        if(tickMillis <= 0){
+            throw new IllegalArgumentException("La duración del tick debe ser positiva: " + tickMillis);
+        }
+        this.game = game;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.pendingActions = new LinkedBlockingQueue<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.running = false;
+    }
+
+    public void addTickListener(TickListener listener){
+        if(listener != null){
+            listeners.add(listener);
+        }
+    }
+
+    public void removeTickListener(TickListener listener){
+        listeners.remove(listener);
+    }
+
+    /**
+     * Encola una acción (movimiento, hielo...) para ejecutarla en el hilo de simulación.
+     * Con el bucle detenido la acción queda pendiente hasta el siguiente tick.
+     */
+    public void submit(Runnable action){
+        if(action != null){
+            pendingActions.offer(action);
+        }
+    }
+
+    /**
+     * Inicia la simulación en un hilo propio. No hace nada si ya está corriendo.
+     */
+    public synchronized void start(){
+        if(running) return;
+        running = true;
+        simulationThread = new Thread(this::runLoop, "BadDopoCream-GameLoop");
+        simulationThread.setDaemon(true);
+        simulationThread.start();
+    }
+
+    /**
+     * Detiene la simulación y espera a que termine el tick en curso.
+     */
+    public synchronized void stop(){
+        running = false;
+        Thread thread = simulationThread;
+        simulationThread = null;
+        if(thread == null || thread == Thread.currentThread()) return;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.NANOSECONDS.toMillis(tickNanos) + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isRunning(){
+        return running;
+    }
+
+    /**
+     * Ejecuta ticks de forma síncrona en el hilo llamador, sin esperar entre ellos.
+     * Se detiene antes si la partida termina.
+     * @param ticks Número máximo de ticks a simular
+     * @return Número de ticks realmente ejecutados
+     */
+    public int runTicks(int ticks){
+        if(running){
+            throw new IllegalStateException(BadDopoCream_Exceptions.GAME_THREAD_ERROR);
+        }
+        int executed = 0;
+        while(executed < ticks && !isFinished()){
+            tick();
+            executed++;
+        }
+        return executed;
+    }
+
+    /**
+     * Ejecuta un único tick: acciones pendientes, observadores y update() del juego.
+     */
+    public void tick(){
+        synchronized(game){
+            drainPendingActions();
+            long tick = game.getTickCount() + 1;
+            for(TickListener listener : listeners){
+                listener.beforeTick(game, tick);
+            }
+            // Los relojes por ticks avanzan exactamente un paso; el de pared lo ignora.
+            // Todas las acciones del tick ocurren antes, igual que al reproducir una repetición
+            game.getClock().advance(getTickMillis());
+            game.update();
+            game.publishFrame();
+            for(TickListener listener : listeners){
+                listener.afterTick(game, tick);
+            }
+        }
+    }
+
+    /**
+     * Indica si la partida ya no puede avanzar (derrota, victoria o tiempo agotado)
+     */
+    public boolean isFinished(){
+        synchronized(game){
+            return game.getCurrentLevel() == null || game.isGameOver()
+                || game.isGameWon() || game.isTimeExpired();
+        }
+    }
+
+    public long getTickMillis(){
+        return TimeUnit.NANOSECONDS.toMillis(tickNanos);
+    }
+
+    private void runLoop(){
+        Thread self = Thread.currentThread();
+        long nextTick = System.nanoTime() + tickNanos;
+        try {
+            while(running && simulationThread == self){
+                long wait = nextTick - System.nanoTime();
+                if(wait > 0){
+                    // Las acciones del jugador se aplican en cuanto llegan, sin esperar al tick
+                    Runnable action = pendingActions.poll(wait, TimeUnit.NANOSECONDS);
+                    if(action != null){
+                        synchronized(game){
+                            action.run();
+                            game.publishFrame();
+                            for(TickListener listener : listeners){
+                                listener.afterAction(game);
+                            }
+                        }
+                    }
+                    continue;
+                }
+                tick();
+                nextTick += tickNanos;
+                if(System.nanoTime() - nextTick > tickNanos * MAX_CATCH_UP_TICKS){
+                    nextTick = System.nanoTime() + tickNanos;
+                }
+            }
+        } catch (InterruptedException e) {
+            // stop() interrumpe la espera: terminar en silencio
+        } catch (RuntimeException e) {
+            System.err.println(BadDopoCream_Exceptions.GAME_THREAD_ERROR + ": " + e.getMessage());
+        } finally {
+            if(simulationThread == self){
+                running = false;
+            }
+        }
+    }
+
+    private void drainPendingActions(){
+        Runnable action;
+        while((action = pendingActions.poll()) != null){
+            action.run();
+        }
+    }
+}
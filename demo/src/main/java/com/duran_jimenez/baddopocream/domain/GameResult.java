@@ -0,0 +1,26 @@
+package com.duran_jimenez.baddopocream.domain;
+
+/**
+ * Resultado de una partida simulada sin interfaz
+ * (Data Transfer Object, ver SelfPlaySimulator)
+ */
+public class GameResult {
+    public final boolean won;
+    public final boolean died;
+    public final int fruitsCollected;
+    public final int totalFruits;
+    public final long ticks;
+    public final int score;
+    public final long seed; // Semilla con la que se reproduce la partida (SelfPlaySimulator.playGame(seed))
+
+    public GameResult(boolean won, boolean died, int fruitsCollected, int totalFruits, long ticks, int score,
+                      long seed){
+        this.won = won;
+        this.died = died;
+        this.fruitsCollected = fruitsCollected;
+        this.totalFruits = totalFruits;
+        this.ticks = ticks;
+        this.score = score;
+        this.seed = seed;
+    }
+}
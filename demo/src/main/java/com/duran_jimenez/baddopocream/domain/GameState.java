@@ -2,16 +2,55 @@ package com.duran_jimenez.baddopocream.domain;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Clase para guardar y cargar el estado del juego
- * Implementa Serializable para persistencia
+ * 
+ * Formato binario propio (versión 4): cabecera "BDCS" + versión, tabla de
+ * cadenas (colores, modo, nombres de frutas y enemigos) y posiciones en
+ * varint; una partida típica ocupa unos cientos de bytes.
+ * La versión 3 agrega número y semilla del nivel y la instantánea completa del
+ * nivel (Level.captureSnapshot()); los guardados versión 2 se cargan sin ella.
+ * La versión 4 repite al inicio un resumen (fecha, nivel, puntaje y modo) para
+ * listar las partidas leyendo solo la cabecera (ver SaveIndex).
+ * Los guardados anteriores (versión 1) son serialización Java: se siguen
+ * leyendo y se reescriben en el formato nuevo al volver a guardar.
+ * Por eso la clase sigue siendo Serializable con los mismos campos.
+ * 
+ * Los guardados se escriben de forma atómica (archivo temporal, sync y
+ * renombrado); saveGameAsync() lo hace en el hilo de SaveService.
  */
 public class GameState implements Serializable {
     
     private static final long serialVersionUID = 1L;
     private static final String SAVE_DIRECTORY = "saves";
     private static final String SAVE_EXTENSION = ".bdcsave";
+    private static final int MAGIC = 0x42444353; // "BDCS"
+    private static final int VERSION = 4;
+    private static final int FIRST_BINARY_VERSION = 2;
+    private static final int SNAPSHOT_VERSION = 3;
+    private static final int SUMMARY_VERSION = 4;
+    private static final int JAVA_SERIALIZATION_MAGIC = 0xACED; // Guardados versión 1
+    private static final int FLAG_PLAYER = 1;
+    private static final int FLAG_PLAYER2 = 2;
+    
+    /**
+     * Clases admitidas al leer un guardado versión 1: GameState, sus clases
+     * Serializable* internas, las listas y arreglos primitivos. Cualquier otra
+     * se rechaza antes de instanciarla (el archivo puede venir de fuera).
+     */
+    private static final ObjectInputFilter LEGACY_FILTER = ObjectInputFilter.Config.createFilter(
+        "maxdepth=8;"
+        + GameState.class.getName() + ";"
+        + GameState.class.getName() + "$Serializable*;"
+        + "java.util.ArrayList;java.lang.Object;java.lang.String;!*");
+    
+    /** Escritor compartido de guardados en segundo plano */
+    private static final SaveService SAVE_SERVICE = new SaveService(SaveService.DEFAULT_CAPACITY);
+    
+    /** Serializa renombrados, borrados y el índice entre el hilo escritor y la interfaz */
+    private static final Object SAVE_LOCK = new Object();
     
     // Datos del juego a guardar
     private int currentLevelIndex;
@@ -31,6 +70,11 @@ public class GameState implements Serializable {
     private List<SerializableFruit> fruits;
     private List<SerializableEnemy> enemies;
     
+    // Nivel exacto (versión 3): se regenera con la semilla y se aplica la instantánea
+    private int levelNumber;
+    private long levelSeed;
+    private byte[] levelSnapshot;
+    
     public GameState() {
         this.saveTimestamp = System.currentTimeMillis();
         this.fruits = new ArrayList<>();
@@ -43,64 +87,115 @@ public class GameState implements Serializable {
      */
     public static boolean saveGame(BadDopoCream game, String playerColor, String gameMode, String saveName) 
             throws BadDopoCream_Exceptions {
+        GameState state = capture(game, playerColor, gameMode);
+        if (state == null) {
+            return false;
+        }
+        state.writeTo(saveName);
+        return true;
+    }
+    
+    /**
+     * Toma el estado en el hilo actual y lo escribe en segundo plano
+     * @return Futuro con true si quedó guardado y false si falló (el error se imprime)
+     */
+    public static CompletableFuture<Boolean> saveGameAsync(BadDopoCream game, String playerColor, 
+            String gameMode, String saveName) {
+        GameState state = capture(game, playerColor, gameMode);
+        if (state == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return SAVE_SERVICE.save(saveName, state).handle((ignored, error) -> {
+            if (error != null) {
+                System.err.println("Error al guardar partida: " + error.getMessage());
+                return false;
+            }
+            return true;
+        });
+    }
+    
+    /**
+     * Escribe el estado en saves/ de forma atómica: primero en un archivo
+     * temporal que se sincroniza con el disco y luego se renombra sobre el
+     * guardado, así un fallo a mitad de escritura deja intacto el anterior
+     * @throws BadDopoCream_Exceptions si falla la escritura
+     */
+    void writeTo(String saveName) throws BadDopoCream_Exceptions {
+        File saveDir = new File(SAVE_DIRECTORY);
+        File saveFile = new File(saveDir, saveName + SAVE_EXTENSION);
         try {
             // Crear directorio de guardado si no existe
-            File saveDir = new File(SAVE_DIRECTORY);
             if (!saveDir.exists()) {
                 saveDir.mkdir();
             }
-            
-            GameState state = new GameState();
-            Level currentLevel = game.getCurrentLevel();
-            
-            if (currentLevel == null) {
-                return false;
-            }
-            
-            // Guardar datos generales
-            state.currentLevelIndex = game.getCurrentLevelNumber() - 1;
-            state.totalScore = game.getTotalScore();
-            state.playerColor = playerColor;
-            state.gameMode = gameMode;
-            
-            // Guardar datos del nivel
-            state.levelScore = currentLevel.getCurrentScore();
-            state.collectedFruits = currentLevel.getCollectedFruits();
-            state.remainingTime = currentLevel.getRemainingTime();
-            
-            // Guardar posición del jugador
-            IceCream player = currentLevel.getPlayer();
-            if (player != null) {
-                state.playerLocation = new SerializableLocation(player.getLocation());
+            SaveService.writeAtomically(saveFile, this::write);
+            synchronized (SAVE_LOCK) {
+                SaveIndex index = new SaveIndex(saveDir, SAVE_EXTENSION);
+                index.put(saveFile, summarize(saveName));
+                index.save();
             }
-            
-            // Guardar posición del jugador 2 si existe
-            if (currentLevel.hasTwoPlayers()) {
-                IceCream player2 = currentLevel.getPlayer2();
-                if (player2 != null) {
-                    state.player2Location = new SerializableLocation(player2.getLocation());
-                }
-            }
-            
-            guardarFrutas(currentLevel.getFruits(), state);
-            guardarEnemigos(currentLevel.getEnemies(), state);
-            
-            // Escribir archivo
-            String fileName = SAVE_DIRECTORY + "/" + saveName + SAVE_EXTENSION;
-            FileOutputStream fileOut = new FileOutputStream(fileName);
-            ObjectOutputStream out = new ObjectOutputStream(fileOut);
-            out.writeObject(state);
-            out.close();
-            fileOut.close();
-            
-            return true;
-            
         } catch (IOException e) {
             throw new BadDopoCream_Exceptions(
                 BadDopoCream_Exceptions.SAVE_GAME_ERROR + " '" + saveName + "'", e);
         }
     }
     
+    /**
+     * Toma una instantánea del estado del juego (sin escribirla)
+     * @return El estado, o null si no hay nivel en curso
+     */
+    public static GameState capture(BadDopoCream game, String playerColor, String gameMode) {
+        return capture(game, playerColor, gameMode, true);
+    }
+    
+    /**
+     * @param withLevel false para no incluir frutas, enemigos ni la instantánea
+     *        del nivel (el autoguardado los guarda aparte por diferencias)
+     */
+    static GameState capture(BadDopoCream game, String playerColor, String gameMode, boolean withLevel) {
+        GameState state = new GameState();
+        Level currentLevel = game.getCurrentLevel();
+        
+        if (currentLevel == null) {
+            return null;
+        }
+        
+        // Guardar datos generales
+        state.currentLevelIndex = game.getCurrentLevelNumber() - 1;
+        state.totalScore = game.getTotalScore();
+        state.playerColor = playerColor;
+        state.gameMode = gameMode;
+        
+        // Guardar datos del nivel
+        state.levelScore = currentLevel.getCurrentScore();
+        state.collectedFruits = currentLevel.getCollectedFruits();
+        state.remainingTime = currentLevel.getRemainingTime();
+        
+        // Guardar posición del jugador
+        IceCream player = currentLevel.getPlayer();
+        if (player != null) {
+            state.playerLocation = new SerializableLocation(player.getLocation());
+        }
+        
+        // Guardar posición del jugador 2 si existe
+        if (currentLevel.hasTwoPlayers()) {
+            IceCream player2 = currentLevel.getPlayer2();
+            if (player2 != null) {
+                state.player2Location = new SerializableLocation(player2.getLocation());
+            }
+        }
+        
+        state.levelNumber = currentLevel.getLevelNumber();
+        state.levelSeed = currentLevel.getSeed();
+        if (withLevel) {
+            guardarFrutas(currentLevel.getFruits(), state);
+            guardarEnemigos(currentLevel.getEnemies(), state);
+            state.levelSnapshot = currentLevel.captureSnapshot();
+        }
+        
+        return state;
+    }
+    
 
     private static void guardarFrutas(ArrayList<Fruit> frutas, GameState state) {
         for (Fruit fruta : frutas) {
@@ -134,16 +229,11 @@ public class GameState implements Serializable {
      */
     public static GameState loadGame(String saveName) 
             throws BadDopoCream_Exceptions {
-        try {
-            String fileName = SAVE_DIRECTORY + "/" + saveName + SAVE_EXTENSION;
-            FileInputStream fileIn = new FileInputStream(fileName);
-            ObjectInputStream in = new ObjectInputStream(fileIn);
-            GameState state = (GameState) in.readObject();
-            in.close();
-            fileIn.close();
-            return state;
+        String fileName = SAVE_DIRECTORY + "/" + saveName + SAVE_EXTENSION;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(fileName))) {
+            return read(in);
             
-        } catch (ClassNotFoundException e) {
+        } catch (ClassNotFoundException | ClassCastException e) {
             throw new BadDopoCream_Exceptions(
                 BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE + " '" + saveName + "'", e);
         } catch (IOException e) {
@@ -184,13 +274,280 @@ public class GameState implements Serializable {
         return saves;
     }
     
+    /**
+     * Lista el resumen de cada partida guardada sin cargarlas: lee el índice
+     * de la carpeta y solo la cabecera de los guardados nuevos o modificados
+     */
+    public static List<SaveSummary> listSaveSummaries() {
+        File saveDir = new File(SAVE_DIRECTORY);
+        if (!saveDir.isDirectory()) {
+            return new ArrayList<>();
+        }
+        synchronized (SAVE_LOCK) {
+            return new SaveIndex(saveDir, SAVE_EXTENSION).list();
+        }
+    }
+    
     /**
      * Elimina un archivo de guardado
      */
     public static boolean deleteSave(String saveName) {
         String fileName = SAVE_DIRECTORY + "/" + saveName + SAVE_EXTENSION;
         File file = new File(fileName);
-        return file.exists() && file.delete();
+        synchronized (SAVE_LOCK) {
+            boolean deleted = file.exists() && file.delete();
+            if (deleted) {
+                SaveIndex index = new SaveIndex(new File(SAVE_DIRECTORY), SAVE_EXTENSION);
+                index.remove(saveName);
+                index.save();
+            }
+            return deleted;
+        }
+    }
+    
+    // ==================== FORMATO BINARIO ====================
+    
+    /**
+     * Escribe el estado en el formato binario actual
+     */
+    public void write(OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(output);
+        
+        // Tabla de cadenas: cada nombre se escribe una vez y luego se referencia por índice
+        LinkedHashMap<String, Integer> strings = new LinkedHashMap<>();
+        int playerColorId = stringId(strings, playerColor);
+        int gameModeId = stringId(strings, gameMode);
+        int[] fruitIds = new int[fruits.size()];
+        for (int i = 0; i < fruitIds.length; i++) {
+            fruitIds[i] = stringId(strings, fruits.get(i).name);
+        }
+        int[] enemyIds = new int[enemies.size()];
+        for (int i = 0; i < enemyIds.length; i++) {
+            enemyIds[i] = stringId(strings, enemies.get(i).type);
+        }
+        
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(saveTimestamp);
+        writeSummary(out);
+        BinaryCodec.writeVarLong(out, strings.size());
+        for (String value : strings.keySet()) {
+            out.writeUTF(value);
+        }
+        
+        BinaryCodec.writeVarLong(out, playerColorId);
+        BinaryCodec.writeVarLong(out, gameModeId);
+        BinaryCodec.writeVarInt(out, currentLevelIndex);
+        BinaryCodec.writeVarInt(out, totalScore);
+        BinaryCodec.writeVarInt(out, levelScore);
+        BinaryCodec.writeVarInt(out, collectedFruits);
+        BinaryCodec.writeVarLong(out, remainingTime);
+        
+        out.writeByte((playerLocation != null ? FLAG_PLAYER : 0) | (player2Location != null ? FLAG_PLAYER2 : 0));
+        if (playerLocation != null) {
+            writeLocation(out, playerLocation);
+        }
+        if (player2Location != null) {
+            writeLocation(out, player2Location);
+        }
+        
+        BinaryCodec.writeVarLong(out, fruits.size());
+        for (int i = 0; i < fruitIds.length; i++) {
+            SerializableFruit fruit = fruits.get(i);
+            // El bit bajo del índice indica si la fruta ya fue recolectada
+            BinaryCodec.writeVarLong(out, (long) fruitIds[i] << 1 | (fruit.collected ? 1 : 0));
+            writeLocation(out, fruit.location);
+        }
+        BinaryCodec.writeVarLong(out, enemies.size());
+        for (int i = 0; i < enemyIds.length; i++) {
+            BinaryCodec.writeVarLong(out, enemyIds[i]);
+            writeLocation(out, enemies.get(i).location);
+        }
+        
+        BinaryCodec.writeVarLong(out, levelNumber);
+        out.writeLong(levelSeed);
+        byte[] snapshot = levelSnapshot != null ? levelSnapshot : new byte[0];
+        BinaryCodec.writeVarLong(out, snapshot.length);
+        out.write(snapshot);
+        out.flush();
+    }
+    
+    /**
+     * Lee un estado en formato binario o, si es un guardado antiguo, con serialización Java
+     * @param input Flujo que soporte mark/reset (p. ej. BufferedInputStream)
+     * @throws IOException si el flujo no es un guardado válido o un guardado
+     *         antiguo contiene clases no admitidas (InvalidClassException)
+     * @throws ClassNotFoundException si un guardado antiguo referencia clases inexistentes
+     */
+    public static GameState read(InputStream input) throws IOException, ClassNotFoundException {
+        if (!input.markSupported()) {
+            input = new BufferedInputStream(input);
+        }
+        input.mark(4);
+        DataInputStream in = new DataInputStream(input);
+        int magic = in.readInt();
+        if (magic >>> 16 == JAVA_SERIALIZATION_MAGIC) {
+            input.reset();
+            ObjectInputStream legacy = new ObjectInputStream(input);
+            legacy.setObjectInputFilter(LEGACY_FILTER);
+            return (GameState) legacy.readObject();
+        }
+        int version = readVersion(in, magic);
+        
+        GameState state = new GameState();
+        state.saveTimestamp = in.readLong();
+        if (version >= SUMMARY_VERSION) {
+            readSummary(in, null, state.saveTimestamp); // Repite datos del cuerpo
+        }
+        String[] strings = new String[checkedCount(BinaryCodec.readVarLong(in))];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = in.readUTF();
+        }
+        
+        state.playerColor = stringAt(strings, BinaryCodec.readVarLong(in));
+        state.gameMode = stringAt(strings, BinaryCodec.readVarLong(in));
+        state.currentLevelIndex = BinaryCodec.readVarInt(in);
+        state.totalScore = BinaryCodec.readVarInt(in);
+        state.levelScore = BinaryCodec.readVarInt(in);
+        state.collectedFruits = BinaryCodec.readVarInt(in);
+        state.remainingTime = BinaryCodec.readVarLong(in);
+        
+        int flags = in.readUnsignedByte();
+        if ((flags & FLAG_PLAYER) != 0) {
+            state.playerLocation = readLocation(in);
+        }
+        if ((flags & FLAG_PLAYER2) != 0) {
+            state.player2Location = readLocation(in);
+        }
+        
+        int fruitCount = checkedCount(BinaryCodec.readVarLong(in));
+        for (int i = 0; i < fruitCount; i++) {
+            long idAndCollected = BinaryCodec.readVarLong(in);
+            SerializableFruit fruit = new SerializableFruit();
+            fruit.name = stringAt(strings, idAndCollected >>> 1);
+            fruit.collected = (idAndCollected & 1) != 0;
+            fruit.location = readLocation(in);
+            state.fruits.add(fruit);
+        }
+        int enemyCount = checkedCount(BinaryCodec.readVarLong(in));
+        for (int i = 0; i < enemyCount; i++) {
+            SerializableEnemy enemy = new SerializableEnemy();
+            enemy.type = stringAt(strings, BinaryCodec.readVarLong(in));
+            enemy.location = readLocation(in);
+            state.enemies.add(enemy);
+        }
+        
+        if (version >= SNAPSHOT_VERSION) {
+            state.levelNumber = (int) BinaryCodec.readVarLong(in);
+            state.levelSeed = in.readLong();
+            long length = BinaryCodec.readVarLong(in);
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+            }
+            byte[] snapshot = in.readNBytes((int) length);
+            if (snapshot.length != length) {
+                throw new EOFException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+            }
+            state.levelSnapshot = snapshot.length > 0 ? snapshot : null;
+        }
+        return state;
+    }
+    
+    /**
+     * Lee solo el resumen de un guardado. Los guardados anteriores a la versión 4
+     * no lo tienen y se leen completos.
+     * @param input Flujo posicionado al inicio del guardado
+     */
+    public static SaveSummary readSummary(String saveName, InputStream input) 
+            throws IOException, ClassNotFoundException {
+        if (!input.markSupported()) {
+            input = new BufferedInputStream(input);
+        }
+        input.mark(5);
+        DataInputStream in = new DataInputStream(input);
+        int magic = in.readInt();
+        if (magic >>> 16 != JAVA_SERIALIZATION_MAGIC && readVersion(in, magic) >= SUMMARY_VERSION) {
+            return readSummary(in, saveName, in.readLong());
+        }
+        input.reset();
+        return read(input).summarize(saveName);
+    }
+    
+    /**
+     * Resumen de este estado para el índice de guardados
+     */
+    public SaveSummary summarize(String saveName) {
+        return new SaveSummary(saveName, saveTimestamp, summaryLevel(), totalScore, gameMode);
+    }
+    
+    /** Los guardados sin instantánea solo conocen el índice del nivel */
+    private int summaryLevel() {
+        return levelNumber > 0 ? levelNumber : currentLevelIndex + 1;
+    }
+    
+    private void writeSummary(DataOutputStream out) throws IOException {
+        BinaryCodec.writeVarInt(out, summaryLevel());
+        BinaryCodec.writeVarInt(out, totalScore);
+        out.writeBoolean(gameMode != null);
+        if (gameMode != null) {
+            out.writeUTF(gameMode);
+        }
+    }
+    
+    private static SaveSummary readSummary(DataInputStream in, String saveName, long timestamp) throws IOException {
+        int level = BinaryCodec.readVarInt(in);
+        int score = BinaryCodec.readVarInt(in);
+        String mode = in.readBoolean() ? in.readUTF() : null;
+        return new SaveSummary(saveName, timestamp, level, score, mode);
+    }
+    
+    private static int readVersion(DataInputStream in, int magic) throws IOException {
+        if (magic != MAGIC) {
+            throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+        }
+        int version = in.readUnsignedByte();
+        if (version < FIRST_BINARY_VERSION || version > VERSION) {
+            throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE + " (versión " + version + ")");
+        }
+        return version;
+    }
+    
+    /** Índice de la cadena en la tabla (0 = null) */
+    private static int stringId(LinkedHashMap<String, Integer> strings, String value) {
+        if (value == null) {
+            return 0;
+        }
+        return strings.computeIfAbsent(value, v -> strings.size() + 1);
+    }
+    
+    private static String stringAt(String[] strings, long id) throws IOException {
+        if (id == 0) {
+            return null;
+        }
+        if (id > strings.length) {
+            throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+        }
+        return strings[(int) id - 1];
+    }
+    
+    /** Evita reservar arreglos enormes con un contador corrupto */
+    private static int checkedCount(long count) throws IOException {
+        if (count > Short.MAX_VALUE) {
+            throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+        }
+        return (int) count;
+    }
+    
+    private static void writeLocation(DataOutputStream out, SerializableLocation location) throws IOException {
+        BinaryCodec.writeVarInt(out, location.x);
+        BinaryCodec.writeVarInt(out, location.y);
+    }
+    
+    private static SerializableLocation readLocation(DataInputStream in) throws IOException {
+        SerializableLocation location = new SerializableLocation();
+        location.x = BinaryCodec.readVarInt(in);
+        location.y = BinaryCodec.readVarInt(in);
+        return location;
     }
     
     // Getters
@@ -201,6 +558,16 @@ public class GameState implements Serializable {
     public long getSaveTimestamp() { return saveTimestamp; }
     public int getLevelScore() { return levelScore; }
     public int getCollectedFruits() { return collectedFruits; }
+    
+    /** Número del nivel guardado (0 en guardados sin instantánea) */
+    public int getLevelNumber() { return levelNumber; }
+    public long getLevelSeed() { return levelSeed; }
+    public boolean hasLevelSnapshot() { return levelSnapshot != null; }
+    byte[] getLevelSnapshot() { return levelSnapshot; }
+    void setLevelSnapshot(byte[] snapshot) { this.levelSnapshot = snapshot; }
+    
+    /** Hilo escritor compartido (guardados y autoguardado) */
+    static SaveService saveService() { return SAVE_SERVICE; }
     public long getRemainingTime() { return remainingTime; }
     public SerializableLocation getPlayerLocation() { return playerLocation; }
     public SerializableLocation getPlayer2Location() { return player2Location; }
@@ -212,6 +579,9 @@ public class GameState implements Serializable {
         private static final long serialVersionUID = 1L;
         int x, y;
         
+        SerializableLocation() {
+        }
+        
         SerializableLocation(Location loc) {
             this.x = loc.getX();
             this.y = loc.getY();
@@ -228,6 +598,9 @@ public class GameState implements Serializable {
         SerializableLocation location;
         boolean collected;
         
+        SerializableFruit() {
+        }
+        
         SerializableFruit(Fruit fruit) {
             this.name = fruit.getName();
             this.location = new SerializableLocation(fruit.getLocation());
@@ -240,6 +613,9 @@ public class GameState implements Serializable {
         String type;
         SerializableLocation location;
         
+        SerializableEnemy() {
+        }
+        
         SerializableEnemy(Enemy enemy) {
             this.type = enemy.getName();
             this.location = new SerializableLocation(enemy.getLocation());
@@ -1,73 +1,141 @@
 package com.duran_jimenez.baddopocream.domain;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputFilter;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
 import java.io.Serializable;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
 
 /**
  * Gestor de highscores para Bad Dopo Cream
  * Almacena y recupera los mejores puntajes de los jugadores
+ *
+ * Los puntajes se guardan en un registro de solo agregado
+ * (~/.baddopocream/highscores.log): registrar un puntaje escribe un registro
+ * al final, sin reescribir el historial. En memoria solo se conservan los
+ * mejores MAX_HIGHSCORES en montículos de mínimos, uno general y uno por modo,
+ * así cada inserción es O(log K).
+ *
+ * Varias instancias del juego comparten el registro: la escritura se hace con
+ * un bloqueo de archivo (highscores.lock) y antes de escribir se leen los
+ * registros que agregaron las demás. Cuando el registro acumula demasiados
+ * registros que ya no entran en ninguna tabla se compacta: se reescribe de
+ * forma atómica solo con los que siguen en ellas.
  */
 public class HighScoreManager {
-    
-    private static final String HIGHSCORE_FILE = "highscores.dat";
+
+    private static final String HIGHSCORE_LOG = "highscores.log";
+    private static final String LOCK_FILE = "highscores.lock";
+    private static final String LEGACY_FILE = "highscores.dat";
     private static final int MAX_HIGHSCORES = 10;
-    
-    private List<HighScoreEntry> highScores;
-    
+    private static final int MAGIC = 0x42444348; // "BDCH"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 1 + 8; // Magia, versión y generación
+    private static final int COMPACT_MIN_RECORDS = 256;
+
+    /**
+     * Clases admitidas al importar highscores.dat: la lista de entradas y sus
+     * cadenas. Cualquier otra se rechaza antes de instanciarla.
+     */
+    private static final ObjectInputFilter LEGACY_FILTER = ObjectInputFilter.Config.createFilter(
+        "maxdepth=5;"
+        + HighScoreEntry.class.getName() + ";"
+        + "java.util.ArrayList;java.lang.Object;java.lang.String;!*");
+
+    /** Dos gestores del mismo proceso no pueden tomar a la vez el bloqueo de archivo */
+    private static final Object PROCESS_LOCK = new Object();
+    private static final Random GENERATIONS = new Random();
+
+    /** Orden de los montículos: primero el que saldría de la tabla (menor puntaje, y a igual puntaje el más nuevo) */
+    private static final Comparator<HighScoreEntry> LOWEST_FIRST =
+        Comparator.comparingInt(HighScoreEntry::getScore)
+            .thenComparing(Comparator.comparingLong(HighScoreEntry::getTimestamp).reversed());
+
+    private final File directory;
+    private final File logFile;
+    private final PriorityQueue<HighScoreEntry> highScores; // Tabla general
+    private final HashMap<String, PriorityQueue<HighScoreEntry>> highScoresByMode;
+    private long generation; // Cambia en cada compactación o limpieza
+    private long readOffset; // Fin del último registro leído
+    private int records; // Registros en el archivo
+    private boolean compactPending;
+
     public HighScoreManager() {
-        this.highScores = new ArrayList<>();
+        this(new File(System.getProperty("user.home"), ".baddopocream"));
+    }
+
+    HighScoreManager(File directory) {
+        this.directory = directory;
+        this.logFile = new File(directory, HIGHSCORE_LOG);
+        this.highScores = new PriorityQueue<>(MAX_HIGHSCORES + 1, LOWEST_FIRST);
+        this.highScoresByMode = new HashMap<>();
+        this.generation = 0;
         loadHighScores();
     }
-    
+
     /**
      * Representa una entrada de highscore
      */
     public static class HighScoreEntry implements Serializable, Comparable<HighScoreEntry> {
         private static final long serialVersionUID = 1L;
-        
+
         private final String playerName;
         private final int score;
         private final String gameMode;
         private final long timestamp;
         private final int levelsCompleted;
-        
+
         public HighScoreEntry(String playerName, int score, String gameMode, int levelsCompleted) {
+            this(playerName, score, gameMode, levelsCompleted, System.currentTimeMillis());
+        }
+
+        HighScoreEntry(String playerName, int score, String gameMode, int levelsCompleted, long timestamp) {
             this.playerName = playerName;
             this.score = score;
             this.gameMode = gameMode;
             this.levelsCompleted = levelsCompleted;
-            this.timestamp = System.currentTimeMillis();
+            this.timestamp = timestamp;
         }
-        
+
         public String getPlayerName() { return playerName; }
         public int getScore() { return score; }
         public String getGameMode() { return gameMode; }
         public long getTimestamp() { return timestamp; }
         public int getLevelsCompleted() { return levelsCompleted; }
-        
+
         @Override
         public int compareTo(HighScoreEntry other) {
             // Ordenar de mayor a menor puntaje
             return Integer.compare(other.score, this.score);
         }
-        
+
         @Override
         public String toString() {
             return String.format("%s - %d pts (%s)", playerName, score, gameMode);
         }
     }
-    
+
     /**
-     * Agrega un nuevo highscore si califica
-     * @return true si el puntaje fue agregado a la lista de highscores
+     * Agrega un nuevo highscore si califica para la tabla general o la de su modo
+     * @return true si el puntaje fue agregado a alguna tabla de highscores
      */
     public boolean addHighScore(String playerName, int score, String gameMode, int levelsCompleted) {
         // Limpiar el nombre
@@ -78,45 +146,56 @@ public class HighScoreManager {
         if (cleanName.length() > 20) {
             cleanName = cleanName.substring(0, 20);
         }
-        
+
         HighScoreEntry newEntry = new HighScoreEntry(cleanName, score, gameMode, levelsCompleted);
-        
-        // Verificar si califica para la lista
-        if (highScores.size() < MAX_HIGHSCORES || isHighScore(score)) {
-            highScores.add(newEntry);
-            Collections.sort(highScores);
-            
-            // Mantener solo los mejores MAX_HIGHSCORES
-            while (highScores.size() > MAX_HIGHSCORES) {
-                highScores.remove(highScores.size() - 1);
+        boolean[] added = new boolean[1];
+        boolean stored = withLock(log -> {
+            syncLog(log);
+            // Verificar si califica para alguna tabla
+            if (qualifies(newEntry)) {
+                appendRecord(log, newEntry);
+                offer(newEntry);
+                added[0] = true;
+                // Compactar cuando la mayoría de los registros ya no está en ninguna tabla
+                compactPending = records > Math.max(COMPACT_MIN_RECORDS, 4 * retained().size());
             }
-            
-            saveHighScores();
-            return true;
+        });
+        if (!stored && qualifies(newEntry)) {
+            // Sin acceso al archivo: se conserva al menos en memoria
+            offer(newEntry);
+            added[0] = true;
         }
-        
-        return false;
+        return added[0];
     }
-    
+
     /**
      * Verifica si un puntaje califica para la lista de highscores
      */
     public boolean isHighScore(int score) {
         if (score <= 0) return false;
         if (highScores.size() < MAX_HIGHSCORES) return true;
-        
+
         // Verificar si el puntaje es mayor que el menor en la lista
-        HighScoreEntry lowest = highScores.get(highScores.size() - 1);
-        return score > lowest.getScore();
+        return score > highScores.peek().getScore();
     }
-    
+
     /**
-     * Obtiene la lista de highscores
+     * Obtiene la lista de highscores, con los que registraron otras instancias
      */
     public List<HighScoreEntry> getHighScores() {
-        return new ArrayList<>(highScores);
+        withLock(this::syncLog);
+        return sorted(highScores);
     }
-    
+
+    /**
+     * Obtiene la tabla de highscores de un modo de juego
+     */
+    public List<HighScoreEntry> getHighScores(String gameMode) {
+        withLock(this::syncLog);
+        PriorityQueue<HighScoreEntry> modeScores = highScoresByMode.get(modeKey(gameMode));
+        return modeScores == null ? new ArrayList<>() : sorted(modeScores);
+    }
+
     /**
      * Obtiene la posición que tendría un puntaje en la lista
      * @return posición (1-10) o -1 si no califica
@@ -125,78 +204,295 @@ public class HighScoreManager {
         if (!isHighScore(score) && highScores.size() >= MAX_HIGHSCORES) {
             return -1;
         }
-        
+
         int position = 1;
         for (HighScoreEntry entry : highScores) {
-            if (score > entry.getScore()) {
-                return position;
+            if (entry.getScore() >= score) {
+                position++;
             }
-            position++;
         }
         return position;
     }
-    
+
     /**
-     * Guarda los highscores en archivo
+     * Limpia todos los highscores (para testing o reset)
+     */
+    public void clearHighScores() {
+        highScores.clear();
+        highScoresByMode.clear();
+        withLock(log -> compactPending = true);
+    }
+
+    /**
+     * Obtiene el highscore más alto
      */
-    private void saveHighScores() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new FileOutputStream(getHighScoreFilePath()))) {
-            oos.writeObject(highScores);
-        } catch (IOException e) {
-            System.err.println("Error guardando highscores: " + e.getMessage());
+    public int getTopScore() {
+        int top = 0;
+        for (HighScoreEntry entry : highScores) {
+            top = Math.max(top, entry.getScore());
         }
+        return top;
+    }
+
+    // ==================== TABLAS EN MEMORIA ====================
+
+    private boolean qualifies(HighScoreEntry entry) {
+        return qualifies(highScores, entry.getScore()) || qualifies(modeHighScores(entry.getGameMode()), entry.getScore());
+    }
+
+    private static boolean qualifies(PriorityQueue<HighScoreEntry> table, int score) {
+        return table.size() < MAX_HIGHSCORES || (score > 0 && score > table.peek().getScore());
     }
-    
+
+    private void offer(HighScoreEntry entry) {
+        offer(highScores, entry);
+        offer(modeHighScores(entry.getGameMode()), entry);
+    }
+
+    /** Inserta en el montículo y descarta el menor si se pasa del máximo: O(log K) */
+    private static void offer(PriorityQueue<HighScoreEntry> table, HighScoreEntry entry) {
+        if (table.size() < MAX_HIGHSCORES) {
+            table.add(entry);
+        } else if (LOWEST_FIRST.compare(entry, table.peek()) > 0) {
+            table.poll();
+            table.add(entry);
+        }
+    }
+
+    private PriorityQueue<HighScoreEntry> modeHighScores(String gameMode) {
+        return highScoresByMode.computeIfAbsent(modeKey(gameMode),
+            mode -> new PriorityQueue<>(MAX_HIGHSCORES + 1, LOWEST_FIRST));
+    }
+
+    private static String modeKey(String gameMode) {
+        return gameMode == null ? "" : gameMode;
+    }
+
+    private static List<HighScoreEntry> sorted(PriorityQueue<HighScoreEntry> table) {
+        List<HighScoreEntry> list = new ArrayList<>(table);
+        list.sort(Collections.reverseOrder(LOWEST_FIRST));
+        return list;
+    }
+
     /**
-     * Carga los highscores desde archivo
+     * Entradas que siguen en alguna tabla, sin repetir las que están en varias
+     */
+    private List<HighScoreEntry> retained() {
+        IdentityHashMap<HighScoreEntry, Boolean> entries = new IdentityHashMap<>();
+        for (HighScoreEntry entry : highScores) {
+            entries.put(entry, Boolean.TRUE);
+        }
+        for (PriorityQueue<HighScoreEntry> table : highScoresByMode.values()) {
+            for (HighScoreEntry entry : table) {
+                entries.put(entry, Boolean.TRUE);
+            }
+        }
+        List<HighScoreEntry> list = new ArrayList<>(entries.keySet());
+        list.sort(Comparator.comparingLong(HighScoreEntry::getTimestamp));
+        return list;
+    }
+
+    // ==================== REGISTRO EN DISCO ====================
+
+    private interface LogAction {
+        void run(RandomAccessFile log) throws IOException;
+    }
+
+    /**
+     * Ejecuta la acción con el registro abierto y el bloqueo de archivo tomado,
+     * y después compacta si la acción lo pidió. Un error de disco no detiene el
+     * juego: las tablas quedan solo en memoria.
+     * @return false si no se pudo acceder al registro
+     */
+    private boolean withLock(LogAction action) {
+        synchronized (PROCESS_LOCK) {
+            directory.mkdirs();
+            try (FileChannel lockChannel = FileChannel.open(new File(directory, LOCK_FILE).toPath(),
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock lock = lockChannel.lock();
+                try {
+                    if (logFile.length() < HEADER_SIZE) {
+                        createLog();
+                    }
+                    try (RandomAccessFile log = new RandomAccessFile(logFile, "rw")) {
+                        action.run(log);
+                    }
+                    if (compactPending) {
+                        compact();
+                    }
+                    return true;
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                System.err.println("Error en el registro de highscores: " + e.getMessage());
+                return false;
+            } finally {
+                compactPending = false;
+            }
+        }
+    }
+
+    /**
+     * Carga los highscores desde el registro
      */
-    @SuppressWarnings("unchecked")
     private void loadHighScores() {
-        File file = new File(getHighScoreFilePath());
-        if (!file.exists()) {
-            highScores = new ArrayList<>();
+        withLock(this::syncLog);
+    }
+
+    /**
+     * Lee los registros agregados desde la última lectura. Si otra instancia
+     * compactó o limpió el registro (cambió la generación) se relee completo.
+     */
+    private void syncLog(RandomAccessFile log) throws IOException {
+        log.seek(0);
+        if (log.readInt() != MAGIC || log.readUnsignedByte() != VERSION) {
+            throw new IOException("Registro de highscores corrupto: " + logFile.getName());
+        }
+        long fileGeneration = log.readLong();
+        if (fileGeneration != generation) {
+            generation = fileGeneration;
+            highScores.clear();
+            highScoresByMode.clear();
+            readOffset = HEADER_SIZE;
+            records = 0;
+        }
+        long length = log.length();
+        if (length <= readOffset) {
             return;
         }
-        
-        try (ObjectInputStream ois = new ObjectInputStream(
-                new FileInputStream(file))) {
-            Object obj = ois.readObject();
-            if (obj instanceof List) {
-                highScores = (List<HighScoreEntry>) obj;
-                Collections.sort(highScores);
+        byte[] tail = new byte[(int) (length - readOffset)];
+        log.seek(readOffset);
+        log.readFully(tail);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(tail));
+        int position = 0;
+        while (position < tail.length) {
+            byte[] record;
+            HighScoreEntry entry;
+            try {
+                long size = BinaryCodec.readVarLong(in);
+                if (size > in.available()) {
+                    break; // Registro incompleto (escritura interrumpida): se sobrescribirá
+                }
+                record = new byte[(int) size];
+                in.readFully(record);
+                entry = readEntry(new DataInputStream(new ByteArrayInputStream(record)));
+            } catch (EOFException e) {
+                break;
             }
-        } catch (IOException | ClassNotFoundException e) {
-            System.err.println("Error cargando highscores: " + e.getMessage());
-            highScores = new ArrayList<>();
+            offer(entry);
+            records++;
+            position = tail.length - in.available();
         }
+        readOffset += position;
     }
-    
+
     /**
-     * Obtiene la ruta del archivo de highscores
+     * Escribe el registro al final de lo leído, descartando un registro
+     * incompleto que pudiera haber quedado de una escritura interrumpida
      */
-    private String getHighScoreFilePath() {
-        String userHome = System.getProperty("user.home");
-        File gameDir = new File(userHome, ".baddopocream");
-        if (!gameDir.exists()) {
-            gameDir.mkdirs();
-        }
-        return new File(gameDir, HIGHSCORE_FILE).getAbsolutePath();
+    private void appendRecord(RandomAccessFile log, HighScoreEntry entry) throws IOException {
+        byte[] payload = encode(entry);
+        ByteArrayOutputStream record = new ByteArrayOutputStream(payload.length + 2);
+        BinaryCodec.writeVarLong(record, payload.length);
+        record.write(payload);
+        log.seek(readOffset);
+        log.write(record.toByteArray());
+        log.setLength(readOffset + record.size());
+        log.getFD().sync();
+        readOffset += record.size();
+        records++;
     }
-    
+
     /**
-     * Limpia todos los highscores (para testing o reset)
+     * Reescribe el registro de forma atómica solo con las entradas que siguen
+     * en alguna tabla. El bloqueo está en otro archivo, así que reemplazar el
+     * registro no afecta a las demás instancias: verán la nueva generación.
      */
-    public void clearHighScores() {
-        highScores.clear();
-        saveHighScores();
+    private void compact() throws IOException {
+        List<HighScoreEntry> entries = retained();
+        long newGeneration = nextGeneration();
+        long size = writeLog(newGeneration, entries);
+        generation = newGeneration;
+        readOffset = size;
+        records = entries.size();
     }
-    
+
     /**
-     * Obtiene el highscore más alto
+     * Crea el registro vacío, importando una sola vez los highscores del formato anterior
      */
-    public int getTopScore() {
-        if (highScores.isEmpty()) return 0;
-        return highScores.get(0).getScore();
+    private void createLog() throws IOException {
+        writeLog(nextGeneration(), loadLegacyHighScores());
+    }
+
+    /**
+     * @return Tamaño del archivo escrito
+     */
+    private long writeLog(long newGeneration, List<HighScoreEntry> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_SIZE + entries.size() * 32);
+        writeHeader(new DataOutputStream(bytes), newGeneration);
+        for (HighScoreEntry entry : entries) {
+            byte[] record = encode(entry);
+            BinaryCodec.writeVarLong(bytes, record.length);
+            bytes.write(record);
+        }
+        SaveService.writeAtomically(logFile, bytes::writeTo);
+        return bytes.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<HighScoreEntry> loadLegacyHighScores() {
+        File file = new File(directory, LEGACY_FILE);
+        if (!file.exists()) {
+            return new ArrayList<>();
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
+            ois.setObjectInputFilter(LEGACY_FILTER);
+            Object obj = ois.readObject();
+            if (obj instanceof List) {
+                return new ArrayList<>((List<HighScoreEntry>) obj);
+            }
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            System.err.println("Error cargando highscores: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+
+    private static void writeHeader(DataOutputStream out, long generation) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(generation);
+    }
+
+    private long nextGeneration() {
+        long next;
+        do {
+            next = GENERATIONS.nextLong();
+        } while (next == 0 || next == generation);
+        return next;
+    }
+
+    private static byte[] encode(HighScoreEntry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(entry.getTimestamp());
+        BinaryCodec.writeVarInt(out, entry.getScore());
+        BinaryCodec.writeVarInt(out, entry.getLevelsCompleted());
+        out.writeUTF(entry.getPlayerName());
+        out.writeBoolean(entry.getGameMode() != null);
+        if (entry.getGameMode() != null) {
+            out.writeUTF(entry.getGameMode());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static HighScoreEntry readEntry(DataInputStream in) throws IOException {
+        long timestamp = in.readLong();
+        int score = BinaryCodec.readVarInt(in);
+        int levelsCompleted = BinaryCodec.readVarInt(in);
+        String playerName = in.readUTF();
+        String gameMode = in.readBoolean() ? in.readUTF() : null;
+        return new HighScoreEntry(playerName, score, gameMode, levelsCompleted, timestamp);
     }
 }
@@ -49,6 +49,14 @@ public class IceCream implements IceBreaker, Movable {
     public int getLastDy(){
         return this.lastDy;
     }
+    
+    /**
+     * Restaura la dirección a la que mira (carga de partida)
+     */
+    public void setLastDirection(int dx, int dy){
+        this.lastDx = dx;
+        this.lastDy = dy;
+    }
 
     public boolean isAlive(){
         return this.isAlive;
@@ -58,6 +66,13 @@ public class IceCream implements IceBreaker, Movable {
         this.isAlive = false;
     }
 
+    /**
+     * Devuelve la vida al helado (reinicio de una partida simulada)
+     */
+    public void revive(){
+        this.isAlive = true;
+    }
+
     @Override
     public void breakIce(IceWall wall){
         wall.breakWall();
@@ -1,5 +1,6 @@
 package com.duran_jimenez.baddopocream.domain;
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 /**
  * Inteligencia artificial para controlar un IceCream de forma autónoma
@@ -21,18 +22,26 @@ public class IceCreamAI {
     private static final double FEARFUL_SAFE_DISTANCE = 6.0; // Distancia segura para perfil Fearful
     
     private AIProfile profile;
-    private Random random;
+    private RandomGenerator random;
     private int moveCounter;
     private int lastDx;
     private int lastDy;
+    private final int[] move = new int[3]; // Resultado de decideMove, reutilizado entre llamadas
     
     public IceCreamAI(){
         this(AIProfile.EXPERT); // Por defecto usa perfil Expert
     }
     
     public IceCreamAI(AIProfile profile){
+        this(profile, new SplittableRandom());
+    }
+    
+    /**
+     * @param random Flujo de azar de la IA (con semilla para partidas reproducibles)
+     */
+    public IceCreamAI(AIProfile profile, RandomGenerator random){
         this.profile = profile;
-        this.random = new Random();
+        this.random = random;
         this.moveCounter = 0;
         this.lastDx = 1;
         this.lastDy = 0;
@@ -54,7 +63,8 @@ public class IceCreamAI {
     
     /**
      * Decide el próximo movimiento del helado según el perfil seleccionado
-     * Retorna un array [dx, dy, useIce] donde useIce es 1 para crear/romper hielo, 0 para no hacerlo
+     * Retorna un array [dx, dy, useIce] donde useIce es 1 para crear/romper hielo, 0 para no hacerlo.
+     * El array se reutiliza: solo es válido hasta la siguiente llamada
      */
     public int[] decideMove(Level level, IceCream player){
         moveCounter++;
@@ -96,30 +106,29 @@ public class IceCreamAI {
                         Location altPos = playerLoc.move(0, dy);
                         if(level.getMap().isValidPosition(altPos) && !isEnemyAt(level, altPos)){
                             lastDx = 0; lastDy = dy;
-                            return new int[]{0, dy, 0};
+                            return move(0, dy, 0);
                         }
                     }
                 }
                 
                 // Romper hielo si es necesario para avanzar
                 if(!level.getMap().isValidPosition(nextPos)){
-                    IceWall iceWall = level.getIceWallAt(nextPos);
-                    if(iceWall != null && player instanceof IceBreaker){
+                    if(player instanceof IceBreaker && level.getMap().hasIceWall(nextPos)){
                         lastDx = dx; lastDy = 0;
-                        return new int[]{dx, 0, 1};
+                        return move(dx, 0, 1);
                     }
                     if(dy != 0){
                         Location altPos = playerLoc.move(0, dy);
                         if(level.getMap().isValidPosition(altPos)){
                             lastDx = 0; lastDy = dy;
-                            return new int[]{0, dy, 0};
+                            return move(0, dy, 0);
                         }
                     }
                     return findAlternativePath(level, playerLoc, fruitLoc, player);
                 }
                 
                 lastDx = dx; lastDy = 0;
-                return new int[]{dx, 0, 0};
+                return move(dx, 0, 0);
                 
             } else if(dy != 0){
                 Location nextPos = playerLoc.move(0, dy);
@@ -129,16 +138,15 @@ public class IceCreamAI {
                 }
                 
                 if(!level.getMap().isValidPosition(nextPos)){
-                    IceWall iceWall = level.getIceWallAt(nextPos);
-                    if(iceWall != null && player instanceof IceBreaker){
+                    if(player instanceof IceBreaker && level.getMap().hasIceWall(nextPos)){
                         lastDx = 0; lastDy = dy;
-                        return new int[]{0, dy, 1};
+                        return move(0, dy, 1);
                     }
                     return findAlternativePath(level, playerLoc, fruitLoc, player);
                 }
                 
                 lastDx = 0; lastDy = dy;
-                return new int[]{0, dy, 0};
+                return move(0, dy, 0);
             }
         }
         
@@ -166,7 +174,7 @@ public class IceCreamAI {
                     int dy = Integer.compare(nearestEnemy.getLocation().getY(), playerLoc.getY());
                     // Crear hielo en dirección al enemigo para bloquearlo
                     lastDx = dx; lastDy = dy;
-                    return new int[]{dx, dy, 1};
+                    return move(dx, dy, 1);
                 }
                 return escapeFromEnemy(level, playerLoc, nearestEnemy.getLocation(), player);
             }
@@ -208,7 +216,7 @@ public class IceCreamAI {
                     int dx = Integer.compare(nearestEnemy.getLocation().getX(), playerLoc.getX());
                     int dy = Integer.compare(nearestEnemy.getLocation().getY(), playerLoc.getY());
                     lastDx = dx; lastDy = dy;
-                    return new int[]{dx, dy, 1}; // Bloquear enemigo
+                    return move(dx, dy, 1); // Bloquear enemigo
                 }
                 return escapeFromEnemy(level, playerLoc, nearestEnemy.getLocation(), player);
             }
@@ -231,6 +239,16 @@ public class IceCreamAI {
         return getRandomMove();
     }
     
+    /**
+     * Escribe el movimiento en el array reutilizable para no asignar memoria en cada tick
+     */
+    private int[] move(int dx, int dy, int useIce){
+        move[0] = dx;
+        move[1] = dy;
+        move[2] = useIce;
+        return move;
+    }
+    
     /**
      * Movimiento aleatorio cuando no hay objetivo claro
      */
@@ -244,7 +262,7 @@ public class IceCreamAI {
                 case 3: lastDx = 1; lastDy = 0; break;
             }
         }
-        return new int[]{lastDx, lastDy, 0};
+        return move(lastDx, lastDy, 0);
     }
     
     /**
@@ -324,7 +342,7 @@ public class IceCreamAI {
                 // Verificar que no nos acerque peligrosamente a algún enemigo
                 if(isSafePosition(level, nextPos)){
                     lastDx = dx; lastDy = 0;
-                    return new int[]{dx, 0, 0};
+                    return move(dx, 0, 0);
                 }
             }
         }
@@ -335,7 +353,7 @@ public class IceCreamAI {
             if(!isEnemyAt(level, nextPos) && level.getMap().isValidPosition(nextPos)){
                 if(isSafePosition(level, nextPos)){
                     lastDx = 0; lastDy = dy;
-                    return new int[]{0, dy, 0};
+                    return move(0, dy, 0);
                 }
             }
         }
@@ -355,14 +373,13 @@ public class IceCreamAI {
             Location nextPos = from.move(dx, 0);
             if(!isEnemyAt(level, nextPos)){
                 if(!level.getMap().isValidPosition(nextPos)){
-                    IceWall iceWall = level.getIceWallAt(nextPos);
-                    if(iceWall != null && player instanceof IceBreaker){
+                    if(player instanceof IceBreaker && level.getMap().hasIceWall(nextPos)){
                         lastDx = dx; lastDy = 0;
-                        return new int[]{dx, 0, 1};
+                        return move(dx, 0, 1);
                     }
                 } else {
                     lastDx = dx; lastDy = 0;
-                    return new int[]{dx, 0, 0};
+                    return move(dx, 0, 0);
                 }
             }
         }
@@ -371,14 +388,13 @@ public class IceCreamAI {
             Location nextPos = from.move(0, dy);
             if(!isEnemyAt(level, nextPos)){
                 if(!level.getMap().isValidPosition(nextPos)){
-                    IceWall iceWall = level.getIceWallAt(nextPos);
-                    if(iceWall != null && player instanceof IceBreaker){
+                    if(player instanceof IceBreaker && level.getMap().hasIceWall(nextPos)){
                         lastDx = 0; lastDy = dy;
-                        return new int[]{0, dy, 1};
+                        return move(0, dy, 1);
                     }
                 } else {
                     lastDx = 0; lastDy = dy;
-                    return new int[]{0, dy, 0};
+                    return move(0, dy, 0);
                 }
             }
         }
@@ -425,10 +441,10 @@ public class IceCreamAI {
             int dx = safestPos.getX() - from.getX();
             int dy = safestPos.getY() - from.getY();
             lastDx = dx; lastDy = dy;
-            return new int[]{dx, dy, 0};
+            return move(dx, dy, 0);
         }
         
-        return new int[]{0, 0, 0};
+        return move(0, 0, 0);
     }
     
     /**
@@ -477,8 +493,7 @@ public class IceCreamAI {
                 }
             } else {
                 // Verificar si hay hielo que puede romper
-                IceWall iceWall = level.getIceWallAt(nextPos);
-                if(iceWall != null && player instanceof IceBreaker){
+                if(player instanceof IceBreaker && level.getMap().hasIceWall(nextPos)){
                     double distance = nextPos.distanceTo(to);
                     if(distance < bestDistance){
                         bestDistance = distance;
@@ -494,11 +509,11 @@ public class IceCreamAI {
             int dy = bestMove.getY() - from.getY();
             lastDx = dx;
             lastDy = dy;
-            return new int[]{dx, dy, canBreakIce ? 1 : 0};
+            return move(dx, dy, canBreakIce ? 1 : 0);
         }
         
         // No hay camino, quedarse quieto
-        return new int[]{0, 0, 0};
+        return move(0, 0, 0);
     }
     
     /**
@@ -547,7 +562,7 @@ public class IceCreamAI {
             if(map.isValidPosition(escapePos) && !isEnemyAt(level, escapePos)){
                 lastDx = dx;
                 lastDy = 0;
-                return new int[]{dx, 0, 0};
+                return move(dx, 0, 0);
             }
         }
         
@@ -557,7 +572,7 @@ public class IceCreamAI {
             if(map.isValidPosition(escapePos) && !isEnemyAt(level, escapePos)){
                 lastDx = 0;
                 lastDy = dy;
-                return new int[]{0, dy, 0};
+                return move(0, dy, 0);
             }
         }
         
@@ -582,11 +597,11 @@ public class IceCreamAI {
             int moveDy = safestMove.getY() - playerLoc.getY();
             lastDx = moveDx;
             lastDy = moveDy;
-            return new int[]{moveDx, moveDy, 0};
+            return move(moveDx, moveDy, 0);
         }
         
         // No puede escapar
-        return new int[]{0, 0, 0};
+        return move(0, 0, 0);
     }
     
     /**
@@ -652,8 +667,7 @@ public class IceCreamAI {
                     canBreakIce = false;
                 }
             } else {
-                IceWall iceWall = level.getIceWallAt(nextPos);
-                if(iceWall != null && player instanceof IceBreaker){
+                if(player instanceof IceBreaker && level.getMap().hasIceWall(nextPos)){
                     double distToTarget = nextPos.distanceTo(to);
                     if(distToTarget < bestScore){
                         bestScore = distToTarget;
@@ -669,9 +683,9 @@ public class IceCreamAI {
             int dy = bestMove.getY() - from.getY();
             lastDx = dx;
             lastDy = dy;
-            return new int[]{dx, dy, canBreakIce ? 1 : 0};
+            return move(dx, dy, canBreakIce ? 1 : 0);
         }
         
-        return new int[]{0, 0, 0};
+        return move(0, 0, 0);
     }
 }
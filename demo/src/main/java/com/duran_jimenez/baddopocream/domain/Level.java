@@ -1,6 +1,13 @@
 package com.duran_jimenez.baddopocream.domain;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * Representa un nivel del juego Bad Dopo Cream.
@@ -13,8 +20,18 @@ import java.util.List;
  * - Detección de colisiones
  * - Sistema de oleadas de frutas (opcional)
  * 
+ * Enemigos y frutas se indexan por celda en dos OccupancyGrid, así que las
+ * consultas de colisión por celda son O(1) y un tick de enemigos es O(E).
+ * El índice se actualiza en cada movimiento que hace el nivel; si una entidad
+ * se mueve desde fuera (setLocation), refreshOccupancy() lo resincroniza.
+ * 
  * Soporta modo un jugador y dos jugadores (cooperativo/competitivo)
  * 
+ * captureSnapshot() guarda el estado completo del nivel en curso (hielo,
+ * fogatas, temporizadores, direcciones de los enemigos, oleadas y puntajes).
+ * Se restaura sobre el mismo nivel recién generado con la misma semilla: las
+ * entidades se emparejan por su posición en las listas, sin búsquedas.
+ * 
  * @author Durán-Jiménez
  * @version 2.0
  */
@@ -40,15 +57,33 @@ public class Level {
     
     // Timer del nivel
     private static final long LEVEL_TIME_LIMIT = 180000; // 3 minutos
+    private GameClock clock; // Reloj del nivel (se detiene en pausa)
+    private final TimerWheel timers; // Eventos temporizados de fogatas, cherry y cactus
+    private final List<TimedEventListener> timedEventListeners;
     private long levelStartTime;
-    private long pausedTime;
-    private long lastPauseStart;
-    private boolean isPaused;
     private boolean timeExpired;
+    
+    // Campos de flujo hacia los jugadores, compartidos por todos los enemigos en cada tick
+    private final FlowField playerFlowField;
+    private final FlowField iceFlowField;
+    
+    // Índices de ocupación por celda (id = posición en enemies / fruits)
+    private final OccupancyGrid enemyOccupancy;
+    private final OccupancyGrid fruitOccupancy;
+    private boolean fruitsTeleported;
+    
+    // Flujo de azar del nivel: cada entidad agregada recibe una rama propia (split)
+    private SplittableRandom random;
+    private long seed; // Semilla con la que LevelBuilder generó el nivel
 
     public Level(int levelNumber, int width, int height){
         this.levelNumber = levelNumber;
         this.map = new Map(width, height);
+        this.playerFlowField = new FlowField(map, false);
+        this.iceFlowField = new FlowField(map, true);
+        this.enemyOccupancy = new OccupancyGrid(width, height);
+        this.fruitOccupancy = new OccupancyGrid(width, height);
+        this.random = new SplittableRandom();
         this.fruits = new ArrayList<>();
         this.enemies = new ArrayList<>();
         this.isCompleted = false;
@@ -65,11 +100,103 @@ public class Level {
         this.useWaveSystem = false; // Por defecto desactivado
         
         // Inicializar timer
-        this.levelStartTime = System.currentTimeMillis();
-        this.pausedTime = 0;
-        this.lastPauseStart = 0;
-        this.isPaused = false;
+        this.clock = new WallClock();
+        this.map.setClock(clock);
+        this.levelStartTime = clock.now();
         this.timeExpired = false;
+        
+        // Inicializar rueda de temporizadores
+        this.timers = new TimerWheel(clock.now());
+        this.timedEventListeners = new ArrayList<>();
+        this.map.setTimers(timers, this::fireTimedEvent);
+    }
+    
+    /**
+     * Establece el reloj del nivel y lo propaga al mapa y a las frutas.
+     * El tiempo ya transcurrido del nivel se conserva.
+     * @param clock Reloj del juego (WallClock para jugar, TickClock para simular)
+     */
+    public void setClock(GameClock clock){
+        if(clock == null || clock == this.clock) return;
+        long elapsed = this.clock.now() - levelStartTime;
+        this.clock = clock;
+        this.levelStartTime = clock.now() - elapsed;
+        // Las entidades reprograman sus eventos con los plazos del nuevo reloj
+        timers.reset(clock.now());
+        map.setClock(clock);
+        for(Fruit fruit : fruits){
+            fruit.setClock(clock);
+        }
+    }
+    
+    public GameClock getClock(){
+        return this.clock;
+    }
+    
+    /**
+     * Dispara los eventos temporizados vencidos según el reloj del nivel
+     * (reencendido de fogatas, teletransporte de cherry, espinas del cactus).
+     * @return Número de eventos disparados
+     */
+    public int updateTimers(){
+        int fired = timers.advanceTo(clock.now());
+        if(fruitsTeleported){
+            fruitsTeleported = false;
+            syncFruits();
+        }
+        return fired;
+    }
+    
+    /**
+     * Obtiene el número de eventos temporizados pendientes
+     */
+    public int getPendingTimers(){
+        return timers.size();
+    }
+    
+    public void addTimedEventListener(TimedEventListener listener){
+        if(listener != null){
+            timedEventListeners.add(listener);
+        }
+    }
+    
+    public void removeTimedEventListener(TimedEventListener listener){
+        timedEventListeners.remove(listener);
+    }
+    
+    private void fireTimedEvent(TimedEvent event, Location location){
+        if(event == TimedEvent.CHERRY_TELEPORTED){
+            fruitsTeleported = true; // Se reindexa al terminar de avanzar la rueda
+        }
+        for(int i = 0; i < timedEventListeners.size(); i++){ // Sin iterador: se dispara dentro del tick
+            timedEventListeners.get(i).onTimedEvent(event, location);
+        }
+    }
+
+    /**
+     * Reemplaza el flujo de azar del nivel (LevelBuilder lo fija desde la semilla).
+     * Solo afecta a las entidades que se agreguen después.
+     */
+    public void setRandom(SplittableRandom random){
+        this.random = random;
+    }
+    
+    /**
+     * Registra la semilla con la que se generó el nivel (la usan las repeticiones)
+     */
+    public void setSeed(long seed){
+        this.seed = seed;
+    }
+    
+    public long getSeed(){
+        return seed;
+    }
+    
+    /**
+     * Flujo de azar del nivel; split() da ramas independientes y reproducibles
+     */
+    public SplittableRandom getRandom(){
+        return random;
     }
 
     public void setPlayer(IceCream player){
@@ -89,10 +216,23 @@ public class Level {
     }
     
     /**
-     * Restaura el estado del nivel desde un guardado
+     * Restaura el estado del nivel desde un guardado.
+     * Si el guardado trae instantánea se restaura completo; si no (guardados
+     * antiguos) solo tiempo, puntaje, posiciones y frutas recolectadas.
      */
     public void restoreFromState(GameState state){
         if(state == null) return;
+        clock.resume();
+        
+        // La instantánea solo vale sobre el mismo nivel generado con la misma semilla
+        if(state.hasLevelSnapshot() && state.getLevelNumber() == levelNumber && state.getLevelSeed() == seed){
+            try {
+                restoreSnapshot(state.getLevelSnapshot());
+                return;
+            } catch (IOException e) {
+                System.err.println(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE + ": " + e.getMessage());
+            }
+        }
         
         // Restaurar puntaje y frutas recolectadas
         this.currentScore = state.getLevelScore();
@@ -100,9 +240,7 @@ public class Level {
         
         // Restaurar tiempo
         long elapsed = LEVEL_TIME_LIMIT - state.getRemainingTime();
-        this.levelStartTime = System.currentTimeMillis() - elapsed;
-        this.pausedTime = 0;
-        this.isPaused = false;
+        this.levelStartTime = clock.now() - elapsed;
         this.timeExpired = false;
         
         // Restaurar posición del jugador
@@ -115,17 +253,16 @@ public class Level {
             player2.setLocation(state.getPlayer2Location().toLocation());
         }
         
-        // Marcar frutas como recolectadas según el estado guardado
-        List<GameState.SerializableFruit> savedFruits = state.getFruits();
-        for(GameState.SerializableFruit savedFruit : savedFruits){
-            for(Fruit fruit : fruits){
-                if(fruit.getName().equals(savedFruit.name) && 
-                    fruit.getLocation().equals(savedFruit.location.toLocation())){
-                    if(savedFruit.collected){
-                        fruit.collect();
-                    }
-                    break;
-                }
+        // Marcar frutas como recolectadas según el estado guardado (índice por nombre y celda)
+        HashMap<String, Integer> fruitIds = new HashMap<>(fruits.size() * 2);
+        for(int id = 0; id < fruits.size(); id++){
+            Fruit fruit = fruits.get(id);
+            fruitIds.putIfAbsent(fruitKey(fruit.getName(), fruit.getLocation()), id);
+        }
+        for(GameState.SerializableFruit savedFruit : state.getFruits()){
+            Integer id = fruitIds.get(fruitKey(savedFruit.name, savedFruit.location.toLocation()));
+            if(id != null && savedFruit.collected){
+                fruits.get(id).collect();
             }
         }
         
@@ -138,10 +275,327 @@ public class Level {
                 enemy.setLocation(savedEnemy.location.toLocation());
             }
         }
+        
+        refreshOccupancy();
+    }
+    
+    private static String fruitKey(String name, Location location){
+        return name + '@' + Location.pack(location.getX(), location.getY());
+    }
+    
+    // ========== Instantánea del nivel ==========
+    
+    /**
+     * Guarda el estado completo del nivel en binario (ver restoreSnapshot())
+     */
+    public byte[] captureSnapshot(){
+        return captureFrame().toSnapshot();
+    }
+    
+    /**
+     * Instantánea separada en cabecera, hielo y un registro por entidad
+     * (el autoguardado la usa para escribir solo las diferencias)
+     */
+    LevelFrame captureFrame(){
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            BinaryCodec.writeVarLong(out, map.getWidth());
+            BinaryCodec.writeVarLong(out, map.getHeight());
+            BinaryCodec.writeVarLong(out, Math.max(0, clock.now() - levelStartTime));
+            out.writeBoolean(isCompleted);
+            out.writeBoolean(timeExpired);
+            BinaryCodec.writeVarInt(out, currentScore);
+            BinaryCodec.writeVarInt(out, player1Score);
+            BinaryCodec.writeVarInt(out, player2Score);
+            BinaryCodec.writeVarInt(out, collectedFruits);
+            BinaryCodec.writeVarInt(out, totalFruits);
+            BinaryCodec.writeVarLong(out, currentWaveIndex);
+            writePlayer(out, player);
+            writePlayer(out, player2);
+            byte[] head = bytes.toByteArray();
+            
+            long[] ice = new long[map.getMaskWords()];
+            map.copyIceMask(ice);
+            
+            ArrayList<Fogata> campfires = map.getCampfires();
+            byte[][] campfireRecords = new byte[campfires.size()][];
+            for(int i = 0; i < campfireRecords.length; i++){
+                bytes.reset();
+                campfires.get(i).writeState(out);
+                campfireRecords[i] = bytes.toByteArray();
+            }
+            byte[][] enemyRecords = new byte[enemies.size()][];
+            for(int i = 0; i < enemyRecords.length; i++){
+                Enemy enemy = enemies.get(i);
+                bytes.reset();
+                writeLocation(out, enemy.getLocation());
+                enemy.writeState(out);
+                enemyRecords[i] = bytes.toByteArray();
+            }
+            byte[][] fruitRecords = new byte[fruits.size()][];
+            for(int i = 0; i < fruitRecords.length; i++){
+                Fruit fruit = fruits.get(i);
+                bytes.reset();
+                writeLocation(out, fruit.getLocation());
+                out.writeBoolean(fruit.isCollected());
+                fruit.writeState(out);
+                fruitRecords[i] = bytes.toByteArray();
+            }
+            return new LevelFrame(head, ice, map.getWidth() * map.getHeight(),
+                campfireRecords, enemyRecords, fruitRecords);
+        } catch (IOException e) {
+            // ByteArrayOutputStream no lanza IOException
+            throw new IllegalStateException(BadDopoCream_Exceptions.INVALID_GAME_STATE, e);
+        }
+    }
+    
+    /**
+     * Restaura una instantánea de captureSnapshot() sobre este nivel, que debe
+     * ser el mismo nivel recién creado (mismo número y semilla). Es lineal en
+     * el número de entidades y celdas con hielo.
+     * Primero la lee entera sin modificar el nivel; si está corrupta, el nivel
+     * queda como estaba y restoreFromState() puede usar los datos antiguos.
+     * @throws IOException si la instantánea está corrupta o no corresponde al nivel
+     */
+    public void restoreSnapshot(byte[] snapshot) throws IOException {
+        readSnapshot(snapshot, false);
+        readSnapshot(snapshot, true);
+    }
+    
+    /**
+     * Recorre la instantánea. Con apply en false solo la valida: el estado de
+     * cada entidad se lee y se devuelve enseguida al que tenía (probeState()).
+     */
+    private void readSnapshot(byte[] snapshot, boolean apply) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot));
+        if(BinaryCodec.readVarLong(in) != map.getWidth() || BinaryCodec.readVarLong(in) != map.getHeight()){
+            throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+        }
+        long elapsed = BinaryCodec.readVarLong(in);
+        boolean completed = in.readBoolean();
+        boolean expired = in.readBoolean();
+        int score = BinaryCodec.readVarInt(in);
+        int score1 = BinaryCodec.readVarInt(in);
+        int score2 = BinaryCodec.readVarInt(in);
+        int collected = BinaryCodec.readVarInt(in);
+        int total = BinaryCodec.readVarInt(in);
+        long waveIndex = BinaryCodec.readVarLong(in);
+        if(waveIndex < currentWaveIndex || (waveIndex > 0 && waveIndex >= fruitWaves.size())){
+            throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+        }
+        
+        // Las oleadas ya jugadas agregan sus frutas igual que durante la partida;
+        // al validar, sus frutas se recorren sin agregarlas
+        List<Fruit> savedFruits = fruits;
+        if(apply){
+            for(int wave = currentWaveIndex + 1; wave <= waveIndex; wave++){
+                activateWave(wave);
+            }
+        } else if(waveIndex > currentWaveIndex){
+            savedFruits = new ArrayList<>(fruits);
+            for(int wave = currentWaveIndex + 1; wave <= waveIndex; wave++){
+                savedFruits.addAll(fruitWaves.get(wave).getFruits());
+            }
+        }
+        
+        readPlayer(in, player, apply);
+        readPlayer(in, player2, apply);
+        
+        long iceCount = BinaryCodec.readVarLong(in);
+        int cells = map.getWidth() * map.getHeight();
+        if(iceCount > cells){
+            throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+        }
+        long[] ice = new long[map.getMaskWords()];
+        long index = 0;
+        for(long i = 0; i < iceCount; i++){
+            index += BinaryCodec.readVarLong(in);
+            if(index >= cells){
+                throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+            }
+            ice[(int) (index >>> 6)] |= 1L << index;
+        }
+        if(apply){
+            map.restoreIceMask(ice);
+        }
+        
+        ArrayList<Fogata> campfires = map.getCampfires();
+        checkCount(in, campfires.size());
+        for(Fogata campfire : campfires){
+            readState(in, campfire, apply);
+        }
+        
+        checkCount(in, enemies.size());
+        for(Enemy enemy : enemies){
+            Location location = readLocation(in);
+            if(apply){
+                enemy.setLocation(location);
+            }
+            readState(in, enemy, apply);
+        }
+        
+        checkCount(in, savedFruits.size());
+        for(Fruit fruit : savedFruits){
+            Location location = readLocation(in);
+            boolean fruitCollected = in.readBoolean();
+            if(apply){
+                fruit.setLocation(location);
+                fruit.setCollecter(fruitCollected);
+            }
+            readState(in, fruit, apply);
+        }
+        if(!apply) return;
+        
+        for(int wave = 0; wave < currentWaveIndex; wave++){
+            fruitWaves.get(wave).checkCompletion();
+        }
+        
+        this.levelStartTime = clock.now() - elapsed;
+        this.isCompleted = completed;
+        this.timeExpired = expired;
+        this.currentScore = score;
+        this.player1Score = score1;
+        this.player2Score = score2;
+        this.collectedFruits = collected;
+        this.totalFruits = total;
+        refreshOccupancy();
+    }
+    
+    private static void readState(DataInputStream in, SnapshotState entity, boolean apply) throws IOException {
+        if(apply){
+            entity.readState(in);
+        } else {
+            probeState(in, entity);
+        }
+    }
+    
+    /**
+     * Lee el estado de la entidad para validarlo (el formato es propio de cada
+     * clase) y le devuelve el que tenía, aunque la lectura falle
+     */
+    private static void probeState(DataInputStream in, SnapshotState entity) throws IOException {
+        ByteArrayOutputStream previous = new ByteArrayOutputStream(16);
+        entity.writeState(new DataOutputStream(previous));
+        try {
+            entity.readState(in);
+        } finally {
+            entity.readState(new DataInputStream(new ByteArrayInputStream(previous.toByteArray())));
+        }
+    }
+    
+    private static void writePlayer(DataOutputStream out, IceCream player) throws IOException {
+        out.writeBoolean(player != null);
+        if(player == null) return;
+        writeLocation(out, player.getLocation());
+        out.writeBoolean(player.isAlive());
+        BinaryCodec.writeVarInt(out, player.getLastDx());
+        BinaryCodec.writeVarInt(out, player.getLastDy());
+    }
+    
+    private static void readPlayer(DataInputStream in, IceCream player, boolean apply) throws IOException {
+        if(in.readBoolean() != (player != null)){
+            throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+        }
+        if(player == null) return;
+        Location location = readLocation(in);
+        boolean alive = in.readBoolean();
+        int dx = BinaryCodec.readVarInt(in);
+        int dy = BinaryCodec.readVarInt(in);
+        if(!apply) return;
+        player.setLocation(location);
+        if(alive){
+            player.revive();
+        } else {
+            player.die();
+        }
+        player.setLastDirection(dx, dy);
+    }
+    
+    private static void checkCount(DataInputStream in, int expected) throws IOException {
+        if(BinaryCodec.readVarLong(in) != expected){
+            throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+        }
+    }
+    
+    private static void writeLocation(DataOutputStream out, Location location) throws IOException {
+        BinaryCodec.writeVarInt(out, location.getX());
+        BinaryCodec.writeVarInt(out, location.getY());
+    }
+    
+    private static Location readLocation(DataInputStream in) throws IOException {
+        return Location.of(BinaryCodec.readVarInt(in), BinaryCodec.readVarInt(in));
+    }
+    
+    /**
+     * Resincroniza los índices de ocupación con las posiciones actuales.
+     * Solo hace falta si se movieron enemigos o frutas desde fuera del nivel.
+     */
+    public void refreshOccupancy(){
+        for(int id = 0; id < enemies.size(); id++){
+            enemyIndex().update(id, enemies.get(id).getLocation());
+        }
+        syncFruits();
+    }
+    
+    private void syncFruits(){
+        if(fruitOccupancy.size() != fruits.size()){
+            fruitIndex(); // La reconstrucción ya sincroniza
+            return;
+        }
+        for(int id = 0; id < fruits.size(); id++){
+            syncFruit(id);
+        }
+    }
+    
+    /**
+     * Índice de enemigos, reconstruido si la lista se modificó desde fuera (p. ej. getEnemies().clear())
+     */
+    private OccupancyGrid enemyIndex(){
+        if(enemyOccupancy.size() != enemies.size()){
+            enemyOccupancy.clear();
+            for(Enemy enemy : enemies){
+                enemyOccupancy.add(enemy.getLocation());
+            }
+        }
+        return enemyOccupancy;
+    }
+    
+    /**
+     * Índice de frutas, reconstruido si la lista se modificó desde fuera
+     */
+    private OccupancyGrid fruitIndex(){
+        if(fruitOccupancy.size() != fruits.size()){
+            fruitOccupancy.clear();
+            for(Fruit fruit : fruits){
+                fruitOccupancy.add(fruit.getLocation());
+            }
+            syncFruits();
+        }
+        return fruitOccupancy;
+    }
+    
+    /**
+     * Actualiza la celda de la fruta en el índice (las recolectadas salen del índice)
+     */
+    private void syncFruit(int id){
+        Fruit fruit = fruits.get(id);
+        if(fruit.isCollected()){
+            fruitOccupancy.remove(id);
+        } else {
+            fruitOccupancy.update(id, fruit.getLocation());
+        }
     }
 
     public void addFruit(Fruit fruit){
+        fruit.setRandom(random.split());
+        fruit.setClock(clock);
+        fruit.attachTimers(timers, this::fireTimedEvent);
+        int id = fruitIndex().add(fruit.getLocation());
         this.fruits.add(fruit);
+        if(fruit.isCollected()){
+            fruitOccupancy.remove(id);
+        }
         
         // Si no se usa el sistema de oleadas, incrementar totalFruits normalmente
         if (!useWaveSystem) {
@@ -256,6 +710,8 @@ public class Level {
     }
 
     public void addEnemy(Enemy enemy){
+        enemy.setRandom(random.split());
+        enemyIndex().add(enemy.getLocation());
         this.enemies.add(enemy);
     }
 
@@ -319,14 +775,14 @@ public class Level {
      * @param playerNumber Número del jugador que recolecta (1 o 2)
      */
     private void checkFruitCollection(Location location, int playerNumber){
-        for(Fruit fruit :fruits){
-            if(fruit.getLocation().equals(location) && !fruit.isCollected()){
-                // Si es un Cactus con espinas, no se recolecta (será manejado por checkCactusCollisions)
-                if(fruit instanceof Cactus && ((Cactus)fruit).hasSpikes()){
-                    continue; // Saltar este cactus, será manejado por checkCactusCollisions
-                }
-                
+        int id = fruitIndex().first(location);
+        while(id != OccupancyGrid.NONE){
+            int nextId = fruitIndex().next(id); // collect() saca la fruta de la celda
+            Fruit fruit = fruits.get(id);
+            // Si es un Cactus con espinas, no se recolecta (será manejado por checkCactusCollisions)
+            if(!fruit.isCollected() && !(fruit instanceof Cactus && ((Cactus)fruit).hasSpikes())){
                 int points = fruit.collect();
+                fruitIndex().remove(id);
                 if(points > 0){
                     this.currentScore += points; // Puntaje combinado
                     this.collectedFruits++;
@@ -339,95 +795,93 @@ public class Level {
                     }
                 }
             }
-            
-            // Verificar completitud según el modo
-            if (useWaveSystem) {
-                // En modo oleadas, verificar si la oleada actual está completa
-                checkWaveCompletion();
-            } else {
-                // Modo normal, verificar si todas las frutas están recolectadas
-                if(collectedFruits >= totalFruits){
-                    this.isCompleted = true;
-                }
+            id = nextId;
+        }
+        
+        if(fruits.isEmpty()) return;
+        
+        // Verificar completitud según el modo
+        if (useWaveSystem) {
+            // En modo oleadas, verificar si la oleada actual está completa
+            checkWaveCompletion();
+        } else {
+            // Modo normal, verificar si todas las frutas están recolectadas
+            if(collectedFruits >= totalFruits){
+                this.isCompleted = true;
             }
         }
     }
     
     private void checkCampfireCollisions(){
-        for(Fogata campfire : map.getCampfires()){
-            if(campfire.shouldKillPlayer(player.getLocation())){
-                player.die();
-                return;
-            }
-            if(player2 != null && campfire.shouldKillPlayer(player2.getLocation())){
+        Fogata campfire = map.getCampfireAt(player.getLocation());
+        if(campfire != null && campfire.shouldKillPlayer(player.getLocation())){
+            player.die();
+            return;
+        }
+        if(player2 != null){
+            campfire = map.getCampfireAt(player2.getLocation());
+            if(campfire != null && campfire.shouldKillPlayer(player2.getLocation())){
                 player2.die();
-                return;
             }
         }
     }
     
     private void checkCactusCollisions(){
-        for(Fruit fruit : fruits){
-            if(fruit instanceof Cactus && !fruit.isCollected()){
-                Cactus cactus = (Cactus)fruit;
-                if(cactus.shouldKillPlayer(player.getLocation())){
-                    player.die();
-                    return;
-                }
-                if(player2 != null && cactus.shouldKillPlayer(player2.getLocation())){
-                    player2.die();
-                    return;
-                }
-            }
+        if(cactusKills(player.getLocation())){
+            player.die();
+            return;
+        }
+        if(player2 != null && cactusKills(player2.getLocation())){
+            player2.die();
         }
     }
     
-
+    /**
+     * Verifica si en la celda hay un cactus sin recolectar con espinas
+     */
+    private boolean cactusKills(Location location){
+        for(int id = fruitIndex().first(location); id != OccupancyGrid.NONE; id = fruitIndex().next(id)){
+            Fruit fruit = fruits.get(id);
+            if(fruit instanceof Cactus && !fruit.isCollected() && fruit.shouldKillPlayer(location)){
+                return true;
+            }
+        }
+        return false;
+    }
 
     private void checkEnemyCollisions(){
         // Verificar colisiones solo si el jugador 1 está vivo
-        if(player != null && player.isAlive()){
-            Location playerLocation = player.getLocation();
-            for(Enemy enemy : enemies){
-                if(enemy.collidesWithPlayer(playerLocation)){
-                    player.die();  // Muerte instantánea al tocar enemigo
-                    break;  // No necesita seguir verificando para este jugador
-                }
-            }
+        if(player != null && player.isAlive() && enemyIndex().isOccupied(player.getLocation())){
+            player.die();  // Muerte instantánea al tocar enemigo
         }
         
         // Verificar colisiones para el jugador 2 si existe y está vivo
-        if(player2 != null && player2.isAlive()){
-            Location player2Location = player2.getLocation();
-            for(Enemy enemy : enemies){
-                if(enemy.collidesWithPlayer(player2Location)){
-                    player2.die();
-                    break;
-                }
-            }
+        if(player2 != null && player2.isAlive() && enemyIndex().isOccupied(player2.getLocation())){
+            player2.die();
         }
     }
 
     public void moveEnemies(){
-        for(Enemy enemy : enemies){
+        updateFlowFieldSources();
+        // Resincronizar por si algún enemigo se movió desde fuera entre ticks (O(E))
+        for(int id = 0; id < enemies.size(); id++){
+            enemyIndex().update(id, enemies.get(id).getLocation());
+        }
+        for(int id = 0; id < enemies.size(); id++){
+            Enemy enemy = enemies.get(id);
             Location currentLoc = enemy.getLocation();
             
             // Determinar qué jugador perseguir (el más cercano que esté vivo)
             Location targetLocation = getClosestPlayerLocation(enemy.getLocation());
             
             // Usar tryMove que maneja validación y cambio de dirección
-            enemy.tryMove(targetLocation, map);
+            FlowField flowField = enemy.breaksIce() ? iceFlowField : playerFlowField;
+            enemy.tryMove(targetLocation, map, flowField);
             
             Location newLoc = enemy.getLocation();
             
-            // Verificar colisión con otros enemigos
-            boolean collisionWithEnemy = false;
-            for(Enemy otherEnemy : enemies){
-                if(otherEnemy != enemy && otherEnemy.getLocation().equals(newLoc)){
-                    collisionWithEnemy = true;
-                    break;
-                }
-            }
+            // Verificar colisión con otros enemigos (consulta O(1) en el índice)
+            boolean collisionWithEnemy = enemyIndex().isOccupiedByOther(id, newLoc.getX(), newLoc.getY());
             
             // Si hay colisión con otro enemigo, revertir movimiento
             if(collisionWithEnemy){
@@ -441,6 +895,8 @@ public class Level {
                 if(enemy instanceof CalamarNaranja){
                     ((CalamarNaranja)enemy).changeDirectionRandomly();
                 }
+            } else {
+                enemyIndex().update(id, newLoc);
             }
 
             // Verificar colisión con jugador 1
@@ -455,6 +911,37 @@ public class Level {
         }
     }
     
+    /**
+     * Reinicia los orígenes de los campos de flujo con los jugadores vivos.
+     * Cada campo se recalcula una sola vez, cuando el primer enemigo lo consulta.
+     */
+    private void updateFlowFieldSources(){
+        playerFlowField.clearSources();
+        iceFlowField.clearSources();
+        if(player != null && player.isAlive()){
+            playerFlowField.addSource(player.getLocation());
+            iceFlowField.addSource(player.getLocation());
+        }
+        if(player2 != null && player2.isAlive()){
+            playerFlowField.addSource(player2.getLocation());
+            iceFlowField.addSource(player2.getLocation());
+        }
+    }
+    
+    /**
+     * Obtiene el campo de flujo hacia los jugadores (el hielo bloquea)
+     */
+    public FlowField getPlayerFlowField(){
+        return playerFlowField;
+    }
+    
+    /**
+     * Obtiene el campo de flujo hacia los jugadores para enemigos que rompen hielo
+     */
+    public FlowField getIceFlowField(){
+        return iceFlowField;
+    }
+
     /**
      * Obtiene la ubicación del jugador más cercano que esté vivo
      * @param fromLocation Ubicación desde la cual calcular la distancia
@@ -473,7 +960,7 @@ public class Level {
         }
         if (player1Loc == null && player2Loc == null) {
             // Ningún jugador vivo, retornar posición por defecto
-            return new Location(0, 0);
+            return Location.of(0, 0);
         }
         
         // Ambos jugadores vivos, calcular cuál está más cerca
@@ -484,23 +971,23 @@ public class Level {
     }
 
     public void moveFruits(){
-        for(Fruit fruit : fruits){
+        // Los comportamientos temporizados (Cherry, Cactus) los dispara updateTimers()
+        for(int id = 0; id < fruits.size(); id++){
+            Fruit fruit = fruits.get(id);
             if(fruit.canMove() && !fruit.isCollected()){
                 fruit.move();
-            }
-            
-            // Actualizar comportamientos especiales
-            if(fruit instanceof Cherry){
-                ((Cherry)fruit).update();
-            } else if(fruit instanceof Cactus){
-                ((Cactus)fruit).update();
+                fruitIndex().update(id, fruit.getLocation());
             }
         }
     }
 
     public void createIceWall(Location location){
-        if(map.isValidPosition(location)){
-            map.addIceWall(location);
+        createIceWall(location.getX(), location.getY());
+    }
+    
+    public void createIceWall(int x, int y){
+        if(map.isValidPosition(x, y)){
+            map.addIceWall(x, y);
         }
     }
     
@@ -527,72 +1014,65 @@ public class Level {
      * Elimina código duplicado entre createIceLine y createIceLinePlayer2
      */
     private void createIceLineFromPlayer(Location startLocation, int dx, int dy) {
-        Location currentLoc = startLocation;
+        // Tramo libre hasta la primera pared, hielo o límite (64 celdas por palabra en horizontal)
+        int x = startLocation.getX();
+        int y = startLocation.getY();
+        int run = map.freeRunLength(x, y, dx, dy);
         
-        while(true){
-            currentLoc = currentLoc.move(dx, dy);
-            
-            // Detener si encontramos pared o límite
-            if(!map.isValidPosition(currentLoc)){
-                break;
-            }
-            
-            // Detener si ya hay hielo
-            if(map.hasIceWall(currentLoc)){
-                break;
-            }
+        for(int i = 0; i < run; i++){
+            x += dx;
+            y += dy;
             
             // Detener si hay un enemigo en esta posición
-            if(hasEnemyAt(currentLoc)){
+            if(hasEnemyAt(x, y)){
                 break;
             }
             
             // No crear hielo donde está algún jugador
-            if(isPlayerAt(currentLoc)){
+            if(isPlayerAt(x, y)){
                 break;
             }
             
-            // Crear hielo en esta posición
-            map.addIceWall(currentLoc);
-            
-            // Si hay baldosa caliente, el hielo se derrite inmediatamente
-            if(map.isHotTile(currentLoc)){
-                map.removeIceWall(currentLoc);
+            // Sobre una baldosa caliente el hielo se derrite al instante: la celda queda libre
+            if(map.isHotTile(x, y)){
+                continue;
             }
+            
+            // Crear hielo en esta posición
+            map.addIceWall(x, y);
         }
     }
     
     /**
-     * Verifica si hay un enemigo en la ubicación dada
+     * Verifica si hay un enemigo en la celda dada (consulta O(1) en el índice)
      */
-    private boolean hasEnemyAt(Location location) {
-        for(Enemy enemy : enemies){
-            if(enemy.getLocation().equals(location)){
-                return true;
-            }
-        }
-        return false;
+    public boolean hasEnemyAt(int x, int y) {
+        return enemyIndex().isOccupied(x, y);
     }
     
     /**
-     * Verifica si hay algún jugador en la ubicación dada
+     * Verifica si hay algún jugador en la celda dada
      */
-    private boolean isPlayerAt(Location location) {
-        if(player != null && player.getLocation().equals(location)){
+    public boolean isPlayerAt(int x, int y) {
+        if(player != null && player.getLocation().getX() == x && player.getLocation().getY() == y){
             return true;
         }
-        if(player2 != null && player2.getLocation().equals(location)){
+        if(player2 != null && player2.getLocation().getX() == x && player2.getLocation().getY() == y){
             return true;
         }
         return false;
     }
 
     public void breakIceWall(Location location){
-        if(map.hasIceWall(location)){
-            map.removeIceWall(location);
+        breakIceWall(location.getX(), location.getY());
+    }
+    
+    public void breakIceWall(int x, int y){
+        if(map.hasIceWall(x, y)){
+            map.removeIceWall(x, y);
             
             // Si había una fogata en esta posición, apagarla temporalmente
-            Fogata campfire = map.getCampfireAt(location);
+            Fogata campfire = map.getCampfireAt(x, y);
             if(campfire != null && campfire.isLit()){
                 campfire.extinguish();
             }
@@ -628,15 +1108,13 @@ public class Level {
     private void breakIceLineFromPosition(Location startPos, int dx, int dy){
         if(dx == 0 && dy == 0) return;
         
-        Location currentPos = startPos.move(dx, dy);
+        int x = startPos.getX() + dx;
+        int y = startPos.getY() + dy;
         
-        while(map.hasIceWall(currentPos) || map.isValidPosition(currentPos)){
-            if(map.hasIceWall(currentPos)){
-                breakIceWall(currentPos);
-                currentPos = currentPos.move(dx, dy);
-            } else {
-                break;
-            }
+        while(map.hasIceWall(x, y)){
+            breakIceWall(x, y);
+            x += dx;
+            y += dy;
         }
     }
 
@@ -671,6 +1149,20 @@ public class Level {
     public ArrayList<Enemy> getEnemies(){
         return this.enemies;
     }
+    
+    /**
+     * Obtiene el índice de ocupación de enemigos (ids = posiciones en getEnemies())
+     */
+    public OccupancyGrid getEnemyOccupancy(){
+        return enemyIndex();
+    }
+    
+    /**
+     * Obtiene el índice de ocupación de frutas sin recolectar (ids = posiciones en getFruits())
+     */
+    public OccupancyGrid getFruitOccupancy(){
+        return fruitIndex();
+    }
 
     public int getCollectedFruits(){
         return this.collectedFruits;
@@ -714,14 +1206,8 @@ public class Level {
     public long getRemainingTime() {
         if (timeExpired) return 0;
         
-        long currentTime = System.currentTimeMillis();
-        long elapsedTime = (currentTime - levelStartTime) - pausedTime;
-        
-        // Si está en pausa, no contar el tiempo desde que se pausó
-        if (isPaused) {
-            elapsedTime -= (currentTime - lastPauseStart);
-        }
-        
+        // El reloj no avanza durante la pausa
+        long elapsedTime = clock.now() - levelStartTime;
         long remaining = LEVEL_TIME_LIMIT - elapsedTime;
         
         if (remaining <= 0) {
@@ -751,39 +1237,29 @@ public class Level {
      * Pausa el timer
      */
     public void pause() {
-        if (!isPaused) {
-            isPaused = true;
-            lastPauseStart = System.currentTimeMillis();
-        }
+        clock.pause();
     }
     
     /**
      * Reanuda el timer
      */
     public void resume() {
-        if (isPaused) {
-            long currentTime = System.currentTimeMillis();
-            pausedTime += (currentTime - lastPauseStart);
-            isPaused = false;
-            lastPauseStart = 0;
-        }
+        clock.resume();
     }
     
     /**
      * Verifica si está en pausa
      */
     public boolean isPaused() {
-        return isPaused;
+        return clock.isPaused();
     }
     
     /**
      * Reinicia el timer (para restart de nivel)
      */
     public void resetTimer() {
-        this.levelStartTime = System.currentTimeMillis();
-        this.pausedTime = 0;
-        this.lastPauseStart = 0;
-        this.isPaused = false;
+        clock.resume();
+        this.levelStartTime = clock.now();
         this.timeExpired = false;
     }
 }
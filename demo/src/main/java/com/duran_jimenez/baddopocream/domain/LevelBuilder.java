@@ -2,7 +2,7 @@ package com.duran_jimenez.baddopocream.domain;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Patrón Builder para construir niveles personalizados
@@ -42,7 +42,8 @@ public class LevelBuilder {
     private boolean addPerimeterWalls = true;
     private int iceWallCount = 0;
     
-    private Random random = new Random();
+    private long seed = new SplittableRandom().nextLong();
+    private SplittableRandom random = new SplittableRandom(seed);
     
     /**
      * Constructor privado - usar métodos estáticos para crear instancias
@@ -77,6 +78,18 @@ public class LevelBuilder {
         return builder;
     }
     
+    // ==================== SEMILLA ====================
+    
+    /**
+     * Fija la semilla del nivel: con la misma semilla y configuración se generan
+     * las mismas posiciones y el mismo comportamiento aleatorio de las entidades
+     */
+    public LevelBuilder setSeed(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        return this;
+    }
+    
     // ==================== CONFIGURACIÓN DE DIMENSIONES ====================
     
     public LevelBuilder setDimensions(int width, int height) {
@@ -202,6 +215,9 @@ public class LevelBuilder {
         
         // Crear el nivel
         Level level = new Level(levelNumber, width, height);
+        // Rama propia para el nivel: las entidades no consumen el azar de la generación
+        level.setSeed(seed);
+        level.setRandom(random.split());
         
         // Configurar jugadores
         level.setPlayer(player1);
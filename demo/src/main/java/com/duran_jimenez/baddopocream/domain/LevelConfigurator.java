@@ -1,5 +1,7 @@
 package com.duran_jimenez.baddopocream.domain;
 
+import java.util.SplittableRandom;
+
 /**
  * Fábrica de niveles predefinidos del juego (Campaña/Historia)
  * Utiliza LevelBuilder internamente para construir niveles con configuraciones fijas
@@ -30,6 +32,16 @@ public class LevelConfigurator {
      * @throws IllegalArgumentException si el nivel no está implementado
      */
     public static Level createLevel(int levelNumber, IceCream player1, IceCream player2) {
+        return createLevel(levelNumber, player1, player2, new SplittableRandom().nextLong());
+    }
+    
+    /**
+     * Crea un nivel predefinido reproducible: la misma semilla genera el mismo
+     * nivel y el mismo comportamiento aleatorio de sus entidades
+     * @param seed Semilla del flujo de azar del nivel
+     * @throws IllegalArgumentException si el nivel no está implementado
+     */
+    public static Level createLevel(int levelNumber, IceCream player1, IceCream player2, long seed) {
         // Verificar que el nivel esté implementado
         if (levelNumber < 1 || levelNumber > BadDopoCream.PLAYABLE_LEVELS) {
             throw new IllegalArgumentException("Nivel " + levelNumber + " no está implementado. " +
@@ -38,15 +50,15 @@ public class LevelConfigurator {
         
         switch (levelNumber) {
             case 1:
-                return createLevel1(player1, player2);
+                return createLevel1(player1, player2, seed);
             case 2:
-                return createLevel2(player1, player2);
+                return createLevel2(player1, player2, seed);
             case 3:
-                return createLevel3(player1, player2);
+                return createLevel3(player1, player2, seed);
             case 4:
-                return createLevel4(player1, player2);
+                return createLevel4(player1, player2, seed);
             case 5:
-                return createLevel5(player1, player2);
+                return createLevel5(player1, player2, seed);
             default:
                 // Esto nunca debería ocurrir debido a la validación anterior
                 throw new IllegalStateException("Error interno: nivel " + levelNumber + " no manejado");
@@ -57,8 +69,9 @@ public class LevelConfigurator {
      * NIVEL 1 - Tutorial básico
      * Mapa pequeño, pocas paredes, frutas estáticas, pocos enemigos
      */
-    private static Level createLevel1(IceCream player1, IceCream player2) {
+    private static Level createLevel1(IceCream player1, IceCream player2, long seed) {
         LevelBuilder builder = LevelBuilder.createCustomLevel(1)
+            .setSeed(seed)
             .setDimensions(25, 18)
             .setPlayer1(player1)
             // Frutas: Solo básicas (Bananas y Uvas)
@@ -83,8 +96,9 @@ public class LevelConfigurator {
      * NIVEL 2 - Introducción a Piñas
      * Más frutas, introducción de Piñas móviles, más enemigos
      */
-    private static Level createLevel2(IceCream player1, IceCream player2) {
+    private static Level createLevel2(IceCream player1, IceCream player2, long seed) {
         LevelBuilder builder = LevelBuilder.createCustomLevel(2)
+            .setSeed(seed)
             .setDimensions(25, 18)
             .setPlayer1(player1)
             // Frutas: Más variedad
@@ -112,8 +126,9 @@ public class LevelConfigurator {
      * NIVEL 3 - Desafío de Cerezas
      * Cerezas que rompen hielo, enemigos más agresivos
      */
-    private static Level createLevel3(IceCream player1, IceCream player2) {
+    private static Level createLevel3(IceCream player1, IceCream player2, long seed) {
         LevelBuilder builder = LevelBuilder.createCustomLevel(3)
+            .setSeed(seed)
             .setDimensions(25, 18)
             .setPlayer1(player1)
             // Frutas: Introducción de Cerezas
@@ -143,8 +158,9 @@ public class LevelConfigurator {
      * NIVEL 4 - Peligro de Cactus
      * Cactus con espinas, enemigos peligrosos
      */
-    private static Level createLevel4(IceCream player1, IceCream player2) {
+    private static Level createLevel4(IceCream player1, IceCream player2, long seed) {
         LevelBuilder builder = LevelBuilder.createCustomLevel(4)
+            .setSeed(seed)
             .setDimensions(25, 18)
             .setPlayer1(player1)
             // Frutas: Introducción de Cactus
@@ -175,8 +191,9 @@ public class LevelConfigurator {
      * NIVEL 5 - Desafío Final
      * Todos los tipos de frutas y enemigos, máxima dificultad
      */
-    private static Level createLevel5(IceCream player1, IceCream player2) {
+    private static Level createLevel5(IceCream player1, IceCream player2, long seed) {
         LevelBuilder builder = LevelBuilder.createCustomLevel(5)
+            .setSeed(seed)
             .setDimensions(25, 18)
             .setPlayer1(player1)
             // Frutas: TODAS las variedades
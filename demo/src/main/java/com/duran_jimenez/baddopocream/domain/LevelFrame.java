@@ -0,0 +1,225 @@
+package com.duran_jimenez.baddopocream.domain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Instantánea de un nivel separada por partes: cabecera (tiempo, puntajes,
+ * oleada y jugadores), máscara de hielo y un registro binario por fogata,
+ * enemigo y fruta.
+ *
+ * toSnapshot() da los mismos bytes que Level.captureSnapshot(). Separada así
+ * permite escribir solo las diferencias con un fotograma clave (writeDelta()):
+ * las palabras de hielo y los registros que cambiaron. Es lo que usa el
+ * autoguardado (AutosaveRing).
+ *
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+class LevelFrame {
+
+    private static final int GROUPS = 3; // Fogatas, enemigos y frutas
+
+    private final byte[] head;
+    private final long[] ice;
+    private final int cells;
+    private final byte[][][] records; // [grupo][índice] = registro de la entidad
+
+    LevelFrame(byte[] head, long[] ice, int cells, byte[][] campfires, byte[][] enemies, byte[][] fruits){
+        this(head, ice, cells, new byte[][][]{campfires, enemies, fruits});
+    }
+
+    private LevelFrame(byte[] head, long[] ice, int cells, byte[][][] records){
+        this.head = head;
+        this.ice = ice;
+        this.cells = cells;
+        this.records = records;
+    }
+
+    /**
+     * Bytes de la instantánea completa, en el formato de Level.restoreSnapshot()
+     */
+    byte[] toSnapshot(){
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        bytes.write(head, 0, head.length);
+        int count = 0;
+        for(long word : ice){
+            count += Long.bitCount(word);
+        }
+        BinaryCodec.writeVarLong(bytes, count);
+        int last = 0;
+        for(int word = 0; word < ice.length; word++){
+            long bits = ice[word];
+            while(bits != 0){
+                int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                BinaryCodec.writeVarLong(bytes, index - last);
+                last = index;
+            }
+        }
+        for(byte[][] group : records){
+            BinaryCodec.writeVarLong(bytes, group.length);
+            for(byte[] record : group){
+                bytes.write(record, 0, record.length);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    // ==================== FOTOGRAMA CLAVE ====================
+
+    void write(DataOutputStream out) throws IOException {
+        writeBytes(out, head);
+        BinaryCodec.writeVarLong(out, cells);
+        BinaryCodec.writeVarLong(out, ice.length);
+        for(long word : ice){
+            out.writeLong(word);
+        }
+        for(byte[][] group : records){
+            BinaryCodec.writeVarLong(out, group.length);
+            for(byte[] record : group){
+                writeBytes(out, record);
+            }
+        }
+    }
+
+    static LevelFrame read(DataInputStream in) throws IOException {
+        byte[] head = readBytes(in);
+        int cells = checkedLength(BinaryCodec.readVarLong(in));
+        long[] ice = new long[checkedLength(BinaryCodec.readVarLong(in))];
+        for(int i = 0; i < ice.length; i++){
+            ice[i] = in.readLong();
+        }
+        byte[][][] records = new byte[GROUPS][][];
+        for(int g = 0; g < GROUPS; g++){
+            records[g] = new byte[checkedLength(BinaryCodec.readVarLong(in))][];
+            for(int i = 0; i < records[g].length; i++){
+                records[g][i] = readBytes(in);
+            }
+        }
+        return new LevelFrame(head, ice, cells, records);
+    }
+
+    // ==================== DIFERENCIAS ====================
+
+    /**
+     * ¿Se puede expresar este fotograma como diferencias con el clave?
+     * (mismo mapa y ninguna entidad menos; las oleadas solo agregan frutas)
+     */
+    boolean isDeltaOf(LevelFrame keyframe){
+        if(keyframe.cells != cells || keyframe.ice.length != ice.length){
+            return false;
+        }
+        for(int g = 0; g < GROUPS; g++){
+            if(records[g].length < keyframe.records[g].length){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Escribe solo lo que cambió respecto al fotograma clave: la cabecera
+     * (unas decenas de bytes), las palabras de hielo distintas (en XOR) y los
+     * registros de entidades distintos o nuevos
+     */
+    void writeDelta(DataOutputStream out, LevelFrame keyframe) throws IOException {
+        writeBytes(out, head);
+        int changedWords = 0;
+        for(int i = 0; i < ice.length; i++){
+            if(ice[i] != keyframe.ice[i]) changedWords++;
+        }
+        BinaryCodec.writeVarLong(out, changedWords);
+        int last = 0;
+        for(int i = 0; i < ice.length; i++){
+            if(ice[i] != keyframe.ice[i]){
+                BinaryCodec.writeVarLong(out, i - last);
+                out.writeLong(ice[i] ^ keyframe.ice[i]);
+                last = i;
+            }
+        }
+        for(int g = 0; g < GROUPS; g++){
+            byte[][] group = records[g];
+            byte[][] base = keyframe.records[g];
+            BinaryCodec.writeVarLong(out, group.length);
+            int changed = 0;
+            for(int i = 0; i < group.length; i++){
+                if(i >= base.length || !Arrays.equals(group[i], base[i])) changed++;
+            }
+            BinaryCodec.writeVarLong(out, changed);
+            last = 0;
+            for(int i = 0; i < group.length; i++){
+                if(i >= base.length || !Arrays.equals(group[i], base[i])){
+                    BinaryCodec.writeVarLong(out, i - last);
+                    writeBytes(out, group[i]);
+                    last = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reconstruye el fotograma aplicando al clave las diferencias de writeDelta()
+     */
+    static LevelFrame readDelta(DataInputStream in, LevelFrame keyframe) throws IOException {
+        byte[] head = readBytes(in);
+        long[] ice = keyframe.ice.clone();
+        long changedWords = BinaryCodec.readVarLong(in);
+        long index = 0;
+        for(long c = 0; c < changedWords; c++){
+            index += BinaryCodec.readVarLong(in);
+            if(index >= ice.length){
+                throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+            }
+            ice[(int) index] ^= in.readLong();
+        }
+        byte[][][] records = new byte[GROUPS][][];
+        for(int g = 0; g < GROUPS; g++){
+            byte[][] base = keyframe.records[g];
+            int length = checkedLength(BinaryCodec.readVarLong(in));
+            if(length < base.length){
+                throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+            }
+            byte[][] group = Arrays.copyOf(base, length);
+            long changed = BinaryCodec.readVarLong(in);
+            index = 0;
+            for(long c = 0; c < changed; c++){
+                index += BinaryCodec.readVarLong(in);
+                if(index >= length){
+                    throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+                }
+                group[(int) index] = readBytes(in);
+            }
+            for(byte[] record : group){
+                if(record == null){
+                    throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+                }
+            }
+            records[g] = group;
+        }
+        return new LevelFrame(head, ice, keyframe.cells, records);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        BinaryCodec.writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = checkedLength(BinaryCodec.readVarLong(in));
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /** Evita reservar arreglos enormes con un contador corrupto */
+    private static int checkedLength(long length) throws IOException {
+        if(length > (1 << 20)){
+            throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+        }
+        return (int) length;
+    }
+}
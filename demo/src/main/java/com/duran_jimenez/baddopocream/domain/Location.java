@@ -8,10 +8,21 @@ package com.duran_jimenez.baddopocream.domain;
  * 
  * Implementa equals() y hashCode() para permitir uso en colecciones.
  * 
+ * Para que el bucle de simulación no genere basura, of() y move() devuelven
+ * instancias compartidas para las coordenadas 0..CACHE_SIZE-1 (como
+ * Integer.valueOf). Las comparaciones deben seguir usando equals(). Además,
+ * pack() codifica una posición o un desplazamiento en un solo int, para las
+ * rutas que trabajan con coordenadas primitivas.
+ * 
  * @author Durán-Jiménez
  */
 public class Location {
     
+    /** Lado del bloque de coordenadas con instancias compartidas */
+    public static final int CACHE_SIZE = 128;
+    
+    private static final Location[] CACHE = new Location[CACHE_SIZE * CACHE_SIZE];
+    
     private final int x;
     private final int y;
 
@@ -19,6 +30,66 @@ public class Location {
         this.x = x;
         this.y = y;
     }
+    
+    /**
+     * Obtiene la ubicación (x, y), compartida si está dentro de la caché.
+     * Las carreras al llenar la caché son inofensivas: Location es inmutable.
+     */
+    public static Location of(int x, int y){
+        if(x >= 0 && x < CACHE_SIZE && y >= 0 && y < CACHE_SIZE){
+            int index = x * CACHE_SIZE + y;
+            Location cached = CACHE[index];
+            if(cached == null){
+                cached = new Location(x, y);
+                CACHE[index] = cached;
+            }
+            return cached;
+        }
+        return new Location(x, y);
+    }
+    
+    /**
+     * Llena la caché para las coordenadas 0..width-1 x 0..height-1, para que
+     * el primer paso por cada celda no asigne memoria en pleno tick
+     */
+    public static void preload(int width, int height){
+        int maxX = Math.min(width, CACHE_SIZE);
+        int maxY = Math.min(height, CACHE_SIZE);
+        for(int x = 0; x < maxX; x++){
+            for(int y = 0; y < maxY; y++){
+                of(x, y);
+            }
+        }
+    }
+    
+    /**
+     * Codifica (x, y) en un int: x en los 16 bits altos, y en los bajos (con signo)
+     */
+    public static int pack(int x, int y){
+        return (x << 16) | (y & 0xFFFF);
+    }
+    
+    public static int unpackX(int packed){
+        return packed >> 16;
+    }
+    
+    public static int unpackY(int packed){
+        return (short) packed;
+    }
+    
+    /**
+     * Obtiene la ubicación correspondiente a una posición empaquetada con pack()
+     */
+    public static Location ofPacked(int packed){
+        return of(unpackX(packed), unpackY(packed));
+    }
+    
+    /**
+     * Obtiene esta posición empaquetada con pack()
+     */
+    public int pack(){
+        return pack(x, y);
+    }
 
     public int getX(){
         return this.x;
@@ -57,11 +128,12 @@ public class Location {
     }
 
     /**
-     * Retorna una nueva ubicación desplazada por (dx, dy).
+     * Retorna la ubicación desplazada por (dx, dy) (ver of()).
      * No modifica la ubicación actual (inmutabilidad).
      */
     public Location move(int dx, int dy){
-        return new Location(this.x + dx, this.y + dy);
+        if(dx == 0 && dy == 0) return this;
+        return of(this.x + dx, this.y + dy);
     }
 
     @Override
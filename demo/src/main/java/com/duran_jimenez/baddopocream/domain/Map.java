@@ -1,6 +1,7 @@
 package com.duran_jimenez.baddopocream.domain;
 
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Representa el mapa de un nivel del juego.
@@ -15,6 +16,19 @@ import java.util.ArrayList;
  * - WALL (1): Pared sólida (intransitable)
  * - ICE (2): Pared de hielo (intransitable, puede romperse)
  * 
+ * Las celdas se guardan en orden de filas (índice y * width + x) como dos planos
+ * de bits long[] (paredes y hielo), es decir, 2 bits por celda. Las baldosas
+ * calientes y las fogatas tienen también su máscara, así que todas las consultas
+ * por celda son O(1) y las operaciones sobre muchas celdas (máscara de celdas
+ * transitables, tramos libres de una fila) trabajan 64 celdas a la vez.
+ * 
+ * Cada cambio real de celda incrementa la versión del mapa y amplía la región
+ * modificada, de modo que los cálculos derivados (caminos, campos de flujo)
+ * solo se repiten cuando el terreno cambió. Las versiones se toman de un
+ * contador global: dos mapas distintos nunca comparten versión. Los observadores
+ * registrados con addCellChangeListener() reciben cada celda cambiada, para
+ * reparar sus cálculos en lugar de repetirlos.
+ * 
  * @author Durán-Jiménez
  */
 public class Map {
@@ -30,9 +44,31 @@ public class Map {
     
     private final int width;
     private final int height;
-    private final int[][] grid;
+    private final int cellCount;
+    // Planos de bits por celda (bit y * width + x)
+    private final long[] wallMask;
+    private final long[] iceMask;
+    private final long[] hotTileMask;
+    private final long[] campfireMask;
+    private Fogata[] campfireByCell; // Se crea con la primera fogata
+    private int[][] gridView; // Vista int[x][y] para la presentación, se crea al primer getGrid()
     private final ArrayList<BaldosaCaliente> hotTiles;
     private final ArrayList<Fogata> campfires;
+    private GameClock clock;
+    private TimerWheel timers;
+    private TimedEventListener timedEvents;
+    private final ArrayList<CellChangeListener> cellListeners;
+    
+    /** Fuente de versiones compartida por todos los mapas */
+    private static final AtomicLong VERSIONS = new AtomicLong();
+    
+    private long version;
+    // Región modificada desde el último clearDirtyRegion() (minX > maxX si está limpia)
+    private int dirtyMinX;
+    private int dirtyMinY;
+    private int dirtyMaxX;
+    private int dirtyMaxY;
+    private long dirtySince; // Versión en el último clearDirtyRegion()
     
     /**
      * Crea un nuevo mapa con las dimensiones especificadas.
@@ -41,32 +77,72 @@ public class Map {
     public Map(int width, int height){
         this.width = width;
         this.height = height;
-        this.grid = new int[width][height];
+        this.cellCount = width * height;
+        int words = (cellCount + 63) >>> 6;
+        this.wallMask = new long[words];
+        this.iceMask = new long[words];
+        this.hotTileMask = new long[words];
+        this.campfireMask = new long[words];
         this.hotTiles = new ArrayList<>();
         this.campfires = new ArrayList<>();
-        // El grid se inicializa automáticamente a 0 (EMPTY) en Java
+        this.cellListeners = new ArrayList<>();
+        this.clock = GameClock.SYSTEM;
+        this.version = VERSIONS.incrementAndGet();
+        clearDirtyRegion();
+        Location.preload(width, height);
+    }
+    
+    private static boolean testBit(long[] mask, int index){
+        return (mask[index >>> 6] & (1L << index)) != 0;
+    }
+    
+    private static void setBit(long[] mask, int index, boolean value){
+        if(value){
+            mask[index >>> 6] |= 1L << index;
+        } else {
+            mask[index >>> 6] &= ~(1L << index);
+        }
+    }
+    
+    /**
+     * Tipo de la celda a partir de los dos planos de bits (sin validar límites)
+     */
+    private int typeAt(int index){
+        if(testBit(wallMask, index)) return WALL;
+        if(testBit(iceMask, index)) return ICE;
+        return EMPTY;
     }
     
     public void addWall(Location location){
-        if(isInBounds(location)){
-            grid[location.getX()][location.getY()] = WALL;
+        addWall(location.getX(), location.getY());
+    }
+    
+    public void addWall(int x, int y){
+        if(isInBounds(x, y)){
+            setCell(x, y, WALL);
         }
     }
     
     public boolean isWall(Location location){
-        if(!isInBounds(location)) return false;
-        return grid[location.getX()][location.getY()] == WALL;
+        return isWall(location.getX(), location.getY());
+    }
+    
+    public boolean isWall(int x, int y){
+        return isInBounds(x, y) && testBit(wallMask, y * width + x);
     }
     
     public void addIceWall(Location location){
-        if(isInBounds(location)){
-            grid[location.getX()][location.getY()] = ICE;
+        addIceWall(location.getX(), location.getY());
+    }
+    
+    public void addIceWall(int x, int y){
+        if(isInBounds(x, y)){
+            setCell(x, y, ICE);
         }
     }
     
     public boolean hasIceWall(Location location){
-        if(!isInBounds(location)) return false;
-        return grid[location.getX()][location.getY()] == ICE;
+        return hasIceWall(location.getX(), location.getY());
     }
     
     public boolean isIceWall(Location location){
@@ -74,25 +150,253 @@ public class Map {
     }
     
     public void removeIceWall(Location location){
-        if(isInBounds(location)){
-            grid[location.getX()][location.getY()] = EMPTY;
+        removeIceWall(location.getX(), location.getY());
+    }
+    
+    public void removeIceWall(int x, int y){
+        if(isInBounds(x, y)){
+            setCell(x, y, EMPTY);
+        }
+    }
+    
+    /**
+     * Cambia el tipo de una celda registrando la versión y la región modificada
+     */
+    private void setCell(int x, int y, int type){
+        int index = y * width + x;
+        int oldType = typeAt(index);
+        if(oldType == type) return;
+        setBit(wallMask, index, type == WALL);
+        setBit(iceMask, index, type == ICE);
+        if(gridView != null){
+            gridView[x][y] = type;
+        }
+        version = VERSIONS.incrementAndGet();
+        dirtyMinX = Math.min(dirtyMinX, x);
+        dirtyMinY = Math.min(dirtyMinY, y);
+        dirtyMaxX = Math.max(dirtyMaxX, x);
+        dirtyMaxY = Math.max(dirtyMaxY, y);
+        for(int i = 0; i < cellListeners.size(); i++){
+            cellListeners.get(i).onCellChanged(x, y, oldType, type);
         }
     }
     
+    /**
+     * Registra un observador que recibe cada cambio real de celda
+     */
+    public void addCellChangeListener(CellChangeListener listener){
+        if(listener != null){
+            cellListeners.add(listener);
+        }
+    }
+    
+    public void removeCellChangeListener(CellChangeListener listener){
+        cellListeners.remove(listener);
+    }
+    
+    /**
+     * Obtiene la versión del terreno. Cambia con cada pared o hielo agregado o quitado.
+     */
+    public long getVersion(){
+        return version;
+    }
+    
+    /**
+     * Obtiene el rectángulo de celdas modificadas desde el último clearDirtyRegion()
+     * @return Array [minX, minY, maxX, maxY] o null si no hubo cambios
+     */
+    public int[] getDirtyRegion(){
+        if(dirtyMinX > dirtyMaxX) return null;
+        return new int[]{dirtyMinX, dirtyMinY, dirtyMaxX, dirtyMaxY};
+    }
+    
+    /**
+     * Obtiene la versión del mapa en el último clearDirtyRegion(): fuera de la
+     * región modificada las celdas son las de esa versión
+     */
+    public long getDirtyRegionVersion(){
+        return dirtySince;
+    }
+    
+    /**
+     * Copia la región modificada en target [minX, minY, maxX, maxY] sin crear arreglos
+     * @return false si no hubo cambios
+     */
+    boolean copyDirtyRegion(int[] target){
+        if(dirtyMinX > dirtyMaxX) return false;
+        target[0] = dirtyMinX;
+        target[1] = dirtyMinY;
+        target[2] = dirtyMaxX;
+        target[3] = dirtyMaxY;
+        return true;
+    }
+    
+    /**
+     * Marca la región modificada como procesada
+     */
+    public void clearDirtyRegion(){
+        dirtySince = version;
+        dirtyMinX = Integer.MAX_VALUE;
+        dirtyMinY = Integer.MAX_VALUE;
+        dirtyMaxX = Integer.MIN_VALUE;
+        dirtyMaxY = Integer.MIN_VALUE;
+    }
+    
     public boolean isValidPosition(Location location){
-        if(!isInBounds(location)) return false;
-        return grid[location.getX()][location.getY()] == EMPTY;
+        return isValidPosition(location.getX(), location.getY());
     }
     
-    private boolean isInBounds(Location location){
-        int x = location.getX();
-        int y = location.getY();
+    /**
+     * Variante sin Location para los recorridos de celdas (pathfinding)
+     */
+    public boolean isValidPosition(int x, int y){
+        if(!isInBounds(x, y)) return false;
+        int index = y * width + x;
+        return ((wallMask[index >>> 6] | iceMask[index >>> 6]) & (1L << index)) == 0;
+    }
+    
+    /**
+     * Variante sin Location para los recorridos de celdas (pathfinding)
+     */
+    public boolean hasIceWall(int x, int y){
+        return isInBounds(x, y) && testBit(iceMask, y * width + x);
+    }
+    
+    public boolean isInBounds(int x, int y){
         return x >= 0 && x < width && y >= 0 && y < height;
     }
     
+    private boolean isInBounds(Location location){
+        return isInBounds(location.getX(), location.getY());
+    }
+    
     public int getCellType(Location location){
-        if(!isInBounds(location)) return -1;
-        return grid[location.getX()][location.getY()];
+        return getCellType(location.getX(), location.getY());
+    }
+    
+    public int getCellType(int x, int y){
+        if(!isInBounds(x, y)) return -1;
+        return typeAt(y * width + x);
+    }
+    
+    /**
+     * Cuenta las celdas libres consecutivas desde (x, y) en la dirección (dx, dy),
+     * sin incluir la celda de partida. En horizontal recorre 64 celdas por palabra.
+     * @return Número de celdas EMPTY antes de la primera pared, hielo o borde
+     */
+    public int freeRunLength(int x, int y, int dx, int dy){
+        if(!isInBounds(x, y) || (dx == 0 && dy == 0)) return 0;
+        if(dy == 0 && (dx == 1 || dx == -1)){
+            return dx == 1 ? freeRunRight(x, y) : freeRunLeft(x, y);
+        }
+        int run = 0;
+        int cx = x + dx;
+        int cy = y + dy;
+        while(isValidPosition(cx, cy)){
+            run++;
+            cx += dx;
+            cy += dy;
+        }
+        return run;
+    }
+    
+    private int freeRunRight(int x, int y){
+        int from = y * width + x + 1;
+        int rowEnd = (y + 1) * width; // exclusivo
+        int index = from;
+        while(index < rowEnd){
+            int word = index >>> 6;
+            long blocked = (wallMask[word] | iceMask[word]) & (-1L << index);
+            if(blocked != 0){
+                int hit = (word << 6) + Long.numberOfTrailingZeros(blocked);
+                return Math.min(hit, rowEnd) - from;
+            }
+            index = (word + 1) << 6;
+        }
+        return rowEnd - from;
+    }
+    
+    private int freeRunLeft(int x, int y){
+        int from = y * width + x - 1;
+        int rowStart = y * width;
+        int index = from;
+        while(index >= rowStart){
+            int word = index >>> 6;
+            long blocked = (wallMask[word] | iceMask[word]) & (-1L >>> (63 - (index & 63)));
+            if(blocked != 0){
+                int hit = (word << 6) + 63 - Long.numberOfLeadingZeros(blocked);
+                return from - Math.max(hit, rowStart - 1);
+            }
+            index = (word << 6) - 1;
+        }
+        return from - rowStart + 1;
+    }
+    
+    /**
+     * Copia en target la máscara de celdas transitables (ni pared ni hielo),
+     * un bit por celda en orden de filas
+     * @param target Arreglo de al menos getMaskWords() palabras
+     */
+    public void copyPassableMask(long[] target){
+        int words = wallMask.length;
+        for(int i = 0; i < words; i++){
+            target[i] = ~(wallMask[i] | iceMask[i]);
+        }
+        int tail = cellCount & 63;
+        if(tail != 0){
+            target[words - 1] &= (1L << tail) - 1; // Sin bits fuera del mapa
+        }
+    }
+    
+    /**
+     * Copia en target la máscara de celdas con hielo
+     */
+    public void copyIceMask(long[] target){
+        System.arraycopy(iceMask, 0, target, 0, iceMask.length);
+    }
+    
+    /**
+     * Deja el hielo igual a la máscara dada (carga de partida). Solo toca las
+     * celdas que cambian, con la versión, la región y los observadores de
+     * siempre; las paredes sólidas no se modifican.
+     * @param source Máscara con el formato de copyIceMask()
+     */
+    public void restoreIceMask(long[] source){
+        for(int word = 0; word < iceMask.length; word++){
+            long diff = (iceMask[word] ^ source[word]) & ~wallMask[word];
+            while(diff != 0){
+                int index = (word << 6) + Long.numberOfTrailingZeros(diff);
+                diff &= diff - 1;
+                if(index < cellCount){
+                    setCell(index % width, index / width, testBit(source, index) ? ICE : EMPTY);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copia en target la máscara de paredes sólidas
+     */
+    public void copyWallMask(long[] target){
+        System.arraycopy(wallMask, 0, target, 0, wallMask.length);
+    }
+    
+    /**
+     * Número de palabras long de las máscaras de celdas
+     */
+    public int getMaskWords(){
+        return wallMask.length;
+    }
+    
+    /**
+     * Cuenta las celdas con hielo
+     */
+    public int countIceWalls(){
+        int count = 0;
+        for(long word : iceMask){
+            count += Long.bitCount(word);
+        }
+        return count;
     }
     
     public int getWidth(){
@@ -105,10 +409,55 @@ public class Map {
     
     public void addHotTile(BaldosaCaliente hotTile){
         hotTiles.add(hotTile);
+        Location loc = hotTile.getLocation();
+        if(isInBounds(loc)){
+            setBit(hotTileMask, loc.getY() * width + loc.getX(), true);
+        }
     }
     
     public void addCampfire(Fogata campfire){
+        campfire.setClock(clock);
+        if(timers != null){
+            campfire.attachTimers(timers, timedEvents);
+        }
         campfires.add(campfire);
+        Location loc = campfire.getLocation();
+        if(isInBounds(loc)){
+            int index = loc.getY() * width + loc.getX();
+            if(campfireByCell == null){
+                campfireByCell = new Fogata[cellCount];
+            }
+            if(campfireByCell[index] == null){
+                campfireByCell[index] = campfire;
+            }
+            setBit(campfireMask, index, true);
+        }
+    }
+    
+    /**
+     * Conecta las fogatas (actuales y futuras) a la rueda de temporizadores del nivel
+     */
+    public void setTimers(TimerWheel timers, TimedEventListener timedEvents){
+        this.timers = timers;
+        this.timedEvents = timedEvents;
+        for(Fogata campfire : campfires){
+            campfire.attachTimers(timers, timedEvents);
+        }
+    }
+    
+    /**
+     * Establece el reloj del nivel y lo propaga a las fogatas
+     */
+    public void setClock(GameClock clock){
+        if(clock == null) return;
+        this.clock = clock;
+        for(Fogata campfire : campfires){
+            campfire.setClock(clock);
+        }
+    }
+    
+    public GameClock getClock(){
+        return this.clock;
     }
     
     public ArrayList<BaldosaCaliente> getHotTiles(){
@@ -120,26 +469,30 @@ public class Map {
     }
     
     public boolean isHotTile(Location location){
-        for(BaldosaCaliente tile : hotTiles){
-            if(tile.getLocation().equals(location)){
-                return true;
-            }
-        }
-        return false;
+        return isHotTile(location.getX(), location.getY());
+    }
+    
+    public boolean isHotTile(int x, int y){
+        return isInBounds(x, y) && testBit(hotTileMask, y * width + x);
+    }
+    
+    public boolean hasCampfire(int x, int y){
+        return isInBounds(x, y) && testBit(campfireMask, y * width + x);
     }
     
     public Fogata getCampfireAt(Location location){
-        for(Fogata campfire : campfires){
-            if(campfire.getLocation().equals(location)){
-                return campfire;
-            }
-        }
-        return null;
+        return getCampfireAt(location.getX(), location.getY());
+    }
+    
+    public Fogata getCampfireAt(int x, int y){
+        if(!hasCampfire(x, y)) return null;
+        return campfireByCell[y * width + x];
     }
     
     /**
      * Obtiene la pared de hielo en una ubicación específica
      * Retorna un objeto IceWall temporal si existe hielo en esa posición
+     * (asigna memoria; en el tick usar hasIceWall)
      */
     public IceWall getIceWallAt(Location location){
         if(hasIceWall(location)){
@@ -149,9 +502,29 @@ public class Map {
     }
     
     /**
-     * Obtiene el grid completo del mapa (para renderizado)
+     * Obtiene el grid completo del mapa indexado [x][y] (para renderizado).
+     * Se construye en la primera llamada y desde entonces se mantiene al día.
+     * Es de solo lectura: modificarlo directamente no cambia el mapa.
      */
     public int[][] getGrid(){
-        return this.grid;
+        if(gridView == null){
+            int[][] view = new int[width][height];
+            for(int y = 0; y < height; y++){
+                for(int x = 0; x < width; x++){
+                    view[x][y] = typeAt(y * width + x);
+                }
+            }
+            gridView = view;
+        }
+        return gridView;
+    }
+    
+    /**
+     * Copia el tipo de cada celda en target, indexado y * width + x (para FrameSnapshot)
+     */
+    void copyCells(int[] target){
+        for(int index = 0; index < width * height; index++){
+            target[index] = typeAt(index);
+        }
     }
 }
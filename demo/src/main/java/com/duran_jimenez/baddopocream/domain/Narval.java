@@ -1,5 +1,9 @@
 package com.duran_jimenez.baddopocream.domain;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 /**
  * Narval - Enemigo con comportamiento de embestida
  * 
@@ -263,6 +267,30 @@ public class Narval extends Enemy implements IceBreaker {
         return currentState == State.PATROLLING ? directionY : chargeDirectionY;
     }
     
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeByte(currentState.ordinal());
+        BinaryCodec.writeVarInt(out, directionX);
+        BinaryCodec.writeVarInt(out, directionY);
+        BinaryCodec.writeVarInt(out, chargeDirectionX);
+        BinaryCodec.writeVarInt(out, chargeDirectionY);
+        BinaryCodec.writeVarInt(out, chargeStepsRemaining);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        int state = in.readUnsignedByte();
+        if (state >= State.values().length) {
+            throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+        }
+        currentState = State.values()[state];
+        directionX = BinaryCodec.readVarInt(in);
+        directionY = BinaryCodec.readVarInt(in);
+        chargeDirectionX = BinaryCodec.readVarInt(in);
+        chargeDirectionY = BinaryCodec.readVarInt(in);
+        chargeStepsRemaining = BinaryCodec.readVarInt(in);
+    }
+
     @Override
     public String getTypeName(){
         return "Narval";
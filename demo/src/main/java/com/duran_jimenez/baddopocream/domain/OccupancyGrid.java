@@ -0,0 +1,169 @@
+package com.duran_jimenez.baddopocream.domain;
+
+import java.util.Arrays;
+
+/**
+ * Índice espacial de ocupación: celda -> entidades que están en ella.
+ *
+ * Cada entidad se registra con un id entero (su posición en la lista del nivel)
+ * y se mantiene en una lista doblemente enlazada por celda, guardada en arreglos
+ * planos. Agregar, mover, quitar y consultar una celda son O(1) y no crean
+ * objetos. Las entidades fuera del mapa se recuerdan pero no ocupan celda.
+ *
+ * Uso típico para recorrer una celda:
+ * <pre>
+ * for(int id = grid.first(x, y); id != OccupancyGrid.NONE; id = grid.next(id)) { ... }
+ * </pre>
+ *
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+public class OccupancyGrid {
+
+    /** Fin de lista / id inexistente */
+    public static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int width;
+    private final int height;
+    private final int[] head;   // Primer id de cada celda
+    private int[] next;         // Siguiente id en la misma celda
+    private int[] prev;         // Anterior id en la misma celda
+    private int[] cellOf;       // Celda de cada id (NONE si no está indexado)
+    private int size;
+
+    public OccupancyGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.head = new int[width * height];
+        Arrays.fill(head, NONE);
+        this.next = new int[INITIAL_CAPACITY];
+        this.prev = new int[INITIAL_CAPACITY];
+        this.cellOf = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Registra una entidad nueva en su posición
+     * @return Id asignado (consecutivo desde 0)
+     */
+    public int add(Location location) {
+        if (size == cellOf.length) {
+            int capacity = size * 2;
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            cellOf = Arrays.copyOf(cellOf, capacity);
+        }
+        int id = size++;
+        cellOf[id] = NONE;
+        update(id, location.getX(), location.getY());
+        return id;
+    }
+
+    /**
+     * Mueve la entidad a (x, y). No hace nada si ya estaba indexada ahí.
+     */
+    public void update(int id, int x, int y) {
+        int cell = isInBounds(x, y) ? y * width + x : NONE;
+        if (cell == cellOf[id]) return;
+        unlink(id);
+        if (cell != NONE) {
+            link(id, cell);
+        }
+    }
+
+    public void update(int id, Location location) {
+        update(id, location.getX(), location.getY());
+    }
+
+    /**
+     * Saca la entidad del índice (p. ej. fruta recolectada). Su id sigue reservado.
+     */
+    public void remove(int id) {
+        unlink(id);
+    }
+
+    /**
+     * Primer id en la celda, o NONE si está vacía o fuera del mapa
+     */
+    public int first(int x, int y) {
+        if (!isInBounds(x, y)) return NONE;
+        return head[y * width + x];
+    }
+
+    public int first(Location location) {
+        return first(location.getX(), location.getY());
+    }
+
+    /**
+     * Siguiente id en la misma celda que id, o NONE
+     */
+    public int next(int id) {
+        return next[id];
+    }
+
+    public boolean isOccupied(int x, int y) {
+        return first(x, y) != NONE;
+    }
+
+    public boolean isOccupied(Location location) {
+        return isOccupied(location.getX(), location.getY());
+    }
+
+    /**
+     * Indica si hay en la celda una entidad distinta de id
+     */
+    public boolean isOccupiedByOther(int id, int x, int y) {
+        for (int other = first(x, y); other != NONE; other = next[other]) {
+            if (other != id) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Vacía el índice y libera todos los ids
+     */
+    public void clear() {
+        Arrays.fill(head, NONE);
+        size = 0;
+    }
+
+    /**
+     * Número de ids registrados (indexados o no)
+     */
+    public int size() {
+        return size;
+    }
+
+    private boolean isInBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    private void link(int id, int cell) {
+        int first = head[cell];
+        next[id] = first;
+        prev[id] = NONE;
+        if (first != NONE) {
+            prev[first] = id;
+        }
+        head[cell] = id;
+        cellOf[id] = cell;
+    }
+
+    private void unlink(int id) {
+        int cell = cellOf[id];
+        if (cell == NONE) return;
+        int before = prev[id];
+        int after = next[id];
+        if (before != NONE) {
+            next[before] = after;
+        } else {
+            head[cell] = after;
+        }
+        if (after != NONE) {
+            prev[after] = before;
+        }
+        cellOf[id] = NONE;
+    }
+}
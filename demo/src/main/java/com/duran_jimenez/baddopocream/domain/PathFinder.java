@@ -1,51 +1,230 @@
 package com.duran_jimenez.baddopocream.domain;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.PriorityQueue;
 import java.util.Set;
 
 /**
  * Algoritmo A* para pathfinding inteligente
  * Encuentra el camino más corto entre dos puntos evitando obstáculos
+ * 
+ * Trabaja sobre índices de celda (y * width + x) con arreglos planos de enteros
+ * reutilizados entre llamadas (marcados por generación) y un montículo binario
+ * indexado con decrease-key, por lo que no crea objetos por nodo expandido.
+ * 
+ * Los caminos encontrados se guardan en una caché LRU por hilo, indexada por
+ * (inicio, objetivo, versión del mapa, modo hielo, posiciones a evitar). Como la
+ * versión del mapa cambia con cada hielo creado o roto, un objetivo quieto no
+ * repite la búsqueda mientras el terreno no cambie.
  */
 public class PathFinder {
     
-    private static class Node implements Comparable<Node> {
-        Location location;
-        Node parent;
-        double gCost; // Distancia desde el inicio
-        double hCost; // Heurística (distancia estimada al objetivo)
-        double fCost; // gCost + hCost
+    /** Direcciones de vecinos (abajo, arriba, derecha, izquierda) */
+    private static final int[] DIR_X = {0, 0, 1, -1};
+    private static final int[] DIR_Y = {1, -1, 0, 0};
+    
+    /** Costo de moverse a una celda libre */
+    private static final int MOVE_COST = 1;
+    
+    /** Costo de atravesar una celda de hielo (romperlo) */
+    private static final int ICE_COST = 3;
+    
+    /**
+     * Arreglos de trabajo de A* reutilizados por hilo.
+     * Una celda solo es válida en la búsqueda actual si su sello coincide con la generación.
+     */
+    private static final class SearchWorkspace {
+        int capacity;
+        int generation;
+        int[] openStamp;   // Sello de generación: la celda fue descubierta
+        int[] closedStamp; // Sello de generación: la celda fue expandida
+        int[] avoidStamp;  // Sello de generación: la celda debe evitarse
+        int[] gCost;
+        int[] fCost;
+        int[] parent;
+        int[] heapIndex;   // Posición de la celda en el montículo (-1 si no está)
+        int[] heap;
+        int heapSize;
         
-        Node(Location location, Node parent, double gCost, double hCost) {
-            this.location = location;
-            this.parent = parent;
-            this.gCost = gCost;
-            this.hCost = hCost;
-            this.fCost = gCost + hCost;
+        void prepare(int cells) {
+            if (cells > capacity) {
+                capacity = cells;
+                openStamp = new int[cells];
+                closedStamp = new int[cells];
+                avoidStamp = new int[cells];
+                gCost = new int[cells];
+                fCost = new int[cells];
+                parent = new int[cells];
+                heapIndex = new int[cells];
+                heap = new int[cells];
+                generation = 0;
+            }
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                // Reiniciar sellos al agotar las generaciones
+                Arrays.fill(openStamp, 0);
+                Arrays.fill(closedStamp, 0);
+                Arrays.fill(avoidStamp, 0);
+                generation = 1;
+            }
+            heapSize = 0;
         }
         
-        @Override
-        public int compareTo(Node other) {
-            return Double.compare(this.fCost, other.fCost);
+        boolean less(int a, int b) {
+            // A igual f, preferir el de mayor g (más cerca del objetivo)
+            return fCost[a] < fCost[b] || (fCost[a] == fCost[b] && gCost[a] > gCost[b]);
+        }
+        
+        void push(int cell) {
+            heap[heapSize] = cell;
+            heapIndex[cell] = heapSize;
+            siftUp(heapSize++);
+        }
+        
+        int pop() {
+            int top = heap[0];
+            heapIndex[top] = -1;
+            heapSize--;
+            if (heapSize > 0) {
+                heap[0] = heap[heapSize];
+                heapIndex[heap[0]] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+        
+        void decreaseKey(int cell) {
+            siftUp(heapIndex[cell]);
+        }
+        
+        private void siftUp(int pos) {
+            int cell = heap[pos];
+            while (pos > 0) {
+                int parentPos = (pos - 1) >>> 1;
+                int parentCell = heap[parentPos];
+                if (!less(cell, parentCell)) break;
+                heap[pos] = parentCell;
+                heapIndex[parentCell] = pos;
+                pos = parentPos;
+            }
+            heap[pos] = cell;
+            heapIndex[cell] = pos;
+        }
+        
+        private void siftDown(int pos) {
+            int cell = heap[pos];
+            int half = heapSize >>> 1;
+            while (pos < half) {
+                int child = 2 * pos + 1;
+                int right = child + 1;
+                if (right < heapSize && less(heap[right], heap[child])) {
+                    child = right;
+                }
+                if (!less(heap[child], cell)) break;
+                heap[pos] = heap[child];
+                heapIndex[heap[pos]] = pos;
+                pos = child;
+            }
+            heap[pos] = cell;
+            heapIndex[cell] = pos;
+        }
+    }
+    
+    private static final ThreadLocal<SearchWorkspace> WORKSPACE = ThreadLocal.withInitial(SearchWorkspace::new);
+    
+    /** Número máximo de caminos guardados por hilo */
+    public static final int CACHE_CAPACITY = 256;
+    
+    /**
+     * Clave de la caché de caminos. Las posiciones a evitar se guardan como
+     * índices de celda ordenados para que el orden de la lista no importe.
+     */
+    private static final class PathKey {
+        final long mapVersion;
+        final int startCell;
+        final int goalCell;
+        final boolean breakIce;
+        final int[] avoidCells;
+        final int hash;
+        
+        PathKey(long mapVersion, int startCell, int goalCell, boolean breakIce, int[] avoidCells) {
+            this.mapVersion = mapVersion;
+            this.startCell = startCell;
+            this.goalCell = goalCell;
+            this.breakIce = breakIce;
+            this.avoidCells = avoidCells;
+            int h = Long.hashCode(mapVersion);
+            h = 31 * h + startCell;
+            h = 31 * h + goalCell;
+            h = 31 * h + (breakIce ? 1 : 0);
+            h = 31 * h + Arrays.hashCode(avoidCells);
+            this.hash = h;
         }
         
         @Override
-        public boolean equals(Object obj) {
-            if (!(obj instanceof Node)) return false;
-            Node other = (Node) obj;
-            return this.location.equals(other.location);
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PathKey)) return false;
+            PathKey other = (PathKey) o;
+            return mapVersion == other.mapVersion && startCell == other.startCell
+                && goalCell == other.goalCell && breakIce == other.breakIce
+                && Arrays.equals(avoidCells, other.avoidCells);
         }
         
         @Override
         public int hashCode() {
-            return location.hashCode();
+            return hash;
+        }
+    }
+    
+    /**
+     * Caché LRU de caminos (movimientos sin copiar) con contadores de aciertos y fallos
+     */
+    private static final class PathCache extends LinkedHashMap<PathKey, int[][]> {
+        private static final long serialVersionUID = 1L;
+        
+        long hits;
+        long misses;
+        
+        PathCache() {
+            super(CACHE_CAPACITY * 4 / 3 + 1, 0.75f, true);
+        }
+        
+        @Override
+        protected boolean removeEldestEntry(java.util.Map.Entry<PathKey, int[][]> eldest) {
+            return size() > CACHE_CAPACITY;
         }
     }
     
+    private static final ThreadLocal<PathCache> CACHE = ThreadLocal.withInitial(PathCache::new);
+    
+    /**
+     * Obtiene los aciertos de la caché de caminos del hilo actual
+     */
+    public static long getCacheHits() {
+        return CACHE.get().hits;
+    }
+    
+    /**
+     * Obtiene los fallos (búsquedas reales) de la caché de caminos del hilo actual
+     */
+    public static long getCacheMisses() {
+        return CACHE.get().misses;
+    }
+    
+    /**
+     * Vacía la caché de caminos del hilo actual y reinicia sus contadores
+     */
+    public static void clearCache() {
+        PathCache cache = CACHE.get();
+        cache.clear();
+        cache.hits = 0;
+        cache.misses = 0;
+    }
+    
     /**
      * Encuentra el camino más corto usando A*
      * @param start Posición inicial
@@ -55,53 +234,7 @@ public class PathFinder {
      * @return Lista de movimientos [dx, dy] o lista vacía si no hay camino
      */
     public static List<int[]> findPath(Location start, Location goal, Map map, List<Location> avoidLocations) {
-        if (start.equals(goal)) {
-            return new ArrayList<>();
-        }
-        
-        PriorityQueue<Node> openSet = new PriorityQueue<>();
-        Set<Location> closedSet = new HashSet<>();
-        Set<Location> avoidSet = avoidLocations != null ? new HashSet<>(avoidLocations) : new HashSet<>();
-        
-        openSet.add(new Node(start, null, 0, heuristic(start, goal)));
-        
-        while (!openSet.isEmpty()) {
-            Node current = openSet.poll();
-            
-            if (current.location.equals(goal)) {
-                return reconstructPath(current);
-            }
-            
-            closedSet.add(current.location);
-            
-            // Explorar vecinos (4 direcciones)
-            for (int[] dir : new int[][]{{0, 1}, {0, -1}, {1, 0}, {-1, 0}}) {
-                Location neighbor = current.location.move(dir[0], dir[1]);
-                
-                if (closedSet.contains(neighbor)) continue;
-                if (!map.isValidPosition(neighbor)) continue;
-                if (avoidSet.contains(neighbor)) continue;
-                
-                double tentativeGCost = current.gCost + 1;
-                
-                Node neighborNode = new Node(neighbor, current, tentativeGCost, heuristic(neighbor, goal));
-                
-                // Si ya está en openSet con mejor costo, no lo agregamos
-                boolean shouldAdd = true;
-                for (Node node : openSet) {
-                    if (node.location.equals(neighbor) && node.gCost <= tentativeGCost) {
-                        shouldAdd = false;
-                        break;
-                    }
-                }
-                
-                if (shouldAdd) {
-                    openSet.add(neighborNode);
-                }
-            }
-        }
-        
-        return new ArrayList<>(); // No se encontró camino
+        return search(start, goal, map, avoidLocations, false);
     }
     
     /**
@@ -109,77 +242,153 @@ public class PathFinder {
      * @param start Posición inicial
      * @param goal Posición objetivo
      * @param map Mapa del nivel
-     * @param level Nivel para detectar hielo
+     * @param level Nivel del mapa (se conserva por compatibilidad; el hielo se lee del mapa)
      * @param avoidLocations Localizaciones a evitar
      * @return Lista de movimientos [dx, dy, useIce] donde useIce=1 significa romper hielo
      */
     public static List<int[]> findPathWithIceBreaking(Location start, Location goal, Map map, 
                                                        Level level, List<Location> avoidLocations) {
+        return search(start, goal, map, avoidLocations, true);
+    }
+    
+    /**
+     * Consulta la caché y, si el camino no está, lo busca con A* y lo guarda
+     */
+    private static List<int[]> search(Location start, Location goal, Map map,
+                                      List<Location> avoidLocations, boolean breakIce) {
         if (start.equals(goal)) {
             return new ArrayList<>();
         }
         
-        PriorityQueue<Node> openSet = new PriorityQueue<>();
-        Set<Location> closedSet = new HashSet<>();
-        Set<Location> avoidSet = avoidLocations != null ? new HashSet<>(avoidLocations) : new HashSet<>();
+        int width = map.getWidth();
+        if (!map.isInBounds(start.getX(), start.getY()) || !map.isInBounds(goal.getX(), goal.getY())) {
+            return new ArrayList<>();
+        }
         
-        openSet.add(new Node(start, null, 0, heuristic(start, goal)));
+        PathKey key = new PathKey(map.getVersion(), start.getY() * width + start.getX(),
+            goal.getY() * width + goal.getX(), breakIce, avoidCells(avoidLocations, map));
+        PathCache cache = CACHE.get();
+        int[][] moves = cache.get(key);
+        if (moves != null) {
+            cache.hits++;
+        } else {
+            cache.misses++;
+            moves = aStar(start, goal, map, avoidLocations, breakIce);
+            cache.put(key, moves);
+        }
+        return toList(moves);
+    }
+    
+    /**
+     * Índices de celda ordenados de las posiciones a evitar dentro del mapa
+     */
+    private static int[] avoidCells(List<Location> avoidLocations, Map map) {
+        if (avoidLocations == null || avoidLocations.isEmpty()) {
+            return new int[0];
+        }
+        int[] cells = new int[avoidLocations.size()];
+        int count = 0;
+        for (int i = 0; i < avoidLocations.size(); i++) {
+            Location avoid = avoidLocations.get(i);
+            if (map.isInBounds(avoid.getX(), avoid.getY())) {
+                cells[count++] = avoid.getY() * map.getWidth() + avoid.getX();
+            }
+        }
+        cells = Arrays.copyOf(cells, count);
+        Arrays.sort(cells);
+        return cells;
+    }
+    
+    /**
+     * Copia los movimientos guardados para que el llamador pueda modificarlos
+     */
+    private static List<int[]> toList(int[][] moves) {
+        List<int[]> path = new ArrayList<>(moves.length);
+        for (int[] move : moves) {
+            path.add(move.clone());
+        }
+        return path;
+    }
+    
+    /**
+     * A* sobre índices de celda. Con breakIce las celdas de hielo son transitables con costo ICE_COST.
+     * @return Movimientos hasta el objetivo (vacío si no hay camino)
+     */
+    private static int[][] aStar(Location start, Location goal, Map map,
+                                 List<Location> avoidLocations, boolean breakIce) {
+        int width = map.getWidth();
+        int height = map.getHeight();
+        SearchWorkspace ws = WORKSPACE.get();
+        ws.prepare(width * height);
+        int gen = ws.generation;
         
-        HashMap<Location, Boolean> iceBreakMap = new HashMap<>();
+        if (avoidLocations != null) {
+            for (int i = 0; i < avoidLocations.size(); i++) {
+                Location avoid = avoidLocations.get(i);
+                if (map.isInBounds(avoid.getX(), avoid.getY())) {
+                    ws.avoidStamp[avoid.getY() * width + avoid.getX()] = gen;
+                }
+            }
+        }
         
-        while (!openSet.isEmpty()) {
-            Node current = openSet.poll();
+        int goalX = goal.getX();
+        int goalY = goal.getY();
+        int startCell = start.getY() * width + start.getX();
+        int goalCell = goalY * width + goalX;
+        
+        ws.openStamp[startCell] = gen;
+        ws.gCost[startCell] = 0;
+        ws.fCost[startCell] = Math.abs(start.getX() - goalX) + Math.abs(start.getY() - goalY);
+        ws.parent[startCell] = -1;
+        ws.push(startCell);
+        
+        while (ws.heapSize > 0) {
+            int current = ws.pop();
             
-            if (current.location.equals(goal)) {
-                return reconstructPathWithIce(current, iceBreakMap);
+            if (current == goalCell) {
+                return reconstructPath(ws, map, goalCell, width, breakIce);
             }
             
-            closedSet.add(current.location);
+            ws.closedStamp[current] = gen;
+            int cx = current % width;
+            int cy = current / width;
             
             // Explorar vecinos (4 direcciones)
-            for (int[] dir : new int[][]{{0, 1}, {0, -1}, {1, 0}, {-1, 0}}) {
-                Location neighbor = current.location.move(dir[0], dir[1]);
-                
-                if (closedSet.contains(neighbor)) continue;
-                if (avoidSet.contains(neighbor)) continue;
-                
-                boolean isIce = false;
-                double moveCost = 1;
-                
-                // Verificar si es hielo (costo mayor para romperlo)
-                if (!map.isValidPosition(neighbor)) {
-                    IceWall ice = level.getIceWallAt(neighbor);
-                    if (ice != null) {
-                        isIce = true;
-                        moveCost = 3; // Costo mayor para romper hielo
-                    } else {
-                        continue; // Es pared sólida, no se puede pasar
-                    }
-                }
-                
-                double tentativeGCost = current.gCost + moveCost;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DIR_X[d];
+                int ny = cy + DIR_Y[d];
+                if (nx < 0 || nx >= width || ny < 0 || ny >= height) continue;
                 
-                Node neighborNode = new Node(neighbor, current, tentativeGCost, heuristic(neighbor, goal));
+                int neighbor = ny * width + nx;
+                if (ws.closedStamp[neighbor] == gen) continue;
+                if (ws.avoidStamp[neighbor] == gen) continue;
                 
-                if (isIce) {
-                    iceBreakMap.put(neighbor, true);
+                int moveCost;
+                if (map.isValidPosition(nx, ny)) {
+                    moveCost = MOVE_COST;
+                } else if (breakIce && map.hasIceWall(nx, ny)) {
+                    moveCost = ICE_COST; // Costo mayor para romper hielo
+                } else {
+                    continue; // Es pared sólida, no se puede pasar
                 }
                 
-                boolean shouldAdd = true;
-                for (Node node : openSet) {
-                    if (node.location.equals(neighbor) && node.gCost <= tentativeGCost) {
-                        shouldAdd = false;
-                        break;
-                    }
-                }
+                int tentativeGCost = ws.gCost[current] + moveCost;
+                boolean discovered = ws.openStamp[neighbor] == gen;
+                if (discovered && ws.gCost[neighbor] <= tentativeGCost) continue;
                 
-                if (shouldAdd) {
-                    openSet.add(neighborNode);
+                ws.gCost[neighbor] = tentativeGCost;
+                ws.fCost[neighbor] = tentativeGCost + Math.abs(nx - goalX) + Math.abs(ny - goalY);
+                ws.parent[neighbor] = current;
+                if (discovered) {
+                    ws.decreaseKey(neighbor);
+                } else {
+                    ws.openStamp[neighbor] = gen;
+                    ws.push(neighbor);
                 }
             }
         }
         
-        return new ArrayList<>();
+        return new int[0][]; // No se encontró camino
     }
     
     /**
@@ -226,48 +435,29 @@ public class PathFinder {
     }
     
     /**
-     * Calcula la distancia Manhattan (heurística para A*)
-     */
-    private static double heuristic(Location a, Location b) {
-        return Math.abs(a.getX() - b.getX()) + Math.abs(a.getY() - b.getY());
-    }
-    
-    /**
-     * Reconstruye el camino desde el nodo final
+     * Reconstruye el camino desde la celda objetivo siguiendo los padres.
+     * En modo hielo, useIce=1 marca los pasos que entran en una celda de hielo.
      */
-    private static List<int[]> reconstructPath(Node end) {
-        List<int[]> path = new ArrayList<>();
-        Node current = end;
-        
-        while (current.parent != null) {
-            Location from = current.parent.location;
-            Location to = current.location;
-            int dx = to.getX() - from.getX();
-            int dy = to.getY() - from.getY();
-            path.add(0, new int[]{dx, dy});
-            current = current.parent;
+    private static int[][] reconstructPath(SearchWorkspace ws, Map map, int goalCell, int width, boolean withIce) {
+        int steps = 0;
+        for (int cell = goalCell; ws.parent[cell] != -1; cell = ws.parent[cell]) {
+            steps++;
         }
         
-        return path;
-    }
-    
-    /**
-     * Reconstruye el camino incluyendo información de romper hielo
-     */
-    private static List<int[]> reconstructPathWithIce(Node end, HashMap<Location, Boolean> iceBreakMap) {
-        List<int[]> path = new ArrayList<>();
-        Node current = end;
-        
-        while (current.parent != null) {
-            Location from = current.parent.location;
-            Location to = current.location;
-            int dx = to.getX() - from.getX();
-            int dy = to.getY() - from.getY();
-            int useIce = iceBreakMap.containsKey(to) && iceBreakMap.get(to) ? 1 : 0;
-            path.add(0, new int[]{dx, dy, useIce});
-            current = current.parent;
+        int[][] moves = new int[steps][];
+        int cell = goalCell;
+        for (int i = steps - 1; i >= 0; i--) {
+            int from = ws.parent[cell];
+            int dx = (cell % width) - (from % width);
+            int dy = (cell / width) - (from / width);
+            if (withIce) {
+                int useIce = map.hasIceWall(cell % width, cell / width) ? 1 : 0;
+                moves[i] = new int[]{dx, dy, useIce};
+            } else {
+                moves[i] = new int[]{dx, dy};
+            }
+            cell = from;
         }
-        
-        return path;
+        return moves;
     }
 }
@@ -1,6 +1,10 @@
 package com.duran_jimenez.baddopocream.domain;
 
-import java.util.Random;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Pineapple - Fruta que se mueve aleatoriamente por el mapa
@@ -10,14 +14,14 @@ public class Pineapple extends Fruit implements Movable {
     
     private static final int PINEAPPLE_POINTS = 200;
     private Map map;
-    private final Random random;
+    private RandomGenerator random;
     private int currentDx;
     private int currentDy;
 
     public Pineapple(Location location){
         super("Pineapple", PINEAPPLE_POINTS, location, true);
         this.map = null;
-        this.random = new Random();
+        this.random = new SplittableRandom();
         // Inicializar con dirección aleatoria
         chooseRandomDirection();
     }
@@ -30,6 +34,15 @@ public class Pineapple extends Fruit implements Movable {
         this.map = map;
     }
 
+    /**
+     * Usa la rama de azar del nivel y vuelve a sortear la dirección inicial
+     */
+    @Override
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
+        chooseRandomDirection();
+    }
+
     @Override
     public int collect(){
         if(!collected){
@@ -96,6 +109,18 @@ public class Pineapple extends Fruit implements Movable {
         // Se puede dejar vacío o eliminar si no se usa
     }
     
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        BinaryCodec.writeVarInt(out, currentDx);
+        BinaryCodec.writeVarInt(out, currentDy);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        currentDx = BinaryCodec.readVarInt(in);
+        currentDy = BinaryCodec.readVarInt(in);
+    }
+
     @Override
     public String getTypeName(){
         return "Pineapple";
@@ -0,0 +1,334 @@
+package com.duran_jimenez.baddopocream.domain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repetición de una partida: semilla, nivel y jugadores iniciales más la
+ * secuencia de acciones del jugador (movimientos y hielo) sobre la fachada
+ * BadDopoCream. Con un TickClock eso basta para re-simular la partida exacta
+ * (ver ReplayPlayer).
+ *
+ * Formato binario (versión 1):
+ * - Cabecera: "BDCR", versión, semilla, nivel, ms por tick, ticks totales y jugadores
+ * - Acciones: [delta de ticks (varint)] [acción << 4 | dirección] por cada llamada.
+ *   La dirección (dx, dy) en [-1, 1] cabe en el nibble bajo; cualquier otra
+ *   usa DIRECTION_ESCAPE seguido de dx y dy en zigzag varint.
+ * Una acción típica ocupa 2 bytes.
+ *
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+public class Replay {
+
+    private static final String REPLAY_DIRECTORY = "replays";
+    private static final String REPLAY_EXTENSION = ".bdcreplay";
+    private static final int MAGIC = 0x42444352; // "BDCR"
+    private static final int VERSION = 1;
+
+    // Acciones registradas (nibble alto del byte de acción)
+    public static final int MOVE_PLAYER1 = 0;
+    public static final int MOVE_PLAYER2 = 1;
+    public static final int CREATE_ICE_PLAYER1 = 2;
+    public static final int CREATE_ICE_PLAYER2 = 3;
+    public static final int BREAK_ICE_PLAYER1 = 4;
+    public static final int BREAK_ICE_PLAYER2 = 5;
+    private static final int ACTION_COUNT = 6;
+
+    /** Dirección fuera de [-1, 1]: dx y dy siguen como varints */
+    private static final int DIRECTION_ESCAPE = 0xF;
+
+    private final int levelNumber;
+    private final long seed;
+    private final long tickMillis;
+    private final long ticks;
+    private final List<PlayerSetup> players;
+    private final byte[] actions;
+
+    private Replay(int levelNumber, long seed, long tickMillis, long ticks,
+                   List<PlayerSetup> players, byte[] actions){
+        this.levelNumber = levelNumber;
+        this.seed = seed;
+        this.tickMillis = tickMillis;
+        this.ticks = ticks;
+        this.players = players;
+        this.actions = actions;
+    }
+
+    public int getLevelNumber(){ return levelNumber; }
+    public long getSeed(){ return seed; }
+    public long getTickMillis(){ return tickMillis; }
+
+    /**
+     * Ticks simulados desde el inicio hasta que se detuvo la grabación
+     */
+    public long getTicks(){ return ticks; }
+
+    /**
+     * Jugadores al iniciar la grabación (1 o 2)
+     */
+    public List<PlayerSetup> getPlayers(){ return players; }
+
+    /**
+     * Tamaño en bytes del flujo de acciones
+     */
+    public int getActionBytes(){ return actions.length; }
+
+    /**
+     * Recorre las acciones en orden sin crear objetos por acción
+     */
+    public Cursor actions(){
+        return new Cursor(actions);
+    }
+
+    // ==================== LECTURA / ESCRITURA ====================
+
+    public void write(OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(seed);
+        BinaryCodec.writeVarLong(out, levelNumber);
+        BinaryCodec.writeVarLong(out, tickMillis);
+        BinaryCodec.writeVarLong(out, ticks);
+        out.writeByte(players.size());
+        for(PlayerSetup player : players){
+            out.writeUTF(player.name);
+            out.writeUTF(player.color);
+            BinaryCodec.writeVarLong(out, BinaryCodec.zigzag(player.x));
+            BinaryCodec.writeVarLong(out, BinaryCodec.zigzag(player.y));
+        }
+        BinaryCodec.writeVarLong(out, actions.length);
+        out.write(actions);
+        out.flush();
+    }
+
+    /**
+     * Lee una repetición escrita con write()
+     * @throws IOException si el flujo no es una repetición válida
+     */
+    public static Replay read(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        if(in.readInt() != MAGIC){
+            throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+        }
+        int version = in.readUnsignedByte();
+        if(version != VERSION){
+            throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE + " (versión " + version + ")");
+        }
+        long seed = in.readLong();
+        int levelNumber = (int) BinaryCodec.readVarLong(in);
+        long tickMillis = BinaryCodec.readVarLong(in);
+        long ticks = BinaryCodec.readVarLong(in);
+        int playerCount = in.readUnsignedByte();
+        if(playerCount < 1 || playerCount > 2){
+            throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+        }
+        List<PlayerSetup> players = new ArrayList<>(playerCount);
+        for(int i = 0; i < playerCount; i++){
+            String name = in.readUTF();
+            String color = in.readUTF();
+            int x = BinaryCodec.unzigzag(BinaryCodec.readVarLong(in));
+            int y = BinaryCodec.unzigzag(BinaryCodec.readVarLong(in));
+            players.add(new PlayerSetup(name, color, x, y));
+        }
+        long length = BinaryCodec.readVarLong(in);
+        if(length > Integer.MAX_VALUE){
+            throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+        }
+        byte[] actions = in.readNBytes((int) length);
+        if(actions.length != length){
+            throw new EOFException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+        }
+        return new Replay(levelNumber, seed, tickMillis, ticks, List.copyOf(players), actions);
+    }
+
+    /**
+     * Guarda la repetición en replays/ con el nombre dado
+     * @throws BadDopoCream_Exceptions si falla la escritura
+     */
+    public void save(String replayName) throws BadDopoCream_Exceptions {
+        File replayDir = new File(REPLAY_DIRECTORY);
+        if(!replayDir.exists()){
+            replayDir.mkdir();
+        }
+        try (OutputStream out = new FileOutputStream(new File(replayDir, replayName + REPLAY_EXTENSION))) {
+            write(out);
+        } catch (IOException e) {
+            throw new BadDopoCream_Exceptions(
+                BadDopoCream_Exceptions.SAVE_GAME_ERROR + " '" + replayName + "'", e);
+        }
+    }
+
+    /**
+     * Carga una repetición de replays/ por nombre, o de la ruta dada si existe
+     * @throws BadDopoCream_Exceptions si el archivo no existe o está corrupto
+     */
+    public static Replay load(String replayName) throws BadDopoCream_Exceptions {
+        File file = new File(replayName);
+        if(!file.isFile()){
+            file = new File(REPLAY_DIRECTORY, replayName + REPLAY_EXTENSION);
+        }
+        try (InputStream in = new FileInputStream(file)) {
+            return read(in);
+        } catch (IOException e) {
+            throw new BadDopoCream_Exceptions(
+                BadDopoCream_Exceptions.LOAD_GAME_ERROR + " '" + replayName + "'", e);
+        }
+    }
+
+    // ==================== GRABACIÓN ====================
+
+    /**
+     * Graba las acciones de una partida. BadDopoCream lo usa entre
+     * startRecording() y stopRecording(); los ticks se cuentan desde el inicio.
+     */
+    static class Recorder {
+        private final int levelNumber;
+        private final long seed;
+        private final long tickMillis;
+        private final long startTick;
+        private final List<PlayerSetup> players;
+        private final ByteArrayOutputStream actions;
+        private long lastTick;
+
+        Recorder(Level level, long tickMillis, long startTick){
+            this.levelNumber = level.getLevelNumber();
+            this.seed = level.getSeed();
+            this.tickMillis = tickMillis;
+            this.startTick = startTick;
+            this.players = new ArrayList<>(2);
+            this.actions = new ByteArrayOutputStream(256);
+            this.lastTick = 0;
+            players.add(PlayerSetup.of(level.getPlayer()));
+            if(level.hasTwoPlayers()){
+                players.add(PlayerSetup.of(level.getPlayer2()));
+            }
+        }
+
+        /**
+         * Registra una acción hecha con el juego en el tick absoluto dado
+         */
+        void record(int action, int dx, int dy, long tick){
+            long relativeTick = tick - startTick;
+            BinaryCodec.writeVarLong(actions, relativeTick - lastTick);
+            lastTick = relativeTick;
+            if(dx >= -1 && dx <= 1 && dy >= -1 && dy <= 1){
+                actions.write(action << 4 | (dx + 1) * 3 + (dy + 1));
+            } else {
+                actions.write(action << 4 | DIRECTION_ESCAPE);
+                BinaryCodec.writeVarLong(actions, BinaryCodec.zigzag(dx));
+                BinaryCodec.writeVarLong(actions, BinaryCodec.zigzag(dy));
+            }
+        }
+
+        Replay finish(long tick){
+            return new Replay(levelNumber, seed, tickMillis, tick - startTick,
+                List.copyOf(players), actions.toByteArray());
+        }
+    }
+
+    /**
+     * Posición de lectura en el flujo de acciones.
+     * Uso: while(cursor.next()) { cursor.getTick(), getAction(), getDx(), getDy() }
+     */
+    public static class Cursor {
+        private final byte[] data;
+        private int position;
+        private long tick;
+        private int action;
+        private int dx;
+        private int dy;
+
+        private Cursor(byte[] data){
+            this.data = data;
+        }
+
+        /**
+         * Avanza a la siguiente acción
+         * @return false si no quedan acciones
+         * @throws IllegalStateException si el flujo está truncado o tiene una acción desconocida
+         */
+        public boolean next(){
+            if(position >= data.length){
+                return false;
+            }
+            tick += nextVarLong();
+            int code = nextByte();
+            action = code >>> 4;
+            if(action >= ACTION_COUNT){
+                throw new IllegalStateException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+            }
+            int direction = code & 0xF;
+            if(direction == DIRECTION_ESCAPE){
+                dx = BinaryCodec.unzigzag(nextVarLong());
+                dy = BinaryCodec.unzigzag(nextVarLong());
+            } else {
+                dx = direction / 3 - 1;
+                dy = direction % 3 - 1;
+            }
+            return true;
+        }
+
+        /** Tick (desde el inicio de la grabación) en que se hizo la acción */
+        public long getTick(){ return tick; }
+        public int getAction(){ return action; }
+        public int getDx(){ return dx; }
+        public int getDy(){ return dy; }
+
+        private int nextByte(){
+            if(position >= data.length){
+                throw new IllegalStateException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+            }
+            return data[position++] & 0xFF;
+        }
+
+        private long nextVarLong(){
+            long value = 0;
+            for(int shift = 0; shift < 64; shift += 7){
+                int b = nextByte();
+                value |= (long) (b & 0x7F) << shift;
+                if((b & 0x80) == 0){
+                    return value;
+                }
+            }
+            throw new IllegalStateException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+        }
+    }
+
+    /**
+     * Jugador al inicio de la repetición (Data Transfer Object)
+     */
+    public static class PlayerSetup {
+        public final String name;
+        public final String color;
+        public final int x;
+        public final int y;
+
+        public PlayerSetup(String name, String color, int x, int y){
+            this.name = name;
+            this.color = color;
+            this.x = x;
+            this.y = y;
+        }
+
+        static PlayerSetup of(IceCream player){
+            Location location = player.getLocation();
+            return new PlayerSetup(player.getName(), player.getColor(), location.getX(), location.getY());
+        }
+
+        public IceCream createPlayer(){
+            return new IceCream(name, color, Location.of(x, y));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.duran_jimenez.baddopocream.domain;
+
+import java.util.List;
+
+/**
+ * Reproduce una Replay sin interfaz a la velocidad que permita la CPU.
+ *
+ * Reconstruye el nivel con la semilla grabada y un TickClock, y en cada tick
+ * aplica primero las acciones grabadas para ese tick y luego avanza el reloj y
+ * el juego, igual que GameLoop.tick(). Sirve para reproducir errores reportados
+ * y para medir el motor con partidas reales.
+ *
+ * Uso: ReplayPlayer archivo [repeticiones]
+ *
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+public class ReplayPlayer {
+
+    /**
+     * Crea el juego en el estado en que empezó la grabación (tick 0)
+     */
+    public static BadDopoCream createGame(Replay replay){
+        List<Replay.PlayerSetup> players = replay.getPlayers();
+        BadDopoCream game = new BadDopoCream();
+        game.setClock(new TickClock());
+        // Igual que la interfaz: el segundo jugador se agrega después de crear el nivel
+        Level level = LevelConfigurator.createLevel(replay.getLevelNumber(), players.get(0).createPlayer(),
+            null, replay.getSeed());
+        if(players.size() > 1){
+            level.setPlayer2(players.get(1).createPlayer());
+        }
+        game.addLevel(level);
+        game.startGame();
+        return game;
+    }
+
+    /**
+     * Re-simula la repetición completa en el hilo actual
+     */
+    public static GameResult play(Replay replay){
+        BadDopoCream game = createGame(replay);
+        play(replay, game);
+        Level level = game.getCurrentLevel();
+        return new GameResult(level.isCompleted(), !level.getPlayer().isAlive(), level.getCollectedFruits(),
+            level.getTotalFruits(), game.getTickCount(), level.getCurrentScore(), replay.getSeed());
+    }
+
+    /**
+     * Aplica las acciones de la repetición a un juego recién creado con createGame()
+     * y lo avanza hasta el último tick grabado
+     */
+    public static void play(Replay replay, BadDopoCream game){
+        GameClock clock = game.getClock();
+        long tickMillis = replay.getTickMillis();
+        Replay.Cursor actions = replay.actions();
+        boolean pending = actions.next();
+        while(true){
+            while(pending && actions.getTick() <= game.getTickCount()){
+                apply(game, actions.getAction(), actions.getDx(), actions.getDy());
+                pending = actions.next();
+            }
+            if(game.getTickCount() >= replay.getTicks()){
+                return;
+            }
+            clock.advance(tickMillis);
+            game.update();
+        }
+    }
+
+    private static void apply(BadDopoCream game, int action, int dx, int dy){
+        switch(action){
+            case Replay.MOVE_PLAYER1:
+                game.movePlayer1(dx, dy);
+                break;
+            case Replay.MOVE_PLAYER2:
+                game.movePlayer2(dx, dy);
+                break;
+            case Replay.CREATE_ICE_PLAYER1:
+                game.createIceLinePlayer1(dx, dy);
+                break;
+            case Replay.CREATE_ICE_PLAYER2:
+                game.createIceLinePlayer2(dx, dy);
+                break;
+            case Replay.BREAK_ICE_PLAYER1:
+                game.breakIceLinePlayer1(dx, dy);
+                break;
+            case Replay.BREAK_ICE_PLAYER2:
+                game.breakIceLinePlayer2(dx, dy);
+                break;
+            default:
+                throw new IllegalStateException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+        }
+    }
+
+    public static void main(String[] args) throws BadDopoCream_Exceptions {
+        if(args.length < 1){
+            System.out.println("Uso: ReplayPlayer archivo [repeticiones]");
+            return;
+        }
+        Replay replay = Replay.load(args[0]);
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        GameResult result = null;
+        long start = System.nanoTime();
+        for(int i = 0; i < runs; i++){
+            result = play(replay);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println("Nivel " + replay.getLevelNumber() + " | semilla " + replay.getSeed()
+            + " | " + replay.getTicks() + " ticks | " + replay.getActionBytes() + " bytes de acciones");
+        System.out.println(SimulationReport.of(result).toString());
+        System.out.printf("%d repeticiones en %.1f ms (%.0f ticks/s)%n", runs, elapsed / 1e6,
+            runs * (double) replay.getTicks() * 1e9 / Math.max(elapsed, 1));
+    }
+}
@@ -0,0 +1,171 @@
+package com.duran_jimenez.baddopocream.domain;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Índice de la carpeta de guardados: el resumen de cada partida (SaveSummary)
+ * con el tamaño y la fecha de modificación de su archivo.
+ *
+ * Listar las partidas es una lectura del índice más el listado de la carpeta;
+ * solo se abre un guardado si no está en el índice o su archivo cambió, y aun
+ * así se lee únicamente su cabecera. El índice es una caché: si falta o está
+ * corrupto se reconstruye desde los archivos.
+ *
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+class SaveIndex {
+
+    private static final String INDEX_FILE = "index.bdcindex";
+    private static final int MAGIC = 0x42444349; // "BDCI"
+    private static final int VERSION = 1;
+
+    private final File directory;
+    private final String extension;
+    private final LinkedHashMap<String, Entry> entries;
+    private boolean dirty;
+
+    SaveIndex(File directory, String extension){
+        this.directory = directory;
+        this.extension = extension;
+        this.entries = new LinkedHashMap<>();
+        load();
+    }
+
+    /**
+     * Resúmenes de los guardados que hay en la carpeta, actualizando el índice si hace falta
+     */
+    List<SaveSummary> list(){
+        List<SaveSummary> summaries = new ArrayList<>();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(extension));
+        if(files == null){
+            return summaries;
+        }
+        HashSet<String> present = new HashSet<>(files.length * 2);
+        for(File file : files){
+            String name = file.getName().substring(0, file.getName().length() - extension.length());
+            present.add(name);
+            Entry entry = entries.get(name);
+            if(entry == null || entry.length != file.length() || entry.modified != file.lastModified()){
+                entry = readEntry(name, file);
+                entries.put(name, entry);
+                dirty = true;
+            }
+            summaries.add(entry.summary);
+        }
+        dirty |= entries.keySet().retainAll(present);
+        save();
+        return summaries;
+    }
+
+    /**
+     * Registra un guardado recién escrito
+     */
+    void put(File file, SaveSummary summary){
+        entries.put(summary.name, new Entry(file.length(), file.lastModified(), summary));
+        dirty = true;
+    }
+
+    void remove(String name){
+        dirty |= entries.remove(name) != null;
+    }
+
+    /**
+     * Escribe el índice si cambió. Un error no afecta a los guardados:
+     * la próxima vez se reconstruye.
+     */
+    void save(){
+        if(!dirty){
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(new File(directory, INDEX_FILE))))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            BinaryCodec.writeVarLong(out, entries.size());
+            for(Entry entry : entries.values()){
+                SaveSummary summary = entry.summary;
+                out.writeUTF(summary.name);
+                BinaryCodec.writeVarLong(out, entry.length);
+                out.writeLong(entry.modified);
+                out.writeLong(summary.timestamp);
+                BinaryCodec.writeVarInt(out, summary.levelNumber);
+                BinaryCodec.writeVarInt(out, summary.totalScore);
+                out.writeBoolean(summary.gameMode != null);
+                if(summary.gameMode != null){
+                    out.writeUTF(summary.gameMode);
+                }
+            }
+            dirty = false;
+        } catch (IOException e) {
+            System.err.println("Error al guardar el índice de partidas: " + e.getMessage());
+        }
+    }
+
+    private void load(){
+        File file = new File(directory, INDEX_FILE);
+        if(!file.isFile()){
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if(in.readInt() != MAGIC || in.readUnsignedByte() != VERSION){
+                throw new IOException(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE);
+            }
+            long count = BinaryCodec.readVarLong(in);
+            for(long i = 0; i < count; i++){
+                String name = in.readUTF();
+                long length = BinaryCodec.readVarLong(in);
+                long modified = in.readLong();
+                long timestamp = in.readLong();
+                int levelNumber = BinaryCodec.readVarInt(in);
+                int totalScore = BinaryCodec.readVarInt(in);
+                String gameMode = in.readBoolean() ? in.readUTF() : null;
+                entries.put(name, new Entry(length, modified,
+                    new SaveSummary(name, timestamp, levelNumber, totalScore, gameMode)));
+            }
+        } catch (IOException e) {
+            // Índice dañado: se reconstruye desde las cabeceras de los guardados
+            entries.clear();
+            dirty = true;
+        }
+    }
+
+    /**
+     * Lee el resumen de la cabecera del guardado. Si el archivo está dañado se
+     * lista igual (nivel 0, sin datos) para poder eliminarlo.
+     */
+    private static Entry readEntry(String name, File file){
+        long length = file.length();
+        long modified = file.lastModified();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            return new Entry(length, modified, GameState.readSummary(name, in));
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            System.err.println(BadDopoCream_Exceptions.CORRUPTED_SAVE_FILE + " '" + name + "'");
+            return new Entry(length, modified, new SaveSummary(name, modified, 0, 0, null));
+        }
+    }
+
+    private static class Entry {
+        final long length;
+        final long modified;
+        final SaveSummary summary;
+
+        Entry(long length, long modified, SaveSummary summary){
+            this.length = length;
+            this.modified = modified;
+            this.summary = summary;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.duran_jimenez.baddopocream.domain;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escribe partidas guardadas en segundo plano, fuera del hilo de Swing.
+ *
+ * Un único hilo escritor procesa una cola acotada de ranuras (nombres de
+ * guardado). Si se vuelve a guardar una ranura que todavía espera en la cola,
+ * solo se reemplaza el estado pendiente: se escribe una vez, con el último
+ * estado, y todos los que la pidieron reciben el mismo futuro.
+ *
+ * La escritura es atómica (writeAtomically()): archivo temporal,
+ * sincronización con el disco y renombrado, así que un cierre a mitad de
+ * escritura nunca deja un guardado corrupto. El autoguardado usa el mismo
+ * hilo con sus propias tareas (submit()).
+ *
+ * El hilo no es demonio para que los guardados pendientes terminen antes de
+ * salir, y se cierra solo tras un segundo sin trabajo.
+ *
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+public class SaveService {
+
+    /** Ranuras distintas que pueden esperar en la cola a la vez */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private static final long IDLE_MILLIS = 1000;
+
+    /**
+     * Escritura de un guardado (la real es GameState.writeTo())
+     */
+    interface Writer {
+        void write(String saveName, GameState state) throws BadDopoCream_Exceptions;
+    }
+
+    /**
+     * Tarea de escritura de una ranura
+     */
+    interface SaveTask {
+        void run() throws BadDopoCream_Exceptions;
+    }
+
+    /**
+     * Contenido de un archivo escrito con writeAtomically()
+     */
+    interface Content {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private final Writer writer;
+    private final ThreadPoolExecutor executor;
+    private final HashMap<String, PendingSave> pending; // Ranuras en cola, aún no empezadas
+
+    public SaveService(int capacity){
+        this(capacity, (saveName, state) -> state.writeTo(saveName));
+    }
+
+    SaveService(int capacity, Writer writer){
+        this.writer = writer;
+        this.pending = new HashMap<>();
+        this.executor = new ThreadPoolExecutor(1, 1, IDLE_MILLIS, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(capacity), task -> new Thread(task, "guardado-partidas"));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Encola el guardado del estado en la ranura dada
+     * @return Futuro que se completa al quedar escrito en disco, o con
+     *         BadDopoCream_Exceptions si falla la escritura o la cola está llena
+     */
+    public CompletableFuture<Void> save(String saveName, GameState state){
+        return submit(saveName, () -> writer.write(saveName, state));
+    }
+
+    /**
+     * Encola una tarea de escritura con las mismas reglas que save(): si la
+     * ranura ya espera en la cola, la tarea reemplaza a la pendiente
+     */
+    synchronized CompletableFuture<Void> submit(String saveName, SaveTask task){
+        PendingSave queued = pending.get(saveName);
+        if(queued != null){
+            queued.task = task; // Se escribe solo el último estado
+            return queued.future;
+        }
+        PendingSave save = new PendingSave(task);
+        pending.put(saveName, save);
+        try {
+            executor.execute(() -> write(saveName));
+        } catch (RejectedExecutionException e) {
+            pending.remove(saveName);
+            save.future.completeExceptionally(new BadDopoCream_Exceptions(
+                BadDopoCream_Exceptions.SAVE_GAME_ERROR + " '" + saveName + "' (cola de guardado llena)", e));
+        }
+        return save.future;
+    }
+
+    /**
+     * Ranuras en cola que aún no empezaron a escribirse
+     */
+    public synchronized int getPendingSaves(){
+        return pending.size();
+    }
+
+    private void write(String saveName){
+        PendingSave save;
+        synchronized(this){
+            save = pending.remove(saveName); // Desde aquí un nuevo guardado de la ranura vuelve a encolarse
+        }
+        try {
+            save.task.run();
+            save.future.complete(null);
+        } catch (BadDopoCream_Exceptions | RuntimeException e) {
+            save.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Escribe el archivo de forma atómica: primero en un temporal junto al
+     * destino que se sincroniza con el disco y luego se renombra encima, así
+     * un fallo a mitad de escritura deja intacta la versión anterior
+     */
+    static void writeAtomically(File target, Content content) throws IOException {
+        File temp = new File(target.getParentFile(), target.getName() + ".tmp");
+        try {
+            try (FileOutputStream file = new FileOutputStream(temp)) {
+                OutputStream out = new BufferedOutputStream(file);
+                content.write(out);
+                out.flush();
+                file.getFD().sync();
+            }
+            try {
+                Files.move(temp.toPath(), target.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+    }
+
+    private static class PendingSave {
+        final CompletableFuture<Void> future;
+        SaveTask task;
+
+        PendingSave(SaveTask task){
+            this.future = new CompletableFuture<>();
+            this.task = task;
+        }
+    }
+}
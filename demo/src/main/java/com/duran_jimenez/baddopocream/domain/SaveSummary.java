@@ -0,0 +1,21 @@
+package com.duran_jimenez.baddopocream.domain;
+
+/**
+ * Resumen de una partida guardada para listarla sin cargarla
+ * (Data Transfer Object)
+ */
+public class SaveSummary {
+    public final String name;
+    public final long timestamp;
+    public final int levelNumber;
+    public final int totalScore;
+    public final String gameMode;
+
+    public SaveSummary(String name, long timestamp, int levelNumber, int totalScore, String gameMode){
+        this.name = name;
+        this.timestamp = timestamp;
+        this.levelNumber = levelNumber;
+        this.totalScore = totalScore;
+        this.gameMode = gameMode;
+    }
+}
@@ -0,0 +1,234 @@
+package com.duran_jimenez.baddopocream.domain;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Simulador de partidas sin interfaz: un helado controlado por IceCreamAI
+ * juega niveles de LevelConfigurator con reloj de ticks, tan rápido como
+ * permita la CPU. Sirve para ajustar los perfiles de IA y la dificultad.
+ *
+ * Cada partida crea su propio juego, nivel, reloj e IA y se ejecuta entera en
+ * un solo hilo; las partidas no comparten estado mutable. Los lotes se
+ * reparten en un ForkJoinPool y los resultados se combinan con
+ * SimulationReport.merge().
+ *
+ * Todo el azar de una partida (nivel, entidades e IA) sale de una semilla propia
+ * derivada de la semilla del lote y del índice de la partida: el mismo lote da
+ * los mismos resultados sin importar el número de hilos.
+ *
+ * Uso: SelfPlaySimulator [partidas] [nivel] [perfil] [semilla]
+ *
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+public class SelfPlaySimulator {
+
+    /** Partidas por tarea a partir de las cuales ya no se divide el lote */
+    private static final int GAMES_PER_TASK = 8;
+
+    /** Constante de mezcla (proporción áurea en 64 bits) para separar las semillas de cada partida */
+    private static final long SEED_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final int levelNumber;
+    private final IceCreamAI.AIProfile profile;
+    private final long tickMillis;
+    private final long seed;
+
+    public SelfPlaySimulator(int levelNumber, IceCreamAI.AIProfile profile){
+        this(levelNumber, profile, GameLoop.DEFAULT_TICK_MILLIS);
+    }
+
+    /**
+     * @param tickMillis Duración simulada de cada tick (la misma que usaría GameLoop)
+     */
+    public SelfPlaySimulator(int levelNumber, IceCreamAI.AIProfile profile, long tickMillis){
+        this(levelNumber, profile, tickMillis, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * @param seed Semilla del lote: fija los resultados de run()
+     */
+    public SelfPlaySimulator(int levelNumber, IceCreamAI.AIProfile profile, long tickMillis, long seed){
+        if(levelNumber < 1 || levelNumber > BadDopoCream.PLAYABLE_LEVELS){
+            throw new IllegalArgumentException("Nivel " + levelNumber + " no está implementado. " +
+                "Niveles disponibles: 1-" + BadDopoCream.PLAYABLE_LEVELS);
+        }
+        if(tickMillis <= 0){
+            throw new IllegalArgumentException("La duración del tick debe ser positiva: " + tickMillis);
+        }
+        this.levelNumber = levelNumber;
+        this.profile = profile;
+        this.tickMillis = tickMillis;
+        this.seed = seed;
+    }
+
+    public long getSeed(){
+        return seed;
+    }
+
+    /**
+     * Semilla de la partida número game del lote
+     */
+    public long gameSeed(int game){
+        return new SplittableRandom(seed + game * SEED_GAMMA).nextLong();
+    }
+
+    /**
+     * Juega una partida completa en el hilo actual con una semilla nueva.
+     * Termina al completar el nivel, al morir el helado o al agotarse el tiempo.
+     */
+    public GameResult playGame(){
+        return playGame(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Juega la partida de la semilla dada; la misma semilla repite la partida exacta
+     */
+    public GameResult playGame(long gameSeed){
+        return simulate(gameSeed, false).result;
+    }
+
+    /**
+     * Juega la partida de la semilla dada grabando las acciones de la IA
+     * (partidas reales para ReplayPlayer y los benchmarks)
+     */
+    public Replay recordGame(long gameSeed){
+        return simulate(gameSeed, true).replay;
+    }
+
+    private Simulation simulate(long gameSeed, boolean record){
+        SplittableRandom gameRandom = new SplittableRandom(gameSeed);
+        TickClock clock = new TickClock();
+        IceCream player = new IceCream("IA", "vanilla", Location.of(1, 1));
+        BadDopoCream game = new BadDopoCream();
+        game.setClock(clock);
+        Level level = LevelConfigurator.createLevel(levelNumber, player, null, gameRandom.nextLong());
+        game.addLevel(level);
+        game.startGame();
+        if(record){
+            game.startRecording(tickMillis);
+        }
+        IceCreamAI ai = new IceCreamAI(profile, gameRandom.split());
+
+        while(!level.isCompleted() && player.isAlive() && !level.isTimeExpired()){
+            // Igual que el modo PvsM: la IA actúa antes de cada tick
+            applyMove(game, level, player, ai.decideMove(level, player));
+            clock.advance(tickMillis);
+            game.update();
+        }
+
+        GameResult result = new GameResult(level.isCompleted(), !player.isAlive(), level.getCollectedFruits(),
+            level.getTotalFruits(), game.getTickCount(), level.getCurrentScore(), gameSeed);
+        return new Simulation(result, game.stopRecording());
+    }
+
+    /** Resultado de simulate(): la repetición es null si no se grabó */
+    private static class Simulation {
+        final GameResult result;
+        final Replay replay;
+
+        Simulation(GameResult result, Replay replay){
+            this.result = result;
+            this.replay = replay;
+        }
+    }
+
+    /**
+     * Aplica una decisión [dx, dy, useIce] de la IA.
+     * Con useIce = 1 hace la acción de hielo del jugador: rompe la línea si hay
+     * hielo delante y si no la crea. Pasa por la fachada para poder grabarla.
+     */
+    private static void applyMove(BadDopoCream game, Level level, IceCream player, int[] move){
+        int dx = move[0];
+        int dy = move[1];
+        if(move.length > 2 && move[2] == 1){
+            Location loc = player.getLocation();
+            if(level.getMap().hasIceWall(loc.getX() + dx, loc.getY() + dy)){
+                game.breakIceLinePlayer1(dx, dy);
+            } else {
+                game.createIceLinePlayer1(dx, dy);
+            }
+        } else if(dx != 0 || dy != 0){
+            game.movePlayer1(dx, dy);
+        }
+    }
+
+    /**
+     * Juega un lote de partidas usando todos los núcleos
+     */
+    public SimulationReport run(int games){
+        return run(games, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Juega un lote de partidas en un ForkJoinPool de parallelism hilos
+     */
+    public SimulationReport run(int games, int parallelism){
+        if(games < 0){
+            throw new IllegalArgumentException("El número de partidas no puede ser negativo: " + games);
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long start = System.nanoTime();
+            SimulationReport report = pool.invoke(new GamesTask(0, games));
+            return report.withElapsedNanos(System.nanoTime() - start);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Divide el rango de partidas [from, to) hasta GAMES_PER_TASK y las juega
+     */
+    private class GamesTask extends RecursiveTask<SimulationReport> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        GamesTask(int from, int to){
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationReport compute(){
+            if(to - from <= GAMES_PER_TASK){
+                SimulationReport report = SimulationReport.EMPTY;
+                for(int i = from; i < to; i++){
+                    report = report.merge(SimulationReport.of(playGame(gameSeed(i))));
+                }
+                return report;
+            }
+            int middle = (from + to) >>> 1;
+            GamesTask left = new GamesTask(from, middle);
+            left.fork();
+            SimulationReport right = new GamesTask(middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    public static void main(String[] args){
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int firstLevel = 1;
+        int lastLevel = BadDopoCream.PLAYABLE_LEVELS;
+        if(args.length > 1){
+            firstLevel = lastLevel = Integer.parseInt(args[1]);
+        }
+        IceCreamAI.AIProfile[] profiles = args.length > 2
+            ? new IceCreamAI.AIProfile[]{IceCreamAI.AIProfile.valueOf(args[2].toUpperCase())}
+            : IceCreamAI.AIProfile.values();
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : new SplittableRandom().nextLong();
+        System.out.println("Semilla: " + seed);
+
+        for(int levelNumber = firstLevel; levelNumber <= lastLevel; levelNumber++){
+            for(IceCreamAI.AIProfile profile : profiles){
+                SimulationReport report = new SelfPlaySimulator(levelNumber, profile, GameLoop.DEFAULT_TICK_MILLIS, seed)
+                    .run(games);
+                System.out.println("Nivel " + levelNumber + " " + profile + ": " + report);
+            }
+        }
+    }
+}
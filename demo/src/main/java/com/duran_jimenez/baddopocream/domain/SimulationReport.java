@@ -0,0 +1,104 @@
+package com.duran_jimenez.baddopocream.domain;
+
+/**
+ * Resumen inmutable de un lote de partidas simuladas.
+ * Cada hilo acumula su propio reporte y se combinan con merge(), sin estado compartido.
+ *
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+public class SimulationReport {
+
+    /** Reporte sin partidas (elemento neutro de merge) */
+    public static final SimulationReport EMPTY = new SimulationReport(0, 0, 0, 0, 0, 0, 0, 0);
+
+    private final int games;
+    private final int wins;
+    private final int deaths;
+    private final long fruitsCollected;
+    private final long totalFruits;
+    private final long ticks;
+    private final long score;
+    private final long elapsedNanos;
+
+    private SimulationReport(int games, int wins, int deaths, long fruitsCollected, long totalFruits,
+                             long ticks, long score, long elapsedNanos){
+        this.games = games;
+        this.wins = wins;
+        this.deaths = deaths;
+        this.fruitsCollected = fruitsCollected;
+        this.totalFruits = totalFruits;
+        this.ticks = ticks;
+        this.score = score;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Reporte con una sola partida
+     */
+    public static SimulationReport of(GameResult result){
+        return new SimulationReport(1, result.won ? 1 : 0, result.died ? 1 : 0, result.fruitsCollected,
+            result.totalFruits, result.ticks, result.score, 0);
+    }
+
+    /**
+     * Suma dos reportes (asociativo, EMPTY es el neutro)
+     */
+    public SimulationReport merge(SimulationReport other){
+        return new SimulationReport(games + other.games, wins + other.wins, deaths + other.deaths,
+            fruitsCollected + other.fruitsCollected, totalFruits + other.totalFruits,
+            ticks + other.ticks, score + other.score, elapsedNanos + other.elapsedNanos);
+    }
+
+    /**
+     * Copia del reporte con el tiempo de pared que tomó el lote
+     */
+    public SimulationReport withElapsedNanos(long elapsedNanos){
+        return new SimulationReport(games, wins, deaths, fruitsCollected, totalFruits, ticks, score, elapsedNanos);
+    }
+
+    public int getGames(){ return games; }
+    public int getWins(){ return wins; }
+    public int getDeaths(){ return deaths; }
+    public long getFruitsCollected(){ return fruitsCollected; }
+    public long getTicks(){ return ticks; }
+    public long getElapsedNanos(){ return elapsedNanos; }
+
+    public double getWinRate(){
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    /**
+     * Fracción de todas las frutas de los niveles que se recolectaron
+     */
+    public double getFruitRate(){
+        return totalFruits == 0 ? 0 : (double) fruitsCollected / totalFruits;
+    }
+
+    public double getAverageFruits(){
+        return games == 0 ? 0 : (double) fruitsCollected / games;
+    }
+
+    /**
+     * Ticks que duró en promedio cada partida (hasta ganar, morir o agotar el tiempo)
+     */
+    public double getAverageTicks(){
+        return games == 0 ? 0 : (double) ticks / games;
+    }
+
+    public double getAverageScore(){
+        return games == 0 ? 0 : (double) score / games;
+    }
+
+    public double getGamesPerSecond(){
+        return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString(){
+        return String.format("%d partidas | victorias %.1f%% | muertes %d | frutas %.2f (%.1f%%) | "
+                + "ticks %.1f | puntaje %.1f | %.1f partidas/s",
+            games, getWinRate() * 100, deaths, getAverageFruits(), getFruitRate() * 100,
+            getAverageTicks(), getAverageScore(), getGamesPerSecond());
+    }
+}
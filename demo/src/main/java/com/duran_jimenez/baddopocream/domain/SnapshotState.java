@@ -0,0 +1,26 @@
+package com.duran_jimenez.baddopocream.domain;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Estado propio de una entidad dentro de la instantánea del nivel
+ * (Level.captureSnapshot()). Lo implementan enemigos, frutas y fogatas;
+ * la posición y la recolección las guarda Level.
+ *
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+interface SnapshotState {
+
+    /**
+     * Escribe el estado propio de la entidad
+     */
+    void writeState(DataOutputStream out) throws IOException;
+
+    /**
+     * Lee el estado escrito por writeState()
+     */
+    void readState(DataInputStream in) throws IOException;
+}
@@ -0,0 +1,54 @@
+package com.duran_jimenez.baddopocream.domain;
+
+/**
+ * Reloj determinista que solo avanza cuando se le indica (un paso por tick).
+ * Permite simular sin interfaz un nivel de 3 minutos en milisegundos y
+ * reproducir exactamente la misma partida.
+ * 
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+public class TickClock implements GameClock {
+    
+    private long currentTime;
+    private boolean paused;
+    
+    public TickClock() {
+        this(0);
+    }
+    
+    /**
+     * @param startTime Tiempo inicial en milisegundos
+     */
+    public TickClock(long startTime) {
+        this.currentTime = startTime;
+        this.paused = false;
+    }
+    
+    @Override
+    public long now() {
+        return currentTime;
+    }
+    
+    @Override
+    public void advance(long millis) {
+        if (!paused && millis > 0) {
+            currentTime += millis;
+        }
+    }
+    
+    @Override
+    public void pause() {
+        paused = true;
+    }
+    
+    @Override
+    public void resume() {
+        paused = false;
+    }
+    
+    @Override
+    public boolean isPaused() {
+        return paused;
+    }
+}
@@ -0,0 +1,22 @@
+package com.duran_jimenez.baddopocream.domain;
+
+/**
+ * Cambios de estado producidos por las mecánicas temporizadas de un nivel.
+ * 
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+public enum TimedEvent {
+    
+    /** Una fogata se apagó al romper el hielo que la cubría */
+    CAMPFIRE_EXTINGUISHED,
+    
+    /** Una fogata volvió a encenderse tras RELIGHT_DELAY */
+    CAMPFIRE_RELIT,
+    
+    /** Una cherry se teletransportó a una nueva posición */
+    CHERRY_TELEPORTED,
+    
+    /** Un cactus sacó o guardó sus espinas */
+    CACTUS_SPIKES_CHANGED
+}
@@ -0,0 +1,18 @@
+package com.duran_jimenez.baddopocream.domain;
+
+/**
+ * Observador de los eventos temporizados de un nivel (ver Level.addTimedEventListener).
+ * 
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface TimedEventListener {
+    
+    /**
+     * Se invoca cuando una entidad temporizada cambia de estado
+     * @param event Tipo de evento
+     * @param location Posición de la entidad tras el cambio
+     */
+    void onTimedEvent(TimedEvent event, Location location);
+}
@@ -0,0 +1,211 @@
+package com.duran_jimenez.baddopocream.domain;
+
+/**
+ * Rueda de temporizadores (hashed timer wheel) de un nivel.
+ *
+ * Las entidades con comportamiento temporizado (reencendido de fogatas,
+ * teletransporte de cherry, espinas del cactus) programan su próximo evento
+ * una sola vez; la rueda los dispara cuando el reloj del nivel alcanza su
+ * plazo. El costo de cada avance es proporcional a las ranuras recorridas y a
+ * los eventos vencidos, no al número de entidades temporizadas.
+ *
+ * Los nodos Timeout son reutilizables: una entidad crea el suyo una vez y lo
+ * vuelve a programar tras cada disparo, sin generar basura.
+ *
+ * No es segura para hilos; se usa bajo el mismo bloqueo que el resto del nivel.
+ *
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+public class TimerWheel {
+
+    /** Resolución por defecto de cada ranura en milisegundos */
+    public static final long DEFAULT_RESOLUTION_MILLIS = 100;
+
+    /** Número de ranuras por defecto (potencia de 2) */
+    public static final int DEFAULT_SLOTS = 256;
+
+    /**
+     * Evento programado en la rueda. Reutilizable tras dispararse o cancelarse.
+     */
+    public static final class Timeout {
+        private final Runnable task;
+        private TimerWheel wheel;
+        private long deadline;
+        private long targetTick;
+        private Timeout prev;
+        private Timeout next;
+        private Timeout nextExpired;
+
+        /**
+         * @param task Acción a ejecutar al vencer el plazo
+         */
+        public Timeout(Runnable task) {
+            if (task == null) {
+                throw new IllegalArgumentException(BadDopoCream_Exceptions.INVALID_GAME_STATE);
+            }
+            this.task = task;
+        }
+
+        /**
+         * Indica si está programado y aún no se ha disparado
+         */
+        public boolean isPending() {
+            return wheel != null;
+        }
+
+        /**
+         * Obtiene el plazo (tiempo del reloj del juego) del último programado
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * Cancela el evento si está pendiente
+         */
+        public void cancel() {
+            if (wheel != null) {
+                wheel.unlink(this);
+            }
+        }
+    }
+
+    private final Timeout[] slots;
+    private final int mask;
+    private final long resolution;
+    private long currentTick;
+    private int pending;
+
+    /**
+     * Crea una rueda con la resolución y número de ranuras por defecto
+     * @param now Tiempo actual del reloj del juego
+     */
+    public TimerWheel(long now) {
+        this(now, DEFAULT_RESOLUTION_MILLIS, DEFAULT_SLOTS);
+    }
+
+    /**
+     * @param now Tiempo actual del reloj del juego
+     * @param resolutionMillis Milisegundos que cubre cada ranura
+     * @param slotCount Número de ranuras (se redondea a potencia de 2)
+     */
+    public TimerWheel(long now, long resolutionMillis, int slotCount) {
+        if (resolutionMillis <= 0 || slotCount <= 0) {
+            throw new IllegalArgumentException(BadDopoCream_Exceptions.INVALID_GAME_STATE);
+        }
+        int size = Integer.highestOneBit(slotCount);
+        if (size < slotCount) {
+            size <<= 1;
+        }
+        this.slots = new Timeout[size];
+        this.mask = size - 1;
+        this.resolution = resolutionMillis;
+        this.currentTick = Math.floorDiv(now, resolutionMillis);
+        this.pending = 0;
+    }
+
+    /**
+     * Programa (o reprograma) un evento para el plazo indicado.
+     * Un plazo ya vencido se dispara en el siguiente avance.
+     * @param timeout Nodo a programar
+     * @param deadline Tiempo del reloj del juego en que debe dispararse
+     */
+    public void schedule(Timeout timeout, long deadline) {
+        if (timeout.wheel != null) {
+            timeout.wheel.unlink(timeout);
+        }
+        long tick = Math.floorDiv(deadline + resolution - 1, resolution);
+        timeout.deadline = deadline;
+        timeout.targetTick = Math.max(tick, currentTick + 1);
+
+        int index = (int) (timeout.targetTick & mask);
+        timeout.wheel = this;
+        timeout.prev = null;
+        timeout.next = slots[index];
+        if (slots[index] != null) {
+            slots[index].prev = timeout;
+        }
+        slots[index] = timeout;
+        pending++;
+    }
+
+    /**
+     * Avanza la rueda hasta el tiempo indicado disparando los eventos vencidos
+     * en orden de ranura. Los eventos reprogramados durante el avance que venzan
+     * antes de now también se disparan.
+     * @param now Tiempo actual del reloj del juego
+     * @return Número de eventos disparados
+     */
+    public int advanceTo(long now) {
+        long targetTick = Math.floorDiv(now, resolution);
+        int fired = 0;
+        while (currentTick < targetTick) {
+            if (pending == 0) {
+                currentTick = targetTick;
+                break;
+            }
+            currentTick++;
+            fired += expireSlot((int) (currentTick & mask));
+        }
+        return fired;
+    }
+
+    /**
+     * Cambia la referencia de tiempo de la rueda sin disparar eventos.
+     * Se usa al cambiar el reloj del nivel; las entidades reprograman
+     * después sus eventos con los plazos trasladados.
+     * @param now Tiempo actual del nuevo reloj
+     */
+    public void reset(long now) {
+        this.currentTick = Math.floorDiv(now, resolution);
+    }
+
+    /**
+     * Obtiene el número de eventos pendientes
+     */
+    public int size() {
+        return pending;
+    }
+
+    private int expireSlot(int index) {
+        // Separar primero los vencidos: sus tareas pueden reprogramar o cancelar otros nodos
+        Timeout expired = null;
+        Timeout node = slots[index];
+        while (node != null) {
+            Timeout next = node.next;
+            if (node.targetTick <= currentTick) {
+                unlink(node);
+                node.nextExpired = expired;
+                expired = node;
+            }
+            node = next;
+        }
+
+        int fired = 0;
+        while (expired != null) {
+            Timeout timeout = expired;
+            expired = timeout.nextExpired;
+            timeout.nextExpired = null;
+            timeout.task.run();
+            fired++;
+        }
+        return fired;
+    }
+
+    private void unlink(Timeout timeout) {
+        int index = (int) (timeout.targetTick & mask);
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            slots[index] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.wheel = null;
+        pending--;
+    }
+}
@@ -1,5 +1,9 @@
 package com.duran_jimenez.baddopocream.domain;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 public class Troll extends Enemy{
     
     private static final double DETECTION_RANGE = 5;
@@ -159,6 +163,18 @@ public class Troll extends Enemy{
         return distance <= DETECTION_RANGE;
     }
     
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        BinaryCodec.writeVarInt(out, directionX);
+        BinaryCodec.writeVarInt(out, directionY);
+    }
+
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        directionX = BinaryCodec.readVarInt(in);
+        directionY = BinaryCodec.readVarInt(in);
+    }
+
     @Override
     public String getTypeName(){
         return "Troll";
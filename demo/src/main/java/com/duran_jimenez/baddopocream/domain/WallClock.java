@@ -0,0 +1,49 @@
+package com.duran_jimenez.baddopocream.domain;
+
+/**
+ * Reloj de pared pausable: avanza con el tiempo real excepto mientras está en pausa.
+ * Es el reloj de las partidas jugadas desde la interfaz.
+ * 
+ * @author Durán-Jiménez
+ * @version 1.0
+ */
+public class WallClock implements GameClock {
+    
+    private long pausedTime;
+    private long lastPauseStart;
+    private boolean paused;
+    
+    public WallClock() {
+        this.pausedTime = 0;
+        this.lastPauseStart = 0;
+        this.paused = false;
+    }
+    
+    @Override
+    public synchronized long now() {
+        long current = paused ? lastPauseStart : System.currentTimeMillis();
+        return current - pausedTime;
+    }
+    
+    @Override
+    public synchronized void pause() {
+        if (!paused) {
+            paused = true;
+            lastPauseStart = System.currentTimeMillis();
+        }
+    }
+    
+    @Override
+    public synchronized void resume() {
+        if (paused) {
+            pausedTime += System.currentTimeMillis() - lastPauseStart;
+            paused = false;
+            lastPauseStart = 0;
+        }
+    }
+    
+    @Override
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+}
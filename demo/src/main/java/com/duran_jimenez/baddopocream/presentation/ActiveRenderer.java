@@ -0,0 +1,123 @@
+package com.duran_jimenez.baddopocream.presentation;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.DisplayMode;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Renderizado activo del tablero: un Canvas con BufferStrategy que un hilo
+ * propio dibuja a la frecuencia de refresco de la pantalla (60 Hz si no se
+ * conoce), en lugar de esperar a los repaint() de Swing.
+ *
+ * El ritmo de los cuadros queda separado del de la simulación: la escena
+ * recibe la hora de cada cuadro y puede interpolar las posiciones entre los
+ * dos últimos estados del juego (ver SpriteMotion).
+ *
+ * El hilo arranca cuando el Canvas se muestra (addNotify) y se detiene al
+ * quitarlo de la ventana.
+ */
+class ActiveRenderer extends Canvas implements Runnable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int DEFAULT_REFRESH_RATE = 60;
+
+    /**
+     * Dibuja un cuadro completo
+     */
+    interface Scene {
+        void render(Graphics2D g, int width, int height, long nowNanos);
+    }
+
+    private final Scene scene;
+    private volatile Thread renderThread;
+
+    ActiveRenderer(Scene scene, Color background) {
+        this.scene = scene;
+        setBackground(background);
+        setIgnoreRepaint(true); // Todo el dibujo lo hace el hilo de renderizado
+        setFocusable(false); // El teclado lo sigue atendiendo el panel del juego
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        createBufferStrategy(2);
+        renderThread = new Thread(this, "renderizado");
+        renderThread.setDaemon(true);
+        renderThread.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        Thread thread = renderThread;
+        renderThread = null;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(500); // No liberar el buffer mientras se dibuja en él
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        super.removeNotify();
+    }
+
+    @Override
+    public void run() {
+        Thread self = Thread.currentThread();
+        long frameNanos = TimeUnit.SECONDS.toNanos(1) / refreshRate();
+        long nextFrame = System.nanoTime();
+        while (renderThread == self) {
+            renderFrame();
+            nextFrame += frameNanos;
+            long wait = nextFrame - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else if (wait < -frameNanos) {
+                nextFrame = System.nanoTime(); // Cuadros atrasados: no intentar recuperarlos
+            }
+        }
+    }
+
+    private void renderFrame() {
+        BufferStrategy strategy = getBufferStrategy();
+        int width = getWidth();
+        int height = getHeight();
+        if (strategy == null || width <= 0 || height <= 0) {
+            return;
+        }
+        try {
+            do {
+                do {
+                    Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                    try {
+                        scene.render(g, width, height, System.nanoTime());
+                    } finally {
+                        g.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+            Toolkit.getDefaultToolkit().sync(); // Evita cuadros retenidos en algunos sistemas de ventanas
+        } catch (IllegalStateException e) {
+            // El Canvas dejó de mostrarse a mitad de cuadro
+        }
+    }
+
+    private int refreshRate() {
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        if (config == null) {
+            return DEFAULT_REFRESH_RATE;
+        }
+        DisplayMode mode = config.getDevice().getDisplayMode();
+        int rate = mode.getRefreshRate();
+        return rate == DisplayMode.REFRESH_RATE_UNKNOWN || rate <= 0 ? DEFAULT_REFRESH_RATE : rate;
+    }
+}
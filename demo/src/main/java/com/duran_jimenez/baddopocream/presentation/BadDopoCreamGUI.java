@@ -47,7 +47,7 @@ public class BadDopoCreamGUI extends JFrame {
         initializeFrame();
         createMenuBar();
         setupKeyboardListener();
-        showWelcomeScreen();  // Primero mostrar pantalla de bienvenida
+        showLoadingScreen();  // Cargar recursos y luego mostrar pantalla de bienvenida
     }
     
     /**
@@ -440,9 +440,17 @@ public class BadDopoCreamGUI extends JFrame {
         // Crear nueva instancia del juego
         game = new com.duran_jimenez.baddopocream.domain.BadDopoCream();
         
-        // Inicializar el backend desde el nivel 1
-        initializeGameInBackend(currentGameMode, currentPlayer1Character, 
-                                currentPlayer2Character, currentEnemyCharacter, 1);
+        // Los guardados con instantánea regeneran el mismo nivel con su semilla;
+        // los antiguos, el nivel 1 como antes
+        if (state.hasLevelSnapshot()) {
+            this.currentLevelNumber = state.getLevelNumber();
+            initializeGameInBackend(currentGameMode, currentPlayer1Character, 
+                                    currentPlayer2Character, currentEnemyCharacter,
+                                    state.getLevelNumber(), state.getLevelSeed());
+        } else {
+            initializeGameInBackend(currentGameMode, currentPlayer1Character, 
+                                    currentPlayer2Character, currentEnemyCharacter, 1);
+        }
         
         // Restaurar el estado completo desde el save
         game.restoreFromState(state);
@@ -479,11 +487,21 @@ public class BadDopoCreamGUI extends JFrame {
     private void initializeGameInBackend(String gameMode, String player1Character, 
                                         String player2Character, String enemyCharacter, 
                                         int levelNumber) {
+        initializeGameInBackend(gameMode, player1Character, player2Character, enemyCharacter,
+                                levelNumber, new java.util.SplittableRandom().nextLong());
+    }
+    
+    /**
+     * Igual que la anterior con una semilla fija (cargar partida regenera el mismo nivel)
+     */
+    private void initializeGameInBackend(String gameMode, String player1Character, 
+                                        String player2Character, String enemyCharacter, 
+                                        int levelNumber, long seed) {
         // Crear el(los) jugador(es) según el modo
         com.duran_jimenez.baddopocream.domain.IceCream player1 = createIceCream(player1Character, new com.duran_jimenez.baddopocream.domain.Location(2, 2));
         
         // Usar LevelConfigurator para crear el nivel "quemado"
-        com.duran_jimenez.baddopocream.domain.Level level = com.duran_jimenez.baddopocream.domain.LevelConfigurator.createLevel(levelNumber, player1);
+        com.duran_jimenez.baddopocream.domain.Level level = com.duran_jimenez.baddopocream.domain.LevelConfigurator.createLevel(levelNumber, player1, null, seed);
         
         // En modo cooperativo, agregar segundo jugador
         if("Cooperative".equals(gameMode) && player2Character != null){
@@ -493,11 +511,16 @@ public class BadDopoCreamGUI extends JFrame {
         
         // TODO: En modo versus, el enemigo seleccionado será controlado por jugador 2
         
+        // Reloj por ticks (lo avanza el GameLoop) para que la partida se pueda repetir
+        game.setClock(new com.duran_jimenez.baddopocream.domain.TickClock());
+        
         // Agregar el nivel al juego
         game.addLevel(level);
         
-        // Iniciar el juego
+        // Iniciar el juego, grabar la repetición y autoguardar
         game.startGame();
+        game.startRecording(com.duran_jimenez.baddopocream.domain.GameLoop.DEFAULT_TICK_MILLIS);
+        game.enableAutosave(player1Character, gameMode);
     }
     
     /**
@@ -694,6 +717,15 @@ public class BadDopoCreamGUI extends JFrame {
         }
     }
     
+    /**
+     * Muestra la pantalla de carga mientras se decodifican las imágenes del juego
+     */
+    private void showLoadingScreen() {
+        LoadingScreen loadingScreen = new LoadingScreen();
+        changePanel(loadingScreen);
+        loadingScreen.startLoading(this::showWelcomeScreen);
+    }
+    
     /**
      * Muestra la pantalla de bienvenida inicial
      */
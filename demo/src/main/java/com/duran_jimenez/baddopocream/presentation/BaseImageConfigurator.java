@@ -87,7 +87,7 @@ public abstract class BaseImageConfigurator {
     
     /**
      * Espera a que todas las imágenes registradas en el tracker se carguen
-     * Debe llamarse después de cargar todas las imágenes
+     * La llama LoadingScreen, después de inicializar los configuradores
      * @param resourceType Tipo de recurso que se está cargando (para logging)
      */
     protected static void waitForAllImages(String resourceType) {
@@ -118,6 +118,25 @@ public abstract class BaseImageConfigurator {
         return new java.io.File(resourcePath).exists();
     }
     
+    /**
+     * Busca un recurso en el classpath y, si no está, en el sistema de archivos
+     * @param resourcePath Ruta del recurso (con / o \\)
+     * @return URL del recurso o null si no existe
+     */
+    static URL findResource(String resourcePath) {
+        String normalizedPath = resourcePath.replace("\\", "/");
+        URL resourceUrl = BaseImageConfigurator.class.getResource("/" + normalizedPath);
+        if (resourceUrl != null) {
+            return resourceUrl;
+        }
+        java.io.File file = new java.io.File(normalizedPath);
+        try {
+            return file.exists() ? file.toURI().toURL() : null;
+        } catch (java.net.MalformedURLException e) {
+            return null;
+        }
+    }
+    
     /**
      * Dibuja una imagen en las coordenadas especificadas
      * @param g Graphics2D para dibujar
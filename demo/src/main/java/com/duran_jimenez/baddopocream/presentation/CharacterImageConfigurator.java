@@ -53,8 +53,7 @@ public class CharacterImageConfigurator extends BaseImageConfigurator {
             loadCharacterAnimations(character);
         }
         
-        // Esperar a que todas las imágenes se carguen completamente usando método heredado
-        waitForAllImages("personajes");
+        // Las imágenes se decodifican en segundo plano; LoadingScreen espera a que terminen
     }
     
     /**
@@ -64,12 +63,11 @@ public class CharacterImageConfigurator extends BaseImageConfigurator {
      */
     private static void loadCharacterAnimations(CharacterType character) {
         Map<AnimationType, Image> animations = new HashMap<>();
-        String characterPath = BASE_PATH + character.getFolderName() + "\\";
         
         System.out.println("📦 Cargando animaciones para: " + character.getFolderName());
         
         for (AnimationType animationType : AnimationType.values()) {
-            String fullPath = characterPath + animationType.getFileName();
+            String fullPath = resourcePath(character, animationType);
             Image img = loadAnimationImage(fullPath);
             
             if (img != null) {
@@ -84,6 +82,13 @@ public class CharacterImageConfigurator extends BaseImageConfigurator {
         System.out.println("  Total: " + animations.size() + "/" + AnimationType.values().length + " animaciones\n");
     }
     
+    /**
+     * Ruta del recurso de una animación de personaje (también la usa SpriteAtlas)
+     */
+    static String resourcePath(CharacterType character, AnimationType animation) {
+        return BASE_PATH + character.getFolderName() + "\\" + animation.getFileName();
+    }
+    
     /**
      * Carga una animación desde recursos usando el método heredado de BaseImageConfigurator
      * @param resourcePath Ruta del recurso de animación
@@ -120,6 +125,13 @@ public class CharacterImageConfigurator extends BaseImageConfigurator {
      * @return Image con la animación apropiada
      */
     public static Image getAnimationByDirection(CharacterType character, int dx, int dy, boolean isMoving) {
+        return getAnimation(character, animationForDirection(dx, dy, isMoving));
+    }
+    
+    /**
+     * Tipo de animación según la dirección y si el personaje se mueve
+     */
+    static AnimationType animationForDirection(int dx, int dy, boolean isMoving) {
         AnimationType animationType;
         
         if (isMoving) {
@@ -150,7 +162,7 @@ public class CharacterImageConfigurator extends BaseImageConfigurator {
             }
         }
         
-        return getAnimation(character, animationType);
+        return animationType;
     }
     
     /**
@@ -161,6 +173,13 @@ public class CharacterImageConfigurator extends BaseImageConfigurator {
      * @return Image con la animación de hielo
      */
     public static Image getIceAnimation(CharacterType character, int dx, int dy) {
+        return getAnimation(character, iceAnimationForDirection(dx, dy));
+    }
+    
+    /**
+     * Tipo de animación de creación de hielo según la dirección
+     */
+    static AnimationType iceAnimationForDirection(int dx, int dy) {
         AnimationType animationType;
         
         if (dy > 0) {
@@ -175,7 +194,7 @@ public class CharacterImageConfigurator extends BaseImageConfigurator {
             animationType = AnimationType.ICE_DOWN; // Default
         }
         
-        return getAnimation(character, animationType);
+        return animationType;
     }
     
     /**
@@ -73,53 +73,75 @@ public class EnemyImageConfigurator extends BaseImageConfigurator {
     
     // Inicialización estática - carga todas las animaciones al inicio
     static {
-        loadEnemyAnimations(EnemyType.TROLL, new AnimationType[]{
-            AnimationType.TROLL_WALK_DOWN,
-            AnimationType.TROLL_WALK_UP,
-            AnimationType.TROLL_WALK_RIGHT,
-            AnimationType.TROLL_WALK_LEFT,
-            AnimationType.TROLL_STAND
-        });
-        
-        loadEnemyAnimations(EnemyType.MACETA, new AnimationType[]{
-            AnimationType.POT_WALK_DOWN,
-            AnimationType.POT_WALK_UP,
-            AnimationType.POT_WALK_RIGHT,
-            AnimationType.POT_WALK_LEFT,
-            AnimationType.POT_POPUP_DOWN,
-            AnimationType.POT_POPUP_UP,
-            AnimationType.POT_POPUP_RIGHT,
-            AnimationType.POT_POPUP_LEFT
-        });
-        
-        loadEnemyAnimations(EnemyType.CALAMAR, new AnimationType[]{
-            AnimationType.SQUID_WALK_DOWN,
-            AnimationType.SQUID_WALK_UP,
-            AnimationType.SQUID_WALK_RIGHT,
-            AnimationType.SQUID_WALK_LEFT,
-            AnimationType.SQUID_BREAK_DOWN,
-            AnimationType.SQUID_BREAK_UP,
-            AnimationType.SQUID_BREAK_RIGHT,
-            AnimationType.SQUID_BREAK_LEFT
-        });
-        
-        loadEnemyAnimations(EnemyType.NARVAL, new AnimationType[]{
-            AnimationType.NARVAL_WALK_DOWN,
-            AnimationType.NARVAL_WALK_UP,
-            AnimationType.NARVAL_WALK_RIGHT,
-            AnimationType.NARVAL_WALK_LEFT,
-            AnimationType.NARVAL_CHARGE_DOWN,
-            AnimationType.NARVAL_CHARGE_UP,
-            AnimationType.NARVAL_CHARGE_RIGHT,
-            AnimationType.NARVAL_CHARGE_LEFT,
-            AnimationType.NARVAL_BREAK_DOWN,
-            AnimationType.NARVAL_BREAK_UP,
-            AnimationType.NARVAL_BREAK_RIGHT,
-            AnimationType.NARVAL_BREAK_LEFT
-        });
+        for (EnemyType enemyType : EnemyType.values()) {
+            loadEnemyAnimations(enemyType, animationsOf(enemyType));
+        }
         
-        // Esperar a que todas las imágenes se carguen completamente usando método heredado
-        waitForAllImages("enemigos");
+        // Las imágenes se decodifican en segundo plano; LoadingScreen espera a que terminen
+    }
+    
+    /**
+     * Animaciones de cada enemigo (también las usa SpriteAtlas)
+     * @param enemyType Tipo de enemigo
+     * @return Animaciones que tiene el enemigo
+     */
+    static AnimationType[] animationsOf(EnemyType enemyType) {
+        switch (enemyType) {
+            case TROLL:
+                return new AnimationType[]{
+                    AnimationType.TROLL_WALK_DOWN,
+                    AnimationType.TROLL_WALK_UP,
+                    AnimationType.TROLL_WALK_RIGHT,
+                    AnimationType.TROLL_WALK_LEFT,
+                    AnimationType.TROLL_STAND
+                };
+            case MACETA:
+                return new AnimationType[]{
+                    AnimationType.POT_WALK_DOWN,
+                    AnimationType.POT_WALK_UP,
+                    AnimationType.POT_WALK_RIGHT,
+                    AnimationType.POT_WALK_LEFT,
+                    AnimationType.POT_POPUP_DOWN,
+                    AnimationType.POT_POPUP_UP,
+                    AnimationType.POT_POPUP_RIGHT,
+                    AnimationType.POT_POPUP_LEFT
+                };
+            case CALAMAR:
+                return new AnimationType[]{
+                    AnimationType.SQUID_WALK_DOWN,
+                    AnimationType.SQUID_WALK_UP,
+                    AnimationType.SQUID_WALK_RIGHT,
+                    AnimationType.SQUID_WALK_LEFT,
+                    AnimationType.SQUID_BREAK_DOWN,
+                    AnimationType.SQUID_BREAK_UP,
+                    AnimationType.SQUID_BREAK_RIGHT,
+                    AnimationType.SQUID_BREAK_LEFT
+                };
+            case NARVAL:
+                return new AnimationType[]{
+                    AnimationType.NARVAL_WALK_DOWN,
+                    AnimationType.NARVAL_WALK_UP,
+                    AnimationType.NARVAL_WALK_RIGHT,
+                    AnimationType.NARVAL_WALK_LEFT,
+                    AnimationType.NARVAL_CHARGE_DOWN,
+                    AnimationType.NARVAL_CHARGE_UP,
+                    AnimationType.NARVAL_CHARGE_RIGHT,
+                    AnimationType.NARVAL_CHARGE_LEFT,
+                    AnimationType.NARVAL_BREAK_DOWN,
+                    AnimationType.NARVAL_BREAK_UP,
+                    AnimationType.NARVAL_BREAK_RIGHT,
+                    AnimationType.NARVAL_BREAK_LEFT
+                };
+            default:
+                return new AnimationType[0];
+        }
+    }
+    
+    /**
+     * Ruta del recurso de una animación de enemigo (también la usa SpriteAtlas)
+     */
+    static String resourcePath(EnemyType enemyType, AnimationType animation) {
+        return BASE_PATH + enemyType.getFolderName() + "\\" + animation.getFileName();
     }
     
     /**
@@ -130,12 +152,11 @@ public class EnemyImageConfigurator extends BaseImageConfigurator {
      */
     private static void loadEnemyAnimations(EnemyType enemyType, AnimationType[] animations) {
         Map<AnimationType, Image> animationMap = new HashMap<>();
-        String enemyPath = BASE_PATH + enemyType.getFolderName() + "\\";
         
         System.out.println("📦 Cargando animaciones para: " + enemyType.getFolderName());
         
         for (AnimationType animationType : animations) {
-            String fullPath = enemyPath + animationType.getFileName();
+            String fullPath = resourcePath(enemyType, animationType);
             Image img = loadAnimationImage(fullPath);
             
             if (img != null) {
@@ -185,6 +206,15 @@ public class EnemyImageConfigurator extends BaseImageConfigurator {
      * @return Image con la animación apropiada
      */
     public static Image getAnimationByDirection(EnemyType enemyType, int dx, int dy) {
+        AnimationType animationType = walkAnimationForDirection(enemyType, dx, dy);
+        return animationType == null ? null : getAnimation(enemyType, animationType);
+    }
+    
+    /**
+     * Tipo de animación de caminar de un enemigo según su dirección
+     * @return El tipo de animación, o null si el enemigo no tiene
+     */
+    static AnimationType walkAnimationForDirection(EnemyType enemyType, int dx, int dy) {
         AnimationType animationType;
         
         switch (enemyType) {
@@ -249,7 +279,7 @@ public class EnemyImageConfigurator extends BaseImageConfigurator {
                 return null;
         }
         
-        return getAnimation(enemyType, animationType);
+        return animationType;
     }
     
     /**
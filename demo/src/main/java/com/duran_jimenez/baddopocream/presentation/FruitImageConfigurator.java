@@ -16,19 +16,22 @@ public class FruitImageConfigurator extends BaseImageConfigurator {
     private static final String BASE_PATH = "Frutas\\";
     private static final int DEFAULT_SIZE = 30; // Tamaño de celda por defecto
     
+    // Frutas con imagen y su archivo (el índice es el que usa SpriteAtlas)
+    static final String[] FRUIT_NAMES = {"Banana", "Cherry", "Grapes", "Pineapple", "Cactus"};
+    private static final String[] FRUIT_FILES = {
+        "Banana\\Normal.gif", "Cherry\\Normal.gif", "Grapes\\Normal.gif", "Pineapple\\Movement.gif", "Cactus\\Normal.gif"
+    };
+    
     // Mapa que almacena las imágenes de cada fruta por nombre
     private static final Map<String, Image> fruitImages = new HashMap<>();
     
     // Inicialización estática de las imágenes
     static {
-        loadFruitImage("Banana", "Banana\\Normal.gif");
-        loadFruitImage("Cherry", "Cherry\\Normal.gif");
-        loadFruitImage("Grapes", "Grapes\\Normal.gif");
-        loadFruitImage("Pineapple", "Pineapple\\Movement.gif");
-        loadFruitImage("Cactus", "Cactus\\Normal.gif");
+        for (int i = 0; i < FRUIT_NAMES.length; i++) {
+            loadFruitImage(FRUIT_NAMES[i], FRUIT_FILES[i]);
+        }
         
-        // Esperar a que todas las imágenes se carguen completamente usando método heredado
-        waitForAllImages("frutas");
+        // Las imágenes se decodifican en segundo plano; LoadingScreen espera a que terminen
     }
     
     /**
@@ -54,6 +57,29 @@ public class FruitImageConfigurator extends BaseImageConfigurator {
         }
     }
     
+    /**
+     * Índice de la fruta en FRUIT_NAMES
+     * @return El índice, o -1 si la fruta no tiene imagen
+     */
+    static int fruitIndex(String fruitName) {
+        if (fruitName == null) return -1;
+        switch (fruitName) {
+            case "Banana": return 0;
+            case "Cherry": return 1;
+            case "Grapes": return 2;
+            case "Pineapple": return 3;
+            case "Cactus": return 4;
+            default: return -1;
+        }
+    }
+    
+    /**
+     * Ruta del recurso de la imagen de una fruta (también la usa SpriteAtlas)
+     */
+    static String resourcePath(int fruitIndex) {
+        return BASE_PATH + FRUIT_FILES[fruitIndex];
+    }
+    
     /**
      * Obtiene la imagen de una fruta por su nombre
      * @param fruitName Nombre de la fruta (Banana, Cherry, Grapes, Pineapple)
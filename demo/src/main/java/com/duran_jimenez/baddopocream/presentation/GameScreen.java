@@ -2,16 +2,22 @@ package com.duran_jimenez.baddopocream.presentation;
 
 import java.awt.BorderLayout;
 import java.awt.Color;
+import java.awt.Container;
 import java.awt.Cursor;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
@@ -20,15 +26,17 @@ import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 
 import com.duran_jimenez.baddopocream.domain.BadDopoCream;
-import com.duran_jimenez.baddopocream.domain.EnemyInfo;
-import com.duran_jimenez.baddopocream.domain.FruitInfo;
+import com.duran_jimenez.baddopocream.domain.BadDopoCream_Exceptions;
+import com.duran_jimenez.baddopocream.domain.FrameSnapshot;
+import com.duran_jimenez.baddopocream.domain.GameLoop;
 import com.duran_jimenez.baddopocream.domain.HighScoreManager;
 import com.duran_jimenez.baddopocream.domain.IceCreamAI;
-import com.duran_jimenez.baddopocream.domain.ObstacleInfo;
 import com.duran_jimenez.baddopocream.domain.PlayerInfo;
+import com.duran_jimenez.baddopocream.domain.Replay;
 
 /**
  * Pantalla principal del juego.
@@ -36,7 +44,7 @@ import com.duran_jimenez.baddopocream.domain.PlayerInfo;
  * Responsabilidades:
  * - Renderizado del mapa, jugadores, frutas, enemigos y obstáculos
  * - Gestión de controles de teclado (flechas + WASD para 2 jugadores)
- * - Game loop y actualización del estado
+ * - Envío de acciones al GameLoop del dominio y refresco tras cada tick
  * - Diálogos de victoria, derrota y highscores
  * - Integración con IA para modos Machine-vs-Machine y PvsM
  * 
@@ -54,7 +62,7 @@ public class GameScreen extends JPanel {
     private final Runnable onBackAction;
     private final Runnable onRestartAction;
     private final Runnable onNextLevelAction;
-    private Timer gameTimer;
+    private final GameLoop gameLoop; // Simulación de paso fijo en su propio hilo
     private final String gameMode; // "Single-Player", "Cooperative", "Versus", "Machine-vs-Machine", "PvsM-Competitivo"
     private final IceCreamAI aiController; // Para modo máquina vs máquina
     private final HighScoreManager highScoreManager; // Gestor de highscores
@@ -62,7 +70,7 @@ public class GameScreen extends JPanel {
     private JFrame parentFrame; // Frame padre para mostrar pantallas
     
     // Constantes de renderizado
-    private static final int CELL_SIZE = 30; // Tamaño de cada celda en píxeles
+    static final int CELL_SIZE = 30; // Tamaño de cada celda en píxeles (también el de los sprites del atlas)
     private static final Color COLOR_BACKGROUND = new Color(20, 20, 40);
     private static final Color COLOR_WALL = new Color(100, 100, 150);
     private static final Color COLOR_ICE_WALL = new Color(150, 200, 255);
@@ -70,12 +78,55 @@ public class GameScreen extends JPanel {
     
     // Colores para personajes
     private static final Color COLOR_PLAYER_PINK = new Color(255, 100, 150);
+    private static final Color COLOR_PLAYER_VANILLA = new Color(255, 255, 200);
+    private static final Color COLOR_PLAYER_CHOCOLATE = new Color(139, 90, 43);
     
     // Colores para enemigos
     private static final Color COLOR_MACETA = new Color(100, 200, 100);
     private static final Color COLOR_TROLL = new Color(200, 100, 200);
     private static final Color COLOR_CALAMAR = new Color(255, 150, 50);
     
+    // Indicadores sobre cactus y obstáculos (se dibujan cada cuadro: no se crean al pintar)
+    private static final Color COLOR_SPIKES = new Color(255, 0, 0, 150);
+    private static final Color COLOR_HOT_TILE = new Color(255, 100, 0, 150);
+    private static final Color COLOR_CAMPFIRE_LIT = new Color(255, 150, 0);
+    private static final Color COLOR_CAMPFIRE_OUT = new Color(80, 80, 80);
+    private static final java.awt.BasicStroke SPIKES_STROKE = new java.awt.BasicStroke(3);
+    private static final Font FONT_WARNING = new Font("Arial", Font.BOLD, 16);
+    private static final Font FONT_COUNTDOWN = new Font("Arial", Font.BOLD, 10);
+    private static final String[] COUNTDOWN_LABELS = new String[100];
+    
+    // Códigos de tipo de FrameSnapshot (CHARACTER_*, ENEMY_*) a los tipos de las imágenes
+    private static final CharacterType[] CHARACTER_BY_KIND = new CharacterType[FrameSnapshot.CHARACTER_KINDS];
+    private static final EnemyType[] ENEMY_BY_KIND = new EnemyType[FrameSnapshot.ENEMY_KINDS];
+    
+    static {
+        for (int seconds = 0; seconds < COUNTDOWN_LABELS.length; seconds++) {
+            COUNTDOWN_LABELS[seconds] = String.valueOf(seconds);
+        }
+        CHARACTER_BY_KIND[FrameSnapshot.CHARACTER_STRAWBERRY] = CharacterType.FRESA;
+        CHARACTER_BY_KIND[FrameSnapshot.CHARACTER_VANILLA] = CharacterType.VAINILLA;
+        CHARACTER_BY_KIND[FrameSnapshot.CHARACTER_CHOCOLATE] = CharacterType.CHOCOLATE;
+        ENEMY_BY_KIND[FrameSnapshot.ENEMY_TROLL] = EnemyType.TROLL;
+        ENEMY_BY_KIND[FrameSnapshot.ENEMY_MACETA] = EnemyType.MACETA;
+        ENEMY_BY_KIND[FrameSnapshot.ENEMY_CALAMAR] = EnemyType.CALAMAR;
+        ENEMY_BY_KIND[FrameSnapshot.ENEMY_NARVAL] = EnemyType.NARVAL;
+    }
+    
+    // Fondo cacheado y celdas con entidades pintadas en el último refresco
+    private final MapLayer mapLayer = new MapLayer(CELL_SIZE, COLOR_WALL, COLOR_ICE_WALL, COLOR_EMPTY);
+    private List<Rectangle> entityCells = new ArrayList<>();
+    private final FrameSnapshot viewFrame = new FrameSnapshot(); // Copia del EDT para repaint()
+    
+    // Renderizado activo: la simulación publica su estado y el hilo de renderizado lo interpola
+    private static volatile boolean activeRendering = true;
+    private ActiveRenderer activeRenderer; // null si se repinta con repaint()
+    private final FrameSnapshot frame = new FrameSnapshot(); // Copia del hilo de renderizado
+    private long shownSerial = -1; // Última publicación que vio el hilo de renderizado
+    private final SpriteMotion playerMotion;
+    private final SpriteMotion enemyMotion;
+    private final SpriteMotion fruitMotion;
+    
     private JPanel gamePanel;
     private JLabel statusLabel;
     private JLabel fruitsLabel;
@@ -110,14 +161,54 @@ public class GameScreen extends JPanel {
             ? new com.duran_jimenez.baddopocream.domain.IceCreamAI() : null;
         // Inicializar gestor de highscores
         this.highScoreManager = new HighScoreManager();
+        // El dominio avanza solo; la pantalla aplica la IA antes de cada tick y se refresca después
+        this.gameLoop = new GameLoop(game);
+        this.gameLoop.addTickListener(new GameLoop.TickListener() {
+            @Override
+            public void beforeTick(BadDopoCream game, long tick) {
+                applyAiMoves();
+            }
+            
+            @Override
+            public void afterTick(BadDopoCream game, long tick) {
+                SwingUtilities.invokeLater(GameScreen.this::refreshView);
+            }
+            
+            @Override
+            public void afterAction(BadDopoCream game) {
+                SwingUtilities.invokeLater(GameScreen.this::refreshView);
+            }
+        });
+        // Un paso de enemigo o fruta dura un tick; el de un jugador, lo que tarda en poder moverse otra vez
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(gameLoop.getTickMillis());
+        this.playerMotion = new SpriteMotion(TimeUnit.MILLISECONDS.toNanos(MOVE_DELAY));
+        this.enemyMotion = new SpriteMotion(tickNanos);
+        this.fruitMotion = new SpriteMotion(tickNanos);
         
         setLayout(new BorderLayout());
         setBackground(COLOR_BACKGROUND);
         setupComponents();
         setupKeyboardControls();
+        synchronized (game) {
+            game.publishFrame();
+        }
+        game.getFrameSnapshot().copyInto(viewFrame);
         startGameLoop();
     }
     
+    /**
+     * Activa o desactiva el renderizado activo (ActiveRenderer con posiciones
+     * interpoladas) para las próximas partidas; desactivado, el tablero se
+     * repinta con repaint() tras cada tick
+     */
+    public static void setActiveRendering(boolean enabled) {
+        activeRendering = enabled;
+    }
+    
+    public static boolean isActiveRendering() {
+        return activeRendering;
+    }
+    
     private void setupComponents(){
         // Panel superior con información mejorada
         JPanel topPanel = new JPanel(new BorderLayout());
@@ -202,12 +293,20 @@ public class GameScreen extends JPanel {
             @Override
             protected void paintComponent(Graphics g) {
                 super.paintComponent(g);
+                if (activeRenderer != null) {
+                    return; // El tablero lo dibuja el hilo de renderizado
+                }
                 renderGame((Graphics2D) g);
             }
         };
         gamePanel.setBackground(COLOR_BACKGROUND);
         gamePanel.setPreferredSize(new Dimension(800, 600));
         gamePanel.setFocusable(true);
+        if (activeRendering) {
+            activeRenderer = new ActiveRenderer(this::renderFrame, COLOR_BACKGROUND);
+            gamePanel.setLayout(new BorderLayout());
+            gamePanel.add(activeRenderer, BorderLayout.CENTER);
+        }
         
         add(gamePanel, BorderLayout.CENTER);
         
@@ -277,103 +376,199 @@ public class GameScreen extends JPanel {
     
     /**
      * Renderiza el juego completo
+     * Solo se dibuja lo que cae en la zona a repintar (el clip del gráfico)
+     * Dibuja la última instantánea copiada en refreshView(), sin bloquear al juego
      */
     private void renderGame(Graphics2D g) {
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        FrameSnapshot view = viewFrame;
+        if(view.getMapWidth() == 0 || view.getMapHeight() == 0) return;
         
-        int[][] grid = game.getCurrentMapGrid();
-        int width = game.getMapWidth();
-        int height = game.getMapHeight();
+        // Renderizar mapa (paredes y espacios vacíos) desde la capa cacheada
+        mapLayer.update(view, gamePanel.getGraphicsConfiguration());
+        mapLayer.paint(g);
         
-        if(width == 0 || height == 0) return;
-        
-        // Renderizar mapa (paredes y espacios vacíos)
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int screenX = x * CELL_SIZE;
-                int screenY = y * CELL_SIZE;
-                int cellType = grid[x][y];
-                
-                if (cellType == 1) { // WALL
-                    // Pared permanente
-                    g.setColor(COLOR_WALL);
-                    g.fillRect(screenX, screenY, CELL_SIZE, CELL_SIZE);
-                    g.setColor(Color.BLACK);
-                    g.drawRect(screenX, screenY, CELL_SIZE, CELL_SIZE);
-                } else if (cellType == 2) { // ICE
-                    // Pared de hielo
-                    g.setColor(COLOR_ICE_WALL);
-                    g.fillRect(screenX, screenY, CELL_SIZE, CELL_SIZE);
-                    g.setColor(Color.WHITE);
-                    g.drawRect(screenX, screenY, CELL_SIZE, CELL_SIZE);
-                } else {
-                    // Espacio vacío
-                    g.setColor(COLOR_EMPTY);
-                    g.fillRect(screenX, screenY, CELL_SIZE, CELL_SIZE);
-                }
-            }
-        }
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        Rectangle clip = g.getClipBounds();
         
         // Renderizar obstáculos (baldosas calientes y fogatas)
-        renderObstacles(g);
+        renderObstacles(g, view, clip);
         
         // Renderizar frutas
-        for (FruitInfo fruit : game.getAllFruitsInfo()) {
-            if (!fruit.isCollected) {
-                renderFruit(g, fruit);
+        for (int i = 0; i < view.getFruitCount(); i++) {
+            int x = view.getFruitX(i);
+            int y = view.getFruitY(i);
+            if (!view.isFruitCollected(i) && isCellVisible(clip, x, y)) {
+                renderFruit(g, view, i, x * CELL_SIZE, y * CELL_SIZE);
             }
         }
         
         // Renderizar enemigos
-        for (EnemyInfo enemy : game.getAllEnemiesInfo()) {
-            renderEnemy(g, enemy);
+        for (int i = 0; i < view.getEnemyCount(); i++) {
+            int x = view.getEnemyX(i);
+            int y = view.getEnemyY(i);
+            if (isCellVisible(clip, x, y)) {
+                renderEnemy(g, view, i, x * CELL_SIZE, y * CELL_SIZE);
+            }
         }
         
-        // Renderizar jugador 1
-        PlayerInfo player1 = game.getPlayer1Info();
-        if (player1 != null && player1.isAlive) {
-            renderPlayer(g, player1, showingIceAnimation, iceAnimationStartTime);
+        // Renderizar jugador 1 y jugador 2 si existe
+        for (int player = 0; player < 2; player++) {
+            int x = view.getPlayerX(player);
+            int y = view.getPlayerY(player);
+            if (view.hasPlayer(player) && view.isPlayerAlive(player) && isCellVisible(clip, x, y)) {
+                renderPlayer(g, view, player, x * CELL_SIZE, y * CELL_SIZE);
+            }
+        }
+    }
+    
+    /**
+     * Dibuja un cuadro del renderizado activo (hilo de renderizado). Las
+     * entidades se dibujan entre su celda anterior y la actual según el tiempo
+     * transcurrido desde que la simulación las movió.
+     */
+    private void renderFrame(Graphics2D g, int panelWidth, int panelHeight, long now) {
+        g.setColor(COLOR_BACKGROUND);
+        g.fillRect(0, 0, panelWidth, panelHeight);
+        // Copia de la última instantánea: sin bloquear al juego ni crear objetos
+        game.getFrameSnapshot().copyInto(frame);
+        mapLayer.update(frame, activeRenderer.getGraphicsConfiguration());
+        mapLayer.paint(g);
+        
+        if (frame.getSerial() != shownSerial) {
+            trackMotion(frame, now);
+            shownSerial = frame.getSerial();
         }
         
-        // Renderizar jugador 2 si existe
-        if(game.hasTwoPlayers()){
-            PlayerInfo player2 = game.getPlayer2Info();
-            if(player2 != null && player2.isAlive){
-                renderPlayer(g, player2, showingIceAnimationP2, iceAnimationStartTimeP2);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        renderObstacles(g, frame, null);
+        for (int i = 0; i < frame.getFruitCount(); i++) {
+            if (!frame.isFruitCollected(i)) {
+                renderFruit(g, frame, i, toScreen(fruitMotion.x(i, now)), toScreen(fruitMotion.y(i, now)));
             }
         }
-        
-        // Actualizar etiquetas
-        updateLabels();
-        
-        // Verificar fin del juego
+        for (int i = 0; i < frame.getEnemyCount(); i++) {
+            renderEnemy(g, frame, i, toScreen(enemyMotion.x(i, now)), toScreen(enemyMotion.y(i, now)));
+        }
+        for (int player = 0; player < 2; player++) {
+            if (frame.hasPlayer(player) && frame.isPlayerAlive(player)) {
+                renderPlayer(g, frame, player, toScreen(playerMotion.x(player, now)), toScreen(playerMotion.y(player, now)));
+            }
+        }
+    }
+    
+    /**
+     * Inicia el desplazamiento de las entidades que cambiaron de celda en la instantánea nueva
+     */
+    private void trackMotion(FrameSnapshot state, long now) {
+        fruitMotion.resize(state.getFruitCount());
+        for (int i = 0; i < state.getFruitCount(); i++) {
+            fruitMotion.moveTo(i, state.getFruitX(i), state.getFruitY(i), now);
+        }
+        enemyMotion.resize(state.getEnemyCount());
+        for (int i = 0; i < state.getEnemyCount(); i++) {
+            enemyMotion.moveTo(i, state.getEnemyX(i), state.getEnemyY(i), now);
+        }
+        playerMotion.resize(2);
+        for (int player = 0; player < 2; player++) {
+            if (state.hasPlayer(player)) {
+                playerMotion.moveTo(player, state.getPlayerX(player), state.getPlayerY(player), now);
+            }
+        }
+    }
+    
+    private static int toScreen(float cell) {
+        return Math.round(cell * CELL_SIZE);
+    }
+    
+    /**
+     * ¿La celda cae dentro de la zona a repintar? (sin clip se pinta todo)
+     */
+    private static boolean isCellVisible(Rectangle clip, int x, int y) {
+        return clip == null || clip.intersects(x * CELL_SIZE, y * CELL_SIZE, CELL_SIZE, CELL_SIZE);
+    }
+    
+    /**
+     * Refresca etiquetas, estado de la partida y el tablero (se ejecuta en el EDT)
+     */
+    private void refreshView() {
+        synchronized (game) {
+            updateLabels();
+        }
         checkGameStatus();
+        if (activeRenderer == null) {
+            game.getFrameSnapshot().copyInto(viewFrame);
+            for (Rectangle region : collectDirtyRegions()) {
+                gamePanel.repaint(region);
+            }
+        }
+    }
+    
+    /**
+     * Zonas del tablero que cambiaron desde el último refresco: celdas del mapa
+     * distintas y las celdas donde estaban y donde están ahora las entidades.
+     * Así el costo de cada cuadro depende de la actividad y no del tamaño del mapa.
+     */
+    private List<Rectangle> collectDirtyRegions() {
+        FrameSnapshot view = viewFrame;
+        List<Rectangle> dirty = mapLayer.update(view, gamePanel.getGraphicsConfiguration());
+        List<Rectangle> cells = new ArrayList<>();
+        for (int i = 0; i < view.getObstacleCount(); i++) {
+            cells.add(cellBounds(view.getObstacleX(i), view.getObstacleY(i)));
+        }
+        for (int i = 0; i < view.getFruitCount(); i++) {
+            if (!view.isFruitCollected(i)) {
+                cells.add(cellBounds(view.getFruitX(i), view.getFruitY(i)));
+            }
+        }
+        for (int i = 0; i < view.getEnemyCount(); i++) {
+            cells.add(cellBounds(view.getEnemyX(i), view.getEnemyY(i)));
+        }
+        for (int player = 0; player < 2; player++) {
+            if (view.hasPlayer(player)) {
+                cells.add(cellBounds(view.getPlayerX(player), view.getPlayerY(player)));
+            }
+        }
+        // Las celdas anteriores se repintan para borrar lo que ya no está
+        dirty.addAll(entityCells);
+        dirty.addAll(cells);
+        entityCells = cells;
+        return dirty;
+    }
+    
+    private static Rectangle cellBounds(int x, int y) {
+        return new Rectangle(x * CELL_SIZE, y * CELL_SIZE, CELL_SIZE, CELL_SIZE);
     }
     
     /**
      * Renderiza un jugador con su estado de animación
      */
-    private void renderPlayer(Graphics2D g, PlayerInfo player, boolean showIce, long iceStartTime) {
-        int screenX = player.x * CELL_SIZE;
-        int screenY = player.y * CELL_SIZE;
+    private void renderPlayer(Graphics2D g, FrameSnapshot state, int player, int screenX, int screenY) {
         
-        // Determinar el tipo de personaje basado en el color del jugador
-        CharacterType characterType = getCharacterTypeFromColor(player.color);
+        int kind = state.getPlayerKind(player);
+        CharacterType characterType = CHARACTER_BY_KIND[kind];
         
-        int dx = player.lastDx;
-        int dy = player.lastDy;
+        int dx = state.getPlayerLastDx(player);
+        int dy = state.getPlayerLastDy(player);
+        boolean showIce = player == 0 ? showingIceAnimation : showingIceAnimationP2;
+        long iceStartTime = player == 0 ? iceAnimationStartTime : iceAnimationStartTimeP2;
         
         long currentTime = System.currentTimeMillis();
+        boolean creatingIce = showIce && (currentTime - iceStartTime) < ICE_ANIMATION_DURATION;
+        // Determinar si está en movimiento (basado en tiempo desde último movimiento)
+        boolean isMoving = (currentTime - lastMoveTime) < MOVE_ANIMATION_DURATION;
+        
+        int spriteState = creatingIce ? SpriteAtlas.ICE : isMoving ? SpriteAtlas.WALK : SpriteAtlas.IDLE;
+        if (drawSprite(g, SpriteAtlas.characterSprite(characterType, spriteState, dx, dy), screenX, screenY)) {
+            return;
+        }
+        
         Image animation;
         
         // Verificar si debe mostrar animación de hielo
-        if (showIce && (currentTime - iceStartTime) < ICE_ANIMATION_DURATION) {
+        if (creatingIce) {
             // Mostrar animación de crear hielo
             animation = CharacterImageConfigurator.getIceAnimation(characterType, dx, dy);
         } else {
-            // Determinar si está en movimiento (basado en tiempo desde último movimiento)
-            boolean isMoving = (currentTime - lastMoveTime) < MOVE_ANIMATION_DURATION;
-            
             // Obtener la animación apropiada según dirección y movimiento
             animation = CharacterImageConfigurator.getAnimationByDirection(
                 characterType, dx, dy, isMoving
@@ -385,7 +580,7 @@ public class GameScreen extends JPanel {
             g.drawImage(animation, screenX, screenY, CELL_SIZE, CELL_SIZE, null);
         } else {
             // Fallback: dibujar círculo simple con el color apropiado
-            Color playerFallbackColor = getPlayerFallbackColor(player.color);
+            Color playerFallbackColor = getPlayerFallbackColor(kind);
             g.setColor(Color.BLACK);
             g.fillOval(screenX + 3, screenY + 3, CELL_SIZE - 6, CELL_SIZE - 6);
             g.setColor(playerFallbackColor);
@@ -396,64 +591,59 @@ public class GameScreen extends JPanel {
     }
     
     /**
-     * Convierte el color del jugador a CharacterType
+     * Copia el cuadro actual del sprite desde el atlas, si ya está construido
+     * @return false si hay que dibujar con las imágenes de los configuradores
      */
-    private CharacterType getCharacterTypeFromColor(String color) {
-        if (color == null) return CharacterType.FRESA;
-        
-        String lowerColor = color.toLowerCase();
-        if (lowerColor.contains("vanilla") || lowerColor.contains("cream") || lowerColor.contains("vainilla")) {
-            return CharacterType.VAINILLA;
-        } else if (lowerColor.contains("chocolate") || lowerColor.contains("brown")) {
-            return CharacterType.CHOCOLATE;
-        } else {
-            // pink, fresa, strawberry, etc.
-            return CharacterType.FRESA;
-        }
+    private static boolean drawSprite(Graphics2D g, int sprite, int screenX, int screenY) {
+        SpriteAtlas atlas = SpriteAtlas.getIfReady();
+        return atlas != null && atlas.draw(g, sprite, screenX, screenY, System.currentTimeMillis());
     }
     
     /**
      * Obtiene el color de fallback para dibujar el jugador si no hay imagen
      */
-    private Color getPlayerFallbackColor(String color) {
-        if (color == null) return COLOR_PLAYER_PINK;
-        
-        String lowerColor = color.toLowerCase();
-        if (lowerColor.contains("vanilla") || lowerColor.contains("cream") || lowerColor.contains("vainilla")) {
-            return new Color(255, 255, 200); // Crema/Vainilla
-        } else if (lowerColor.contains("chocolate") || lowerColor.contains("brown")) {
-            return new Color(139, 90, 43); // Marrón chocolate
-        } else {
-            return COLOR_PLAYER_PINK; // Rosa/Fresa
+    private static Color getPlayerFallbackColor(int kind) {
+        switch (kind) {
+            case FrameSnapshot.CHARACTER_VANILLA: return COLOR_PLAYER_VANILLA;
+            case FrameSnapshot.CHARACTER_CHOCOLATE: return COLOR_PLAYER_CHOCOLATE;
+            default: return COLOR_PLAYER_PINK; // Rosa/Fresa
         }
     }
     
-    private void renderFruit(Graphics2D g, FruitInfo fruit) {
-        int screenX = fruit.x * CELL_SIZE;
-        int screenY = fruit.y * CELL_SIZE;
-        
-        // Usar FruitImageConfigurator para dibujar la imagen
-        FruitImageConfigurator.drawFruit(g, fruit.name, screenX, screenY, CELL_SIZE);
+    /**
+     * Texto de una cuenta regresiva sin crear cadenas en cada cuadro
+     */
+    private static String countdownLabel(int seconds) {
+        return seconds >= 0 && seconds < COUNTDOWN_LABELS.length ? COUNTDOWN_LABELS[seconds] : String.valueOf(seconds);
+    }
+    
+    private void renderFruit(Graphics2D g, FrameSnapshot state, int fruit, int screenX, int screenY) {
+        String name = state.getFruitName(fruit);
+        if (!drawSprite(g, SpriteAtlas.fruitSprite(state.getFruitKind(fruit)), screenX, screenY)) {
+            // Usar FruitImageConfigurator para dibujar la imagen
+            FruitImageConfigurator.drawFruit(g, name, screenX, screenY, CELL_SIZE);
+        }
         
         // Indicadores especiales para Cactus
-        if ("Cactus".equals(fruit.typeName)) {
-            if (fruit.hasSpikes) {
+        if (state.getFruitKind(fruit) == FrameSnapshot.FRUIT_CACTUS) {
+            int secondsUntilSpike = state.getFruitSecondsUntilSpike(fruit);
+            if (state.hasFruitSpikes(fruit)) {
                 // Indicador de peligro - borde rojo pulsante
-                g.setColor(new Color(255, 0, 0, 150));
-                g.setStroke(new java.awt.BasicStroke(3));
+                g.setColor(COLOR_SPIKES);
+                g.setStroke(SPIKES_STROKE);
                 g.drawRect(screenX + 2, screenY + 2, CELL_SIZE - 4, CELL_SIZE - 4);
                 
                 // Símbolo de advertencia
                 g.setColor(Color.RED);
-                g.setFont(new Font("Arial", Font.BOLD, 16));
+                g.setFont(FONT_WARNING);
                 g.drawString("⚠", screenX + CELL_SIZE - 15, screenY + 15);
             }
             
             // Mostrar temporizador
-            if (fruit.secondsUntilSpike > 0 && fruit.secondsUntilSpike <= 10) {
+            if (secondsUntilSpike > 0 && secondsUntilSpike <= 10) {
                 g.setColor(Color.WHITE);
-                g.setFont(new Font("Arial", Font.BOLD, 10));
-                g.drawString(String.valueOf(fruit.secondsUntilSpike), screenX + CELL_SIZE/2 - 3, screenY + CELL_SIZE - 3);
+                g.setFont(FONT_COUNTDOWN);
+                g.drawString(countdownLabel(secondsUntilSpike), screenX + CELL_SIZE/2 - 3, screenY + CELL_SIZE - 3);
             }
         }
     }
@@ -461,38 +651,49 @@ public class GameScreen extends JPanel {
     /**
      * Renderiza baldosas calientes y fogatas
      */
-    private void renderObstacles(Graphics2D g) {
-        for (ObstacleInfo obstacle : game.getAllObstaclesInfo()) {
-            int screenX = obstacle.x * CELL_SIZE;
-            int screenY = obstacle.y * CELL_SIZE;
+    private void renderObstacles(Graphics2D g, FrameSnapshot state, Rectangle clip) {
+        for (int obstacle = 0; obstacle < state.getObstacleCount(); obstacle++) {
+            int x = state.getObstacleX(obstacle);
+            int y = state.getObstacleY(obstacle);
+            if (!isCellVisible(clip, x, y)) {
+                continue;
+            }
+            int screenX = x * CELL_SIZE;
+            int screenY = y * CELL_SIZE;
+            boolean isLit = state.isCampfireLit(obstacle);
             
-            if ("HotTile".equals(obstacle.type)) {
-                Image img = ObstacleImageConfigurator.getHotTileImage();
-                if (img != null) {
-                    g.drawImage(img, screenX, screenY, CELL_SIZE, CELL_SIZE, null);
-                } else {
-                    // Fallback: dibujar rectángulo rojo/naranja
-                    g.setColor(new Color(255, 100, 0, 150));
-                    g.fillRect(screenX, screenY, CELL_SIZE, CELL_SIZE);
-                    g.setColor(Color.ORANGE);
-                    g.drawRect(screenX, screenY, CELL_SIZE, CELL_SIZE);
+            if (!state.isCampfire(obstacle)) {
+                if (!drawSprite(g, SpriteAtlas.obstacleSprite(ObstacleImageConfigurator.AnimationType.HOT_TILE_ACTIVE),
+                        screenX, screenY)) {
+                    Image img = ObstacleImageConfigurator.getHotTileImage();
+                    if (img != null) {
+                        g.drawImage(img, screenX, screenY, CELL_SIZE, CELL_SIZE, null);
+                    } else {
+                        // Fallback: dibujar rectángulo rojo/naranja
+                        g.setColor(COLOR_HOT_TILE);
+                        g.fillRect(screenX, screenY, CELL_SIZE, CELL_SIZE);
+                        g.setColor(Color.ORANGE);
+                        g.drawRect(screenX, screenY, CELL_SIZE - 1, CELL_SIZE - 1);
+                    }
                 }
-            } else if ("Campfire".equals(obstacle.type)) {
-                Image img = ObstacleImageConfigurator.getCampfireImage(obstacle.isLit);
+            } else {
+                ObstacleImageConfigurator.AnimationType campfire = isLit
+                    ? ObstacleImageConfigurator.AnimationType.CAMPFIRE_LIT
+                    : ObstacleImageConfigurator.AnimationType.CAMPFIRE_EXTINGUISHED;
                 
-                if (img != null) {
-                    g.drawImage(img, screenX, screenY, CELL_SIZE, CELL_SIZE, null);
-                } else {
-                    // Fallback: dibujar representación simple
-                    if (obstacle.isLit) {
-                        // Fogata encendida - círculo rojo/amarillo
-                        g.setColor(new Color(255, 150, 0));
+                if (!drawSprite(g, SpriteAtlas.obstacleSprite(campfire), screenX, screenY)) {
+                    Image img = ObstacleImageConfigurator.getCampfireImage(isLit);
+                    if (img != null) {
+                        g.drawImage(img, screenX, screenY, CELL_SIZE, CELL_SIZE, null);
+                    } else if (isLit) {
+                        // Fallback: fogata encendida - círculo rojo/amarillo
+                        g.setColor(COLOR_CAMPFIRE_LIT);
                         g.fillOval(screenX + 5, screenY + 5, CELL_SIZE - 10, CELL_SIZE - 10);
                         g.setColor(Color.YELLOW);
                         g.fillOval(screenX + 10, screenY + 10, CELL_SIZE - 20, CELL_SIZE - 20);
                     } else {
-                        // Fogata apagada - círculo gris
-                        g.setColor(new Color(80, 80, 80));
+                        // Fallback: fogata apagada - círculo gris
+                        g.setColor(COLOR_CAMPFIRE_OUT);
                         g.fillOval(screenX + 5, screenY + 5, CELL_SIZE - 10, CELL_SIZE - 10);
                         g.setColor(Color.DARK_GRAY);
                         g.fillOval(screenX + 10, screenY + 10, CELL_SIZE - 20, CELL_SIZE - 20);
@@ -500,24 +701,25 @@ public class GameScreen extends JPanel {
                 }
                 
                 // Si está apagada, mostrar tiempo de reencendido
-                if (!obstacle.isLit) {
+                if (!isLit) {
                     g.setColor(Color.WHITE);
-                    g.setFont(new Font("Arial", Font.BOLD, 10));
-                    g.drawString(String.valueOf(obstacle.secondsUntilRelight), screenX + CELL_SIZE/2 - 3, screenY + CELL_SIZE/2 + 3);
+                    g.setFont(FONT_COUNTDOWN);
+                    g.drawString(countdownLabel(state.getSecondsUntilRelight(obstacle)), screenX + CELL_SIZE/2 - 3, screenY + CELL_SIZE/2 + 3);
                 }
             }
         }
     }
     
-    private void renderEnemy(Graphics2D g, EnemyInfo enemy) {
-        int screenX = enemy.x * CELL_SIZE;
-        int screenY = enemy.y * CELL_SIZE;
+    private void renderEnemy(Graphics2D g, FrameSnapshot state, int enemy, int screenX, int screenY) {
+        int kind = state.getEnemyKind(enemy);
+        EnemyType enemyType = ENEMY_BY_KIND[kind];
         
-        // Determinar tipo de enemigo
-        EnemyType enemyType = EnemyImageConfigurator.getEnemyTypeByClassName(enemy.typeName);
+        int dx = state.getEnemyDirectionX(enemy);
+        int dy = state.getEnemyDirectionY(enemy);
         
-        int dx = enemy.directionX;
-        int dy = enemy.directionY;
+        if (drawSprite(g, SpriteAtlas.enemySprite(enemyType, dx, dy), screenX, screenY)) {
+            return;
+        }
         
         // Obtener animación según dirección
         Image animation = EnemyImageConfigurator.getAnimationByDirection(enemyType, dx, dy);
@@ -528,9 +730,9 @@ public class GameScreen extends JPanel {
         } else {
             // Fallback: usar colores según tipo
             Color enemyColor = COLOR_MACETA;
-            if ("Troll".equals(enemy.typeName)) {
+            if (kind == FrameSnapshot.ENEMY_TROLL) {
                 enemyColor = COLOR_TROLL;
-            } else if ("CalamarNaranja".equals(enemy.typeName)) {
+            } else if (kind == FrameSnapshot.ENEMY_CALAMAR) {
                 enemyColor = COLOR_CALAMAR;
             }
             
@@ -563,22 +765,37 @@ public class GameScreen extends JPanel {
     }
     
     private void checkGameStatus() {
+        // Con el bucle detenido (pausa o diálogo ya mostrado) no hay nada que verificar
+        if (!gameLoop.isRunning()) return;
+        
+        boolean timeExpired;
+        boolean gameOver;
+        boolean levelCompleted;
+        synchronized (game) {
+            timeExpired = game.isTimeExpired();
+            gameOver = game.isGameOver();
+            levelCompleted = game.isCurrentLevelCompleted();
+        }
+        
         // Verificar si el tiempo se agotó
-        if (game.isTimeExpired()) {
+        if (timeExpired) {
             stopGameLoop();
+            saveReplay();
             showGameOverDialog("⏰ ¡Tiempo Agotado!", 
                 "El reloj llegó a 00:00\n\n" +
                 "Puntaje obtenido: " + game.getCombinedScore());
             return;
         }
         
-        if (game.isGameOver()) {
+        if (gameOver) {
             stopGameLoop();
+            saveReplay();
             showGameOverDialog("💀 ¡Game Over!", 
                 "Has sido atrapado por un enemigo\n\n" +
                 "Puntaje obtenido: " + game.getCombinedScore());
-        } else if (game.isCurrentLevelCompleted()) {
+        } else if (levelCompleted) {
             stopGameLoop();
+            saveReplay();
             
             if (!game.hasNextLevel()) {
                 // Juego completado - todos los niveles ganados
@@ -859,42 +1076,49 @@ public class GameScreen extends JPanel {
         gamePanel.requestFocusInWindow();
         
         // Agregar MouseListener para asegurar foco al hacer clic
-        gamePanel.addMouseListener(new java.awt.event.MouseAdapter() {
+        java.awt.event.MouseAdapter focusOnClick = new java.awt.event.MouseAdapter() {
             @Override
             public void mouseClicked(java.awt.event.MouseEvent e) {
                 gamePanel.requestFocusInWindow();
             }
-        });
+        };
+        gamePanel.addMouseListener(focusOnClick);
+        if (activeRenderer != null) {
+            activeRenderer.addMouseListener(focusOnClick); // El Canvas recibe los clics sobre el tablero
+        }
         
         gamePanel.addKeyListener(new KeyAdapter() {
             @Override
             public void keyPressed(KeyEvent e) {
                 if (game.isGameOver()) return;
                 
+                // En pausa solo se atiende la tecla para reanudar
+                if (game.isPaused() && e.getKeyCode() != KeyEvent.VK_P && e.getKeyCode() != KeyEvent.VK_ESCAPE) return;
+                
                 // Controles del Jugador 1 (Flechas y SPACE)
                 long currentTime = System.currentTimeMillis();
                 switch (e.getKeyCode()) {
                     case KeyEvent.VK_UP:
                         if (currentTime - lastMoveTime >= MOVE_DELAY) {
-                            game.movePlayer1(0, -1);
+                            submitAction(() -> game.movePlayer1(0, -1));
                             lastMoveTime = currentTime;
                         }
                         break;
                     case KeyEvent.VK_DOWN:
                         if (currentTime - lastMoveTime >= MOVE_DELAY) {
-                            game.movePlayer1(0, 1);
+                            submitAction(() -> game.movePlayer1(0, 1));
                             lastMoveTime = currentTime;
                         }
                         break;
                     case KeyEvent.VK_LEFT:
                         if (currentTime - lastMoveTime >= MOVE_DELAY) {
-                            game.movePlayer1(-1, 0);
+                            submitAction(() -> game.movePlayer1(-1, 0));
                             lastMoveTime = currentTime;
                         }
                         break;
                     case KeyEvent.VK_RIGHT:
                         if (currentTime - lastMoveTime >= MOVE_DELAY) {
-                            game.movePlayer1(1, 0);
+                            submitAction(() -> game.movePlayer1(1, 0));
                             lastMoveTime = currentTime;
                         }
                         break;
@@ -913,25 +1137,25 @@ public class GameScreen extends JPanel {
                     switch (e.getKeyCode()) {
                         case KeyEvent.VK_W:
                             if (currentTime - lastMoveTimePlayer2 >= MOVE_DELAY) {
-                                game.movePlayer2(0, -1);
+                                submitAction(() -> game.movePlayer2(0, -1));
                                 lastMoveTimePlayer2 = currentTime;
                             }
                             break;
                         case KeyEvent.VK_S:
                             if (currentTime - lastMoveTimePlayer2 >= MOVE_DELAY) {
-                                game.movePlayer2(0, 1);
+                                submitAction(() -> game.movePlayer2(0, 1));
                                 lastMoveTimePlayer2 = currentTime;
                             }
                             break;
                         case KeyEvent.VK_A:
                             if (currentTime - lastMoveTimePlayer2 >= MOVE_DELAY) {
-                                game.movePlayer2(-1, 0);
+                                submitAction(() -> game.movePlayer2(-1, 0));
                                 lastMoveTimePlayer2 = currentTime;
                             }
                             break;
                         case KeyEvent.VK_D:
                             if (currentTime - lastMoveTimePlayer2 >= MOVE_DELAY) {
-                                game.movePlayer2(1, 0);
+                                submitAction(() -> game.movePlayer2(1, 0));
                                 lastMoveTimePlayer2 = currentTime;
                             }
                             break;
@@ -940,17 +1164,28 @@ public class GameScreen extends JPanel {
                             break;
                     }
                 }
-                
-                gamePanel.repaint();
             }
         });
     }
     
+    /**
+     * Envía una acción del jugador al hilo de simulación; la vista se refresca
+     * al aplicarla (afterAction)
+     */
+    private void submitAction(Runnable action) {
+        gameLoop.submit(action);
+    }
+    
     /**
      * Maneja la creación/destrucción de paredes de hielo
      */
     private void handleIceAction() {
-        PlayerInfo player = game.getPlayer1Info();
+        PlayerInfo player;
+        int[][] grid;
+        synchronized (game) {
+            player = game.getPlayer1Info();
+            grid = game.getCurrentMapGrid();
+        }
         if (player == null) return;
         
         // Evitar spam de hielo
@@ -963,15 +1198,13 @@ public class GameScreen extends JPanel {
         int dy = player.lastDy;
         
         // Verificar si hay hielo adyacente en la dirección actual para romper
-        int[][] grid = game.getCurrentMapGrid();
         int nextX = player.x + dx;
         int nextY = player.y + dy;
         
         if (nextX >= 0 && nextX < grid.length && nextY >= 0 && nextY < grid[0].length) {
             if (grid[nextX][nextY] == 2) { // ICE = 2
                 // Romper línea de hielo en esa dirección (inmediato, sin delay)
-                game.breakIceLinePlayer1(dx, dy);
-                gamePanel.repaint();
+                submitAction(() -> game.breakIceLinePlayer1(dx, dy));
                 return;
             }
         }
@@ -982,8 +1215,7 @@ public class GameScreen extends JPanel {
         
         // Crear el hielo después del delay (usando un Timer)
         Timer delayTimer = new Timer((int)ICE_ACTION_DELAY, e -> {
-            game.createIceLinePlayer1(dx, dy);
-            gamePanel.repaint();
+            submitAction(() -> game.createIceLinePlayer1(dx, dy));
         });
         delayTimer.setRepeats(false);
         delayTimer.start();
@@ -1001,7 +1233,12 @@ public class GameScreen extends JPanel {
      * Maneja la creación/destrucción de paredes de hielo para el jugador 2
      */
     private void handleIceActionPlayer2() {
-        PlayerInfo player2 = game.getPlayer2Info();
+        PlayerInfo player2;
+        int[][] grid;
+        synchronized (game) {
+            player2 = game.getPlayer2Info();
+            grid = game.getCurrentMapGrid();
+        }
         if(player2 == null) return;
         
         // Evitar spam de hielo
@@ -1014,15 +1251,13 @@ public class GameScreen extends JPanel {
         int dy = player2.lastDy;
         
         // Verificar si hay hielo adyacente en la dirección actual para romper
-        int[][] grid = game.getCurrentMapGrid();
         int nextX = player2.x + dx;
         int nextY = player2.y + dy;
         
         if (nextX >= 0 && nextX < grid.length && nextY >= 0 && nextY < grid[0].length) {
             if (grid[nextX][nextY] == 2) { // ICE = 2
                 // Romper línea de hielo en esa dirección (inmediato, sin delay)
-                game.breakIceLinePlayer2(dx, dy);
-                gamePanel.repaint();
+                submitAction(() -> game.breakIceLinePlayer2(dx, dy));
                 return;
             }
         }
@@ -1033,8 +1268,7 @@ public class GameScreen extends JPanel {
         
         // Crear el hielo después del delay (usando un Timer)
         Timer delayTimer = new Timer((int)ICE_ACTION_DELAY, e -> {
-            game.createIceLinePlayer2(dx, dy);
-            gamePanel.repaint();
+            submitAction(() -> game.createIceLinePlayer2(dx, dy));
         });
         delayTimer.setRepeats(false);
         delayTimer.start();
@@ -1049,61 +1283,74 @@ public class GameScreen extends JPanel {
     }
     
     /**
-     * Inicia el bucle del juego
+     * Decide y aplica los movimientos de la IA (se ejecuta en el hilo de simulación antes de cada tick)
      */
-    private void startGameLoop() {
-        gameTimer = new Timer(500, e -> { // 500ms = movimiento más lento y controlable
-            // Si es modo máquina vs máquina, la IA controla al jugador 1
-            if("Machine-vs-Machine".equals(gameMode) && aiController != null && !game.isGameOver()){
-                PlayerInfo player = game.getPlayer1Info();
-                if(player != null){
-                    // Crear un objeto temporal IceCream para la IA (necesita acceso a Level)
-                    // Por ahora, simplemente mover aleatoriamente
-                    int[] move = new int[]{(int)(Math.random()*3)-1, (int)(Math.random()*3)-1, 0};
+    private void applyAiMoves() {
+        // Si es modo máquina vs máquina, la IA controla al jugador 1
+        if("Machine-vs-Machine".equals(gameMode) && aiController != null && !game.isGameOver()){
+            PlayerInfo player = game.getPlayer1Info();
+            if(player != null){
+                // Crear un objeto temporal IceCream para la IA (necesita acceso a Level)
+                // Por ahora, simplemente mover aleatoriamente
+                int[] move = new int[]{(int)(Math.random()*3)-1, (int)(Math.random()*3)-1, 0};
+                
+                // Aplicar movimiento
+                if(move[0] != 0 || move[1] != 0){
+                    game.movePlayer1(move[0], move[1]);
+                }
+            }
+        }
+        
+        // Si es modo competitivo (PvsM), la IA controla al jugador 2
+        if("PvsM-Competitivo".equals(gameMode) && aiController != null && !game.isGameOver()){
+            com.duran_jimenez.baddopocream.domain.Level level = game.getCurrentLevel();
+            if(level != null && level.hasTwoPlayers()){
+                com.duran_jimenez.baddopocream.domain.IceCream aiPlayer = level.getPlayer2();
+                if(aiPlayer != null && aiPlayer.isAlive()){
+                    // Usar la IA para decidir el movimiento
+                    int[] move = aiController.decideMove(level, aiPlayer);
                     
-                    // Aplicar movimiento
+                    // Aplicar movimiento al jugador 2
                     if(move[0] != 0 || move[1] != 0){
-                        game.movePlayer1(move[0], move[1]);
+                        game.movePlayer2(move[0], move[1]);
                     }
-                }
-            }
-            
-            // Si es modo competitivo (PvsM), la IA controla al jugador 2
-            if("PvsM-Competitivo".equals(gameMode) && aiController != null && !game.isGameOver()){
-                com.duran_jimenez.baddopocream.domain.Level level = game.getCurrentLevel();
-                if(level != null && level.hasTwoPlayers()){
-                    com.duran_jimenez.baddopocream.domain.IceCream aiPlayer = level.getPlayer2();
-                    if(aiPlayer != null && aiPlayer.isAlive()){
-                        // Usar la IA para decidir el movimiento
-                        int[] move = aiController.decideMove(level, aiPlayer);
-                        
-                        // Aplicar movimiento al jugador 2
-                        if(move[0] != 0 || move[1] != 0){
-                            game.movePlayer2(move[0], move[1]);
-                        }
-                        
-                        // Si la IA decide usar hielo
-                        if(move.length > 2 && move[2] == 1){
-                            game.createIceLinePlayer2(move[0], move[1]);
-                        }
+                    
+                    // Si la IA decide usar hielo
+                    if(move.length > 2 && move[2] == 1){
+                        game.createIceLinePlayer2(move[0], move[1]);
                     }
                 }
             }
-            
-            game.update(); // Actualiza enemigos y frutas móviles
-            updateLabels();
-            checkGameStatus();
-            gamePanel.repaint();
-        });
-        gameTimer.start();
+        }
+    }
+    
+    /**
+     * Inicia el bucle del juego (GameLoop a paso fijo de 500ms en su propio hilo)
+     */
+    private void startGameLoop() {
+        gameLoop.start();
     }
     
     /**
      * Detiene el bucle del juego
      */
     private void stopGameLoop() {
-        if (gameTimer != null) {
-            gameTimer.stop();
+        gameLoop.stop();
+    }
+    
+    /**
+     * Guarda la repetición de la partida terminada en replays/ (ver ReplayPlayer)
+     */
+    private void saveReplay() {
+        Replay replay;
+        synchronized (game) {
+            replay = game.stopRecording();
+        }
+        if (replay == null) return;
+        try {
+            replay.save("nivel" + replay.getLevelNumber() + "_" + System.currentTimeMillis());
+        } catch (BadDopoCream_Exceptions e) {
+            System.err.println("Error al guardar repetición: " + e.getMessage());
         }
     }
     
@@ -1116,13 +1363,13 @@ public class GameScreen extends JPanel {
             game.resume();
             pauseButton.setText("⏸ PAUSA");
             pauseButton.setBackground(new Color(52, 152, 219));
-            gameTimer.start();
+            startGameLoop();
         } else {
             // Pausar
             game.pause();
             pauseButton.setText("▶ REANUDAR");
             pauseButton.setBackground(new Color(46, 204, 113));
-            gameTimer.stop();
+            stopGameLoop();
             gamePanel.repaint(); // Mostrar pantalla de pausa
         }
     }
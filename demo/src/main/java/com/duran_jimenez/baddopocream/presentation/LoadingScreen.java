@@ -1,6 +1,9 @@
 package com.duran_jimenez.baddopocream.presentation;
 
 import java.awt.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.swing.*;
 
 /**
@@ -14,6 +17,10 @@ public class LoadingScreen extends JPanel {
     private JProgressBar progressBar;
     private JLabel statusLabel;
     
+    // Hilos para decodificar imágenes (trabajo de CPU)
+    private static final int LOADER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private int loadedResources; // Solo se usa en el hilo de Swing
+    
     /**
      * Constructor - Inicializa la pantalla de carga
      */
@@ -85,45 +92,49 @@ public class LoadingScreen extends JPanel {
     }
     
     /**
-     * Simula la carga de recursos
-     * @param onComplete Callback que se ejecuta al terminar
+     * Carga los recursos del juego en paralelo: cada sprite del tablero se
+     * decodifica y escala como una tarea de un grupo de hilos, mientras otra
+     * espera a que Toolkit termine las imágenes animadas de los
+     * configuradores. La barra avanza con cada recurso terminado.
+     * @param onComplete Callback que se ejecuta al terminar (en el hilo de Swing)
      */
     public void startLoading(Runnable onComplete) {
-        new Thread(() -> {
-            try {
-                String[] loadingSteps = {
-                    "Cargando texturas...",
-                    "Cargando sonidos...",
-                    "Inicializando motor de juego...",
-                    "Preparando escenarios...",
-                    "Cargando enemigos...",
-                    "¡Listo para jugar!"
-                };
-                
-                for (int i = 0; i < loadingSteps.length; i++) {
-                    final int progress = (i + 1) * 100 / loadingSteps.length;
-                    final String status = loadingSteps[i];
-                    
-                    SwingUtilities.invokeLater(() -> {
-                        updateProgress(progress, status);
-                    });
-                    
-                    try {
-                        Thread.sleep(500); // Simula tiempo de carga
-                    } catch (InterruptedException e) {
-                        throw new com.duran_jimenez.baddopocream.domain.BadDopoCream_Exceptions(
-                            com.duran_jimenez.baddopocream.domain.BadDopoCream_Exceptions.GAME_INTERRUPTED + 
-                            ": Pantalla de carga", e);
-                    }
-                }
-                
-                // Al terminar, ejecutar el callback
-                SwingUtilities.invokeLater(onComplete);
-                
-            } catch (com.duran_jimenez.baddopocream.domain.BadDopoCream_Exceptions e) {
-                System.err.println("⚠️ " + e.getMessage());
-                // El hilo se termina pero la aplicación continúa
+        ExecutorService pool = Executors.newFixedThreadPool(LOADER_THREADS, task -> {
+            Thread thread = new Thread(task, "carga-recursos");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        // Pedir las rutas del atlas inicializa los configuradores, que solo registran sus imágenes
+        int total = SpriteAtlas.resourceCount() + 1;
+        CompletableFuture<SpriteAtlas> sprites = SpriteAtlas.preload(GameScreen.CELL_SIZE, pool,
+            path -> resourceLoaded(total, "Cargando " + path.replace('\\', '/')));
+        CompletableFuture<Void> images = CompletableFuture.runAsync(() -> {
+            BaseImageConfigurator.waitForAllImages("juego");
+            resourceLoaded(total, "Imágenes animadas listas");
+        }, pool);
+        
+        CompletableFuture.allOf(sprites, images).whenComplete((done, error) -> {
+            pool.shutdown();
+            if (error != null) {
+                // Lo que no se cargó se dibuja con las alternativas de GameScreen
+                System.err.println("⚠️ Error en la carga de recursos: " + error.getMessage());
             }
-        }).start();
+            SwingUtilities.invokeLater(() -> {
+                updateProgress(100, "¡Listo para jugar!");
+                onComplete.run();
+            });
+        });
+    }
+    
+    /**
+     * Cuenta un recurso terminado; el conteo se hace en el hilo de Swing para
+     * que la barra no retroceda aunque los avisos lleguen desordenados
+     */
+    private void resourceLoaded(int total, String status) {
+        SwingUtilities.invokeLater(() -> {
+            loadedResources++;
+            updateProgress(loadedResources * 100 / total, status);
+        });
     }
 }
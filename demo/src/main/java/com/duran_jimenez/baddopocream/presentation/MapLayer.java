@@ -0,0 +1,145 @@
+package com.duran_jimenez.baddopocream.presentation;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.duran_jimenez.baddopocream.domain.FrameSnapshot;
+
+/**
+ * Capa de fondo del tablero: paredes, hielo y suelo pintados una vez en una
+ * imagen compatible con la pantalla (que Java2D puede mantener acelerada).
+ *
+ * Cada cuadro solo copia la imagen. Cuando cambia la versión del mapa se
+ * revisan solo las celdas de la región que la instantánea marca como
+ * cambiada (todas si la capa no tenía la versión anterior) y se repintan las
+ * distintas; update() devuelve sus rectángulos para limitar el repintado del
+ * panel a esas zonas.
+ */
+class MapLayer {
+
+    private final int cellSize;
+    private final Color wallColor;
+    private final Color iceColor;
+    private final Color emptyColor;
+
+    private BufferedImage image;
+    private int[] cells; // Tipo pintado de cada celda (índice y * width + x)
+    private int width;
+    private int height;
+    private long version;
+
+    MapLayer(int cellSize, Color wallColor, Color iceColor, Color emptyColor) {
+        this.cellSize = cellSize;
+        this.wallColor = wallColor;
+        this.iceColor = iceColor;
+        this.emptyColor = emptyColor;
+    }
+
+    /**
+     * Actualiza la capa con el mapa de la instantánea si cambió su versión
+     * @param config Configuración de la pantalla para crear la imagen (puede ser null)
+     * @return Rectángulos en píxeles que cambiaron (vacío si ninguno)
+     */
+    List<Rectangle> update(FrameSnapshot frame, GraphicsConfiguration config) {
+        List<Rectangle> changed = new ArrayList<>();
+        int width = frame.getMapWidth();
+        int height = frame.getMapHeight();
+        long version = frame.getMapVersion();
+        if (image != null && version == this.version && width == this.width && height == this.height) {
+            return changed;
+        }
+        long previous = this.version;
+        this.version = version;
+        if (image == null || width != this.width || height != this.height) {
+            // Mapa nuevo: se pinta completo
+            this.width = width;
+            this.height = height;
+            image = null;
+            if (width == 0 || height == 0) {
+                return changed;
+            }
+            image = createImage(width * cellSize, height * cellSize, config);
+            cells = new int[width * height];
+            Graphics2D g = image.createGraphics();
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    cells[y * width + x] = frame.getCell(x, y);
+                    paintCell(g, x, y, frame.getCell(x, y));
+                }
+            }
+            g.dispose();
+            changed.add(new Rectangle(0, 0, width * cellSize, height * cellSize));
+            return changed;
+        }
+        int minX = 0;
+        int minY = 0;
+        int maxX = width - 1;
+        int maxY = height - 1;
+        if (previous == frame.getMapDirtySince()) {
+            // La capa tiene la versión anterior: fuera de la región nada cambió
+            minX = frame.getMapDirtyMinX();
+            minY = frame.getMapDirtyMinY();
+            maxX = frame.getMapDirtyMaxX();
+            maxY = frame.getMapDirtyMaxY();
+        }
+        Graphics2D g = image.createGraphics();
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                int type = frame.getCell(x, y);
+                if (cells[y * width + x] != type) {
+                    cells[y * width + x] = type;
+                    paintCell(g, x, y, type);
+                    changed.add(new Rectangle(x * cellSize, y * cellSize, cellSize, cellSize));
+                }
+            }
+        }
+        g.dispose();
+        return changed;
+    }
+
+    /**
+     * Copia la capa en el gráfico (solo se transfiere la zona de su clip)
+     */
+    void paint(Graphics2D g) {
+        if (image != null) {
+            g.drawImage(image, 0, 0, null);
+        }
+    }
+
+    /**
+     * Pinta una celda sin salirse de ella, para poder repintarla sola
+     */
+    private void paintCell(Graphics2D g, int x, int y, int type) {
+        int screenX = x * cellSize;
+        int screenY = y * cellSize;
+        if (type == 1) { // WALL
+            // Pared permanente
+            g.setColor(wallColor);
+            g.fillRect(screenX, screenY, cellSize, cellSize);
+            g.setColor(Color.BLACK);
+            g.drawRect(screenX, screenY, cellSize - 1, cellSize - 1);
+        } else if (type == 2) { // ICE
+            // Pared de hielo
+            g.setColor(iceColor);
+            g.fillRect(screenX, screenY, cellSize, cellSize);
+            g.setColor(Color.WHITE);
+            g.drawRect(screenX, screenY, cellSize - 1, cellSize - 1);
+        } else {
+            // Espacio vacío
+            g.setColor(emptyColor);
+            g.fillRect(screenX, screenY, cellSize, cellSize);
+        }
+    }
+
+    private static BufferedImage createImage(int width, int height, GraphicsConfiguration config) {
+        if (config != null) {
+            return config.createCompatibleImage(width, height);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+}
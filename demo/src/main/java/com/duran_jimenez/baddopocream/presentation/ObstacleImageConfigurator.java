@@ -32,18 +32,27 @@ public class ObstacleImageConfigurator extends BaseImageConfigurator {
      * Carga todas las imágenes de obstáculos
      */
     private static void loadAllObstacleImages() {
-        // Baldosa caliente
-        loadObstacleImage(AnimationType.HOT_TILE_ACTIVE, 
-            "Obstaculos/Obstaculos/Baldosa_Caliente/frames.gif");
-        
-        // Fogata encendida
-        loadObstacleImage(AnimationType.CAMPFIRE_LIT, 
-            "Obstaculos/Obstaculos/Fogata/Flame.gif");
-        
-        // Fogata apagada (usa la misma imagen pero más oscura, o una imagen diferente)
-        // Por ahora usamos la llama para diferenciarlo visualmente
-        loadObstacleImage(AnimationType.CAMPFIRE_EXTINGUISHED, 
-            "Obstaculos/Obstaculos/Fogata/CampFire.gif");
+        for (AnimationType type : AnimationType.values()) {
+            loadObstacleImage(type, resourcePath(type));
+        }
+    }
+    
+    /**
+     * Ruta del recurso de cada imagen de obstáculo (también la usa SpriteAtlas)
+     */
+    static String resourcePath(AnimationType type) {
+        switch (type) {
+            case HOT_TILE_ACTIVE:
+                // Baldosa caliente
+                return "Obstaculos/Obstaculos/Baldosa_Caliente/frames.gif";
+            case CAMPFIRE_LIT:
+                // Fogata encendida
+                return "Obstaculos/Obstaculos/Fogata/Flame.gif";
+            default:
+                // Fogata apagada (usa la misma imagen pero más oscura, o una imagen diferente)
+                // Por ahora usamos la llama para diferenciarlo visualmente
+                return "Obstaculos/Obstaculos/Fogata/CampFire.gif";
+        }
     }
     
     /**
@@ -54,6 +63,7 @@ public class ObstacleImageConfigurator extends BaseImageConfigurator {
             URL resourceUrl = ObstacleImageConfigurator.class.getClassLoader().getResource(path);
             if (resourceUrl != null) {
                 Image image = java.awt.Toolkit.getDefaultToolkit().createImage(resourceUrl);
+                tracker.addImage(image, trackerID++); // Para que LoadingScreen espere también por ella
                 obstacleImages.put(type, image);
             } else {
                 throw new com.duran_jimenez.baddopocream.domain.BadDopoCream_Exceptions(
@@ -73,10 +73,22 @@ public class OptionsScreen extends JPanel {
         JCheckBox fullscreenCheck = new JCheckBox();
         fullscreenCheck.setBackground(new Color(44, 62, 80));
 
+        // Renderizado activo con movimiento interpolado (se aplica desde la próxima partida)
+        JLabel smoothLabel = new JLabel("MOVIMIENTO FLUIDO");
+        smoothLabel.setFont(new Font("Arial", Font.PLAIN, 20));
+        smoothLabel.setForeground(Color.WHITE);
+
+        JCheckBox smoothCheck = new JCheckBox();
+        smoothCheck.setBackground(new Color(44, 62, 80));
+        smoothCheck.setSelected(GameScreen.isActiveRendering());
+        smoothCheck.addActionListener(e -> GameScreen.setActiveRendering(smoothCheck.isSelected()));
+
         panel.add(volumeLabel);
         panel.add(volumeSlider);
         panel.add(fullscreenLabel);
         panel.add(fullscreenCheck);
+        panel.add(smoothLabel);
+        panel.add(smoothCheck);
 
         return panel;
     }
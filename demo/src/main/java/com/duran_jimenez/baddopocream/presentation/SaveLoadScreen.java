@@ -2,6 +2,7 @@ package com.duran_jimenez.baddopocream.presentation;
 
 import com.duran_jimenez.baddopocream.domain.BadDopoCream;
 import com.duran_jimenez.baddopocream.domain.GameState;
+import com.duran_jimenez.baddopocream.domain.SaveSummary;
 import java.awt.*;
 import java.awt.event.*;
 import java.text.SimpleDateFormat;
@@ -97,6 +98,10 @@ public class SaveLoadScreen extends JPanel {
             JButton saveButton = createStyledButton("💾 Guardar");
             saveButton.addActionListener(e -> saveGame());
             bottomPanel.add(saveButton);
+        } else {
+            JButton autosaveButton = createStyledButton("⟲ Autoguardado");
+            autosaveButton.addActionListener(e -> loadAutosave());
+            bottomPanel.add(autosaveButton);
         }
         
         JButton backButton = createStyledButton("⬅ Volver");
@@ -112,7 +117,8 @@ public class SaveLoadScreen extends JPanel {
     private void refreshSavesList() {
         savesPanel.removeAll();
         
-        List<String> saves = BadDopoCream.listSavedGames();
+        // Solo los resúmenes (índice + cabeceras): no se carga ninguna partida
+        List<SaveSummary> saves = BadDopoCream.listSaveSummaries();
         
         if (saves.isEmpty()) {
             JLabel noSavesLabel = new JLabel("No hay partidas guardadas");
@@ -123,8 +129,8 @@ public class SaveLoadScreen extends JPanel {
             savesPanel.add(noSavesLabel);
             savesPanel.add(Box.createVerticalGlue());
         } else {
-            for (String saveName : saves) {
-                JPanel saveItemPanel = createSaveItem(saveName);
+            for (SaveSummary save : saves) {
+                JPanel saveItemPanel = createSaveItem(save);
                 savesPanel.add(saveItemPanel);
                 savesPanel.add(Box.createRigidArea(new Dimension(0, 10)));
             }
@@ -134,7 +140,8 @@ public class SaveLoadScreen extends JPanel {
         savesPanel.repaint();
     }
     
-    private JPanel createSaveItem(String saveName) {
+    private JPanel createSaveItem(SaveSummary save) {
+        String saveName = save.name;
         JPanel panel = new JPanel(new BorderLayout(10, 10));
         panel.setBackground(new Color(255, 255, 255, 200));
         panel.setBorder(BorderFactory.createCompoundBorder(
@@ -151,15 +158,14 @@ public class SaveLoadScreen extends JPanel {
         nameLabel.setFont(new Font("Arial", Font.BOLD, 18));
         nameLabel.setForeground(new Color(30, 30, 30));
         
-        // Intentar cargar información adicional
-        GameState state = BadDopoCream.loadGame(saveName);
+        // Información del resumen (nivel 0: guardado ilegible)
         String infoText = "Partida guardada";
-        if (state != null) {
+        if (save.levelNumber > 0) {
             SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm");
-            String dateStr = sdf.format(new Date(state.getSaveTimestamp()));
+            String dateStr = sdf.format(new Date(save.timestamp));
             infoText = String.format("Nivel %d | Puntaje: %d | %s", 
-                state.getCurrentLevelIndex() + 1, 
-                state.getTotalScore(),
+                save.levelNumber, 
+                save.totalScore,
                 dateStr);
         }
         
@@ -212,8 +218,12 @@ public class SaveLoadScreen extends JPanel {
             }
         }
         
-        boolean success = game.saveGame(playerColor, gameMode, saveName);
-        
+        // El archivo se escribe en segundo plano; el resultado vuelve al hilo de Swing
+        game.saveGame(playerColor, gameMode, saveName)
+            .thenAccept(success -> SwingUtilities.invokeLater(() -> onSaveFinished(success)));
+    }
+    
+    private void onSaveFinished(boolean success) {
         if (success) {
             JOptionPane.showMessageDialog(this, 
                 "Partida guardada exitosamente", 
@@ -258,6 +268,20 @@ public class SaveLoadScreen extends JPanel {
         }
     }
     
+    private void loadAutosave() {
+        GameState state = BadDopoCream.loadLatestAutosave();
+        if (state == null) {
+            JOptionPane.showMessageDialog(this, 
+                "No hay autoguardados", 
+                "Error", JOptionPane.ERROR_MESSAGE);
+        } else if (onLoadSuccess != null) {
+            onLoadSuccess.accept(state);
+        } else {
+            game.restoreFromState(state);
+            close();
+        }
+    }
+    
     private void deleteSave(String saveName) {
         int result = JOptionPane.showConfirmDialog(this,
             "¿Estás seguro de eliminar esta partida guardada?",
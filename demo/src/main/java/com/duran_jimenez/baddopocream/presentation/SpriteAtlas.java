@@ -0,0 +1,437 @@
+package com.duran_jimenez.baddopocream.presentation;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.stream.ImageInputStream;
+import org.w3c.dom.Node;
+
+import com.duran_jimenez.baddopocream.domain.FrameSnapshot;
+
+/**
+ * Atlas de sprites del tablero: todas las animaciones de Personajes,
+ * Monstruos, Frutas y Obstaculos decodificadas con ImageIO cuadro a cuadro,
+ * escaladas una sola vez al tamaño de celda y convertidas a imágenes
+ * compatibles con la pantalla.
+ *
+ * Dibujar un sprite es copiar el cuadro que toca según la hora (sin escalar
+ * ni decodificar). Los sprites se buscan por índice: las tablas de este
+ * atlas traducen (tipo, animación, dirección) a un índice de un arreglo, sin
+ * mapas por nombre. Las rutas y la elección de animación por dirección son
+ * las de los configuradores de imágenes.
+ *
+ * El atlas se construye una vez al iniciar, decodificando los archivos en
+ * paralelo desde la pantalla de carga (preload()); hasta que esté listo,
+ * GameScreen dibuja con las imágenes de los configuradores.
+ */
+final class SpriteAtlas {
+
+    // Direcciones en el orden de prioridad de los configuradores
+    static final int DOWN = 0;
+    static final int UP = 1;
+    static final int RIGHT = 2;
+    static final int LEFT = 3;
+    static final int STILL = 4;
+    private static final int DIRECTIONS = 5;
+
+    // Estados de un personaje
+    static final int IDLE = 0;
+    static final int WALK = 1;
+    static final int ICE = 2;
+    private static final int CHARACTER_STATES = 3;
+
+    /** Cuadro por defecto si el GIF no indica demora (como los navegadores) */
+    private static final int DEFAULT_FRAME_MILLIS = 100;
+
+    private static final CharacterImageConfigurator.AnimationType[] CHARACTER_ANIMATIONS =
+        CharacterImageConfigurator.AnimationType.values();
+    private static final EnemyImageConfigurator.AnimationType[] ENEMY_ANIMATIONS =
+        EnemyImageConfigurator.AnimationType.values();
+    private static final ObstacleImageConfigurator.AnimationType[] OBSTACLE_ANIMATIONS =
+        ObstacleImageConfigurator.AnimationType.values();
+
+    // Bloques de índices del atlas
+    private static final int CHARACTER_BASE = 0;
+    private static final int ENEMY_BASE = CHARACTER_BASE + CharacterType.values().length * CHARACTER_ANIMATIONS.length;
+    private static final int FRUIT_BASE = ENEMY_BASE + ENEMY_ANIMATIONS.length; // Cada animación es de un solo enemigo
+    private static final int OBSTACLE_BASE = FRUIT_BASE + FruitImageConfigurator.FRUIT_NAMES.length;
+    private static final int SPRITE_COUNT = OBSTACLE_BASE + OBSTACLE_ANIMATIONS.length;
+
+    // (personaje, estado, dirección) y (enemigo, dirección) -> índice de sprite
+    private static final int[] CHARACTER_TABLE = new int[CharacterType.values().length * CHARACTER_STATES * DIRECTIONS];
+    private static final int[] ENEMY_TABLE = new int[EnemyType.values().length * DIRECTIONS];
+    // Tipo de fruta de FrameSnapshot (FRUIT_*) -> índice de sprite
+    private static final int[] FRUIT_TABLE = new int[FrameSnapshot.FRUIT_KINDS];
+    private static final int[][] DIRECTION_VECTORS = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}, {0, 0}};
+
+    static {
+        for (CharacterType character : CharacterType.values()) {
+            for (int direction = 0; direction < DIRECTIONS; direction++) {
+                int dx = DIRECTION_VECTORS[direction][0];
+                int dy = DIRECTION_VECTORS[direction][1];
+                int row = character.ordinal() * CHARACTER_STATES;
+                CHARACTER_TABLE[(row + IDLE) * DIRECTIONS + direction] = characterIndex(character,
+                    CharacterImageConfigurator.animationForDirection(dx, dy, false));
+                CHARACTER_TABLE[(row + WALK) * DIRECTIONS + direction] = characterIndex(character,
+                    CharacterImageConfigurator.animationForDirection(dx, dy, true));
+                CHARACTER_TABLE[(row + ICE) * DIRECTIONS + direction] = characterIndex(character,
+                    CharacterImageConfigurator.iceAnimationForDirection(dx, dy));
+            }
+        }
+        for (EnemyType enemy : EnemyType.values()) {
+            for (int direction = 0; direction < DIRECTIONS; direction++) {
+                EnemyImageConfigurator.AnimationType animation = EnemyImageConfigurator.walkAnimationForDirection(
+                    enemy, DIRECTION_VECTORS[direction][0], DIRECTION_VECTORS[direction][1]);
+                ENEMY_TABLE[enemy.ordinal() * DIRECTIONS + direction] = animation == null ? -1 : enemyIndex(animation);
+            }
+        }
+        FRUIT_TABLE[FrameSnapshot.FRUIT_BANANA] = fruitIndex("Banana");
+        FRUIT_TABLE[FrameSnapshot.FRUIT_CHERRY] = fruitIndex("Cherry");
+        FRUIT_TABLE[FrameSnapshot.FRUIT_GRAPES] = fruitIndex("Grapes");
+        FRUIT_TABLE[FrameSnapshot.FRUIT_PINEAPPLE] = fruitIndex("Pineapple");
+        FRUIT_TABLE[FrameSnapshot.FRUIT_CACTUS] = fruitIndex("Cactus");
+    }
+
+    private static volatile SpriteAtlas shared;
+    private static CompletableFuture<SpriteAtlas> loading;
+
+    private final Sprite[] sprites;
+
+    private SpriteAtlas(Sprite[] sprites) {
+        this.sprites = sprites;
+    }
+
+    // ==================== ÍNDICES ====================
+
+    /**
+     * Dirección en el orden de prioridad de los configuradores (vertical primero)
+     */
+    static int direction(int dx, int dy) {
+        if (dy > 0) return DOWN;
+        if (dy < 0) return UP;
+        if (dx > 0) return RIGHT;
+        if (dx < 0) return LEFT;
+        return STILL;
+    }
+
+    static int characterSprite(CharacterType character, int state, int dx, int dy) {
+        return CHARACTER_TABLE[(character.ordinal() * CHARACTER_STATES + state) * DIRECTIONS + direction(dx, dy)];
+    }
+
+    static int enemySprite(EnemyType enemy, int dx, int dy) {
+        return ENEMY_TABLE[enemy.ordinal() * DIRECTIONS + direction(dx, dy)];
+    }
+
+    /**
+     * @param fruitKind Tipo de la fruta en la instantánea (FrameSnapshot.FRUIT_*)
+     * @return Índice del sprite de la fruta, o -1 si no tiene imagen
+     */
+    static int fruitSprite(int fruitKind) {
+        return fruitKind < 0 || fruitKind >= FRUIT_TABLE.length ? -1 : FRUIT_TABLE[fruitKind];
+    }
+
+    static int obstacleSprite(ObstacleImageConfigurator.AnimationType animation) {
+        return OBSTACLE_BASE + animation.ordinal();
+    }
+
+    private static int characterIndex(CharacterType character, CharacterImageConfigurator.AnimationType animation) {
+        return CHARACTER_BASE + character.ordinal() * CHARACTER_ANIMATIONS.length + animation.ordinal();
+    }
+
+    private static int enemyIndex(EnemyImageConfigurator.AnimationType animation) {
+        return ENEMY_BASE + animation.ordinal();
+    }
+
+    private static int fruitIndex(String fruitName) {
+        int fruit = FruitImageConfigurator.fruitIndex(fruitName);
+        return fruit < 0 ? -1 : FRUIT_BASE + fruit;
+    }
+
+    /**
+     * Ruta del recurso de cada sprite (null si no corresponde a ninguna imagen)
+     */
+    static String[] resourcePaths() {
+        String[] paths = new String[SPRITE_COUNT];
+        for (CharacterType character : CharacterType.values()) {
+            for (CharacterImageConfigurator.AnimationType animation : CHARACTER_ANIMATIONS) {
+                paths[characterIndex(character, animation)] =
+                    CharacterImageConfigurator.resourcePath(character, animation);
+            }
+        }
+        for (EnemyType enemy : EnemyType.values()) {
+            for (EnemyImageConfigurator.AnimationType animation : EnemyImageConfigurator.animationsOf(enemy)) {
+                paths[enemyIndex(animation)] = EnemyImageConfigurator.resourcePath(enemy, animation);
+            }
+        }
+        for (int fruit = 0; fruit < FruitImageConfigurator.FRUIT_NAMES.length; fruit++) {
+            paths[FRUIT_BASE + fruit] = FruitImageConfigurator.resourcePath(fruit);
+        }
+        for (ObstacleImageConfigurator.AnimationType animation : OBSTACLE_ANIMATIONS) {
+            paths[obstacleSprite(animation)] = ObstacleImageConfigurator.resourcePath(animation);
+        }
+        return paths;
+    }
+
+    // ==================== DIBUJO ====================
+
+    /**
+     * Copia el cuadro del sprite que corresponde a la hora dada
+     * @return false si el sprite no está en el atlas (el llamador usa su alternativa)
+     */
+    boolean draw(Graphics2D g, int sprite, int x, int y, long nowMillis) {
+        if (sprite < 0 || sprite >= sprites.length) return false;
+        Sprite entry = sprites[sprite];
+        if (entry == null) return false;
+        g.drawImage(entry.frameAt(nowMillis), x, y, null);
+        return true;
+    }
+
+    /**
+     * Atlas compartido, o null si todavía se está construyendo
+     */
+    static SpriteAtlas getIfReady() {
+        return shared;
+    }
+
+    /**
+     * Empieza a construir el atlas compartido con los hilos dados (una sola vez);
+     * queda disponible en getIfReady() cuando termina
+     * @param listener Avisa de cada sprite decodificado (puede ser null)
+     */
+    static synchronized CompletableFuture<SpriteAtlas> preload(int cellSize, Executor executor, LoadListener listener) {
+        if (loading == null) {
+            loading = load(defaultConfiguration(), cellSize, executor, listener).thenApply(atlas -> {
+                shared = atlas;
+                return atlas;
+            });
+        }
+        return loading;
+    }
+
+    // ==================== CONSTRUCCIÓN ====================
+
+    /**
+     * Avisa cuando termina de decodificarse un sprite (desde el hilo que lo decodificó)
+     */
+    interface LoadListener {
+        void spriteLoaded(String resourcePath);
+    }
+
+    /**
+     * Cantidad de archivos que decodifica el atlas
+     */
+    static int resourceCount() {
+        int count = 0;
+        for (String path : resourcePaths()) {
+            if (path != null) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Decodifica y escala todos los sprites, cada archivo como una tarea del
+     * executor. Los que no se pueden leer quedan fuera del atlas y se dibujan
+     * como antes.
+     */
+    static CompletableFuture<SpriteAtlas> load(GraphicsConfiguration config, int cellSize,
+                                               Executor executor, LoadListener listener) {
+        String[] paths = resourcePaths();
+        Sprite[] sprites = new Sprite[paths.length];
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < paths.length; i++) {
+            if (paths[i] == null) continue;
+            final int sprite = i;
+            tasks.add(CompletableFuture.runAsync(() -> {
+                sprites[sprite] = loadSprite(paths[sprite], config, cellSize);
+                if (listener != null) {
+                    listener.spriteLoaded(paths[sprite]);
+                }
+            }, executor));
+        }
+        // Al completarse todas las tareas, sus escrituras en el arreglo son visibles
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]))
+            .thenApply(done -> new SpriteAtlas(sprites));
+    }
+
+    /**
+     * Construye el atlas en el hilo actual
+     */
+    static SpriteAtlas build(GraphicsConfiguration config, int cellSize) {
+        return load(config, cellSize, Runnable::run, null).join();
+    }
+
+    static GraphicsConfiguration defaultConfiguration() {
+        if (GraphicsEnvironment.isHeadless()) return null;
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+    }
+
+    static Sprite loadSprite(String resourcePath, GraphicsConfiguration config, int cellSize) {
+        URL url = BaseImageConfigurator.findResource(resourcePath);
+        if (url == null) {
+            return null;
+        }
+        try (InputStream in = url.openStream();
+             ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, false, false);
+                return decode(reader, config, cellSize);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("⚠️  No se pudo decodificar el sprite " + resourcePath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reconstruye cada cuadro completo de la animación (los GIF guardan solo
+     * la zona que cambia y cómo limpiarla) y lo escala al tamaño de celda
+     */
+    private static Sprite decode(ImageReader reader, GraphicsConfiguration config, int cellSize) throws IOException {
+        int frames = reader.getNumImages(true);
+        if (frames <= 0) {
+            return null;
+        }
+        int width = 0;
+        int height = 0;
+        IIOMetadata streamMetadata = reader.getStreamMetadata();
+        Node screen = child(streamMetadata, "javax_imageio_gif_stream_1.0", "LogicalScreenDescriptor");
+        if (screen != null) {
+            width = intAttribute(screen, "logicalScreenWidth", 0);
+            height = intAttribute(screen, "logicalScreenHeight", 0);
+        }
+        if (width <= 0 || height <= 0) {
+            width = reader.getWidth(0);
+            height = reader.getHeight(0);
+        }
+        BufferedImage canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        List<BufferedImage> scaled = new ArrayList<>(frames);
+        int[] ends = new int[frames];
+        int total = 0;
+        for (int i = 0; i < frames; i++) {
+            BufferedImage frame = reader.read(i);
+            IIOMetadata metadata = reader.getImageMetadata(i);
+            Node descriptor = child(metadata, "javax_imageio_gif_image_1.0", "ImageDescriptor");
+            Node control = child(metadata, "javax_imageio_gif_image_1.0", "GraphicControlExtension");
+            int left = descriptor == null ? 0 : intAttribute(descriptor, "imageLeftPosition", 0);
+            int top = descriptor == null ? 0 : intAttribute(descriptor, "imageTopPosition", 0);
+            int delay = control == null ? 0 : intAttribute(control, "delayTime", 0) * 10;
+            String disposal = control == null ? "none" : attribute(control, "disposalMethod", "none");
+
+            BufferedImage previous = "restoreToPrevious".equals(disposal) ? copy(canvas) : null;
+            Graphics2D g = canvas.createGraphics();
+            g.drawImage(frame, left, top, null);
+            g.dispose();
+
+            scaled.add(scale(canvas, config, cellSize));
+            total += delay > 10 ? delay : DEFAULT_FRAME_MILLIS;
+            ends[i] = total;
+
+            if ("restoreToBackgroundColor".equals(disposal)) {
+                Graphics2D clear = canvas.createGraphics();
+                clear.setComposite(AlphaComposite.Clear);
+                clear.fillRect(left, top, frame.getWidth(), frame.getHeight());
+                clear.dispose();
+            } else if (previous != null) {
+                canvas = previous;
+            }
+        }
+        return new Sprite(scaled.toArray(new BufferedImage[0]), ends);
+    }
+
+    private static BufferedImage scale(BufferedImage source, GraphicsConfiguration config, int cellSize) {
+        BufferedImage target = config != null
+            ? config.createCompatibleImage(cellSize, cellSize, Transparency.TRANSLUCENT)
+            : new BufferedImage(cellSize, cellSize, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = target.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(source, 0, 0, cellSize, cellSize, null);
+        g.dispose();
+        return target;
+    }
+
+    private static BufferedImage copy(BufferedImage source) {
+        BufferedImage copy = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = copy.createGraphics();
+        g.drawImage(source, 0, 0, null);
+        g.dispose();
+        return copy;
+    }
+
+    private static Node child(IIOMetadata metadata, String format, String name) {
+        if (metadata == null) return null;
+        try {
+            Node node = metadata.getAsTree(format).getFirstChild();
+            while (node != null && !name.equals(node.getNodeName())) {
+                node = node.getNextSibling();
+            }
+            return node;
+        } catch (IllegalArgumentException e) {
+            return null; // No es un GIF: imagen de un solo cuadro sin posición
+        }
+    }
+
+    private static String attribute(Node node, String name, String fallback) {
+        Node value = node.getAttributes().getNamedItem(name);
+        return value == null ? fallback : value.getNodeValue();
+    }
+
+    private static int intAttribute(Node node, String name, int fallback) {
+        try {
+            return Integer.parseInt(attribute(node, name, String.valueOf(fallback)));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Cuadros escalados de una animación y el instante en que termina cada uno
+     */
+    static final class Sprite {
+        private final BufferedImage[] frames;
+        private final int[] frameEnds; // Milisegundos acumulados
+        private final int duration;
+
+        Sprite(BufferedImage[] frames, int[] frameEnds) {
+            this.frames = frames;
+            this.frameEnds = frameEnds;
+            this.duration = frameEnds[frameEnds.length - 1];
+        }
+
+        BufferedImage frameAt(long nowMillis) {
+            if (frames.length == 1) return frames[0];
+            int time = (int) (nowMillis % duration);
+            int frame = 0;
+            while (frameEnds[frame] <= time) {
+                frame++;
+            }
+            return frames[frame];
+        }
+
+        int getFrameCount() {
+            return frames.length;
+        }
+    }
+}
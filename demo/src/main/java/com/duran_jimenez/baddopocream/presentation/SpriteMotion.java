@@ -0,0 +1,83 @@
+package com.duran_jimenez.baddopocream.presentation;
+
+import java.util.Arrays;
+
+/**
+ * Posiciones interpoladas de un grupo de sprites (enemigos, frutas o jugadores).
+ *
+ * La simulación mueve las entidades de celda en celda; cada vez que llega un
+ * estado nuevo, moveTo() inicia un desplazamiento desde la posición que se
+ * está mostrando hasta la celda nueva, que dura lo mismo que un paso de la
+ * entidad. Entre estados, x() e y() dan la posición en celdas (con
+ * fracciones) para el instante del cuadro. Los saltos de más de una celda
+ * (reaparecer, nivel nuevo) no se interpolan.
+ *
+ * Las entidades se identifican por su índice en la lista del juego, que no
+ * cambia durante un nivel.
+ */
+class SpriteMotion {
+
+    private final long durationNanos;
+    private float[] fromX = new float[0];
+    private float[] fromY = new float[0];
+    private int[] toX = new int[0];
+    private int[] toY = new int[0];
+    private long[] start = new long[0];
+    private boolean[] known = new boolean[0];
+
+    SpriteMotion(long durationNanos) {
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * Ajusta la cantidad de sprites; los nuevos aparecen sin interpolar
+     */
+    void resize(int count) {
+        if (count == toX.length) {
+            return;
+        }
+        fromX = Arrays.copyOf(fromX, count);
+        fromY = Arrays.copyOf(fromY, count);
+        toX = Arrays.copyOf(toX, count);
+        toY = Arrays.copyOf(toY, count);
+        start = Arrays.copyOf(start, count);
+        known = Arrays.copyOf(known, count);
+    }
+
+    /**
+     * Registra la celda del sprite en el estado nuevo
+     */
+    void moveTo(int index, int x, int y, long nowNanos) {
+        if (known[index] && toX[index] == x && toY[index] == y) {
+            return;
+        }
+        if (known[index] && Math.abs(x - toX[index]) + Math.abs(y - toY[index]) == 1) {
+            // Partir de donde se está mostrando, aunque el paso anterior no haya terminado
+            fromX[index] = x(index, nowNanos);
+            fromY[index] = y(index, nowNanos);
+        } else {
+            fromX[index] = x;
+            fromY[index] = y;
+        }
+        toX[index] = x;
+        toY[index] = y;
+        start[index] = nowNanos;
+        known[index] = true;
+    }
+
+    float x(int index, long nowNanos) {
+        return fromX[index] + (toX[index] - fromX[index]) * progress(index, nowNanos);
+    }
+
+    float y(int index, long nowNanos) {
+        return fromY[index] + (toY[index] - fromY[index]) * progress(index, nowNanos);
+    }
+
+    private float progress(int index, long nowNanos) {
+        long elapsed = nowNanos - start[index];
+        if (elapsed >= durationNanos) {
+            return 1f;
+        }
+        return elapsed <= 0 ? 0f : (float) elapsed / durationNanos;
+    }
+}
@@ -1,5 +1,15 @@
 package com.duran_jimenez.baddopocream.domain;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -7,11 +17,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Pruebas unitarias para la clase principal BadDopoCream
@@ -152,6 +164,24 @@ class BadDopoCreamTest {
             assertTrue(game.getLevels().isEmpty());
         }
         
+        @Test
+        @DisplayName("La misma semilla genera el mismo nivel")
+        void testNivelConSemilla() {
+            for(int numero = 1; numero <= BadDopoCream.PLAYABLE_LEVELS; numero++){
+                Level a = LevelConfigurator.createLevel(numero, new IceCream("A", "vanilla", Location.of(1, 1)), null, 7L);
+                Level b = LevelConfigurator.createLevel(numero, new IceCream("B", "vanilla", Location.of(1, 1)), null, 7L);
+                
+                assertEquals(a.getEnemies().size(), b.getEnemies().size());
+                for(int i = 0; i < a.getEnemies().size(); i++){
+                    assertEquals(a.getEnemies().get(i).getLocation(), b.getEnemies().get(i).getLocation());
+                }
+                assertEquals(a.getFruits().size(), b.getFruits().size());
+                for(int i = 0; i < a.getFruits().size(); i++){
+                    assertEquals(a.getFruits().get(i).getLocation(), b.getFruits().get(i).getLocation());
+                }
+            }
+        }
+        
         @Test
         @DisplayName("hasNextLevel funciona correctamente")
         void testHasNextLevel() {
@@ -575,6 +605,9 @@ class BadDopoCreamTest {
     @DisplayName("Tests de Guardado/Carga")
     class GuardadoTests {
         
+        @TempDir
+        File carpeta;
+        
         @Test
         @DisplayName("Se puede listar partidas guardadas sin error")
         void testListarPartidasGuardadas() {
@@ -590,8 +623,429 @@ class BadDopoCreamTest {
             
             assertNull(state);
         }
+        
+        private GameState guardarYLeer(GameState state) throws Exception {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            state.write(bytes);
+            return GameState.read(new ByteArrayInputStream(bytes.toByteArray()));
+        }
+        
+        private void assertMismoEstado(GameState esperado, GameState leido) {
+            assertEquals(esperado.getCurrentLevelIndex(), leido.getCurrentLevelIndex());
+            assertEquals(esperado.getTotalScore(), leido.getTotalScore());
+            assertEquals(esperado.getPlayerColor(), leido.getPlayerColor());
+            assertEquals(esperado.getGameMode(), leido.getGameMode());
+            assertEquals(esperado.getSaveTimestamp(), leido.getSaveTimestamp());
+            assertEquals(esperado.getLevelScore(), leido.getLevelScore());
+            assertEquals(esperado.getCollectedFruits(), leido.getCollectedFruits());
+            assertEquals(esperado.getRemainingTime(), leido.getRemainingTime());
+            assertEquals(esperado.getPlayerLocation().toLocation(), leido.getPlayerLocation().toLocation());
+            assertEquals(esperado.getFruits().size(), leido.getFruits().size());
+            for (int i = 0; i < esperado.getFruits().size(); i++) {
+                assertEquals(esperado.getFruits().get(i).name, leido.getFruits().get(i).name);
+                assertEquals(esperado.getFruits().get(i).collected, leido.getFruits().get(i).collected);
+                assertEquals(esperado.getFruits().get(i).location.toLocation(),
+                    leido.getFruits().get(i).location.toLocation());
+            }
+            assertEquals(esperado.getEnemies().size(), leido.getEnemies().size());
+            for (int i = 0; i < esperado.getEnemies().size(); i++) {
+                assertEquals(esperado.getEnemies().get(i).type, leido.getEnemies().get(i).type);
+                assertEquals(esperado.getEnemies().get(i).location.toLocation(),
+                    leido.getEnemies().get(i).location.toLocation());
+            }
+        }
+        
+        @Test
+        @DisplayName("El formato binario conserva todo el estado")
+        void testFormatoBinario() throws Exception {
+            game.addLevel(LevelConfigurator.createLevel(3, player, null, 11L));
+            game.startGame();
+            game.getCurrentLevel().getFruits().get(0).collect();
+            GameState state = GameState.capture(game, "pink", "PvsM");
+            
+            GameState leido = guardarYLeer(state);
+            
+            assertMismoEstado(state, leido);
+            assertNull(leido.getPlayer2Location());
+            assertTrue(leido.getFruits().get(0).collected);
+        }
+        
+        @Test
+        @DisplayName("Los guardados antiguos (serialización Java) se siguen leyendo")
+        void testLeerGuardadoAntiguo() throws Exception {
+            game.addLevel(LevelConfigurator.createLevel(2, player, null, 3L));
+            game.startGame();
+            GameState state = GameState.capture(game, "vanilla", "Player");
+            ByteArrayOutputStream antiguo = new ByteArrayOutputStream();
+            try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(antiguo)) {
+                out.writeObject(state);
+            }
+            ByteArrayOutputStream nuevo = new ByteArrayOutputStream();
+            state.write(nuevo);
+            
+            GameState leido = GameState.read(new ByteArrayInputStream(antiguo.toByteArray()));
+            
+            assertMismoEstado(state, leido);
+            assertTrue(nuevo.size() * 4 < antiguo.size(), "El formato binario debe ser mucho más pequeño");
+        }
+        
+        @Test
+        @DisplayName("Un guardado antiguo con clases ajenas se rechaza sin instanciarlas")
+        void testGuardadoAntiguoConClasesAjenas() throws Exception {
+            ByteArrayOutputStream ajeno = new ByteArrayOutputStream();
+            try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(ajeno)) {
+                out.writeObject(new java.util.HashMap<String, String>());
+            }
+            
+            assertThrows(java.io.InvalidClassException.class,
+                () -> GameState.read(new ByteArrayInputStream(ajeno.toByteArray())));
+        }
+        
+        @Test
+        @DisplayName("La instantánea restaura hielo, enemigos, frutas y temporizadores del nivel")
+        void testInstantaneaDelNivel() throws Exception {
+            game.setClock(new TickClock());
+            game.addLevel(LevelConfigurator.createLevel(4, player, null, 21L));
+            game.startGame();
+            for (int tick = 0; tick < 40; tick++) {
+                if (tick == 5) {
+                    game.createIceLinePlayer1(1, 0);
+                }
+                game.getClock().advance(GameLoop.DEFAULT_TICK_MILLIS);
+                game.update();
+            }
+            Level original = game.getCurrentLevel();
+            GameState leido = guardarYLeer(GameState.capture(game, "pink", "PvsM"));
+
+            BadDopoCream cargado = new BadDopoCream();
+            cargado.setClock(new TickClock());
+            IceCream otroJugador = new IceCream("TestPlayer", "strawberry", new Location(7, 7));
+            cargado.addLevel(LevelConfigurator.createLevel(leido.getLevelNumber(), otroJugador, null, leido.getLevelSeed()));
+            cargado.startGame();
+            cargado.restoreFromState(leido);
+            Level restaurado = cargado.getCurrentLevel();
+
+            assertTrue(leido.hasLevelSnapshot());
+            long[] hieloOriginal = new long[original.getMap().getMaskWords()];
+            long[] hieloRestaurado = new long[restaurado.getMap().getMaskWords()];
+            original.getMap().copyIceMask(hieloOriginal);
+            restaurado.getMap().copyIceMask(hieloRestaurado);
+            assertTrue(java.util.Arrays.equals(hieloOriginal, hieloRestaurado));
+            assertEquals(original.getRemainingTime(), restaurado.getRemainingTime());
+            assertEquals(original.getCurrentScore(), restaurado.getCurrentScore());
+            assertEquals(original.getPlayer2Score(), restaurado.getPlayer2Score());
+            assertEquals(original.getPendingTimers(), restaurado.getPendingTimers());
+            assertEquals(player.getLocation(), otroJugador.getLocation());
+            assertEquals(player.getLastDx(), otroJugador.getLastDx());
+            for (int i = 0; i < original.getEnemies().size(); i++) {
+                assertEquals(original.getEnemies().get(i).getLocation(), restaurado.getEnemies().get(i).getLocation());
+            }
+            for (int i = 0; i < original.getFruits().size(); i++) {
+                assertEquals(original.getFruits().get(i).getLocation(), restaurado.getFruits().get(i).getLocation());
+                assertEquals(original.getFruits().get(i).isCollected(), restaurado.getFruits().get(i).isCollected());
+            }
+            assertEquals(original.getMap().getCampfires().size(), restaurado.getMap().getCampfires().size());
+            for (int i = 0; i < original.getMap().getCampfires().size(); i++) {
+                assertEquals(original.getMap().getCampfires().get(i).isLit(),
+                    restaurado.getMap().getCampfires().get(i).isLit());
+            }
+            assertFalse(cargado.isRecording());
+        }
+
+        @Test
+        @DisplayName("Una instantánea corrupta deja el nivel intacto")
+        void testInstantaneaCorrupta() throws Exception {
+            game.setClock(new TickClock());
+            game.addLevel(LevelConfigurator.createLevel(4, player, null, 21L));
+            game.startGame();
+            for (int tick = 0; tick < 40; tick++) {
+                if (tick == 5) {
+                    game.createIceLinePlayer1(1, 0);
+                }
+                game.getClock().advance(GameLoop.DEFAULT_TICK_MILLIS);
+                game.update();
+            }
+            byte[] instantanea = game.getCurrentLevel().captureSnapshot();
+
+            IceCream otroJugador = new IceCream("TestPlayer", "strawberry", new Location(7, 7));
+            Level nuevo = LevelConfigurator.createLevel(4, otroJugador, null, 21L);
+            nuevo.setClock(new TickClock());
+            Location inicio = otroJugador.getLocation();
+            byte[] antes = nuevo.captureSnapshot();
+            byte[] truncada = java.util.Arrays.copyOf(instantanea, instantanea.length - 1);
+
+            assertThrows(IOException.class, () -> nuevo.restoreSnapshot(truncada));
+            assertTrue(java.util.Arrays.equals(antes, nuevo.captureSnapshot()));
+            assertEquals(inicio, otroJugador.getLocation());
+        }
+
+        @Test
+        @DisplayName("Sin la misma semilla la carga usa solo las posiciones guardadas")
+        void testInstantaneaDeOtroNivel() throws Exception {
+            game.addLevel(LevelConfigurator.createLevel(2, player, null, 5L));
+            game.startGame();
+            GameState leido = guardarYLeer(GameState.capture(game, "vanilla", "Player"));
+
+            BadDopoCream cargado = new BadDopoCream();
+            IceCream otroJugador = new IceCream("TestPlayer", "strawberry", new Location(3, 3));
+            cargado.addLevel(LevelConfigurator.createLevel(2, otroJugador, null, 6L));
+            cargado.startGame();
+
+            assertDoesNotThrow(() -> cargado.restoreFromState(leido));
+            assertEquals(player.getLocation(), otroJugador.getLocation());
+            assertEquals(leido.getLevelScore(), cargado.getCurrentLevel().getCurrentScore());
+        }
+
+        @Test
+        @DisplayName("El resumen se lee de la cabecera sin leer el resto del guardado")
+        void testResumenEnCabecera() throws Exception {
+            game.addLevel(LevelConfigurator.createLevel(3, player, null, 8L));
+            game.startGame();
+            game.setTotalScore(450);
+            GameState state = GameState.capture(game, "pink", "PvsM");
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            state.write(bytes);
+            // Se corta el guardado después de la cabecera: el resumen no necesita más
+            byte[] cabecera = java.util.Arrays.copyOf(bytes.toByteArray(), 30);
+
+            SaveSummary resumen = GameState.readSummary("partida", new ByteArrayInputStream(cabecera));
+
+            assertEquals("partida", resumen.name);
+            assertEquals(3, resumen.levelNumber);
+            assertEquals(450, resumen.totalScore);
+            assertEquals("PvsM", resumen.gameMode);
+            assertEquals(state.getSaveTimestamp(), resumen.timestamp);
+        }
+
+        @Test
+        @DisplayName("El índice de guardados se actualiza al guardar, modificar y borrar")
+        void testIndiceDeGuardados() throws Exception {
+            game.addLevel(LevelConfigurator.createLevel(2, player, null, 4L));
+            game.startGame();
+            GameState state = GameState.capture(game, "vanilla", "Player");
+            File archivo = new File(carpeta, "uno.bdcsave");
+            try (OutputStream out = new FileOutputStream(archivo)) {
+                state.write(out);
+            }
+            Files.write(new File(carpeta, "roto.bdcsave").toPath(), new byte[]{1, 2, 3});
+
+            List<SaveSummary> primera = new SaveIndex(carpeta, ".bdcsave").list();
+            assertEquals(2, primera.size());
+            assertTrue(new File(carpeta, "index.bdcindex").isFile());
+
+            // Con el índice escrito, los resúmenes salen de él
+            List<SaveSummary> segunda = new SaveIndex(carpeta, ".bdcsave").list();
+            SaveSummary uno = segunda.stream().filter(s -> s.name.equals("uno")).findFirst().orElseThrow();
+            SaveSummary roto = segunda.stream().filter(s -> s.name.equals("roto")).findFirst().orElseThrow();
+            assertEquals(2, uno.levelNumber);
+            assertEquals("Player", uno.gameMode);
+            assertEquals(0, roto.levelNumber);
+
+            assertTrue(archivo.delete());
+            assertEquals(1, new SaveIndex(carpeta, ".bdcsave").list().size());
+        }
+
+        private void esperar(java.util.concurrent.CountDownLatch latch) {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        @Test
+        @DisplayName("Los guardados repetidos de una ranura en cola se escriben una vez con el último estado")
+        void testGuardadoAsincronoCombinaRanuras() throws Exception {
+            java.util.concurrent.CountDownLatch escribiendo = new java.util.concurrent.CountDownLatch(1);
+            java.util.concurrent.CountDownLatch soltar = new java.util.concurrent.CountDownLatch(1);
+            List<GameState> escritos = java.util.Collections.synchronizedList(new java.util.ArrayList<>());
+            SaveService servicio = new SaveService(4, (nombre, estado) -> {
+                if (nombre.equals("bloqueo")) {
+                    escribiendo.countDown();
+                    esperar(soltar);
+                }
+                escritos.add(estado);
+            });
+            GameState primero = new GameState();
+            GameState ultimo = new GameState();
+
+            java.util.concurrent.CompletableFuture<Void> bloqueo = servicio.save("bloqueo", new GameState());
+            assertTrue(escribiendo.await(5, java.util.concurrent.TimeUnit.SECONDS));
+            java.util.concurrent.CompletableFuture<Void> a = servicio.save("ranura", primero);
+            java.util.concurrent.CompletableFuture<Void> b = servicio.save("ranura", ultimo);
+            assertTrue(a == b, "La ranura en cola debe devolver el mismo futuro");
+            assertEquals(1, servicio.getPendingSaves());
+            soltar.countDown();
+            b.get(5, java.util.concurrent.TimeUnit.SECONDS);
+            bloqueo.get(5, java.util.concurrent.TimeUnit.SECONDS);
+
+            assertEquals(2, escritos.size());
+            assertTrue(escritos.get(1) == ultimo);
+        }
+
+        @Test
+        @DisplayName("Con la cola llena el guardado falla sin bloquear")
+        void testGuardadoAsincronoColaLlena() throws Exception {
+            java.util.concurrent.CountDownLatch escribiendo = new java.util.concurrent.CountDownLatch(1);
+            java.util.concurrent.CountDownLatch soltar = new java.util.concurrent.CountDownLatch(1);
+            SaveService servicio = new SaveService(1, (nombre, estado) -> {
+                escribiendo.countDown();
+                esperar(soltar);
+            });
+            servicio.save("a", new GameState());
+            assertTrue(escribiendo.await(5, java.util.concurrent.TimeUnit.SECONDS));
+            servicio.save("b", new GameState());
+
+            java.util.concurrent.CompletableFuture<Void> rechazado = servicio.save("c", new GameState());
+
+            assertTrue(rechazado.isCompletedExceptionally());
+            soltar.countDown();
+        }
+
+        @Test
+        @DisplayName("El autoguardado escribe diferencias pequeñas y reconstruye el último estado")
+        void testAutoguardadoConDiferencias() throws Exception {
+            game.setClock(new TickClock());
+            game.addLevel(LevelConfigurator.createLevel(4, player, null, 13L));
+            game.startGame();
+            AutosaveRing anillo = new AutosaveRing(carpeta, 4, 1000, "pink", "PvsM", new SaveService(4));
+            byte[] esperado = null;
+            for (int guardado = 0; guardado < 3; guardado++) {
+                for (int tick = 0; tick < 10; tick++) {
+                    game.getClock().advance(GameLoop.DEFAULT_TICK_MILLIS);
+                    game.update();
+                }
+                esperado = game.getCurrentLevel().captureSnapshot();
+                anillo.autosave(game).get(5, java.util.concurrent.TimeUnit.SECONDS);
+            }
+
+            GameState cargado = AutosaveRing.loadLatest(carpeta);
+
+            assertNotNull(cargado);
+            assertTrue(java.util.Arrays.equals(esperado, cargado.getLevelSnapshot()));
+            assertEquals("PvsM", cargado.getGameMode());
+            long clave = new File(carpeta, "slot_0.bdcauto").length();
+            long diferencia = new File(carpeta, "slot_1.bdcauto").length();
+            assertTrue(diferencia < clave, "Las diferencias deben ocupar menos que el fotograma clave");
+        }
+
+        @Test
+        @DisplayName("El autoguardado solo escribe cuando pasa el intervalo de juego")
+        void testIntervaloDeAutoguardado() throws Exception {
+            game.setClock(new TickClock());
+            game.addLevel(LevelConfigurator.createLevel(1, player, null, 2L));
+            game.startGame();
+            AutosaveRing anillo = new AutosaveRing(carpeta, 4, 1000, "vanilla", "Player", new SaveService(4));
+
+            assertNull(anillo.update(game)); // Empieza a contar en el nivel actual
+            game.getClock().advance(500);
+            assertNull(anillo.update(game));
+            game.getClock().advance(500);
+            java.util.concurrent.CompletableFuture<Void> escrito = anillo.update(game);
+
+            assertNotNull(escrito);
+            escrito.get(5, java.util.concurrent.TimeUnit.SECONDS);
+            assertNull(anillo.update(game));
+            assertNotNull(AutosaveRing.loadLatest(carpeta));
+        }
+
+        @Test
+        @DisplayName("Un guardado con cabecera desconocida se rechaza")
+        void testGuardadoCorrupto() {
+            byte[] basura = {'B', 'D', 'C', 'S', 99, 0, 0, 0};
+            assertThrows(IOException.class, () -> GameState.read(new ByteArrayInputStream(basura)));
+        }
     }
-    
+
+    // ===================== TESTS DE HIGHSCORES =====================
+
+    @Nested
+    @DisplayName("Tests de Highscores")
+    class HighScoreTests {
+
+        @TempDir
+        File carpeta;
+
+        @Test
+        @DisplayName("Dos instancias comparten el registro sin pisarse")
+        void testInstanciasConcurrentes() throws Exception {
+            HighScoreManager primera = new HighScoreManager(carpeta);
+            HighScoreManager segunda = new HighScoreManager(carpeta);
+
+            assertTrue(primera.addHighScore("Ana", 500, "Player", 2));
+            assertTrue(segunda.addHighScore("Beto", 800, "Player", 3));
+
+            List<HighScoreManager.HighScoreEntry> tabla = primera.getHighScores();
+            assertEquals(2, tabla.size());
+            assertEquals("Beto", tabla.get(0).getPlayerName());
+            assertEquals("Ana", tabla.get(1).getPlayerName());
+            assertEquals(2, new HighScoreManager(carpeta).getHighScores().size());
+        }
+
+        @Test
+        @DisplayName("Cada modo tiene su propia tabla acotada")
+        void testTablasPorModo() throws Exception {
+            HighScoreManager manager = new HighScoreManager(carpeta);
+            for (int i = 1; i <= 15; i++) {
+                manager.addHighScore("PvsM" + i, i * 100, "PvsM", 1);
+            }
+            manager.addHighScore("Solo", 50, "Player", 1);
+
+            assertEquals(10, manager.getHighScores().size());
+            assertEquals(1500, manager.getTopScore());
+            assertEquals(10, manager.getHighScores("PvsM").size());
+            assertEquals(600, manager.getHighScores("PvsM").get(9).getScore());
+            assertEquals(1, manager.getHighScores("Player").size());
+            assertEquals(50, manager.getHighScores("Player").get(0).getScore());
+            assertEquals(-1, manager.getPositionForScore(100));
+            assertEquals(2, manager.getPositionForScore(1450));
+        }
+
+        @Test
+        @DisplayName("La compactación acota el registro y conserva las tablas")
+        void testCompactacion() throws Exception {
+            HighScoreManager manager = new HighScoreManager(carpeta);
+            for (int i = 1; i <= 600; i++) {
+                manager.addHighScore("J" + i, i, "Player", 1);
+            }
+            File registro = new File(carpeta, "highscores.log");
+
+            assertTrue(registro.length() < 300 * 40, "El registro debe compactarse: " + registro.length());
+            List<HighScoreManager.HighScoreEntry> recargada = new HighScoreManager(carpeta).getHighScores();
+            assertEquals(10, recargada.size());
+            assertEquals(600, recargada.get(0).getScore());
+            assertEquals(591, recargada.get(9).getScore());
+        }
+
+        @Test
+        @DisplayName("Los highscores del formato anterior se importan una vez")
+        void testImportarFormatoAnterior() throws Exception {
+            List<HighScoreManager.HighScoreEntry> antiguos = new ArrayList<>();
+            antiguos.add(new HighScoreManager.HighScoreEntry("Ana", 300, "Player", 2));
+            antiguos.add(new HighScoreManager.HighScoreEntry("Beto", 700, "PvsM", 4));
+            try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(new File(carpeta, "highscores.dat")))) {
+                out.writeObject(antiguos);
+            }
+
+            List<HighScoreManager.HighScoreEntry> tabla = new HighScoreManager(carpeta).getHighScores();
+
+            assertEquals(2, tabla.size());
+            assertEquals("Beto", tabla.get(0).getPlayerName());
+        }
+
+        @Test
+        @DisplayName("Un highscores.dat con clases ajenas se descarta sin instanciarlas")
+        void testFormatoAnteriorConClasesAjenas() throws Exception {
+            LinkedList<HighScoreManager.HighScoreEntry> ajenos = new LinkedList<>();
+            ajenos.add(new HighScoreManager.HighScoreEntry("Ana", 300, "Player", 2));
+            try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(new File(carpeta, "highscores.dat")))) {
+                out.writeObject(ajenos);
+            }
+
+            assertTrue(new HighScoreManager(carpeta).getHighScores().isEmpty());
+        }
+    }
+
     // ===================== TESTS DE ESTADO DEL JUEGO =====================
     
     @Nested
@@ -683,4 +1137,376 @@ class BadDopoCreamTest {
             assertFalse(enemigosDespues.isEmpty());
         }
     }
+    
+    // ===================== TESTS DEL GAME LOOP =====================
+    
+    @Nested
+    @DisplayName("Tests del GameLoop (simulación sin interfaz)")
+    class GameLoopTests {
+        
+        private GameLoop loop;
+        
+        @BeforeEach
+        void setUpLoop() {
+            testLevel.addEnemy(new Maceta(new Location(12, 12)));
+            testLevel.addFruit(new Banana(new Location(3, 3)));
+            testLevel.addFruit(new Banana(new Location(11, 3)));
+            
+            game.addLevel(testLevel);
+            game.startGame();
+            loop = new GameLoop(game);
+        }
+        
+        @Test
+        @DisplayName("runTicks() avanza el contador de ticks sin hilo ni interfaz")
+        void testRunTicksSinInterfaz() {
+            int ejecutados = loop.runTicks(5);
+            
+            assertEquals(5, ejecutados);
+            assertEquals(5, game.getTickCount());
+            assertFalse(loop.isRunning());
+        }
+        
+        @Test
+        @DisplayName("Las acciones enviadas se aplican en el siguiente tick")
+        void testSubmitSeAplicaEnTick() {
+            loop.submit(() -> game.movePlayer1(1, 0));
+            assertEquals(7, game.getPlayer1Info().x, "La acción no debe aplicarse antes del tick");
+            
+            loop.tick();
+            
+            assertEquals(8, game.getPlayer1Info().x);
+        }
+        
+        @Test
+        @DisplayName("Los observadores reciben cada tick en orden")
+        void testObservadoresDeTick() {
+            List<Long> ticks = new java.util.ArrayList<>();
+            loop.addTickListener(new GameLoop.TickListener() {
+                @Override
+                public void afterTick(BadDopoCream g, long tick) {
+                    ticks.add(tick);
+                }
+            });
+            
+            loop.runTicks(3);
+            
+            assertEquals(List.of(1L, 2L, 3L), ticks);
+        }
+        
+        @Test
+        @DisplayName("runTicks() se detiene cuando la partida termina")
+        void testRunTicksTerminaConGameOver() {
+            player.die();
+            
+            assertEquals(0, loop.runTicks(10));
+            assertTrue(loop.isFinished());
+        }
+        
+        @Test
+        @DisplayName("Con un TickClock un nivel de 3 minutos se simula sin esperar")
+        void testNivelCompletoConTickClock() {
+            game.setClock(new TickClock());
+            testLevel.getEnemies().clear();
+            
+            int ejecutados = loop.runTicks(10000);
+            
+            // 180 s / 500 ms por tick = 360 ticks
+            assertEquals(360, ejecutados);
+            assertTrue(game.isTimeExpired());
+        }
+        
+        @Test
+        @DisplayName("El hilo de simulación avanza solo y se detiene con stop()")
+        void testHiloDeSimulacion() throws InterruptedException {
+            GameLoop rapido = new GameLoop(game, 5);
+            rapido.start();
+            assertTrue(rapido.isRunning());
+            Thread.sleep(100);
+            rapido.stop();
+            
+            assertFalse(rapido.isRunning());
+            long ticks = game.getTickCount();
+            assertTrue(ticks > 0, "El hilo debe haber ejecutado ticks");
+            Thread.sleep(30);
+            assertEquals(ticks, game.getTickCount(), "No debe haber ticks tras stop()");
+        }
+    }
+    
+    @Nested
+    @DisplayName("Tests de la instantánea por tick (FrameSnapshot)")
+    class FrameSnapshotTests {
+        
+        private GameLoop loop;
+        
+        @BeforeEach
+        void setUpSnapshot() {
+            testLevel.addEnemy(new Maceta(new Location(12, 12)));
+            testLevel.addFruit(new Banana(new Location(3, 3)));
+            testLevel.getMap().addCampfire(new Fogata(new Location(5, 9)));
+            
+            game.addLevel(testLevel);
+            game.startGame();
+            loop = new GameLoop(game);
+        }
+        
+        @Test
+        @DisplayName("Cada tick publica el estado del nivel en arreglos paralelos")
+        void testTickPublicaInstantanea() {
+            loop.submit(() -> game.movePlayer1(1, 0));
+            loop.tick();
+            
+            FrameSnapshot copia = new FrameSnapshot();
+            game.getFrameSnapshot().copyInto(copia);
+            
+            assertEquals(1, copia.getTick());
+            assertTrue(copia.hasPlayer(0));
+            assertFalse(copia.hasPlayer(1));
+            assertEquals(game.getPlayer1Info().x, copia.getPlayerX(0));
+            assertEquals(1, copia.getEnemyCount());
+            assertEquals(game.getAllEnemiesInfo().get(0).x, copia.getEnemyX(0));
+            assertEquals(1, copia.getFruitCount());
+            assertEquals(FrameSnapshot.FRUIT_BANANA, copia.getFruitKind(0));
+            assertEquals(FrameSnapshot.ENEMY_MACETA, copia.getEnemyKind(0));
+            assertEquals(1, copia.getObstacleCount());
+            assertTrue(copia.isCampfire(0));
+            assertEquals(15, copia.getMapWidth());
+            assertEquals(game.getCurrentMapGrid()[0][0], copia.getCell(0, 0));
+            assertEquals(game.getCurrentMapGrid()[7][7], copia.getCell(7, 7));
+        }
+        
+        @Test
+        @DisplayName("Se alternan dos instantáneas reutilizadas y se publica la más reciente")
+        void testDobleBufer() {
+            loop.tick();
+            FrameSnapshot primera = game.getFrameSnapshot();
+            loop.tick();
+            FrameSnapshot segunda = game.getFrameSnapshot();
+            loop.tick();
+            
+            assertTrue(primera != segunda, "Cada tick escribe en la instantánea no publicada");
+            assertTrue(game.getFrameSnapshot() == primera, "Solo hay dos instantáneas");
+            
+            FrameSnapshot copia = new FrameSnapshot();
+            game.getFrameSnapshot().copyInto(copia);
+            assertEquals(3, copia.getTick());
+            assertTrue(copia.getSerial() > segunda.getSerial());
+        }
+        
+        @Test
+        @DisplayName("La copia es consistente aunque la simulación publique a la vez")
+        void testCopiaConcurrente() throws InterruptedException {
+            game.publishFrame();
+            Thread simulacion = new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    synchronized (game) {
+                        game.publishFrame();
+                    }
+                }
+            });
+            simulacion.start();
+            FrameSnapshot copia = new FrameSnapshot();
+            while (simulacion.isAlive()) {
+                game.getFrameSnapshot().copyInto(copia);
+                assertEquals(1, copia.getEnemyCount());
+                assertEquals(15, copia.getMapHeight());
+            }
+            simulacion.join();
+        }
+        
+        @Test
+        @DisplayName("Solo se copia la región del mapa que cambió desde la copia anterior")
+        void testRegionCambiadaDelMapa() {
+            Map map = testLevel.getMap();
+            game.publishFrame();
+            FrameSnapshot copia = new FrameSnapshot();
+            game.getFrameSnapshot().copyInto(copia);
+            long anterior = copia.getMapVersion();
+            
+            map.addIceWall(9, 4);
+            map.addIceWall(10, 6);
+            game.publishFrame();
+            game.getFrameSnapshot().copyInto(copia);
+            
+            assertEquals(anterior, copia.getMapDirtySince());
+            assertEquals(9, copia.getMapDirtyMinX());
+            assertEquals(4, copia.getMapDirtyMinY());
+            assertEquals(10, copia.getMapDirtyMaxX());
+            assertEquals(6, copia.getMapDirtyMaxY());
+            assertEquals(Map.ICE, copia.getCell(9, 4));
+            assertEquals(Map.ICE, copia.getCell(10, 6));
+            
+            // Un lector que se saltó una captura recibe el mapa completo
+            FrameSnapshot atrasada = new FrameSnapshot();
+            game.getFrameSnapshot().copyInto(atrasada);
+            map.removeIceWall(9, 4);
+            game.publishFrame();
+            map.addIceWall(3, 12);
+            game.publishFrame();
+            game.getFrameSnapshot().copyInto(atrasada);
+            assertEquals(Map.EMPTY, atrasada.getCell(9, 4));
+            assertEquals(Map.ICE, atrasada.getCell(3, 12));
+            assertEquals(Map.ICE, atrasada.getCell(10, 6));
+        }
+    }
+    
+    @Nested
+    @DisplayName("Tests del simulador de partidas con IA")
+    class SelfPlaySimulatorTests {
+        
+        @Test
+        @DisplayName("Una partida simulada termina y reporta sus frutas y ticks")
+        void testPartidaSimulada() {
+            GameResult resultado = new SelfPlaySimulator(1, IceCreamAI.AIProfile.EXPERT).playGame();
+            
+            assertTrue(resultado.won || resultado.died || resultado.ticks == 360,
+                "Termina al ganar, morir o agotar los 180 s");
+            assertTrue(resultado.ticks > 0 && resultado.ticks <= 360);
+            assertEquals(8, resultado.totalFruits);
+            assertTrue(resultado.fruitsCollected <= resultado.totalFruits);
+        }
+        
+        @Test
+        @DisplayName("El lote en paralelo juega exactamente las partidas pedidas")
+        void testLoteEnParalelo() {
+            SimulationReport reporte = new SelfPlaySimulator(2, IceCreamAI.AIProfile.HUNGRY).run(50, 4);
+            
+            assertEquals(50, reporte.getGames());
+            assertTrue(reporte.getWins() + reporte.getDeaths() <= 50);
+            assertTrue(reporte.getWinRate() >= 0 && reporte.getWinRate() <= 1);
+            assertTrue(reporte.getAverageTicks() > 0);
+            assertTrue(reporte.getGamesPerSecond() > 0);
+        }
+        
+        @Test
+        @DisplayName("Los reportes se combinan sumando sus partidas")
+        void testCombinarReportes() {
+            SimulationReport ganada = SimulationReport.of(new GameResult(true, false, 8, 8, 100, 800, 1L));
+            SimulationReport perdida = SimulationReport.of(new GameResult(false, true, 2, 8, 20, 200, 2L));
+            SimulationReport total = SimulationReport.EMPTY.merge(ganada).merge(perdida);
+            
+            assertEquals(2, total.getGames());
+            assertEquals(0.5, total.getWinRate());
+            assertEquals(1, total.getDeaths());
+            assertEquals(5.0, total.getAverageFruits());
+            assertEquals(60.0, total.getAverageTicks());
+        }
+        
+        @Test
+        @DisplayName("La misma semilla repite exactamente la partida")
+        void testPartidaReproducible() {
+            SelfPlaySimulator simulador = new SelfPlaySimulator(3, IceCreamAI.AIProfile.EXPERT);
+            
+            for(long semilla = 1; semilla <= 5; semilla++){
+                GameResult primera = simulador.playGame(semilla);
+                GameResult segunda = simulador.playGame(semilla);
+                assertEquals(primera.ticks, segunda.ticks);
+                assertEquals(primera.fruitsCollected, segunda.fruitsCollected);
+                assertEquals(primera.score, segunda.score);
+                assertEquals(primera.won, segunda.won);
+                assertEquals(semilla, primera.seed);
+            }
+        }
+        
+        @Test
+        @DisplayName("El lote con semilla da el mismo reporte con cualquier número de hilos")
+        void testLoteReproducible() {
+            SelfPlaySimulator simulador = new SelfPlaySimulator(2, IceCreamAI.AIProfile.HUNGRY,
+                GameLoop.DEFAULT_TICK_MILLIS, 42L);
+            SimulationReport unHilo = simulador.run(20, 1);
+            SimulationReport cuatroHilos = simulador.run(20, 4);
+            
+            assertEquals(unHilo.getWins(), cuatroHilos.getWins());
+            assertEquals(unHilo.getTicks(), cuatroHilos.getTicks());
+            assertEquals(unHilo.getFruitsCollected(), cuatroHilos.getFruitsCollected());
+        }
+        
+        @Test
+        @DisplayName("El simulador rechaza niveles no implementados")
+        void testNivelInvalido() {
+            assertThrows(IllegalArgumentException.class,
+                () -> new SelfPlaySimulator(BadDopoCream.PLAYABLE_LEVELS + 1, IceCreamAI.AIProfile.EXPERT));
+        }
+    }
+    
+    @Nested
+    @DisplayName("Tests de repeticiones (grabación y reproducción)")
+    class ReplayTests {
+        
+        private Replay roundTrip(Replay replay) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            replay.write(bytes);
+            return Replay.read(new ByteArrayInputStream(bytes.toByteArray()));
+        }
+        
+        @Test
+        @DisplayName("Una partida grabada se reproduce exactamente igual")
+        void testReproduccionExacta() throws IOException {
+            for(int nivel = 1; nivel <= BadDopoCream.PLAYABLE_LEVELS; nivel++){
+                SelfPlaySimulator simulador = new SelfPlaySimulator(nivel, IceCreamAI.AIProfile.EXPERT);
+                GameResult original = simulador.playGame(nivel * 31L);
+                Replay replay = roundTrip(simulador.recordGame(nivel * 31L));
+                GameResult reproducida = ReplayPlayer.play(replay);
+                
+                assertEquals(original.ticks, reproducida.ticks, "Nivel " + nivel);
+                assertEquals(original.fruitsCollected, reproducida.fruitsCollected, "Nivel " + nivel);
+                assertEquals(original.score, reproducida.score, "Nivel " + nivel);
+                assertEquals(original.won, reproducida.won, "Nivel " + nivel);
+                assertEquals(original.died, reproducida.died, "Nivel " + nivel);
+            }
+        }
+        
+        @Test
+        @DisplayName("Las acciones se codifican en 2 bytes y se leen en orden")
+        void testCodificacionAcciones() throws IOException {
+            BadDopoCream juego = new BadDopoCream();
+            juego.setClock(new TickClock());
+            juego.addLevel(LevelConfigurator.createLevel(1, new IceCream("P", "vanilla", Location.of(1, 1)), null, 5L));
+            juego.startGame();
+            juego.movePlayer1(1, 0); // Sin grabar
+            
+            juego.startRecording(GameLoop.DEFAULT_TICK_MILLIS);
+            juego.movePlayer1(0, -1);
+            juego.update();
+            juego.update();
+            juego.createIceLinePlayer1(1, 0);
+            juego.breakIceLinePlayer1(5, -7); // Dirección fuera de [-1, 1]
+            Replay replay = roundTrip(juego.stopRecording());
+            
+            assertFalse(juego.isRecording());
+            assertEquals(2, replay.getTicks());
+            assertEquals(5L, replay.getSeed());
+            Replay.Cursor acciones = replay.actions();
+            assertTrue(acciones.next());
+            assertEquals(Replay.MOVE_PLAYER1, acciones.getAction());
+            assertEquals(0, acciones.getTick());
+            assertEquals(-1, acciones.getDy());
+            assertTrue(acciones.next());
+            assertEquals(Replay.CREATE_ICE_PLAYER1, acciones.getAction());
+            assertEquals(2, acciones.getTick());
+            assertTrue(acciones.next());
+            assertEquals(Replay.BREAK_ICE_PLAYER1, acciones.getAction());
+            assertEquals(5, acciones.getDx());
+            assertEquals(-7, acciones.getDy());
+            assertFalse(acciones.next());
+            assertEquals(2 + 2 + 4, replay.getActionBytes()); // Con escape: 2 bytes más para dx y dy
+        }
+        
+        @Test
+        @DisplayName("Grabar exige un reloj por ticks")
+        void testGrabarSinTickClock() {
+            game.addLevel(testLevel);
+            game.startGame();
+            
+            assertThrows(IllegalStateException.class, () -> game.startRecording(GameLoop.DEFAULT_TICK_MILLIS));
+            assertNull(game.stopRecording());
+        }
+        
+        @Test
+        @DisplayName("Un archivo que no es una repetición se rechaza")
+        void testRepeticionCorrupta() {
+            byte[] basura = {1, 2, 3, 4, 5, 6, 7, 8};
+            assertThrows(IOException.class, () -> Replay.read(new ByteArrayInputStream(basura)));
+        }
+    }
 }
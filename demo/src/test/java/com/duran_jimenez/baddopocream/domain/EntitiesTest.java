@@ -4,6 +4,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -102,6 +104,25 @@ class EntitiesTest {
             assertEquals(5, loc.getY());
         }
         
+        @Test
+        @DisplayName("Location.of reutiliza las celdas del tablero")
+        void testLocationCache() {
+            assertSame(Location.of(3, 4), Location.of(3, 4));
+            assertSame(Location.of(3, 4), Location.of(2, 4).move(1, 0));
+            assertEquals(new Location(-1, 200), Location.of(-1, 200));
+        }
+
+        @Test
+        @DisplayName("Location.pack y unpack conservan coordenadas con signo")
+        void testEmpaquetar() {
+            int packed = Location.pack(-1, 7);
+            assertEquals(-1, Location.unpackX(packed));
+            assertEquals(7, Location.unpackY(packed));
+            assertEquals(0, Location.unpackX(Location.pack(0, -1)));
+            assertEquals(-1, Location.unpackY(Location.pack(0, -1)));
+            assertEquals(new Location(12, 5), Location.ofPacked(new Location(12, 5).pack()));
+        }
+
         @Test
         @DisplayName("Location.equals funciona correctamente")
         void testEqualsLocation() {
@@ -372,5 +393,498 @@ class EntitiesTest {
             assertNotNull(grid);
             assertEquals(10, grid.length);
         }
+
+        @Test
+        @DisplayName("El grid se mantiene al día con los cambios de celda")
+        void testGridActualizado() {
+            int[][] grid = map.getGrid();
+            map.addWall(new Location(2, 7));
+            map.addIceWall(new Location(7, 2));
+
+            assertEquals(Map.WALL, grid[2][7]);
+            assertEquals(Map.ICE, grid[7][2]);
+            assertEquals(Map.ICE, map.getCellType(7, 2));
+            assertEquals(-1, map.getCellType(10, 0));
+        }
+
+        @Test
+        @DisplayName("Baldosas calientes y fogatas se consultan por celda")
+        void testObstaculosPorCelda() {
+            Fogata campfire = new Fogata(new Location(4, 4));
+            map.addCampfire(campfire);
+            map.addHotTile(new BaldosaCaliente(new Location(1, 8)));
+
+            assertTrue(map.isHotTile(new Location(1, 8)));
+            assertFalse(map.isHotTile(new Location(8, 1)));
+            assertSame(campfire, map.getCampfireAt(new Location(4, 4)));
+            assertNull(map.getCampfireAt(new Location(4, 5)));
+        }
+
+        @Test
+        @DisplayName("Los tramos libres se detienen en paredes, hielo y bordes")
+        void testTramoLibre() {
+            map.addWall(new Location(7, 3));
+            map.addIceWall(new Location(0, 3));
+
+            assertEquals(3, map.freeRunLength(3, 3, 1, 0));
+            assertEquals(2, map.freeRunLength(3, 3, -1, 0));
+            assertEquals(3, map.freeRunLength(3, 3, 0, -1));
+            assertEquals(6, map.freeRunLength(3, 3, 0, 1));
+            assertEquals(0, map.freeRunLength(9, 5, 1, 0), "El borde de la fila corta el tramo");
+        }
+
+        @Test
+        @DisplayName("La máscara de celdas transitables excluye paredes y hielo")
+        void testMascaraTransitable() {
+            map.addWall(new Location(0, 0));
+            map.addIceWall(new Location(9, 9));
+            long[] mask = new long[map.getMaskWords()];
+            map.copyPassableMask(mask);
+
+            int passable = 0;
+            for (long word : mask) {
+                passable += Long.bitCount(word);
+            }
+            assertEquals(98, passable);
+            assertEquals(1, map.countIceWalls());
+        }
+    }
+    
+    // ===================== TESTS DE OCUPACIÓN =====================
+    
+    @Nested
+    @DisplayName("Tests de OccupancyGrid")
+    class OccupancyGridTests {
+        
+        private OccupancyGrid grid;
+        
+        @BeforeEach
+        void setUp() {
+            grid = new OccupancyGrid(10, 10);
+        }
+        
+        @Test
+        @DisplayName("Varias entidades comparten celda y se recorren todas")
+        void testVariasPorCelda() {
+            int a = grid.add(new Location(3, 3));
+            int b = grid.add(new Location(3, 3));
+            grid.add(new Location(4, 3));
+            
+            int count = 0;
+            for (int id = grid.first(3, 3); id != OccupancyGrid.NONE; id = grid.next(id)) {
+                assertTrue(id == a || id == b);
+                count++;
+            }
+            assertEquals(2, count);
+            assertTrue(grid.isOccupiedByOther(a, 3, 3));
+        }
+        
+        @Test
+        @DisplayName("Mover y quitar actualizan las celdas")
+        void testMoverYQuitar() {
+            int a = grid.add(new Location(1, 1));
+            grid.update(a, 2, 1);
+            
+            assertFalse(grid.isOccupied(1, 1));
+            assertTrue(grid.isOccupied(new Location(2, 1)));
+            assertFalse(grid.isOccupiedByOther(a, 2, 1));
+            
+            grid.remove(a);
+            assertFalse(grid.isOccupied(2, 1));
+            assertEquals(1, grid.size(), "El id sigue reservado");
+        }
+        
+        @Test
+        @DisplayName("Las posiciones fuera del mapa no ocupan celda")
+        void testFueraDelMapa() {
+            int a = grid.add(new Location(-1, 4));
+            assertEquals(OccupancyGrid.NONE, grid.first(-1, 4));
+            
+            grid.update(a, 0, 4);
+            assertEquals(a, grid.first(0, 4));
+        }
+    }
+    
+    // ===================== TESTS DE PATHFINDER =====================
+    
+    @Nested
+    @DisplayName("Tests de PathFinder")
+    class PathFinderTests {
+        
+        private Map map;
+        
+        @BeforeEach
+        void setUp() {
+            map = new Map(10, 10);
+            // Muro vertical en x=5 con un hueco en y=8
+            for (int y = 0; y < 10; y++) {
+                if (y != 8) {
+                    map.addWall(new Location(5, y));
+                }
+            }
+        }
+        
+        private Location follow(Location start, java.util.List<int[]> path) {
+            Location current = start;
+            for (int[] step : path) {
+                assertEquals(1, Math.abs(step[0]) + Math.abs(step[1]), "Cada paso es a una celda vecina");
+                current = current.move(step[0], step[1]);
+            }
+            return current;
+        }
+        
+        @Test
+        @DisplayName("Encuentra el camino más corto rodeando paredes")
+        void testCaminoMasCorto() {
+            Location start = new Location(2, 2);
+            Location goal = new Location(8, 2);
+            
+            java.util.List<int[]> path = PathFinder.findPath(start, goal, map, null);
+            
+            // 6 pasos hasta y=8, 6 en x y 6 de vuelta
+            assertEquals(18, path.size());
+            assertEquals(goal, follow(start, path));
+        }
+        
+        @Test
+        @DisplayName("Respeta las posiciones a evitar")
+        void testEvitaPosiciones() {
+            java.util.List<int[]> path = PathFinder.findPath(new Location(2, 2), new Location(8, 2), map,
+                java.util.List.of(new Location(5, 8)));
+            
+            assertTrue(path.isEmpty(), "El único hueco está bloqueado");
+        }
+        
+        @Test
+        @DisplayName("Con hielo rompible atraviesa el hielo y lo marca")
+        void testCaminoRompiendoHielo() {
+            map.addIceWall(new Location(5, 2));
+            Location start = new Location(2, 2);
+            Location goal = new Location(8, 2);
+            
+            assertEquals(18, PathFinder.findPath(start, goal, map, null).size());
+            
+            java.util.List<int[]> path = PathFinder.findPathWithIceBreaking(start, goal, map, null, null);
+            assertEquals(6, path.size());
+            assertEquals(goal, follow(start, path));
+            assertEquals(1, path.get(2)[2], "El tercer paso entra al hielo");
+            assertEquals(0, path.get(0)[2]);
+        }
+        
+        @Test
+        @DisplayName("Las búsquedas sucesivas en mapas distintos no se contaminan")
+        void testReutilizacionEntreMapas() {
+            Map grande = new Map(40, 30);
+            assertEquals(60, PathFinder.findPath(new Location(0, 0), new Location(39, 21), grande, null).size());
+            assertEquals(18, PathFinder.findPath(new Location(2, 2), new Location(8, 2), map, null).size());
+            assertTrue(PathFinder.findPath(new Location(2, 2), new Location(5, 3), map, null).isEmpty());
+            assertTrue(PathFinder.findPath(new Location(2, 2), new Location(2, 2), map, null).isEmpty());
+        }
+    }
+    
+    // ===================== TESTS DE FLOWFIELD =====================
+    
+    @Nested
+    @DisplayName("Tests de FlowField")
+    class FlowFieldTests {
+        
+        private Map map;
+        
+        @BeforeEach
+        void setUp() {
+            map = new Map(10, 10);
+            // Muro vertical en x=5 con un hueco en y=8
+            for (int y = 0; y < 10; y++) {
+                if (y != 8) {
+                    map.addWall(new Location(5, y));
+                }
+            }
+        }
+        
+        @Test
+        @DisplayName("Las distancias coinciden con el camino más corto rodeando paredes")
+        void testDistancias() {
+            FlowField field = new FlowField(map, false);
+            field.addSource(new Location(8, 2));
+            
+            assertEquals(0, field.getDistance(8, 2));
+            assertEquals(18, field.getDistance(new Location(2, 2)));
+            assertEquals(FlowField.UNREACHABLE, field.getDistance(5, 2), "Las paredes no son alcanzables");
+            assertEquals(1, field.getComputations(), "Se calcula una sola vez para todas las consultas");
+        }
+        
+        @Test
+        @DisplayName("Seguir el campo lleva al jugador en tantos pasos como su distancia")
+        void testSeguirCampo() {
+            FlowField field = new FlowField(map, false);
+            field.addSource(new Location(8, 2));
+            
+            Location current = new Location(2, 2);
+            int steps = 0;
+            int[] step;
+            while ((step = field.getNextStep(current)) != null) {
+                current = current.move(step[0], step[1]);
+                assertTrue(map.isValidPosition(current));
+                steps++;
+            }
+            assertEquals(new Location(8, 2), current);
+            assertEquals(18, steps);
+        }
+        
+        @Test
+        @DisplayName("Con dos jugadores cada celda apunta al más cercano por camino")
+        void testMultiplesOrigenes() {
+            FlowField field = new FlowField(map, false);
+            field.addSource(new Location(8, 2));
+            field.addSource(new Location(0, 0));
+            
+            assertEquals(4, field.getDistance(2, 2));
+            assertEquals(2, field.getDistance(8, 4));
+            
+            field.clearSources();
+            field.addSource(new Location(8, 2));
+            assertEquals(18, field.getDistance(2, 2), "Quitar un origen repara las celdas que dependían de él");
+        }
+        
+        @Test
+        @DisplayName("El campo con hielo lo atraviesa con su costo")
+        void testCampoConHielo() {
+            map.addIceWall(new Location(3, 2));
+            FlowField walk = new FlowField(map, false);
+            FlowField ice = new FlowField(map, true);
+            walk.addSource(new Location(0, 2));
+            ice.addSource(new Location(0, 2));
+            
+            // A pie rodea el hielo por arriba o abajo
+            assertEquals(6, walk.getDistance(4, 2));
+            // Rompiendo: 3 pasos libres más el hielo (costo 3)
+            assertEquals(6, ice.getDistance(4, 2));
+            assertEquals(FlowField.UNREACHABLE, walk.getDistance(3, 2));
+            // Desde el propio hielo solo quedan las celdas libres hasta el jugador
+            assertEquals(3, ice.getDistance(3, 2));
+        }
+        
+        @Test
+        @DisplayName("Los calamares de un nivel comparten un único cálculo por tick")
+        void testCalculoCompartidoPorTick() {
+            Level level = new Level(1, 10, 10);
+            level.setPlayer(new IceCream("TestPlayer", "strawberry", new Location(0, 0)));
+            Location[] starts = {new Location(9, 9), new Location(9, 0), new Location(0, 9), new Location(5, 5)};
+            CalamarNaranja[] calamares = new CalamarNaranja[starts.length];
+            for (int i = 0; i < starts.length; i++) {
+                calamares[i] = new CalamarNaranja(starts[i]);
+                level.addEnemy(calamares[i]);
+            }
+            
+            level.moveEnemies();
+            
+            assertEquals(1, level.getIceFlowField().getComputations());
+            assertEquals(0, level.getPlayerFlowField().getComputations(), "Ningún enemigo usa el campo sin hielo");
+            for (int i = 0; i < starts.length; i++) {
+                Location loc = calamares[i].getLocation();
+                assertEquals(starts[i].getX() + starts[i].getY() - 1, loc.getX() + loc.getY(),
+                    "Cada calamar se acerca un paso al jugador");
+            }
+            
+            level.moveEnemies();
+            assertEquals(1, level.getIceFlowField().getComputations(), "Sin cambios de jugador ni de mapa se reutiliza");
+            
+            level.getPlayer().setLocation(new Location(1, 0));
+            level.moveEnemies();
+            assertEquals(2, level.getIceFlowField().getComputations(), "Con un solo jugador todo el campo depende de él");
+        }
+        
+        @Test
+        @DisplayName("El calamar rompe el hielo que el campo indica atravesar")
+        void testCalamarRompeHielo() {
+            Level level = new Level(1, 10, 1);
+            level.setPlayer(new IceCream("TestPlayer", "strawberry", new Location(0, 0)));
+            level.getMap().addIceWall(new Location(3, 0));
+            CalamarNaranja calamar = new CalamarNaranja(new Location(4, 0));
+            level.addEnemy(calamar);
+            
+            level.moveEnemies();
+            
+            assertEquals(new Location(3, 0), calamar.getLocation());
+            assertFalse(level.getMap().hasIceWall(new Location(3, 0)));
+        }
+
+        @Test
+        @DisplayName("Cerrar o abrir el hueco con hielo repara el campo sin recalcularlo")
+        void testReparacionIncremental() {
+            FlowField field = new FlowField(map, false);
+            field.addSource(new Location(8, 2));
+            assertEquals(18, field.getDistance(2, 2));
+
+            map.addIceWall(new Location(5, 8));
+            assertEquals(FlowField.UNREACHABLE, field.getDistance(2, 2), "Sin hueco el otro lado queda aislado");
+
+            map.removeIceWall(new Location(5, 8));
+            assertEquals(18, field.getDistance(2, 2));
+            assertEquals(1, field.getComputations(), "Los cambios de terreno no recalculan el campo");
+            assertEquals(2, field.getRepairs());
+        }
+
+        @Test
+        @DisplayName("La reparación coincide con un cálculo completo y solo toca la zona afectada")
+        void testReparacionCoincideConCalculo() {
+            FlowField field = new FlowField(map, true);
+            field.addSource(new Location(8, 2));
+            field.getDistance(0, 0);
+
+            map.addIceWall(new Location(7, 2));
+            map.addIceWall(new Location(2, 8));
+            map.removeIceWall(new Location(7, 2));
+            map.addIceWall(new Location(6, 5));
+
+            FlowField fresh = new FlowField(map, true);
+            fresh.addSource(new Location(8, 2));
+            for (int x = 0; x < 10; x++) {
+                for (int y = 0; y < 10; y++) {
+                    assertEquals(fresh.getDistance(x, y), field.getDistance(x, y), "Celda " + x + "," + y);
+                }
+            }
+            assertEquals(1, field.getComputations());
+            assertTrue(field.getRepairedCells() < 100, "Solo se reevalúan las celdas que dependen de los cambios");
+        }
+
+        @Test
+        @DisplayName("Mover un jugador repara solo las celdas que estaban más cerca de él")
+        void testOrigenMovido() {
+            Map abierto = new Map(15, 15);
+            FlowField field = new FlowField(abierto, false);
+            field.addSource(new Location(7, 7));
+            field.addSource(new Location(1, 1));
+            field.getDistance(0, 0);
+
+            field.clearSources();
+            field.addSource(new Location(7, 7));
+            field.addSource(new Location(2, 1));
+            field.getDistance(0, 0);
+            long relajadas = field.getRepairedCells();
+
+            FlowField fresh = new FlowField(abierto, false);
+            fresh.addSource(new Location(7, 7));
+            fresh.addSource(new Location(2, 1));
+            for (int x = 0; x < 15; x++) {
+                for (int y = 0; y < 15; y++) {
+                    assertEquals(fresh.getDistance(x, y), field.getDistance(x, y), "Celda " + x + "," + y);
+                }
+            }
+            assertEquals(1, field.getComputations(), "Mover un origen no recalcula el campo");
+            assertEquals(1, field.getRepairs());
+            assertTrue(relajadas < 225 / 3, "Solo se reevalúa la zona del jugador que se movió");
+        }
+
+        @Test
+        @DisplayName("Un campo desconectado del mapa vuelve a recalcular")
+        void testCampoDesconectado() {
+            FlowField field = new FlowField(map, false);
+            field.addSource(new Location(8, 2));
+            field.getDistance(0, 0);
+            field.detach();
+
+            map.addIceWall(new Location(5, 8));
+            assertEquals(FlowField.UNREACHABLE, field.getDistance(2, 2));
+            assertEquals(2, field.getComputations());
+        }
+    }
+    
+    // ===================== TESTS DE CACHÉ DE CAMINOS =====================
+    
+    @Nested
+    @DisplayName("Tests de versión del mapa y caché de caminos")
+    class PathCacheTests {
+        
+        private Map map;
+        
+        @BeforeEach
+        void setUp() {
+            map = new Map(10, 10);
+            PathFinder.clearCache();
+        }
+        
+        @Test
+        @DisplayName("La versión solo cambia cuando cambia una celda")
+        void testVersionMapa() {
+            long inicial = map.getVersion();
+            map.removeIceWall(new Location(3, 3));
+            assertEquals(inicial, map.getVersion(), "Quitar hielo inexistente no cambia nada");
+            
+            map.addIceWall(new Location(3, 3));
+            long conHielo = map.getVersion();
+            assertTrue(conHielo > inicial);
+            map.addIceWall(new Location(3, 3));
+            assertEquals(conHielo, map.getVersion());
+            
+            map.removeIceWall(new Location(3, 3));
+            assertTrue(map.getVersion() > conHielo);
+            assertNotEquals(map.getVersion(), new Map(10, 10).getVersion(), "Dos mapas nunca comparten versión");
+        }
+        
+        @Test
+        @DisplayName("La región modificada abarca las celdas cambiadas")
+        void testRegionModificada() {
+            map.addWall(new Location(2, 7));
+            map.addIceWall(new Location(6, 1));
+            
+            int[] region = map.getDirtyRegion();
+            assertNotNull(region);
+            assertEquals(2, region[0]);
+            assertEquals(1, region[1]);
+            assertEquals(6, region[2]);
+            assertEquals(7, region[3]);
+            
+            map.clearDirtyRegion();
+            assertEquals(null, map.getDirtyRegion());
+        }
+        
+        @Test
+        @DisplayName("Repetir la búsqueda con el mapa intacto usa la caché")
+        void testAciertoCache() {
+            Location start = new Location(0, 0);
+            Location goal = new Location(9, 9);
+            
+            java.util.List<int[]> first = PathFinder.findPath(start, goal, map, null);
+            java.util.List<int[]> second = PathFinder.findPath(start, goal, map, java.util.List.of());
+            
+            assertEquals(1, PathFinder.getCacheMisses());
+            assertEquals(1, PathFinder.getCacheHits());
+            assertEquals(first.size(), second.size());
+            
+            second.get(0)[0] = 99;
+            assertNotEquals(99, PathFinder.findPath(start, goal, map, null).get(0)[0],
+                "Modificar el camino devuelto no altera la caché");
+        }
+        
+        @Test
+        @DisplayName("Crear o romper hielo invalida los caminos guardados")
+        void testInvalidacionPorHielo() {
+            Location start = new Location(0, 0);
+            Location goal = new Location(0, 9);
+            assertEquals(9, PathFinder.findPath(start, goal, map, null).size());
+            
+            map.addIceWall(new Location(0, 5));
+            assertEquals(11, PathFinder.findPath(start, goal, map, null).size());
+            assertEquals(2, PathFinder.getCacheMisses());
+            
+            map.removeIceWall(new Location(0, 5));
+            assertEquals(9, PathFinder.findPath(start, goal, map, null).size());
+            assertEquals(3, PathFinder.getCacheMisses());
+            assertEquals(0, PathFinder.getCacheHits());
+        }
+        
+        @Test
+        @DisplayName("Las posiciones a evitar forman parte de la clave")
+        void testClaveConPosicionesEvitar() {
+            Location start = new Location(0, 0);
+            Location goal = new Location(0, 9);
+            PathFinder.findPath(start, goal, map, java.util.List.of(new Location(0, 5), new Location(1, 1)));
+            PathFinder.findPath(start, goal, map, java.util.List.of(new Location(1, 1), new Location(0, 5)));
+            PathFinder.findPath(start, goal, map, java.util.List.of(new Location(0, 4)));
+            
+            assertEquals(1, PathFinder.getCacheHits(), "El orden de la lista no importa");
+            assertEquals(2, PathFinder.getCacheMisses());
+        }
     }
 }
@@ -147,6 +147,63 @@ class LevelTest {
         assertFalse(level.getMap().hasIceWall(icePos));
     }
     
+    @Test
+    @DisplayName("La línea de hielo se detiene en la pared y se derrite sobre baldosas calientes")
+    void testLineaDeHielo() {
+        level.getMap().addHotTile(new BaldosaCaliente(new Location(7, 5)));
+        level.createIceLine(1, 0);
+        
+        assertTrue(level.getMap().hasIceWall(new Location(6, 5)));
+        assertFalse(level.getMap().hasIceWall(new Location(7, 5)), "Sobre la baldosa caliente no queda hielo");
+        assertTrue(level.getMap().hasIceWall(new Location(8, 5)));
+        assertTrue(level.getMap().isWall(new Location(9, 5)));
+    }
+    
+    @Test
+    @DisplayName("Recolectar una fruta la saca del índice de ocupación")
+    void testRecolectarConIndice() {
+        Banana banana = new Banana(new Location(6, 5));
+        level.addFruit(banana);
+        level.addFruit(new Banana(new Location(2, 2)));
+        
+        assertTrue(level.getFruitOccupancy().isOccupied(6, 5));
+        level.movePlayer(1, 0);
+        
+        assertTrue(banana.isCollected());
+        assertFalse(level.getFruitOccupancy().isOccupied(6, 5));
+        assertEquals(1, level.getCollectedFruits());
+    }
+    
+    @Test
+    @DisplayName("Dos enemigos no terminan en la misma celda")
+    void testEnemigosNoSeSuperponen() {
+        level.addWall(new Location(4, 5));
+        Maceta first = new Maceta(new Location(3, 5));
+        Maceta second = new Maceta(new Location(2, 5));
+        level.addEnemy(first);
+        level.addEnemy(second);
+        
+        level.moveEnemies();
+        
+        assertEquals(new Location(3, 5), first.getLocation(), "La pared bloquea a la primera maceta");
+        assertEquals(new Location(2, 5), second.getLocation(), "La celda de la primera ya está ocupada");
+        assertTrue(level.getEnemyOccupancy().isOccupied(3, 5));
+        assertTrue(level.getEnemyOccupancy().isOccupied(2, 5));
+    }
+    
+    @Test
+    @DisplayName("El índice se resincroniza si la lista de enemigos cambia desde fuera")
+    void testIndiceEnemigosExterno() {
+        Maceta maceta = new Maceta(new Location(7, 5));
+        level.addEnemy(maceta);
+        level.getEnemies().clear();
+        
+        level.createIceLine(1, 0);
+        
+        assertTrue(level.getMap().hasIceWall(new Location(7, 5)), "El enemigo quitado ya no bloquea el hielo");
+        assertEquals(0, level.getEnemyOccupancy().size());
+    }
+    
     @Test
     @DisplayName("Puntajes iniciales son cero")
     void testPuntajesIniciales() {
@@ -173,4 +230,70 @@ class LevelTest {
         int tiempo = level.getRemainingSeconds();
         assertTrue(tiempo > 0);
     }
+    
+    @Test
+    @DisplayName("Con un TickClock el tiempo del nivel avanza solo por ticks")
+    void testTiempoConTickClock() {
+        TickClock clock = new TickClock();
+        level.setClock(clock);
+        // setClock conserva el tiempo de pared ya transcurrido desde setUp(): empezar en cero
+        level.resetTimer();
+        
+        assertEquals(180, level.getRemainingSeconds());
+        clock.advance(60000);
+        assertEquals(120, level.getRemainingSeconds());
+        
+        // En pausa el reloj no avanza
+        level.pause();
+        clock.advance(60000);
+        assertEquals(120, level.getRemainingSeconds());
+        
+        level.resume();
+        clock.advance(120000);
+        assertTrue(level.isTimeExpired());
+    }
+    
+    @Test
+    @DisplayName("La fogata se reenciende con el reloj del nivel")
+    void testFogataConTickClock() {
+        TickClock clock = new TickClock();
+        level.setClock(clock);
+        Fogata fogata = new Fogata(new Location(3, 3));
+        level.getMap().addCampfire(fogata);
+        
+        fogata.extinguish();
+        clock.advance(9000);
+        assertFalse(fogata.isLit());
+        assertEquals(1, fogata.getSecondsUntilRelight());
+        
+        // El reencendido lo dispara la rueda de temporizadores del nivel
+        clock.advance(1000);
+        assertFalse(fogata.isLit());
+        assertEquals(1, level.updateTimers());
+        assertTrue(fogata.isLit());
+        assertEquals(0, level.getPendingTimers());
+    }
+    
+    @Test
+    @DisplayName("Los eventos temporizados se notifican al dispararse")
+    void testEventosTemporizados() {
+        TickClock clock = new TickClock();
+        level.setClock(clock);
+        Cactus cactus = new Cactus(new Location(2, 2));
+        level.addFruit(cactus);
+        java.util.List<TimedEvent> eventos = new java.util.ArrayList<>();
+        level.addTimedEventListener((evento, ubicacion) -> eventos.add(evento));
+        
+        clock.advance(29900);
+        assertEquals(0, level.updateTimers());
+        assertFalse(cactus.hasSpikes());
+        
+        // Un salto largo dispara también los cambios reprogramados dentro del salto
+        clock.advance(60100);
+        assertEquals(3, level.updateTimers());
+        assertTrue(cactus.hasSpikes());
+        assertEquals(java.util.List.of(TimedEvent.CACTUS_SPIKES_CHANGED,
+            TimedEvent.CACTUS_SPIKES_CHANGED, TimedEvent.CACTUS_SPIKES_CHANGED), eventos);
+        assertEquals(1, level.getPendingTimers());
+    }
 }